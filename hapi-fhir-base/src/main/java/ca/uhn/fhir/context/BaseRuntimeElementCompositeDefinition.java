@@ -177,6 +177,12 @@ public abstract class BaseRuntimeElementCompositeDefinition<T extends IBase> ext
 
 	@SuppressWarnings("unchecked")
 	void populateScanAlso(Set<Class<? extends IBase>> theScanAlso) {
+		/*
+		 * Resource types which are only referenced (e.g. the target types of a
+		 * reference) are scanned when they are first used if lazy loading is enabled
+		 */
+		boolean scanReferencedResourceTypes = !myContext.getPerformanceOptions().contains(PerformanceOptionsEnum.LAZY_RESOURCE_TYPE_LOADING);
+
 		for (ScannedField next : myScannedFields) {
 			if (IBase.class.isAssignableFrom(next.getElementType())) {
 				if (next.getElementType().isInterface() == false && Modifier.isAbstract(next.getElementType().getModifiers()) == false) {
@@ -185,7 +191,9 @@ public abstract class BaseRuntimeElementCompositeDefinition<T extends IBase> ext
 			}
 			for (Class<? extends IBase> nextChildType : next.getChoiceTypes()) {
 				if (nextChildType.isInterface() == false && Modifier.isAbstract(nextChildType.getModifiers()) == false) {
-					theScanAlso.add(nextChildType);
+					if (scanReferencedResourceTypes || !IBaseResource.class.isAssignableFrom(nextChildType)) {
+						theScanAlso.add(nextChildType);
+					}
 				}
 			}
 		}
@@ -18,6 +18,7 @@ import ca.uhn.fhir.parser.JsonParser;
 import ca.uhn.fhir.parser.LenientErrorHandler;
 import ca.uhn.fhir.parser.NDJsonParser;
 import ca.uhn.fhir.parser.RDFParser;
+import ca.uhn.fhir.parser.SmileParser;
 import ca.uhn.fhir.parser.XmlParser;
 import ca.uhn.fhir.rest.api.IVersionSpecificBundleFactory;
 import ca.uhn.fhir.rest.client.api.IBasicClient;
@@ -117,11 +118,16 @@ public class FhirContext {
 	private volatile Map<String, BaseRuntimeElementDefinition<?>> myNameToElementDefinition = Collections.emptyMap();
 	private volatile Map<String, RuntimeResourceDefinition> myNameToResourceDefinition = Collections.emptyMap();
 	private volatile Map<String, Class<? extends IBaseResource>> myNameToResourceType;
+	private volatile Map<String, String> myNameToResourceTypeName = Collections.emptyMap();
+	private volatile ModelScanner.VersionTypes myVersionTypes;
+	private volatile RuntimeChildAny.ChoiceTypes myAnyChoiceTypes;
 	private volatile INarrativeGenerator myNarrativeGenerator;
 	private volatile IParserErrorHandler myParserErrorHandler = new LenientErrorHandler();
 	private ParserOptions myParserOptions = new ParserOptions();
 	private volatile IRestfulClientFactory myRestfulClientFactory;
 	private volatile RuntimeChildUndeclaredExtensionDefinition myRuntimeChildUndeclaredExtensionDefinition;
+	private volatile FhirTerser myTerser;
+	private volatile IFhirPath myFhirPath;
 	private IValidationSupport myValidationSupport;
 	private Map<FhirVersionEnum, Map<String, Class<? extends IBaseResource>>> myVersionToNameToResourceType = Collections.emptyMap();
 	private volatile Set<String> myResourceNames;
@@ -337,6 +343,18 @@ public class FhirContext {
 		return myDefaultTypeForProfile.get(theProfile);
 	}
 
+	/**
+	 * Returns the choice types shared by the "any" children of this context's model, as cached
+	 * by {@link RuntimeChildAny}
+	 */
+	RuntimeChildAny.ChoiceTypes getAnyChoiceTypes() {
+		return myAnyChoiceTypes;
+	}
+
+	void setAnyChoiceTypes(RuntimeChildAny.ChoiceTypes theAnyChoiceTypes) {
+		myAnyChoiceTypes = theAnyChoiceTypes;
+	}
+
 	/**
 	 * Returns the scanned runtime model for the given type. This is an advanced feature which is generally only needed
 	 * for extending the core library.
@@ -570,6 +588,9 @@ public class FhirContext {
 
 		if (retVal == null) {
 			Class<? extends IBaseResource> clazz = myNameToResourceType.get(resourceName.toLowerCase());
+			if (clazz == null) {
+				clazz = loadResourceType(resourceName);
+			}
 			if (clazz == null) {
 				// ***********************************************************************
 				// Multiple spots in HAPI FHIR and Smile CDR depend on DataFormatException
@@ -584,6 +605,27 @@ public class FhirContext {
 		return retVal;
 	}
 
+	/**
+	 * Loads a built-in resource type which was not loaded when the context was initialized
+	 * because {@link PerformanceOptionsEnum#LAZY_RESOURCE_TYPE_LOADING} is enabled
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends IBaseResource> loadResourceType(String theResourceNameLowerCase) {
+		String className = myNameToResourceTypeName.get(theResourceNameLowerCase);
+		if (className == null) {
+			return null;
+		}
+		try {
+			Class<?> clazz = Class.forName(className);
+			if (!IBaseResource.class.isAssignableFrom(clazz)) {
+				throw new ConfigurationException(Msg.code(2168) + "Class is not assignable from " + IBaseResource.class.getSimpleName() + ": " + className);
+			}
+			return (Class<? extends IBaseResource>) clazz;
+		} catch (ClassNotFoundException e) {
+			throw new ConfigurationException(Msg.code(2169) + "Unknown class[" + className + "] for resource definition: " + theResourceNameLowerCase, e);
+		}
+	}
+
 	/**
 	 * Returns the scanned runtime model for the given type. This is an advanced feature which is generally only needed
 	 * for extending the core library.
@@ -710,6 +752,7 @@ public class FhirContext {
 	 */
 	public void setValidationSupport(IValidationSupport theValidationSupport) {
 		myValidationSupport = theValidationSupport;
+		myFhirPath = null;
 	}
 
 	public IFhirVersion getVersion() {
@@ -823,6 +866,28 @@ public class FhirContext {
 		return myVersion.createFhirPathExecutor(this);
 	}
 
+	/**
+	 * Returns a shared FhirPath engine for this context. FhirPath engines are thread safe, so this
+	 * instance may be used by any number of callers, which also share the expressions parsed and
+	 * cached by the engine (see {@link IFhirPath#parseExpression(String)}). A new instance is
+	 * created the next time this method is called after {@link #setValidationSupport(IValidationSupport)}.
+	 * <p>
+	 * As with {@link #newFhirPath()}, calling this method on a context for a version of FHIR
+	 * prior to DSTU3 will result in an {@link UnsupportedOperationException}
+	 * </p>
+	 *
+	 * @see #newFhirPath()
+	 * @since 6.3.0
+	 */
+	public IFhirPath getFhirPath() {
+		IFhirPath retVal = myFhirPath;
+		if (retVal == null) {
+			retVal = newFhirPath();
+			myFhirPath = retVal;
+		}
+		return retVal;
+	}
+
 	/**
 	 * Create and return a new JSON parser.
 	 *
@@ -878,6 +943,26 @@ public class FhirContext {
 		return new RDFParser(this, myParserErrorHandler, Lang.TURTLE);
 	}
 
+	/**
+	 * Create and return a new Smile (binary JSON) parser. Note that this parser can only encode to and
+	 * parse from bytes, so it is not an {@link IParser}, and it requires the <code>jackson-dataformat-smile</code> library to be
+	 * present on the classpath.
+	 *
+	 * <p>
+	 * Thread safety: <b>Parsers are not guaranteed to be thread safe</b>. Create a new parser instance for every thread
+	 * or every message being parsed/encoded.
+	 * </p>
+	 * <p>
+	 * Performance Note: <b>This method is cheap</b> to call, and may be called once for every message being processed
+	 * without incurring any performance penalty
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public SmileParser newSmileParser() {
+		return new SmileParser(this, myParserErrorHandler);
+	}
+
 	/**
 	 * Instantiates a new client instance. This method requires an interface which is defined specifically for your use
 	 * cases to contain methods for each of the RESTful operations you wish to implement (e.g. "read ImagingStudy",
@@ -916,6 +1001,28 @@ public class FhirContext {
 		return getRestfulClientFactory().newGenericClient(theServerBase);
 	}
 
+	/**
+	 * Returns a shared terser for this context. Terser instances are thread safe, so this
+	 * instance may be used by any number of callers, which also share the paths compiled
+	 * and cached by the terser (see {@link FhirTerser#compilePath(String, String)}).
+	 *
+	 * @see #newTerser()
+	 * @since 6.3.0
+	 */
+	public FhirTerser getTerser() {
+		FhirTerser retVal = myTerser;
+		if (retVal == null) {
+			retVal = new FhirTerser(this);
+			myTerser = retVal;
+		}
+		return retVal;
+	}
+
+	/**
+	 * Creates a new terser for this context. Each new terser has its own cache of compiled
+	 * paths, so callers which evaluate string paths repeatedly should use the shared
+	 * instance returned by {@link #getTerser()} instead.
+	 */
 	public FhirTerser newTerser() {
 		return new FhirTerser(this);
 	}
@@ -1015,7 +1122,7 @@ public class FhirContext {
 			myCustomTypes = null;
 		}
 
-		ModelScanner scanner = new ModelScanner(this, myVersion.getVersion(), myClassToElementDefinition, typesToScan);
+		ModelScanner scanner = new ModelScanner(this, myVersion.getVersion(), myClassToElementDefinition, typesToScan, myVersionTypes);
 		if (myRuntimeChildUndeclaredExtensionDefinition == null) {
 			myRuntimeChildUndeclaredExtensionDefinition = scanner.getRuntimeChildUndeclaredExtensionDefinition();
 		}
@@ -1059,6 +1166,8 @@ public class FhirContext {
 		myNameToResourceDefinition = nameToResourceDefinition;
 
 		myNameToResourceType = scanner.getNameToResourceType();
+		myNameToResourceTypeName = scanner.getNameToResourceTypeName();
+		myVersionTypes = scanner.getVersionTypes();
 
 		myInitialized = true;
 		return classToElementDefinition;
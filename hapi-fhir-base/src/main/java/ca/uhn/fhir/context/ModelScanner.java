@@ -50,6 +50,7 @@ import org.hl7.fhir.instance.model.api.IIdType;
 import org.hl7.fhir.instance.model.api.IPrimitiveType;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
@@ -79,17 +80,26 @@ class ModelScanner {
 	private Map<String, RuntimeResourceDefinition> myIdToResourceDefinition = new HashMap<>();
 	private Map<String, BaseRuntimeElementDefinition<?>> myNameToElementDefinitions = new HashMap<>();
 	private Map<String, RuntimeResourceDefinition> myNameToResourceDefinitions = new HashMap<>();
-	private Map<String, Class<? extends IBaseResource>> myNameToResourceType = new HashMap<>();
 	private RuntimeChildUndeclaredExtensionDefinition myRuntimeChildUndeclaredExtensionDefinition;
 	private Set<Class<? extends IBase>> myScanAlso = new HashSet<>();
 	private FhirVersionEnum myVersion;
 
-	private Set<Class<? extends IBase>> myVersionTypes;
+	private VersionTypes myVersionTypes;
 
 	ModelScanner(FhirContext theContext, FhirVersionEnum theVersion, Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theExistingDefinitions,
 					 @Nonnull Collection<Class<? extends IBase>> theResourceTypes) throws ConfigurationException {
+		this(theContext, theVersion, theExistingDefinitions, theResourceTypes, null);
+	}
+
+	/**
+	 * @param theVersionTypes The built-in types read from the version property file by an earlier scan, or <code>null</code>
+	 *                        if the property file should be read by this scan
+	 */
+	ModelScanner(FhirContext theContext, FhirVersionEnum theVersion, Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theExistingDefinitions,
+					 @Nonnull Collection<Class<? extends IBase>> theResourceTypes, @Nullable VersionTypes theVersionTypes) throws ConfigurationException {
 		myContext = theContext;
 		myVersion = theVersion;
+		myVersionTypes = theVersionTypes;
 
 		Set<Class<? extends IBase>> toScan = new HashSet<>(theResourceTypes);
 		init(theExistingDefinitions, toScan);
@@ -112,7 +122,24 @@ class ModelScanner {
 	}
 
 	Map<String, Class<? extends IBaseResource>> getNameToResourceType() {
-		return myNameToResourceType;
+		return myVersionTypes.getNameToResourceType();
+	}
+
+	/**
+	 * Returns the class names of the built-in resource types which were read from the version
+	 * property file but not loaded. This is only populated if {@link PerformanceOptionsEnum#LAZY_RESOURCE_TYPE_LOADING}
+	 * is enabled.
+	 */
+	Map<String, String> getNameToResourceTypeName() {
+		return myVersionTypes.getNameToResourceTypeName();
+	}
+
+	/**
+	 * Returns the built-in types read from the version property file, so that they can be
+	 * passed to later scans instead of reading the file again
+	 */
+	VersionTypes getVersionTypes() {
+		return myVersionTypes;
 	}
 
 	RuntimeChildUndeclaredExtensionDefinition getRuntimeChildUndeclaredExtensionDefinition() {
@@ -126,10 +153,23 @@ class ModelScanner {
 
 		int startSize = myClassToElementDefinitions.size();
 		long start = System.currentTimeMillis();
-		Map<String, Class<? extends IBaseResource>> resourceTypes = myNameToResourceType;
 
 		Set<Class<? extends IBase>> typesToScan = theTypesToScan;
-		myVersionTypes = scanVersionPropertyFile(typesToScan, resourceTypes, myVersion, myClassToElementDefinitions);
+		if (myVersionTypes == null) {
+			Set<Class<? extends IBase>> datatypes = new HashSet<>();
+			Map<String, Class<? extends IBaseResource>> resourceTypes = new HashMap<>();
+			Map<String, String> resourceTypeNames = null;
+			if (myContext.getPerformanceOptions().contains(PerformanceOptionsEnum.LAZY_RESOURCE_TYPE_LOADING)) {
+				resourceTypeNames = new HashMap<>();
+			}
+			Set<Class<? extends IBase>> standardTypes = scanVersionPropertyFile(datatypes, resourceTypes, resourceTypeNames, myVersion, Collections.emptyMap());
+			myVersionTypes = new VersionTypes(standardTypes, datatypes, resourceTypes, resourceTypeNames);
+		}
+		for (Class<? extends IBase> next : myVersionTypes.getDatatypes()) {
+			if (!myClassToElementDefinitions.containsKey(next)) {
+				typesToScan.add(next);
+			}
+		}
 
 		do {
 			for (Class<? extends IBase> nextClass : typesToScan) {
@@ -167,7 +207,7 @@ class ModelScanner {
 	}
 
 	private boolean isStandardType(Class<? extends IBase> theClass) {
-		return myVersionTypes.contains(theClass);
+		return myVersionTypes.getStandardTypes().contains(theClass);
 	}
 
 	void scan(Class<? extends IBase> theClass) throws ConfigurationException {
@@ -319,10 +359,16 @@ class ModelScanner {
 		}
 
 		String resourceNameLowerCase = resourceName.toLowerCase();
-		Class<? extends IBaseResource> builtInType = myNameToResourceType.get(resourceNameLowerCase);
-		boolean standardType = builtInType != null && builtInType.equals(theClass) == true;
+		Class<? extends IBaseResource> builtInType = myVersionTypes.getNameToResourceType().get(resourceNameLowerCase);
+		String builtInTypeName = myVersionTypes.getNameToResourceTypeName().get(resourceNameLowerCase);
+		boolean standardType;
+		if (builtInType != null) {
+			standardType = builtInType.equals(theClass);
+		} else {
+			standardType = theClass.getName().equals(builtInTypeName);
+		}
 		if (primaryNameProvider) {
-			if (builtInType != null && builtInType.equals(theClass) == false) {
+			if ((builtInType != null || builtInTypeName != null) && !standardType) {
 				primaryNameProvider = false;
 			}
 		}
@@ -508,6 +554,14 @@ class ModelScanner {
 	}
 
 	static Set<Class<? extends IBase>> scanVersionPropertyFile(Set<Class<? extends IBase>> theDatatypes, Map<String, Class<? extends IBaseResource>> theResourceTypes, FhirVersionEnum theVersion, Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theExistingElementDefinitions) {
+		return scanVersionPropertyFile(theDatatypes, theResourceTypes, null, theVersion, theExistingElementDefinitions);
+	}
+
+	/**
+	 * @param theResourceTypeNames If not <code>null</code>, resource types are not loaded. Instead their class names
+	 *                             are added to this map so that they can be loaded when they are first needed.
+	 */
+	static Set<Class<? extends IBase>> scanVersionPropertyFile(Set<Class<? extends IBase>> theDatatypes, Map<String, Class<? extends IBaseResource>> theResourceTypes, Map<String, String> theResourceTypeNames, FhirVersionEnum theVersion, Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theExistingElementDefinitions) {
 		Set<Class<? extends IBase>> retVal = new HashSet<>();
 
 		try (InputStream str = theVersion.getVersionImplementation().getFhirVersionPropertiesFile()) {
@@ -549,6 +603,10 @@ class ModelScanner {
 				} else if (nextKey.startsWith("resource.")) {
 					// Resources
 					String resName = nextKey.substring("resource.".length()).toLowerCase();
+					if (theResourceTypeNames != null) {
+						theResourceTypeNames.put(resName, nextValue);
+						continue;
+					}
 					try {
 						@SuppressWarnings("unchecked")
 						Class<? extends IBaseResource> nextClass = (Class<? extends IBaseResource>) Class.forName(nextValue);
@@ -574,4 +632,40 @@ class ModelScanner {
 		return retVal;
 	}
 
+	/**
+	 * The built-in types listed in the version property file. These never change for a given
+	 * context, so they are read by the first scan and reused by every later scan.
+	 */
+	static class VersionTypes {
+
+		private final Set<Class<? extends IBase>> myStandardTypes;
+		private final Set<Class<? extends IBase>> myDatatypes;
+		private final Map<String, Class<? extends IBaseResource>> myNameToResourceType;
+		private final Map<String, String> myNameToResourceTypeName;
+
+		VersionTypes(Set<Class<? extends IBase>> theStandardTypes, Set<Class<? extends IBase>> theDatatypes, Map<String, Class<? extends IBaseResource>> theNameToResourceType, @Nullable Map<String, String> theNameToResourceTypeName) {
+			myStandardTypes = Collections.unmodifiableSet(theStandardTypes);
+			myDatatypes = Collections.unmodifiableSet(theDatatypes);
+			myNameToResourceType = Collections.unmodifiableMap(theNameToResourceType);
+			myNameToResourceTypeName = theNameToResourceTypeName != null ? Collections.unmodifiableMap(theNameToResourceTypeName) : Collections.emptyMap();
+		}
+
+		Set<Class<? extends IBase>> getStandardTypes() {
+			return myStandardTypes;
+		}
+
+		Set<Class<? extends IBase>> getDatatypes() {
+			return myDatatypes;
+		}
+
+		Map<String, Class<? extends IBaseResource>> getNameToResourceType() {
+			return myNameToResourceType;
+		}
+
+		Map<String, String> getNameToResourceTypeName() {
+			return myNameToResourceTypeName;
+		}
+
+	}
+
 }
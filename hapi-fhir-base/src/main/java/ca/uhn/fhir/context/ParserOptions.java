@@ -21,7 +21,9 @@ package ca.uhn.fhir.context;
  */
 
 import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.parser.ParserStringPool;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -43,6 +45,103 @@ public class ParserOptions {
 	private Set<String> myDontStripVersionsFromReferencesAtPaths = Collections.emptySet();
 	private boolean myOverrideResourceIdWithBundleEntryFullUrl = true;
 	private boolean myAutoContainReferenceTargetsWithNoId = true;
+	private boolean myStreamingJsonParsing = false;
+	private volatile ParserStringPool myStringPool;
+
+	/**
+	 * If set to {@literal true} (default is {@literal false}), the JSON parser will drive the parse
+	 * directly from the tokens produced by the underlying JSON reader instead of first loading the
+	 * complete document into an intermediate JSON tree. This substantially reduces the peak memory
+	 * required to parse large resources such as Bundles.
+	 * <p>
+	 * The resulting resources are the same as those produced by the default mode. Only primitive
+	 * values, extensions and resources whose <code>resourceType</code> is not the first property
+	 * of their JSON object are buffered before being processed. Because primitive values are
+	 * buffered until the end of their enclosing JSON object, problems reported to the
+	 * {@link ca.uhn.fhir.parser.IParserErrorHandler} may be reported in a different order than
+	 * in the default mode.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public boolean isStreamingJsonParsing() {
+		return myStreamingJsonParsing;
+	}
+
+	/**
+	 * If set to {@literal true} (default is {@literal false}), the JSON parser will drive the parse
+	 * directly from the tokens produced by the underlying JSON reader instead of first loading the
+	 * complete document into an intermediate JSON tree. This substantially reduces the peak memory
+	 * required to parse large resources such as Bundles.
+	 * <p>
+	 * The resulting resources are the same as those produced by the default mode. Only primitive
+	 * values, extensions and resources whose <code>resourceType</code> is not the first property
+	 * of their JSON object are buffered before being processed. Because primitive values are
+	 * buffered until the end of their enclosing JSON object, problems reported to the
+	 * {@link ca.uhn.fhir.parser.IParserErrorHandler} may be reported in a different order than
+	 * in the default mode.
+	 * </p>
+	 *
+	 * @return Returns a reference to <code>this</code> parser so that method calls can be chained together
+	 * @since 6.3.0
+	 */
+	public ParserOptions setStreamingJsonParsing(boolean theStreamingJsonParsing) {
+		myStreamingJsonParsing = theStreamingJsonParsing;
+		return this;
+	}
+
+	/**
+	 * If set to a value greater than {@literal 0} (default is {@literal 0}, meaning disabled), parsers
+	 * will deduplicate the values of <code>uri</code>, <code>url</code>, <code>canonical</code> and
+	 * <code>code</code> primitives using a shared pool holding up to the given number of distinct values.
+	 * Parsed resources then share a single {@link String} instance for each repeated value, such as
+	 * the <code>system</code> of a frequently used code system, which reduces the memory retained
+	 * by large Bundles and by long-lived caches of parsed resources.
+	 * <p>
+	 * The pool is filled on a first-come basis and is never evicted, so this should be sized for the
+	 * number of distinct values expected to repeat (e.g. a few tens of thousands). Changing this setting
+	 * discards the existing pool.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public int getStringPoolMaxSize() {
+		ParserStringPool stringPool = myStringPool;
+		return stringPool != null ? stringPool.getMaxSize() : 0;
+	}
+
+	/**
+	 * If set to a value greater than {@literal 0} (default is {@literal 0}, meaning disabled), parsers
+	 * will deduplicate the values of <code>uri</code>, <code>url</code>, <code>canonical</code> and
+	 * <code>code</code> primitives using a shared pool holding up to the given number of distinct values.
+	 * Parsed resources then share a single {@link String} instance for each repeated value, such as
+	 * the <code>system</code> of a frequently used code system, which reduces the memory retained
+	 * by large Bundles and by long-lived caches of parsed resources.
+	 * <p>
+	 * The pool is filled on a first-come basis and is never evicted, so this should be sized for the
+	 * number of distinct values expected to repeat (e.g. a few tens of thousands). Changing this setting
+	 * discards the existing pool.
+	 * </p>
+	 *
+	 * @return Returns a reference to <code>this</code> parser so that method calls can be chained together
+	 * @since 6.3.0
+	 */
+	public ParserOptions setStringPoolMaxSize(int theStringPoolMaxSize) {
+		myStringPool = theStringPoolMaxSize > 0 ? new ParserStringPool(theStringPoolMaxSize) : null;
+		return this;
+	}
+
+	/**
+	 * Returns the pool used to deduplicate parsed primitive values, or <code>null</code> if
+	 * this is disabled
+	 *
+	 * @see #setStringPoolMaxSize(int)
+	 * @since 6.3.0
+	 */
+	@Nullable
+	public ParserStringPool getStringPool() {
+		return myStringPool;
+	}
 
 	/**
 	 * If set to {@literal true} (which is the default), contained resources may be specified by
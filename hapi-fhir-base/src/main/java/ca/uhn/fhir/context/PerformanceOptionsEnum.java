@@ -35,6 +35,23 @@ public enum PerformanceOptionsEnum {
 	 * Android or low powered devices.
 	 * </p> 
 	 */
-	DEFERRED_MODEL_SCANNING
-	
+	DEFERRED_MODEL_SCANNING,
+
+	/**
+	 * When this option is set, the built-in resource types will not be loaded when the
+	 * context is initialized. Instead, the resource names and class names are read from the
+	 * version property file which is generated for each structures module at build time,
+	 * and each resource class is only loaded and scanned when it is first used.
+	 * <p>
+	 * Loading and initializing every resource class accounts for a large part of the cost
+	 * of creating a context, so this option is useful for short lived processes such as
+	 * command line tools which only ever use a few resource types. Note that with this option
+	 * set, a missing or invalid resource class is only reported when that resource type
+	 * is first used.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	LAZY_RESOURCE_TYPE_LOADING
+
 }
@@ -45,6 +45,26 @@ public class RuntimeChildAny extends RuntimeChildChoiceDefinition {
 
 	@Override
 	void sealAndInitialize(FhirContext theContext, Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theClassToElementDefinitions) {
+		/*
+		 * Every extension child is an "any" child, and the choice types only depend on the
+		 * definitions that are known when the child is sealed, so they are computed once per
+		 * scan and shared through the context instead of being computed for every child
+		 */
+		ChoiceTypes cached = theContext.getAnyChoiceTypes();
+		List<Class<? extends IBase>> choiceTypes;
+		if (cached != null && cached.isFor(theClassToElementDefinitions)) {
+			choiceTypes = cached.getChoiceTypes();
+		} else {
+			choiceTypes = determineChoiceTypes(theClassToElementDefinitions);
+			theContext.setAnyChoiceTypes(new ChoiceTypes(theClassToElementDefinitions, choiceTypes));
+		}
+
+		setChoiceTypes(choiceTypes);
+		
+		super.sealAndInitialize(theContext, theClassToElementDefinitions);
+	}
+
+	private static List<Class<? extends IBase>> determineChoiceTypes(Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theClassToElementDefinitions) {
 		List<Class<? extends IBase>> choiceTypes = new ArrayList<Class<? extends IBase>>();
 		
 		for (Class<? extends IBase> next : theClassToElementDefinitions.keySet()) {
@@ -82,12 +102,33 @@ public class RuntimeChildAny extends RuntimeChildChoiceDefinition {
 					return 1;
 				}
 			}});
-		
-		setChoiceTypes(choiceTypes);
-		
-		super.sealAndInitialize(theContext, theClassToElementDefinitions);
+		return Collections.unmodifiableList(choiceTypes);
+	}
+
+	/**
+	 * The choice types determined for a given set of definitions. The definitions map used by a
+	 * scan is not modified once its types are being sealed, so it identifies the scan.
+	 */
+	static class ChoiceTypes {
+
+		private final Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> myClassToElementDefinitions;
+		private final int mySize;
+		private final List<Class<? extends IBase>> myChoiceTypes;
+
+		ChoiceTypes(Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theClassToElementDefinitions, List<Class<? extends IBase>> theChoiceTypes) {
+			myClassToElementDefinitions = theClassToElementDefinitions;
+			mySize = theClassToElementDefinitions.size();
+			myChoiceTypes = theChoiceTypes;
+		}
+
+		boolean isFor(Map<Class<? extends IBase>, BaseRuntimeElementDefinition<?>> theClassToElementDefinitions) {
+			return myClassToElementDefinitions == theClassToElementDefinitions && mySize == theClassToElementDefinitions.size();
+		}
+
+		List<Class<? extends IBase>> getChoiceTypes() {
+			return myChoiceTypes;
+		}
+
 	}
 
-	
-	
 }
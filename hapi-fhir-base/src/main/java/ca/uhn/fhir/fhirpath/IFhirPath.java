@@ -20,6 +20,7 @@ package ca.uhn.fhir.fhirpath;
  * #L%
  */
 
+import ca.uhn.fhir.i18n.Msg;
 import org.hl7.fhir.instance.model.api.IBase;
 
 import java.util.List;
@@ -52,4 +53,68 @@ public interface IFhirPath {
 	 * Parses the expression and throws an exception if it can not parse correctly
 	 */
 	void parse(String theExpression) throws Exception;
+
+	/**
+	 * Parses the expression and throws an exception if it can not parse correctly.
+	 * <p>
+	 * The returned expression can be evaluated repeatedly (and concurrently) using
+	 * {@link #evaluate(IBase, IParsedExpression, Class)} without being parsed again,
+	 * including by other {@link IFhirPath} instances for the same FHIR version. Each
+	 * instance also keeps a bounded cache of the expressions it has parsed, so callers
+	 * should generally use the shared instance returned by
+	 * {@link ca.uhn.fhir.context.FhirContext#getFhirPath()}.
+	 * </p>
+	 * <p>
+	 * The default implementation validates the expression using {@link #parse(String)}
+	 * and returns a holder for the expression string, which is parsed again each time
+	 * it is evaluated.
+	 * </p>
+	 *
+	 * @return The parsed expression
+	 * @since 6.3.0
+	 */
+	default IParsedExpression parseExpression(String theExpression) throws Exception {
+		parse(theExpression);
+		return new UnparsedExpression(theExpression);
+	}
+
+	/**
+	 * Apply the given parsed FhirPath expression against the given input and return
+	 * all results in a list
+	 *
+	 * @param theInput            The input object (generally a resource or datatype)
+	 * @param theParsedExpression A parsed expression previously returned by {@link #parseExpression(String)}
+	 * @param theReturnType       The type to return (in order to avoid casting)
+	 * @since 6.3.0
+	 */
+	default <T extends IBase> List<T> evaluate(IBase theInput, IParsedExpression theParsedExpression, Class<T> theReturnType) {
+		if (!(theParsedExpression instanceof UnparsedExpression)) {
+			throw new IllegalArgumentException(Msg.code(2183) + "Expression was not parsed by " + getClass().getSimpleName());
+		}
+		return evaluate(theInput, ((UnparsedExpression) theParsedExpression).getExpression(), theReturnType);
+	}
+
+	/**
+	 * Apply the given parsed FhirPath expression against the given input and return
+	 * the first match (if any)
+	 *
+	 * @param theInput            The input object (generally a resource or datatype)
+	 * @param theParsedExpression A parsed expression previously returned by {@link #parseExpression(String)}
+	 * @param theReturnType       The type to return (in order to avoid casting)
+	 * @since 6.3.0
+	 */
+	default <T extends IBase> Optional<T> evaluateFirst(IBase theInput, IParsedExpression theParsedExpression, Class<T> theReturnType) {
+		return evaluate(theInput, theParsedExpression, theReturnType).stream().findFirst();
+	}
+
+	/**
+	 * This interface is a marker interface representing a parsed FHIRPath expression.
+	 * Instances are produced by {@link #parseExpression(String)} and are specific to the FHIR
+	 * version of the {@link IFhirPath} that produced them.
+	 *
+	 * @since 6.3.0
+	 */
+	interface IParsedExpression {
+		// nothing
+	}
 }
@@ -0,0 +1,40 @@
+package ca.uhn.fhir.fhirpath;
+
+/*
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Parsed expression returned by the default implementation of
+ * {@link IFhirPath#parseExpression(String)}, for engines which can not keep
+ * a parsed form of the expression
+ */
+class UnparsedExpression implements IFhirPath.IParsedExpression {
+
+	private final String myExpression;
+
+	UnparsedExpression(String theExpression) {
+		myExpression = theExpression;
+	}
+
+	String getExpression() {
+		return myExpression;
+	}
+
+}
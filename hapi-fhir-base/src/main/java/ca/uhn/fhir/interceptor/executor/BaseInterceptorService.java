@@ -43,29 +43,40 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public abstract class BaseInterceptorService<POINTCUT extends IPointcut> implements IBaseInterceptorService<POINTCUT>, IBaseInterceptorBroadcaster<POINTCUT> {
 	private static final Logger ourLog = LoggerFactory.getLogger(BaseInterceptorService.class);
+	private static final BaseInvoker[] EMPTY_INVOKER_ARRAY = new BaseInvoker[0];
 	private final List<Object> myInterceptors = new ArrayList<>();
 	private final ListMultimap<POINTCUT, BaseInvoker> myGlobalInvokers = ArrayListMultimap.create();
 	private final ListMultimap<POINTCUT, BaseInvoker> myAnonymousInvokers = ArrayListMultimap.create();
 	private final Object myRegistryMutex = new Object();
+	/**
+	 * Immutable snapshot of the global and anonymous invokers for each pointcut, in
+	 * invocation order. This is replaced (never modified) whenever the registry changes
+	 * so that it can be read without any locking when hooks are called.
+	 */
+	private volatile Map<POINTCUT, BaseInvoker[]> myInvokerSnapshot = Collections.emptyMap();
 	private final ThreadLocal<ListMultimap<POINTCUT, BaseInvoker>> myThreadlocalInvokers = new ThreadLocal<>();
 	private String myName;
 	private boolean myThreadlocalInvokersEnabled = false;
@@ -130,6 +141,7 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 			if (!isInterceptorAlreadyRegistered(theInterceptor)) {
 				myInterceptors.add(theInterceptor);
 			}
+			rebuildInvokerSnapshot();
 		}
 	}
 
@@ -181,7 +193,9 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 
 	private void unregisterInterceptorsIf(Predicate<Object> theShouldUnregisterFunction, ListMultimap<POINTCUT, BaseInvoker> theGlobalInvokers) {
 		synchronized (myRegistryMutex) {
-			theGlobalInvokers.entries().removeIf(t -> theShouldUnregisterFunction.test(t.getValue().getInterceptor()));
+			if (theGlobalInvokers.entries().removeIf(t -> theShouldUnregisterFunction.test(t.getValue().getInterceptor()))) {
+				rebuildInvokerSnapshot();
+			}
 		}
 	}
 
@@ -228,6 +242,7 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 				}
 				return false;
 			}
+			rebuildInvokerSnapshot();
 
 			// Add to the global list
 			myInterceptors.add(theInterceptor);
@@ -252,6 +267,9 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 			boolean removed = myInterceptors.removeIf(t -> t == theInterceptor);
 			removed |= myGlobalInvokers.entries().removeIf(t -> t.getValue().getInterceptor() == theInterceptor);
 			removed |= myAnonymousInvokers.entries().removeIf(t -> t.getValue().getInterceptor() == theInterceptor);
+			if (removed) {
+				rebuildInvokerSnapshot();
+			}
 			return removed;
 		}
 	}
@@ -281,8 +299,7 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 
 	@Override
 	public boolean hasHooks(POINTCUT thePointcut) {
-		return myGlobalInvokers.containsKey(thePointcut)
-			|| myAnonymousInvokers.containsKey(thePointcut)
+		return myInvokerSnapshot.containsKey(thePointcut)
 			|| hasThreadLocalHooks(thePointcut);
 	}
 
@@ -301,15 +318,15 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 	}
 
 	private Object doCallHooks(POINTCUT thePointcut, HookParams theParams, Object theRetVal) {
-		// use new list for loop to avoid ConcurrentModificationException in case invoker gets added while looping
-		List<BaseInvoker> invokers = new ArrayList<>(getInvokersForPointcut(thePointcut));
+		// The returned array is never modified, so invokers added while looping are not a problem
+		BaseInvoker[] invokers = getInvokersForPointcut(thePointcut);
+		Class<?> pointcutReturnType = thePointcut.getReturnType();
 
 		/*
 		 * Call each hook in order
 		 */
 		for (BaseInvoker nextInvoker : invokers) {
 			Object nextOutcome = nextInvoker.invoke(theParams);
-			Class<?> pointcutReturnType = thePointcut.getReturnType();
 			if (pointcutReturnType.equals(boolean.class)) {
 				Boolean nextOutcomeAsBoolean = (Boolean) nextOutcome;
 				if (Boolean.FALSE.equals(nextOutcomeAsBoolean)) {
@@ -330,35 +347,49 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 
 	@VisibleForTesting
 	List<Object> getInterceptorsWithInvokersForPointcut(POINTCUT thePointcut) {
-		return getInvokersForPointcut(thePointcut)
-			.stream()
+		return Arrays
+			.stream(getInvokersForPointcut(thePointcut))
 			.map(BaseInvoker::getInterceptor)
 			.collect(Collectors.toList());
 	}
 
 	/**
-	 * Returns an ordered list of invokers for the given pointcut. Note that
-	 * a new and stable list is returned to.. do whatever you want with it.
+	 * Returns an ordered array of invokers for the given pointcut. The returned
+	 * array is shared and must not be modified.
 	 */
-	private List<BaseInvoker> getInvokersForPointcut(POINTCUT thePointcut) {
-		List<BaseInvoker> invokers;
-
-		synchronized (myRegistryMutex) {
-			List<BaseInvoker> globalInvokers = myGlobalInvokers.get(thePointcut);
-			List<BaseInvoker> anonymousInvokers = myAnonymousInvokers.get(thePointcut);
-			List<BaseInvoker> threadLocalInvokers = null;
-			if (myThreadlocalInvokersEnabled) {
-				ListMultimap<POINTCUT, BaseInvoker> pointcutToInvokers = myThreadlocalInvokers.get();
-				if (pointcutToInvokers != null) {
-					threadLocalInvokers = pointcutToInvokers.get(thePointcut);
+	private BaseInvoker[] getInvokersForPointcut(POINTCUT thePointcut) {
+		BaseInvoker[] invokers = myInvokerSnapshot.getOrDefault(thePointcut, EMPTY_INVOKER_ARRAY);
+
+		if (myThreadlocalInvokersEnabled) {
+			ListMultimap<POINTCUT, BaseInvoker> pointcutToInvokers = myThreadlocalInvokers.get();
+			if (pointcutToInvokers != null) {
+				List<BaseInvoker> threadLocalInvokers = pointcutToInvokers.get(thePointcut);
+				if (!threadLocalInvokers.isEmpty()) {
+					invokers = union(Arrays.asList(invokers), threadLocalInvokers).toArray(EMPTY_INVOKER_ARRAY);
 				}
 			}
-			invokers = union(globalInvokers, anonymousInvokers, threadLocalInvokers);
 		}
 
 		return invokers;
 	}
 
+	/**
+	 * Replaces the invoker snapshot with one reflecting the current global and anonymous
+	 * invokers. Must be called while holding {@link #myRegistryMutex} after any change
+	 * to either of them.
+	 */
+	private void rebuildInvokerSnapshot() {
+		Set<POINTCUT> pointcuts = new HashSet<>(myGlobalInvokers.keySet());
+		pointcuts.addAll(myAnonymousInvokers.keySet());
+
+		Map<POINTCUT, BaseInvoker[]> snapshot = new HashMap<>();
+		for (POINTCUT nextPointcut : pointcuts) {
+			List<BaseInvoker> invokers = union(myGlobalInvokers.get(nextPointcut), myAnonymousInvokers.get(nextPointcut));
+			snapshot.put(nextPointcut, invokers.toArray(EMPTY_INVOKER_ARRAY));
+		}
+		myInvokerSnapshot = snapshot;
+	}
+
 	/**
 	 * First argument must be the global invoker list!!
 	 */
@@ -536,6 +567,7 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 	private static class HookInvoker extends BaseInvoker {
 
 		private final Method myMethod;
+		private final MethodHandle myMethodHandle;
 		private final Class<?>[] myParameterTypes;
 		private final int[] myParameterIndexes;
 		private final IPointcut myPointcut;
@@ -566,6 +598,28 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 			}
 
 			myMethod.setAccessible(true);
+			myMethodHandle = createMethodHandle(theHookMethod);
+		}
+
+		/**
+		 * Creates a method handle for the hook method with the shape
+		 * <code>(Object interceptor, Object[] args)Object</code>. Invoking this directly
+		 * is faster than {@link Method#invoke(Object, Object...)} once a call site has seen
+		 * more than a couple of hook methods, which is the normal case for a server with
+		 * many interceptors registered.
+		 */
+		private static MethodHandle createMethodHandle(Method theHookMethod) {
+			MethodHandle retVal;
+			try {
+				retVal = MethodHandles.lookup().unreflect(theHookMethod);
+			} catch (IllegalAccessException e) {
+				throw new InternalErrorException(Msg.code(2170) + "Unable to access hook method: " + theHookMethod, e);
+			}
+			if (Modifier.isStatic(theHookMethod.getModifiers())) {
+				retVal = MethodHandles.dropArguments(retVal, 0, Object.class);
+			}
+			retVal = retVal.asType(retVal.type().generic());
+			return retVal.asSpreader(Object[].class, theHookMethod.getParameterCount());
 		}
 
 		@Override
@@ -599,9 +653,8 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 
 			// Invoke the method
 			try {
-				return myMethod.invoke(getInterceptor(), args);
-			} catch (InvocationTargetException e) {
-				Throwable targetException = e.getTargetException();
+				return (Object) myMethodHandle.invokeExact(getInterceptor(), args);
+			} catch (Throwable targetException) {
 				if (myPointcut.isShouldLogAndSwallowException(targetException)) {
 					ourLog.error("Exception thrown by interceptor: " + targetException.toString(), targetException);
 					return null;
@@ -612,8 +665,6 @@ public abstract class BaseInterceptorService<POINTCUT extends IPointcut> impleme
 				} else {
 					throw new InternalErrorException(Msg.code(1910) + "Failure invoking interceptor for pointcut(s) " + getPointcut(), targetException);
 				}
-			} catch (Exception e) {
-				throw new InternalErrorException(Msg.code(1911) + e);
 			}
 
 		}
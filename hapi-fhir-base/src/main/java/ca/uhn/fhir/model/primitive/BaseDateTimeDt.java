@@ -24,6 +24,7 @@ import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.model.api.BasePrimitive;
 import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
 import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.util.DateTimeParseUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.time.DateUtils;
@@ -32,9 +33,7 @@ import org.apache.commons.lang3.time.FastDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.Map;
 import java.util.TimeZone;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -42,8 +41,6 @@ public abstract class BaseDateTimeDt extends BasePrimitive<Date> {
 	static final long NANOS_PER_MILLIS = 1000000L;
 	static final long NANOS_PER_SECOND = 1000000000L;
 
-	private static final Map<String, TimeZone> timezoneCache = new ConcurrentHashMap<>();
-
 	private static final FastDateFormat ourHumanDateFormat = FastDateFormat.getDateInstance(FastDateFormat.MEDIUM);
 	private static final FastDateFormat ourHumanDateTimeFormat = FastDateFormat.getDateTimeInstance(FastDateFormat.MEDIUM, FastDateFormat.MEDIUM);
 	private static final FastDateFormat ourXmlDateTimeFormat = FastDateFormat.getInstance("yyyy-MM-dd'T'HH:mm:ss");
@@ -331,11 +328,7 @@ public abstract class BaseDateTimeDt extends BasePrimitive<Date> {
 
 	@Override
 	protected Date parse(String theValue) throws DataFormatException {
-		Calendar cal = new GregorianCalendar(0, 0, 0);
-		cal.setTimeZone(TimeZone.getDefault());
 		String value = theValue;
-		boolean fractionalSecondsSet = false;
-
 		if (value.length() > 0 && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ')) {
 			value = value.trim();
 		}
@@ -345,6 +338,30 @@ public abstract class BaseDateTimeDt extends BasePrimitive<Date> {
 			return null;
 		}
 
+		/*
+		 * Most values are in one of a few fixed formats, which can be parsed without
+		 * a Calendar. Note that the fields are assigned directly rather than through
+		 * the setters, since the setters re-encode the (previous) value and the string
+		 * value is replaced by the caller anyhow.
+		 */
+		DateTimeParseUtil.ParsedDateTime parsed = DateTimeParseUtil.parse(value);
+		if (parsed != null) {
+			myTimeZone = parsed.getTimeZone();
+			myTimeZoneZulu = parsed.isTimeZoneZulu();
+			myFractionalSeconds = parsed.getFractionalSeconds();
+			myPrecision = parsed.getPrecision();
+			return new Date(parsed.getEpochMillis());
+		}
+
+		return parseUsingCalendar(value);
+	}
+
+	private Date parseUsingCalendar(String value) {
+		Calendar cal = new GregorianCalendar(0, 0, 0);
+		cal.setTimeZone(TimeZone.getDefault());
+		boolean fractionalSecondsSet = false;
+		int length = value.length();
+
 		if (length < 4) {
 			throwBadDateFormat(value);
 		}
@@ -587,7 +604,7 @@ public abstract class BaseDateTimeDt extends BasePrimitive<Date> {
 	}
 
 	private TimeZone getTimeZone(String offset) {
-		return timezoneCache.computeIfAbsent(offset, TimeZone::getTimeZone);
+		return DateTimeParseUtil.getTimeZone(offset);
 	}
 
 	public BaseDateTimeDt setTimeZone(TimeZone theTimeZone) {
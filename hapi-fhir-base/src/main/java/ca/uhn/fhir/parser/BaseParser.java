@@ -45,7 +45,6 @@ import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.util.BundleUtil;
 import ca.uhn.fhir.util.FhirTerser;
 import ca.uhn.fhir.util.UrlUtil;
-import com.google.common.base.Charsets;
 import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -65,6 +64,8 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
@@ -75,6 +76,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -108,6 +110,8 @@ public abstract class BaseParser implements IParser {
 	private IIdType myEncodeForceResourceId;
 	private IParserErrorHandler myErrorHandler;
 	private boolean myOmitResourceId;
+	private Set<String> myParseElements;
+	private Map<String, Set<String>> myParseElementNamesByResourceType;
 	private List<Class<? extends IBaseResource>> myPreferTypes;
 	private String myServerBaseUrl;
 	private Boolean myStripVersionsFromReferences;
@@ -179,6 +183,82 @@ public abstract class BaseParser implements IParser {
 		return this;
 	}
 
+	@Override
+	public IParser setParseElements(Set<String> theParseElements) {
+		if (theParseElements == null || theParseElements.isEmpty()) {
+			myParseElements = null;
+			myParseElementNamesByResourceType = null;
+		} else {
+			myParseElements = Collections.unmodifiableSet(new HashSet<>(theParseElements));
+			myParseElementNamesByResourceType = new HashMap<>();
+		}
+		return this;
+	}
+
+	@Override
+	public Set<String> getParseElements() {
+		return myParseElements;
+	}
+
+	/**
+	 * Returns the names of the top level elements which should be parsed for the given resource type
+	 * according to {@link #setParseElements(Set)}, or <code>null</code> if all elements should be parsed.
+	 */
+	@Nullable
+	protected Set<String> getParseElementNames(String theResourceType) {
+		if (myParseElementNamesByResourceType == null) {
+			return null;
+		}
+		if (myParseElementNamesByResourceType.containsKey(theResourceType)) {
+			return myParseElementNamesByResourceType.get(theResourceType);
+		}
+
+		Set<String> retVal = new HashSet<>();
+		boolean matched = false;
+		for (String next : myParseElements) {
+			int dotIdx = next.indexOf('.');
+			if (dotIdx == -1) {
+				if (next.equals(theResourceType)) {
+					// The whole resource was requested
+					matched = false;
+					break;
+				}
+				continue;
+			}
+
+			String type = next.substring(0, dotIdx);
+			if (!type.equals("*") && !type.equals(theResourceType)) {
+				continue;
+			}
+			matched = true;
+
+			int nextDotIdx = next.indexOf('.', dotIdx + 1);
+			String name = nextDotIdx == -1 ? next.substring(dotIdx + 1) : next.substring(dotIdx + 1, nextDotIdx);
+			name = StringUtils.removeEnd(name, "[x]");
+			if (!"(mandatory)".equals(name)) {
+				retVal.add(name);
+			}
+
+			// Choice elements (e.g. value[x]) appear in the encoded content as one name per datatype
+			RuntimeResourceDefinition resourceDef = myContext.getResourceDefinition(theResourceType);
+			for (BaseRuntimeChildDefinition nextChild : resourceDef.getChildren()) {
+				if ("(mandatory)".equals(name) ? nextChild.getMin() > 0 : name.equals(nextChild.getElementName())) {
+					retVal.addAll(nextChild.getValidChildNames());
+				}
+			}
+		}
+
+		if (matched) {
+			retVal.add("id");
+			retVal.add("meta");
+		} else {
+			retVal = null;
+		}
+
+		myParseElementNamesByResourceType.put(theResourceType, retVal);
+		return retVal;
+	}
+
 	protected Iterable<CompositeChildElement> compositeChildIterator(IBase theCompositeElement, final boolean theContainedResource, final CompositeChildElement theParent, EncodeContext theEncodeContext) {
 		BaseRuntimeElementCompositeDefinition<?> elementDef = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(theCompositeElement.getClass());
 		return theEncodeContext.getCompositeChildrenCache().computeIfAbsent(new Key(elementDef, theContainedResource, theParent, theEncodeContext), (k) -> {
@@ -287,13 +367,7 @@ public abstract class BaseParser implements IParser {
 		Validate.notNull(theResource, "theResource can not be null");
 		Validate.notNull(theWriter, "theWriter can not be null");
 		Validate.notNull(theEncodeContext, "theEncodeContext can not be null");
-
-		if (myContext.getVersion().getVersion() == FhirVersionEnum.R4B && theResource.getStructureFhirVersionEnum() == FhirVersionEnum.R5) {
-			// TODO: remove once we've bumped the core lib version
-		} else
-		if (theResource.getStructureFhirVersionEnum() != myContext.getVersion().getVersion()) {
-			throw new IllegalArgumentException(Msg.code(1829) + "This parser is for FHIR version " + myContext.getVersion().getVersion() + " - Can not encode a structure for version " + theResource.getStructureFhirVersionEnum());
-		}
+		validateResourceVersionForEncoding(theResource);
 
 		String resourceName = myContext.getResourceType(theResource);
 		theEncodeContext.pushPath(resourceName, true);
@@ -303,6 +377,40 @@ public abstract class BaseParser implements IParser {
 		theEncodeContext.popPath();
 	}
 
+	@Override
+	public final void encodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream) throws IOException, DataFormatException {
+		Validate.notNull(theResource, "theResource can not be null");
+		Validate.notNull(theOutputStream, "theOutputStream can not be null");
+		validateResourceVersionForEncoding(theResource);
+
+		EncodeContext encodeContext = new EncodeContext();
+		String resourceName = myContext.getResourceType(theResource);
+		encodeContext.pushPath(resourceName, true);
+
+		doEncodeResourceToOutputStream(theResource, theOutputStream, encodeContext);
+
+		encodeContext.popPath();
+	}
+
+	/**
+	 * Encodes the resource as UTF-8 bytes. Subclasses which are able to write bytes directly should
+	 * override this method, the default implementation encodes through a UTF-8 {@link Writer}.
+	 */
+	protected void doEncodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream, EncodeContext theEncodeContext) throws IOException, DataFormatException {
+		Writer writer = new OutputStreamWriter(theOutputStream, Constants.CHARSET_UTF8);
+		doEncodeResourceToWriter(theResource, writer, theEncodeContext);
+		writer.flush();
+	}
+
+	private void validateResourceVersionForEncoding(IBaseResource theResource) {
+		if (myContext.getVersion().getVersion() == FhirVersionEnum.R4B && theResource.getStructureFhirVersionEnum() == FhirVersionEnum.R5) {
+			// TODO: remove once we've bumped the core lib version
+		} else
+		if (theResource.getStructureFhirVersionEnum() != myContext.getVersion().getVersion()) {
+			throw new IllegalArgumentException(Msg.code(1829) + "This parser is for FHIR version " + myContext.getVersion().getVersion() + " - Can not encode a structure for version " + theResource.getStructureFhirVersionEnum());
+		}
+	}
+
 	private void filterCodingsWithNoCodeOrSystem(List<? extends IBaseCoding> tagList) {
 		for (int i = 0; i < tagList.size(); i++) {
 			if (isBlank(tagList.get(i).getCode()) && isBlank(tagList.get(i).getSystem())) {
@@ -407,6 +515,29 @@ public abstract class BaseParser implements IParser {
 		return myErrorHandler;
 	}
 
+	/**
+	 * Copies the configuration of this parser (the error handler and the options which can be set
+	 * through the {@link IParser} setters, other than format specific ones such as pretty printing)
+	 * to the given parser, so that work can be delegated to a parser which behaves the same way.
+	 */
+	protected void copyConfigurationTo(BaseParser theParser) {
+		theParser.myErrorHandler = myErrorHandler;
+		theParser.myDontEncodeElements = myDontEncodeElements;
+		theParser.myEncodeElements = myEncodeElements;
+		theParser.myEncodeElementsAppliesToResourceTypes = myEncodeElementsAppliesToResourceTypes;
+		theParser.myEncodeElementsAppliesToChildResourcesOnly = myEncodeElementsAppliesToChildResourcesOnly;
+		theParser.myEncodeForceResourceId = myEncodeForceResourceId;
+		theParser.myOmitResourceId = myOmitResourceId;
+		theParser.setParseElements(myParseElements);
+		theParser.myPreferTypes = myPreferTypes;
+		theParser.myServerBaseUrl = myServerBaseUrl;
+		theParser.myStripVersionsFromReferences = myStripVersionsFromReferences;
+		theParser.myOverrideResourceIdWithBundleEntryFullUrl = myOverrideResourceIdWithBundleEntryFullUrl;
+		theParser.mySummaryMode = mySummaryMode;
+		theParser.mySuppressNarratives = mySuppressNarratives;
+		theParser.myDontStripVersionsFromReferencesAtPaths = myDontStripVersionsFromReferencesAtPaths;
+	}
+
 	protected List<Map.Entry<ResourceMetadataKeyEnum<?>, Object>> getExtensionMetadataKeys(IResource resource) {
 		List<Map.Entry<ResourceMetadataKeyEnum<?>, Object>> extensionMetadataKeys = new ArrayList<>();
 		for (Map.Entry<ResourceMetadataKeyEnum<?>, Object> entry : resource.getResourceMetadata().entrySet()) {
@@ -581,17 +712,37 @@ public abstract class BaseParser implements IParser {
 
 	@Override
 	public IBaseResource parseResource(InputStream theInputStream) throws DataFormatException {
-		return parseResource(new InputStreamReader(theInputStream, Charsets.UTF_8));
+		return parseResource(null, theInputStream);
 	}
 
 	@Override
 	public <T extends IBaseResource> T parseResource(Class<T> theResourceType, InputStream theInputStream) throws DataFormatException {
-		return parseResource(theResourceType, new InputStreamReader(theInputStream, Constants.CHARSET_UTF8));
+		validateResourceTypeForParsing(theResourceType);
+
+		// Actually do the parse
+		T retVal = doParseResource(theResourceType, theInputStream);
+
+		return postProcessParsedResource(retVal);
+	}
+
+	/**
+	 * Parses a resource from UTF-8 encoded bytes. Subclasses for binary encodings should override this method.
+	 */
+	protected <T extends IBaseResource> T doParseResource(Class<T> theResourceType, InputStream theInputStream) throws DataFormatException {
+		return doParseResource(theResourceType, new InputStreamReader(theInputStream, Constants.CHARSET_UTF8));
 	}
 
 	@Override
 	public <T extends IBaseResource> T parseResource(Class<T> theResourceType, Reader theReader) throws DataFormatException {
+		validateResourceTypeForParsing(theResourceType);
 
+		// Actually do the parse
+		T retVal = doParseResource(theResourceType, theReader);
+
+		return postProcessParsedResource(retVal);
+	}
+
+	private void validateResourceTypeForParsing(Class<? extends IBaseResource> theResourceType) {
 		/*
 		 * We do this so that the context can verify that the structure is for
 		 * the correct FHIR version
@@ -599,50 +750,89 @@ public abstract class BaseParser implements IParser {
 		if (theResourceType != null) {
 			myContext.getResourceDefinition(theResourceType);
 		}
+	}
 
-		// Actually do the parse
-		T retVal = doParseResource(theResourceType, theReader);
-
+	private <T extends IBaseResource> T postProcessParsedResource(T retVal) {
 		RuntimeResourceDefinition def = myContext.getResourceDefinition(retVal);
 		if ("Bundle".equals(def.getName())) {
 
 			if (isOverrideResourceIdWithBundleEntryFullUrl()) {
-				BundleUtil.processEntries(myContext, (IBaseBundle) retVal, t -> {
-					String fullUrl = t.getFullUrl();
-					if (fullUrl != null) {
-						IBaseResource resource = t.getResource();
-						if (resource != null) {
-							IIdType resourceId = resource.getIdElement();
-							if (isBlank(resourceId.getValue())) {
-								resourceId.setValue(fullUrl);
-							} else {
-								if (fullUrl.startsWith("urn:") && fullUrl.length() > resourceId.getIdPart().length() && fullUrl.charAt(fullUrl.length() - resourceId.getIdPart().length() - 1) == ':' && fullUrl.endsWith(resourceId.getIdPart())) {
-									resourceId.setValue(fullUrl);
-								} else {
-									IIdType fullUrlId = myContext.getVersion().newIdType();
-									fullUrlId.setValue(fullUrl);
-									if (myContext.getVersion().getVersion().isOlderThan(FhirVersionEnum.DSTU3)) {
-										IIdType newId = fullUrlId;
-										if (!newId.hasVersionIdPart() && resourceId.hasVersionIdPart()) {
-											newId = newId.withVersion(resourceId.getVersionIdPart());
-										}
-										resourceId.setValue(newId.getValue());
-									} else if (StringUtils.equals(fullUrlId.getIdPart(), resourceId.getIdPart())) {
-										if (fullUrlId.hasBaseUrl()) {
-											IIdType newResourceId = resourceId.withServerBase(fullUrlId.getBaseUrl(), resourceId.getResourceType());
-											resourceId.setValue(newResourceId.getValue());
-										}
-									}
+				overrideResourceIdsWithBundleEntryFullUrl((IBaseBundle) retVal);
+			}
+
+		}
+
+		return retVal;
+	}
+
+	private void overrideResourceIdsWithBundleEntryFullUrl(IBaseBundle theBundle) {
+		BundleUtil.processEntries(myContext, theBundle, t -> {
+			String fullUrl = t.getFullUrl();
+			if (fullUrl != null) {
+				IBaseResource resource = t.getResource();
+				if (resource != null) {
+					IIdType resourceId = resource.getIdElement();
+					if (isBlank(resourceId.getValue())) {
+						resourceId.setValue(fullUrl);
+					} else {
+						if (fullUrl.startsWith("urn:") && fullUrl.length() > resourceId.getIdPart().length() && fullUrl.charAt(fullUrl.length() - resourceId.getIdPart().length() - 1) == ':' && fullUrl.endsWith(resourceId.getIdPart())) {
+							resourceId.setValue(fullUrl);
+						} else {
+							IIdType fullUrlId = myContext.getVersion().newIdType();
+							fullUrlId.setValue(fullUrl);
+							if (myContext.getVersion().getVersion().isOlderThan(FhirVersionEnum.DSTU3)) {
+								IIdType newId = fullUrlId;
+								if (!newId.hasVersionIdPart() && resourceId.hasVersionIdPart()) {
+									newId = newId.withVersion(resourceId.getVersionIdPart());
+								}
+								resourceId.setValue(newId.getValue());
+							} else if (StringUtils.equals(fullUrlId.getIdPart(), resourceId.getIdPart())) {
+								if (fullUrlId.hasBaseUrl()) {
+									IIdType newResourceId = resourceId.withServerBase(fullUrlId.getBaseUrl(), resourceId.getResourceType());
+									resourceId.setValue(newResourceId.getValue());
 								}
 							}
 						}
 					}
-				});
+				}
 			}
+		});
+	}
 
+	@Override
+	public Iterator<IBase> parseBundleEntries(Reader theReader) throws DataFormatException {
+		Iterator<IBaseBundle> bundles = doParseBundleEntries(theReader);
+		if (bundles == null) {
+			return IParser.super.parseBundleEntries(theReader);
 		}
+		RuntimeResourceDefinition bundleDef = myContext.getResourceDefinition("Bundle");
+		BaseRuntimeChildDefinition entryChild = bundleDef.getChildByName("entry");
 
-		return retVal;
+		return new Iterator<IBase>() {
+			@Override
+			public boolean hasNext() {
+				return bundles.hasNext();
+			}
+
+			@Override
+			public IBase next() {
+				IBaseBundle bundle = bundles.next();
+				if (isOverrideResourceIdWithBundleEntryFullUrl()) {
+					overrideResourceIdsWithBundleEntryFullUrl(bundle);
+				}
+				return entryChild.getAccessor().getValues(bundle).get(0);
+			}
+		};
+	}
+
+	/**
+	 * Subclasses supporting {@link #parseBundleEntries(Reader)} should override this method. The returned
+	 * iterator must return one Bundle per entry read from the input, each containing only that entry.
+	 *
+	 * @return The iterator, or <code>null</code> (the default) if this parser does not support incremental parsing
+	 */
+	protected Iterator<IBaseBundle> doParseBundleEntries(Reader theReader) throws DataFormatException {
+		return null;
 	}
 
 	@SuppressWarnings("cast")
@@ -20,20 +20,27 @@ package ca.uhn.fhir.parser;
  * #L%
  */
 
+import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.ParserOptions;
 import ca.uhn.fhir.model.api.IResource;
 import ca.uhn.fhir.rest.api.EncodingEnum;
 import org.hl7.fhir.instance.model.api.IAnyResource;
+import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -51,6 +58,27 @@ public interface IParser {
 
 	void encodeResourceToWriter(IBaseResource theResource, Writer theWriter) throws IOException, DataFormatException;
 
+	/**
+	 * Encodes a resource directly to an OutputStream as UTF-8 encoded bytes. This avoids the overhead
+	 * of encoding to characters first and then converting them to bytes. The output is equivalent
+	 * to {@link #encodeResourceToString(IBaseResource)}, although the JSON parser may write characters
+	 * outside of the Basic Multilingual Plane as escaped surrogate pairs.
+	 * <p>
+	 * The default implementation encodes through {@link #encodeResourceToWriter(IBaseResource, Writer)}
+	 * using a UTF-8 {@link OutputStreamWriter}, so parsers which can write bytes directly should
+	 * override it.
+	 * </p>
+	 *
+	 * @param theResource     The resource to encode
+	 * @param theOutputStream The stream to write to. Note that the stream will not be closed by the parser upon completion.
+	 * @since 6.3.0
+	 */
+	default void encodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream) throws IOException, DataFormatException {
+		Writer writer = new OutputStreamWriter(theOutputStream, StandardCharsets.UTF_8);
+		encodeResourceToWriter(theResource, writer);
+		writer.flush();
+	}
+
 	/**
 	 * If not set to null (as is the default) this ID will be used as the ID in any
 	 * resources encoded by this parser
@@ -229,6 +257,53 @@ public interface IParser {
 	 */
 	IBaseResource parseResource(String theMessageString) throws ConfigurationException, DataFormatException;
 
+	/**
+	 * Parses a Bundle incrementally, returning its entries (<code>Bundle.entry</code>) one at a time as
+	 * they are read from the input. Only the entry currently being parsed is held in memory, which allows
+	 * Bundles with very large numbers of entries to be processed in bounded memory. Any other elements of
+	 * the Bundle (e.g. <code>Bundle.type</code> or <code>Bundle.link</code>) are skipped.
+	 * <p>
+	 * The returned entries are instances of the version specific entry type (e.g.
+	 * <code>Bundle.BundleEntryComponent</code> for R4), including their <code>fullUrl</code>,
+	 * <code>resource</code>, <code>request</code>, etc. As with {@link #parseResource(Reader)}, the
+	 * resource ID is overridden with the entry's <code>fullUrl</code> if
+	 * {@link ParserOptions#isOverrideResourceIdWithBundleEntryFullUrl() configured to do so}.
+	 * </p>
+	 * <p>
+	 * Parsing errors are thrown as a {@link DataFormatException} from {@link Iterator#hasNext()}
+	 * or {@link Iterator#next()}. Since entries are returned as they are read, the JSON parser requires
+	 * the <code>resourceType</code> property to appear before <code>entry</code>.
+	 * </p>
+	 * <p>
+	 * Incremental parsing is supported by the JSON and XML parsers. The default implementation of this
+	 * method, which is used by the RDF and NDJSON parsers, throws {@link UnsupportedOperationException}.
+	 * </p>
+	 *
+	 * @param theReader The reader to parse input from. Note that the Reader will not be closed by the parser.
+	 * @return An iterator over the entries of the Bundle
+	 * @throws DataFormatException           If the content can not be parsed, or is not a Bundle
+	 * @throws UnsupportedOperationException If this parser does not support incremental Bundle parsing
+	 * @since 6.3.0
+	 */
+	default Iterator<IBase> parseBundleEntries(Reader theReader) throws DataFormatException {
+		throw new UnsupportedOperationException(Msg.code(2155) + "Incremental Bundle parsing is not supported for encoding: " + getEncoding());
+	}
+
+	/**
+	 * Parses a Bundle incrementally, returning its entries (<code>Bundle.entry</code>) one at a time as
+	 * they are read from the input. See {@link #parseBundleEntries(Reader)} for details.
+	 *
+	 * @param theInputStream The InputStream to parse input from, <b>with an implied charset of UTF-8</b>.
+	 *                       Note that the InputStream will not be closed by the parser.
+	 * @return An iterator over the entries of the Bundle
+	 * @throws DataFormatException           If the content can not be parsed, or is not a Bundle
+	 * @throws UnsupportedOperationException If this parser does not support incremental Bundle parsing
+	 * @since 6.3.0
+	 */
+	default Iterator<IBase> parseBundleEntries(InputStream theInputStream) throws DataFormatException {
+		return parseBundleEntries(new InputStreamReader(theInputStream, StandardCharsets.UTF_8));
+	}
+
 	/**
 	 * If provided, specifies the elements which should NOT be encoded. Valid values for this
 	 * field would include:
@@ -268,6 +343,48 @@ public interface IParser {
 	 */
 	IParser setEncodeElements(Set<String> theEncodeElements);
 
+	/**
+	 * If provided, specifies the elements which should be populated when parsing resources. All other
+	 * elements are skipped without being converted into model objects, which is much cheaper than parsing
+	 * a whole resource and then discarding most of it. Valid values for this field would include:
+	 * <ul>
+	 * <li><b>Patient.name</b> - Parse only the patient's name</li>
+	 * <li><b>*.text</b> - Parse the text element on any resource (only the very first position may contain a
+	 * wildcard)</li>
+	 * <li><b>*.(mandatory)</b> - Parse any mandatory elements (min > 0)</li>
+	 * </ul>
+	 * <p>
+	 * Only the first element below the resource type is considered, so <code>Patient.name.family</code> will
+	 * parse the complete <code>Patient.name</code> element. The <code>id</code> and <code>meta</code> elements are
+	 * always parsed, and resources whose type is not named by any of the values are parsed in full.
+	 * </p>
+	 * <p>
+	 * This setting is applied by the JSON, NDJSON and XML parsers. Parsers which do not support it (including
+	 * the RDF parser) throw an {@link UnsupportedOperationException} if a non-empty set is supplied.
+	 * </p>
+	 *
+	 * @param theParseElements The elements to parse, or <code>null</code> (the default) to parse all elements
+	 * @throws UnsupportedOperationException If this parser does not support parsing a subset of elements
+	 * @see #setEncodeElements(Set)
+	 * @since 6.3.0
+	 */
+	default IParser setParseElements(Set<String> theParseElements) {
+		if (theParseElements != null) {
+			throw new UnsupportedOperationException(Msg.code(2184) + "Parser " + getClass().getName() + " does not support parsing a subset of elements");
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the values supplied to {@link #setParseElements(Set)}, or <code>null</code> if all elements
+	 * will be parsed
+	 *
+	 * @since 6.3.0
+	 */
+	default Set<String> getParseElements() {
+		return null;
+	}
+
 	/**
 	 * If set to <code>true</code> (default is false), the values supplied
 	 * to {@link #setEncodeElements(Set)} will not be applied to the root
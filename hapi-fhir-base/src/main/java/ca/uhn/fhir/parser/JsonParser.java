@@ -55,11 +55,13 @@ import ca.uhn.fhir.parser.json.JsonLikeStructure;
 import ca.uhn.fhir.parser.json.jackson.JacksonStructure;
 import ca.uhn.fhir.rest.api.EncodingEnum;
 import ca.uhn.fhir.util.ElementUtil;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.text.WordUtils;
 import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseBooleanDatatype;
+import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseDecimalDatatype;
 import org.hl7.fhir.instance.model.api.IBaseExtension;
 import org.hl7.fhir.instance.model.api.IBaseHasExtensions;
@@ -71,15 +73,22 @@ import org.hl7.fhir.instance.model.api.IIdType;
 import org.hl7.fhir.instance.model.api.INarrative;
 import org.hl7.fhir.instance.model.api.IPrimitiveType;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static ca.uhn.fhir.context.BaseRuntimeElementDefinition.ChildTypeEnum.ID_DATATYPE;
 import static ca.uhn.fhir.context.BaseRuntimeElementDefinition.ChildTypeEnum.PRIMITIVE_DATATYPE;
@@ -208,8 +217,19 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		eventWriter.close();
 	}
 
+	@Override
+	protected void doEncodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream, EncodeContext theEncodeContext) throws IOException {
+		BaseJsonLikeWriter eventWriter = new JacksonStructure().getJsonLikeWriter(theOutputStream);
+		doEncodeResourceToJsonLikeWriter(theResource, eventWriter, theEncodeContext);
+		eventWriter.close();
+	}
+
 	@Override
 	public <T extends IBaseResource> T doParseResource(Class<T> theResourceType, Reader theReader) {
+		if (getContext().getParserOptions().isStreamingJsonParsing()) {
+			return doParseResourceStreaming(theResourceType, theReader);
+		}
+
 		JsonLikeStructure jsonStructure = new JacksonStructure();
 		jsonStructure.load(theReader);
 
@@ -231,7 +251,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		ParserState<? extends IBaseResource> state = ParserState.getPreResourceInstance(this, theResourceType, getContext(), true, getErrorHandler());
 		state.enteringNewElement(null, resourceType);
 
-		parseChildren(object, state);
+		parseChildren(object, state, getParseElementNames(resourceType));
 
 		state.endingElement();
 		state.endingElement();
@@ -242,6 +262,306 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		return retVal;
 	}
 
+	/**
+	 * Parses a resource directly from the tokens of the JSON reader, without first building a tree
+	 * for the whole document. See {@link ca.uhn.fhir.context.ParserOptions#setStreamingJsonParsing(boolean)}.
+	 */
+	private <T extends IBaseResource> T doParseResourceStreaming(Class<T> theResourceType, Reader theReader) {
+		try (com.fasterxml.jackson.core.JsonParser jsonParser = JacksonStructure.createStreamingParser(theReader)) {
+			jsonParser.nextToken();
+			return doParseResourceStreaming(theResourceType, jsonParser);
+		} catch (IOException e) {
+			throw JacksonStructure.toDataFormatException(e);
+		}
+	}
+
+	/**
+	 * Parses a resource directly from the tokens of a Jackson parser, which must be positioned on the
+	 * resource's {@link JsonToken#START_OBJECT}. The Jackson parser may read any format which uses the
+	 * JSON data model, and is not closed by this method.
+	 */
+	<T extends IBaseResource> T doParseResourceStreaming(Class<T> theResourceType, com.fasterxml.jackson.core.JsonParser theJsonParser) throws IOException {
+		ParserState<? extends IBaseResource> state = ParserState.getPreResourceInstance(this, theResourceType, getContext(), true, getErrorHandler());
+		streamResource(theJsonParser, state, true);
+		state.endingElement();
+
+		if (theJsonParser.nextToken() != null) {
+			throw new DataFormatException(Msg.code(2154) + "Failed to parse JSON encoded FHIR content: Unexpected content found after the end of the resource");
+		}
+
+		@SuppressWarnings("unchecked")
+		T retVal = (T) state.getObject();
+		return retVal;
+	}
+
+	@Override
+	protected Iterator<IBaseBundle> doParseBundleEntries(Reader theReader) {
+		return new JsonBundleEntryIterator(theReader);
+	}
+
+	/**
+	 * Streams a resource object. The parser must be positioned on the resource's {@link JsonToken#START_OBJECT}
+	 * and will be left on its {@link JsonToken#END_OBJECT}. The resource type is only read from the token
+	 * stream if it is the first property of the object, otherwise the rest of the object is buffered and
+	 * handed to the tree based parse.
+	 */
+	private void streamResource(com.fasterxml.jackson.core.JsonParser theParser, ParserState<?> theState, boolean theRoot) throws IOException {
+		JsonToken token = theParser.nextToken();
+		if (token == JsonToken.FIELD_NAME && "resourceType".equals(theParser.currentName())) {
+			token = theParser.nextToken();
+			String resourceType = token == JsonToken.VALUE_STRING ? theParser.getText() : null;
+			if (isBlank(resourceType)) {
+				throwMissingResourceType(theRoot);
+			}
+
+			theState.enteringNewElement(null, resourceType);
+			theParser.nextToken();
+			streamChildren(theParser, theState, getParseElementNames(resourceType));
+			theState.endingElement();
+			return;
+		}
+
+		BaseJsonLikeObject object = JacksonStructure.readStreamingObjectRemainder(theParser);
+		BaseJsonLikeValue resourceTypeObj = object.get("resourceType");
+		if (resourceTypeObj == null || !resourceTypeObj.isString() || isBlank(resourceTypeObj.getAsString())) {
+			throwMissingResourceType(theRoot);
+		}
+
+		theState.enteringNewElement(null, resourceTypeObj.getAsString());
+		parseChildren(object, theState, getParseElementNames(resourceTypeObj.getAsString()));
+		theState.endingElement();
+	}
+
+	private void throwMissingResourceType(boolean theRoot) {
+		if (theRoot) {
+			throw new DataFormatException(Msg.code(2188) + "Invalid JSON content detected, missing required element: 'resourceType'");
+		}
+		throw new DataFormatException(Msg.code(2189) + "Missing required element 'resourceType' from JSON resource object, unable to parse");
+	}
+
+	private static boolean isParseElement(@Nullable Set<String> theElementNames, String theName) {
+		if (theElementNames == null || "fhir_comments".equals(theName)) {
+			return true;
+		}
+		if (theName.length() > 1 && theName.charAt(0) == '_') {
+			return theElementNames.contains(theName.substring(1));
+		}
+		return theElementNames.contains(theName);
+	}
+
+	/**
+	 * Streams the properties of an object. The parser must be positioned on the first {@link JsonToken#FIELD_NAME}
+	 * (or the {@link JsonToken#END_OBJECT} of an empty object) and will be left on the {@link JsonToken#END_OBJECT}.
+	 * <p>
+	 * Composite children are streamed as they are encountered. Primitive values are small, and need to be
+	 * matched with their <code>_name</code> companion property which may appear anywhere in the object, so
+	 * they are buffered and handed to the tree based parse once the end of the object is reached. If a
+	 * <code>_name</code> property follows a composite child which has already been streamed, the child is
+	 * re-entered once the end of the object is reached so that the property is applied to it, just as the
+	 * tree based parse would do.
+	 * </p>
+	 *
+	 * @param theElementNames If not null, properties not named in this set are skipped (see {@link #getParseElementNames(String)})
+	 */
+	private void streamChildren(com.fasterxml.jackson.core.JsonParser theParser, ParserState<?> theState, @Nullable Set<String> theElementNames) throws IOException {
+		Map<String, BaseJsonLikeValue> deferred = null;
+		Set<String> streamed = null;
+		Map<String, StreamedChild> awaitingAlternates = null;
+
+		for (JsonToken token = theParser.currentToken(); token == JsonToken.FIELD_NAME; token = theParser.nextToken()) {
+			String nextName = theParser.currentName();
+			JsonToken valueToken = theParser.nextToken();
+
+			if ("resourceType".equals(nextName) || !isParseElement(theElementNames, nextName)) {
+				theParser.skipChildren();
+				continue;
+			} else if ("extension".equals(nextName) || "modifierExtension".equals(nextName)) {
+				BaseJsonLikeValue value = JacksonStructure.readStreamingValue(theParser);
+				if (value.isNull()) {
+					continue;
+				}
+				if (!value.isArray()) {
+					throw new DataFormatException(Msg.code(2190) + "Syntax error parsing JSON FHIR structure: Expected ARRAY at element '" + nextName + "', found '" + value.getJsonType() + "'");
+				}
+				parseExtension(theState, value.getAsArray(), "modifierExtension".equals(nextName));
+				continue;
+			} else if ("fhir_comments".equals(nextName)) {
+				parseFhirComments(JacksonStructure.readStreamingValue(theParser), theState);
+				continue;
+			}
+
+			if (deferred == null) {
+				deferred = new LinkedHashMap<>();
+			}
+
+			if (nextName.charAt(0) == '_') {
+				deferred.put(nextName, JacksonStructure.readStreamingValue(theParser));
+				continue;
+			}
+
+			String alternateName = '_' + nextName;
+			BaseJsonLikeValue alternateVal = deferred.get(alternateName);
+			StreamedChild streamedChild;
+			if (valueToken == JsonToken.START_OBJECT) {
+				if ("id".equals(nextName)) {
+					getErrorHandler().incorrectJsonType(null, "id", ValueType.SCALAR, ScalarType.STRING, ValueType.OBJECT, null);
+				}
+				Object elementState = streamObjectChild(theParser, theState, nextName, alternateVal, alternateName, false);
+				streamedChild = new StreamedChild(Collections.singletonList(elementState), false);
+			} else if (valueToken == JsonToken.START_ARRAY) {
+				JsonToken firstElement = theParser.nextToken();
+				if (firstElement != JsonToken.START_OBJECT) {
+					deferred.put(nextName, JacksonStructure.readStreamingArrayRemainder(theParser));
+					continue;
+				}
+				if ("id".equals(nextName)) {
+					getErrorHandler().incorrectJsonType(null, "id", ValueType.SCALAR, ScalarType.STRING, ValueType.ARRAY, null);
+				}
+				List<Object> elementStates = streamArrayChild(theParser, theState, nextName, alternateVal, alternateName);
+				streamedChild = new StreamedChild(elementStates, true);
+			} else {
+				deferred.put(nextName, JacksonStructure.readStreamingValue(theParser));
+				continue;
+			}
+
+			if (streamed == null) {
+				streamed = new HashSet<>();
+			}
+			streamed.add(nextName);
+			if (alternateVal == null) {
+				if (awaitingAlternates == null) {
+					awaitingAlternates = new HashMap<>();
+				}
+				awaitingAlternates.put(nextName, streamedChild);
+			}
+		}
+
+		if (deferred == null) {
+			return;
+		}
+
+		for (Map.Entry<String, BaseJsonLikeValue> next : deferred.entrySet()) {
+			String nextName = next.getKey();
+			if (nextName.charAt(0) != '_') {
+				String alternateName = '_' + nextName;
+				parseChildren(theState, nextName, next.getValue(), deferred.get(alternateName), alternateName, false);
+				continue;
+			}
+
+			/*
+			 * This happens if an element has an extension but no actual value. I.e.
+			 * if a resource has a "_status" element but no corresponding "status"
+			 * element.
+			 */
+			if (nextName.length() > 1) {
+				String name = nextName.substring(1);
+				if (awaitingAlternates != null && awaitingAlternates.containsKey(name)) {
+					parseLateAlternates(theState, awaitingAlternates.get(name), next.getValue(), nextName);
+					continue;
+				}
+				if (deferred.containsKey(name) || (streamed != null && streamed.contains(name))) {
+					continue;
+				}
+				BaseJsonLikeValue nextValue = next.getValue();
+				if (nextValue.isObject()) {
+					theState.enteringNewElement(null, name);
+					parseAlternates(nextValue, theState, nextName, nextName);
+					theState.endingElement();
+				} else {
+					getErrorHandler().incorrectJsonType(null, nextName, ValueType.OBJECT, null, nextValue.getJsonType(), null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies a <code>_name</code> property which was found after its composite child had already been
+	 * streamed, by re-entering the child's elements
+	 */
+	private void parseLateAlternates(ParserState<?> theState, StreamedChild theChild, BaseJsonLikeValue theAlternateVal, String theAlternateName) {
+		if (!theChild.myArray) {
+			Object elementState = theChild.myElementStates.get(0);
+			if (elementState != null) {
+				theState.reenteringElement(elementState);
+				parseAlternates(theAlternateVal, theState, theAlternateName, theAlternateName);
+				theState.endingElement();
+			}
+			return;
+		}
+
+		if (theAlternateVal.isArray() == false) {
+			getErrorHandler().incorrectJsonType(null, theAlternateName, ValueType.ARRAY, null, theAlternateVal.getJsonType(), null);
+			return;
+		}
+		BaseJsonLikeArray alternateArray = theAlternateVal.getAsArray();
+		for (int i = 0; i < theChild.myElementStates.size() && i < alternateArray.size(); i++) {
+			Object nextElementState = theChild.myElementStates.get(i);
+			if (nextElementState != null) {
+				theState.reenteringElement(nextElementState);
+				parseAlternates(alternateArray.get(i), theState, theAlternateName, theAlternateName);
+				theState.endingElement();
+			}
+		}
+	}
+
+	/**
+	 * Streams an array whose first element has already been found to be an object. The parser must
+	 * be positioned on that first element and will be left on the {@link JsonToken#END_ARRAY}.
+	 *
+	 * @return The state of each element (see {@link ParserState#getCurrentElementState()}), or <code>null</code>
+	 * for elements which were not streamed
+	 */
+	private List<Object> streamArrayChild(com.fasterxml.jackson.core.JsonParser theParser, ParserState<?> theState, String theName, BaseJsonLikeValue theAlternateVal, String theAlternateName) throws IOException {
+		BaseJsonLikeValue alternateVal = theAlternateVal;
+		if (alternateVal != null && alternateVal.isArray() == false) {
+			getErrorHandler().incorrectJsonType(null, theAlternateName, ValueType.ARRAY, null, alternateVal.getJsonType(), null);
+			alternateVal = null;
+		}
+		BaseJsonLikeArray alternateArray = BaseJsonLikeValue.asArray(alternateVal); // could be null
+
+		List<Object> retVal = new ArrayList<>();
+		int index = 0;
+		for (JsonToken token = theParser.currentToken(); token != JsonToken.END_ARRAY; token = theParser.nextToken(), index++) {
+			BaseJsonLikeValue nextAlternate = null;
+			if (alternateArray != null && alternateArray.size() >= (index + 1)) {
+				nextAlternate = alternateArray.get(index);
+			}
+			if (token == JsonToken.START_OBJECT) {
+				retVal.add(streamObjectChild(theParser, theState, theName, nextAlternate, theAlternateName, true));
+			} else {
+				parseChildren(theState, theName, JacksonStructure.readStreamingValue(theParser), nextAlternate, theAlternateName, true);
+				retVal.add(null);
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Streams an object valued child element. The parser must be positioned on the object's
+	 * {@link JsonToken#START_OBJECT} and will be left on its {@link JsonToken#END_OBJECT}.
+	 *
+	 * @return The state of the element (see {@link ParserState#getCurrentElementState()}), or <code>null</code>
+	 * if the element is a resource
+	 */
+	private Object streamObjectChild(com.fasterxml.jackson.core.JsonParser theParser, ParserState<?> theState, String theName, BaseJsonLikeValue theAlternateVal, String theAlternateName, boolean theInArray) throws IOException {
+		if (!theInArray && theState.elementIsRepeating(theName)) {
+			getErrorHandler().incorrectJsonType(null, theName, ValueType.ARRAY, null, ValueType.OBJECT, null);
+		}
+
+		theState.enteringNewElement(null, theName);
+		parseAlternates(theAlternateVal, theState, theAlternateName, theAlternateName);
+		Object retVal = null;
+		if (theState.isPreResource()) {
+			streamResource(theParser, theState, false);
+		} else {
+			retVal = theState.getCurrentElementState();
+			theParser.nextToken();
+			streamChildren(theParser, theState, null);
+		}
+		theState.endingElement();
+		return retVal;
+	}
+
 	private void encodeChildElementToStreamWriter(RuntimeResourceDefinition theResDef, IBaseResource theResource, BaseJsonLikeWriter theEventWriter, IBase theNextValue,
 																 BaseRuntimeElementDefinition<?> theChildDef, String theChildName, boolean theContainedResource, CompositeChildElement theChildElem,
 																 boolean theForceEmpty, EncodeContext theEncodeContext) throws IOException {
@@ -981,12 +1301,19 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 	}
 
 	private void parseChildren(BaseJsonLikeObject theObject, ParserState<?> theState) {
+		parseChildren(theObject, theState, null);
+	}
+
+	/**
+	 * @param theElementNames If not null, properties not named in this set are skipped (see {@link #getParseElementNames(String)})
+	 */
+	private void parseChildren(BaseJsonLikeObject theObject, ParserState<?> theState, @Nullable Set<String> theElementNames) {
 		int allUnderscoreNames = 0;
 		int handledUnderscoreNames = 0;
 
 		for (Iterator<String> keyIter = theObject.keyIterator(); keyIter.hasNext(); ) {
 			String nextName = keyIter.next();
-			if ("resourceType".equals(nextName)) {
+			if ("resourceType".equals(nextName) || !isParseElement(theElementNames, nextName)) {
 				continue;
 			} else if ("extension".equals(nextName)) {
 				BaseJsonLikeArray array = grabJsonArray(theObject, nextName, "extension");
@@ -1033,7 +1360,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		if (allUnderscoreNames > handledUnderscoreNames) {
 			for (Iterator<String> keyIter = theObject.keyIterator(); keyIter.hasNext(); ) {
 				String alternateName = keyIter.next();
-				if (alternateName.startsWith("_") && alternateName.length() > 1) {
+				if (alternateName.startsWith("_") && alternateName.length() > 1 && isParseElement(theElementNames, alternateName)) {
 					BaseJsonLikeValue nextValue = theObject.get(alternateName);
 					if (nextValue != null) {
 						if (nextValue.isObject()) {
@@ -1087,6 +1414,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 			parseAlternates(theAlternateVal, theState, theAlternateName, theAlternateName);
 			BaseJsonLikeObject nextObject = theJsonVal.getAsObject();
 			boolean preResource = false;
+			Set<String> elementNames = null;
 			if (theState.isPreResource()) {
 				BaseJsonLikeValue resType = nextObject.get("resourceType");
 				if (resType == null || !resType.isString()) {
@@ -1094,8 +1422,9 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 				}
 				theState.enteringNewElement(null, resType.getAsString());
 				preResource = true;
+				elementNames = getParseElementNames(resType.getAsString());
 			}
-			parseChildren(nextObject, theState);
+			parseChildren(nextObject, theState, elementNames);
 			if (preResource) {
 				theState.endingElement();
 			}
@@ -1383,6 +1712,140 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		theWriter.write(theName, theValue);
 	}
 
+	/**
+	 * Streams the entries of a Bundle, returning each one as a Bundle containing only that entry. Since
+	 * entries are returned as soon as they are read, the <code>resourceType</code> property must appear
+	 * before <code>entry</code>. The Jackson parser is closed once the end of the Bundle is reached or
+	 * parsing fails.
+	 */
+	private class JsonBundleEntryIterator implements Iterator<IBaseBundle> {
+
+		private final com.fasterxml.jackson.core.JsonParser myJsonParser;
+		private final Class<? extends IBaseResource> myBundleType;
+		private boolean myInEntryArray;
+		private boolean myFoundResourceType;
+		private boolean myDone;
+		private IBaseBundle myNext;
+
+		JsonBundleEntryIterator(Reader theReader) {
+			myJsonParser = JacksonStructure.createStreamingParser(theReader);
+			myBundleType = getContext().getResourceDefinition("Bundle").getImplementingClass();
+			try {
+				myJsonParser.nextToken();
+			} catch (IOException e) {
+				close();
+				throw JacksonStructure.toDataFormatException(e);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (myNext == null && !myDone) {
+				try {
+					myNext = readNextEntry();
+				} catch (IOException e) {
+					close();
+					throw JacksonStructure.toDataFormatException(e);
+				} catch (RuntimeException e) {
+					close();
+					throw e;
+				}
+				if (myNext == null) {
+					close();
+				}
+			}
+			return myNext != null;
+		}
+
+		private void close() {
+			myDone = true;
+			try {
+				myJsonParser.close();
+			} catch (IOException e) {
+				ourLog.debug("Failed to close JSON parser", e);
+			}
+		}
+
+		@Override
+		public IBaseBundle next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			IBaseBundle retVal = myNext;
+			myNext = null;
+			return retVal;
+		}
+
+		private IBaseBundle readNextEntry() throws IOException {
+			while (true) {
+				JsonToken token = myJsonParser.nextToken();
+
+				if (myInEntryArray) {
+					if (token == JsonToken.END_ARRAY) {
+						myInEntryArray = false;
+						continue;
+					}
+					return parseEntry(token, true);
+				}
+
+				if (token != JsonToken.FIELD_NAME) {
+					if (!myFoundResourceType) {
+						throw new DataFormatException(Msg.code(2191) + "Invalid JSON content detected, missing required element: 'resourceType'");
+					}
+					return null;
+				}
+
+				String nextName = myJsonParser.currentName();
+				token = myJsonParser.nextToken();
+				if ("resourceType".equals(nextName)) {
+					if (token != JsonToken.VALUE_STRING || !"Bundle".equals(myJsonParser.getText())) {
+						throw new DataFormatException(Msg.code(2156) + "Incremental parsing requires a Bundle, found resourceType: " + myJsonParser.getText());
+					}
+					myFoundResourceType = true;
+				} else if ("entry".equals(nextName)) {
+					if (!myFoundResourceType) {
+						throw new DataFormatException(Msg.code(2192) + "Incremental parsing requires the 'resourceType' element to appear before 'entry'");
+					}
+					if (token == JsonToken.START_ARRAY) {
+						myInEntryArray = true;
+					} else {
+						return parseEntry(token, false);
+					}
+				} else {
+					myJsonParser.skipChildren();
+				}
+			}
+		}
+
+		private IBaseBundle parseEntry(JsonToken theToken, boolean theInArray) throws IOException {
+			ParserState<? extends IBaseResource> state = ParserState.getPreResourceInstance(JsonParser.this, myBundleType, getContext(), true, getErrorHandler());
+			state.enteringNewElement(null, "Bundle");
+			if (theToken == JsonToken.START_OBJECT) {
+				streamObjectChild(myJsonParser, state, "entry", null, "_entry", theInArray);
+			} else {
+				parseChildren(state, "entry", JacksonStructure.readStreamingValue(myJsonParser), null, "_entry", theInArray);
+			}
+			state.endingElement();
+			state.endingElement();
+			return (IBaseBundle) state.getObject();
+		}
+
+	}
+
+	/**
+	 * The element states of a composite child which has been streamed
+	 */
+	private static class StreamedChild {
+
+		private final List<Object> myElementStates;
+		private final boolean myArray;
+
+		private StreamedChild(List<Object> theElementStates, boolean theArray) {
+			myElementStates = theElementStates;
+			myArray = theArray;
+		}
+	}
+
 	private class HeldExtension implements Comparable<HeldExtension> {
 
 		private CompositeChildElement myChildElem;
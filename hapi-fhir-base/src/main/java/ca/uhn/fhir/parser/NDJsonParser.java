@@ -28,11 +28,21 @@ import ca.uhn.fhir.util.BundleUtil;
 import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
+import javax.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 /**
@@ -42,9 +52,11 @@ import java.util.List;
 public class NDJsonParser extends BaseParser {
 
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(NDJsonParser.class);
+	private static final int PARALLEL_BLOCK_SIZE = 100;
 
-        private IParser myJsonParser;
+        private boolean myPrettyPrint;
         private FhirContext myFhirContext;
+	private ForkJoinPool myParallelParsingPool;
 
 	/**
 	 * Do not use this constructor, the recommended way to obtain a new instance of the NDJSON parser is to invoke
@@ -55,13 +67,11 @@ public class NDJsonParser extends BaseParser {
 	public NDJsonParser(FhirContext theContext, IParserErrorHandler theParserErrorHandler) {
 		super(theContext, theParserErrorHandler);
                 myFhirContext = theContext;
-
-                myJsonParser = theContext.newJsonParser();
 	}
 
         @Override
         public IParser setPrettyPrint(boolean thePrettyPrint) {
-                myJsonParser.setPrettyPrint(thePrettyPrint);
+                myPrettyPrint = thePrettyPrint;
                 return this;
         }
 
@@ -82,6 +92,7 @@ public class NDJsonParser extends BaseParser {
 
                 // Now we write each one in turn.
                 // Use newline only as a line separator, not at the end of the file.
+                IParser jsonParser = newJsonParser();
                 boolean isFirstResource = true;
                 for (IBaseResource theBundleEntryResource : theBundleResources) {
                         if (!(isFirstResource)) {
@@ -89,7 +100,7 @@ public class NDJsonParser extends BaseParser {
                         }
                         isFirstResource = false;
 
-                        myJsonParser.encodeResourceToWriter(theBundleEntryResource, theWriter);
+                        jsonParser.encodeResourceToWriter(theBundleEntryResource, theWriter);
                 }
 	}
 
@@ -100,23 +111,212 @@ public class NDJsonParser extends BaseParser {
                         throw new DataFormatException(Msg.code(1834) + "NDJsonParser can only parse to Bundle types.  Received " + theResourceType.getName());
                 }
 
-                try {
-                        // Now we go through line-by-line parsing the JSON and then stuffing it into a bundle.
-                        BundleBuilder myBuilder = new BundleBuilder(myFhirContext);
-                        myBuilder.setType("collection");
-                        BufferedReader myBufferedReader = new BufferedReader(theReader);
-                        String jsonString = myBufferedReader.readLine();
-                        while (jsonString != null) {
-                                // And add it to a collection in a Bundle.
-                                // The string must be trimmed, as per the NDJson spec 3.2
-                                myBuilder.addCollectionEntry(myJsonParser.parseResource(jsonString.trim()));
-                                // Try to read another line.
-                                jsonString = myBufferedReader.readLine();
-                        }
+		// Now we go through line-by-line parsing the JSON and then stuffing it into a bundle.
+		BundleBuilder myBuilder = new BundleBuilder(myFhirContext);
+		myBuilder.setType("collection");
+		Iterator<IBaseResource> resources = parseResources(theReader);
+		while (resources.hasNext()) {
+			myBuilder.addCollectionEntry(resources.next());
+		}
 
-                        return (T) myBuilder.getBundle();
-                } catch (IOException err) {
-                        throw new DataFormatException(Msg.code(1835) + err.getMessage());
-                }
+		return (T) myBuilder.getBundle();
+	}
+
+	/**
+	 * Parses the given NDJSON content one resource at a time. Unlike {@link #parseResource(Reader)}, which
+	 * collects every resource into a single Bundle, the returned iterator only reads as far ahead in
+	 * <code>theReader</code> as is needed to return the next resource, so arbitrarily large files can be
+	 * processed with bounded memory. Blank lines are skipped.
+	 * <p>
+	 * If a pool has been supplied using {@link #setParallelParsingPool(ForkJoinPool)}, lines are read ahead
+	 * in blocks and parsed concurrently in the pool. Resources are still returned in the order they appear
+	 * in the input.
+	 * </p>
+	 * <p>
+	 * The iterator does not close <code>theReader</code>. Any {@link IOException} raised while reading is
+	 * rethrown as a {@link DataFormatException}.
+	 * </p>
+	 *
+	 * @param theReader The NDJSON content
+	 * @return An iterator over the resources in the content, in order
+	 * @since 6.3.0
+	 */
+	public Iterator<IBaseResource> parseResources(Reader theReader) {
+		BufferedReader reader = theReader instanceof BufferedReader ? (BufferedReader) theReader : new BufferedReader(theReader);
+		if (myParallelParsingPool != null) {
+			return new ParallelResourceIterator(reader, myParallelParsingPool);
+		}
+		return new SerialResourceIterator(reader);
+	}
+
+	/**
+	 * Supplies a pool which will be used to parse resources concurrently. If set to <code>null</code> (which
+	 * is the default), resources are parsed on the calling thread.
+	 *
+	 * @param thePool The pool to use (e.g. {@link ForkJoinPool#commonPool()}), or <code>null</code>
+	 * @return Returns a reference to <code>this</code> parser so that method calls can be chained together
+	 * @since 6.3.0
+	 */
+	public NDJsonParser setParallelParsingPool(@Nullable ForkJoinPool thePool) {
+		myParallelParsingPool = thePool;
+		return this;
+	}
+
+	/**
+	 * Returns the pool used to parse resources concurrently, or <code>null</code> if resources are parsed
+	 * on the calling thread.
+	 *
+	 * @see #setParallelParsingPool(ForkJoinPool)
+	 * @since 6.3.0
+	 */
+	@Nullable
+	public ForkJoinPool getParallelParsingPool() {
+		return myParallelParsingPool;
+	}
+
+	/**
+	 * Creates a JSON parser which is configured the same way as this parser. Parsers are not thread
+	 * safe, so every iterator, and every block parsed concurrently, gets its own.
+	 */
+	private IParser newJsonParser() {
+		JsonParser retVal = new JsonParser(myFhirContext, getErrorHandler());
+		copyConfigurationTo(retVal);
+		retVal.setPrettyPrint(myPrettyPrint);
+		return retVal;
+	}
+
+	@Nullable
+	private static String readNextNonBlankLine(BufferedReader theReader) {
+		try {
+			String retVal = theReader.readLine();
+			while (retVal != null) {
+				// The string must be trimmed, as per the NDJson spec 3.2
+				retVal = retVal.trim();
+				if (!retVal.isEmpty()) {
+					break;
+				}
+				retVal = theReader.readLine();
+			}
+			return retVal;
+		} catch (IOException err) {
+			throw new DataFormatException(Msg.code(1835) + err.getMessage());
+		}
+	}
+
+	private class SerialResourceIterator implements Iterator<IBaseResource> {
+
+		private final BufferedReader myReader;
+		private final IParser myJsonParser = newJsonParser();
+		private String myNextLine;
+
+		SerialResourceIterator(BufferedReader theReader) {
+			myReader = theReader;
+			myNextLine = readNextNonBlankLine(myReader);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return myNextLine != null;
+		}
+
+		@Override
+		public IBaseResource next() {
+			if (myNextLine == null) {
+				throw new NoSuchElementException();
+			}
+			IBaseResource retVal = myJsonParser.parseResource(myNextLine);
+			myNextLine = readNextNonBlankLine(myReader);
+			return retVal;
+		}
+	}
+
+	/**
+	 * Reads lines in blocks of {@link #PARALLEL_BLOCK_SIZE} and submits each block to the pool as it is read,
+	 * keeping at most two blocks per pool thread in flight. Blocks are consumed in submission order, which
+	 * preserves the order of the input.
+	 */
+	private class ParallelResourceIterator implements Iterator<IBaseResource> {
+
+		private final BufferedReader myReader;
+		private final ForkJoinPool myPool;
+		private final int myMaxBlocksInFlight;
+		private final Deque<ForkJoinTask<List<IBaseResource>>> myBlocksInFlight = new ArrayDeque<>();
+		private Iterator<IBaseResource> myCurrentBlock = Collections.emptyIterator();
+		private boolean myReaderExhausted;
+
+		ParallelResourceIterator(BufferedReader theReader, ForkJoinPool thePool) {
+			myReader = theReader;
+			myPool = thePool;
+			myMaxBlocksInFlight = Math.max(2, thePool.getParallelism() * 2);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!myCurrentBlock.hasNext()) {
+				submitBlocks();
+				ForkJoinTask<List<IBaseResource>> nextBlock = myBlocksInFlight.pollFirst();
+				if (nextBlock == null) {
+					return false;
+				}
+				myCurrentBlock = awaitBlock(nextBlock).iterator();
+			}
+			return true;
+		}
+
+		@Override
+		public IBaseResource next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return myCurrentBlock.next();
+		}
+
+		private void submitBlocks() {
+			while (!myReaderExhausted && myBlocksInFlight.size() < myMaxBlocksInFlight) {
+				List<String> lines = new ArrayList<>(PARALLEL_BLOCK_SIZE);
+				while (lines.size() < PARALLEL_BLOCK_SIZE) {
+					String nextLine = readNextNonBlankLine(myReader);
+					if (nextLine == null) {
+						myReaderExhausted = true;
+						break;
+					}
+					lines.add(nextLine);
+				}
+				if (!lines.isEmpty()) {
+					myBlocksInFlight.addLast(myPool.submit(() -> parseBlock(lines)));
+				}
+			}
+		}
+
+		private List<IBaseResource> parseBlock(List<String> theLines) {
+			IParser jsonParser = newJsonParser();
+			List<IBaseResource> retVal = new ArrayList<>(theLines.size());
+			for (String next : theLines) {
+				retVal.add(jsonParser.parseResource(next));
+			}
+			return retVal;
+		}
+
+		private List<IBaseResource> awaitBlock(ForkJoinTask<List<IBaseResource>> theBlock) {
+			try {
+				return theBlock.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				abort();
+				throw new DataFormatException(Msg.code(2173) + "Interrupted while parsing NDJSON content");
+			} catch (ExecutionException e) {
+				abort();
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new DataFormatException(Msg.code(2174) + e.getCause().getMessage(), e.getCause());
+			}
+		}
+
+		private void abort() {
+			myBlocksInFlight.forEach(t -> t.cancel(false));
+			myBlocksInFlight.clear();
+			myReaderExhausted = true;
+		}
 	}
 }
@@ -89,10 +89,12 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 class ParserState<T> {
 
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(ParserState.class);
+	private static final Set<String> POOLED_PRIMITIVE_TYPES = Set.of("uri", "url", "canonical", "code");
 	private final FhirContext myContext;
 	private final IParserErrorHandler myErrorHandler;
 	private final boolean myJsonMode;
 	private final IParser myParser;
+	private final ParserStringPool myStringPool;
 	private List<String> myComments = new ArrayList<String>(2);
 	private T myObject;
 	private IBase myPreviousElement;
@@ -105,6 +107,7 @@ class ParserState<T> {
 		myContext = theContext;
 		myJsonMode = theJsonMode;
 		myErrorHandler = theErrorHandler;
+		myStringPool = theContext.getParserOptions().getStringPool();
 	}
 
 	public void attributeValue(String theName, String theValue) throws DataFormatException {
@@ -148,6 +151,41 @@ class ParserState<T> {
 		return myState.isPreResource();
 	}
 
+	/**
+	 * Returns a handle for the state of the element currently being parsed. The handle can be passed
+	 * to {@link #reenteringElement(Object)} after the element has ended in order to apply content which
+	 * is found later in the document (e.g. a JSON <code>_name</code> property which follows its element).
+	 */
+	Object getCurrentElementState() {
+		return myState;
+	}
+
+	/**
+	 * Returns the name of the resource type if the element currently being parsed is the root element of a
+	 * resource, meaning that the next element entered will be a top level element of that resource. Otherwise
+	 * returns <code>null</code>.
+	 */
+	String getCurrentResourceName() {
+		return myState.getResourceName();
+	}
+
+	/**
+	 * Enters an element which should not be parsed. The element and all of its children are ignored,
+	 * and the matching call to {@link #endingElement()} returns to the current state.
+	 */
+	void enteringSkippedElement() {
+		push(new SwallowChildrenWholeState(myState.getPreResourceState()));
+	}
+
+	/**
+	 * Re-enters an element which has already ended, using a handle returned by {@link #getCurrentElementState()}
+	 * while the element was being parsed. The caller must be positioned on the parent of that element, and must
+	 * call {@link #endingElement()} once done.
+	 */
+	void reenteringElement(Object theElementState) {
+		push((BaseState) theElementState);
+	}
+
 	private Object newContainedDt(IResource theTarget) {
 		return ReflectionUtil.newInstance(theTarget.getStructureFhirVersionEnum().getVersionImplementation().getContainedType());
 	}
@@ -322,6 +360,13 @@ class ParserState<T> {
 			return false;
 		}
 
+		/**
+		 * @return The resource type name if this is the root state of a resource, otherwise <code>null</code>
+		 */
+		String getResourceName() {
+			return null;
+		}
+
 		void logAndSwallowUnexpectedElement(String theLocalPart) {
 			myErrorHandler.unknownElement(null, theLocalPart);
 			push(new SwallowChildrenWholeState(getPreResourceState()));
@@ -533,6 +578,10 @@ class ParserState<T> {
 			myElementName = theElementName;
 		}
 
+		BaseRuntimeElementCompositeDefinition<?> getDefinition() {
+			return myDefinition;
+		}
+
 		@Override
 		public void attributeValue(String theName, String theValue) throws DataFormatException {
 			if ("id".equals(theName)) {
@@ -1339,6 +1388,10 @@ class ParserState<T> {
 							}
 					}
 
+					if (myStringPool != null && POOLED_PRIMITIVE_TYPES.contains(myTypeName)) {
+						value = myStringPool.intern(value);
+					}
+
 					try {
 						myInstance.setValueAsString(value);
 					} catch (DataFormatException | IllegalArgumentException e) {
@@ -1399,6 +1452,11 @@ class ParserState<T> {
 				super.enteringNewElement(theNamespace, theChildName);
 			}
 		}
+
+		@Override
+		String getResourceName() {
+			return getDefinition().getName();
+		}
 	}
 
 	private class ResourceStateHl7Org extends ElementCompositeState {
@@ -1407,6 +1465,11 @@ class ParserState<T> {
 			super(thePreResourceState, theDef.getName(), theDef, theInstance);
 		}
 
+		@Override
+		String getResourceName() {
+			return getDefinition().getName();
+		}
+
 	}
 
 	private class SecurityLabelElementStateHapi extends ElementCompositeState {
@@ -0,0 +1,97 @@
+package ca.uhn.fhir.parser;
+
+/*
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded pool of string values which the parsers use to deduplicate frequently repeated
+ * primitive values (such as code system URIs, codes and profile canonicals), so that every
+ * parsed occurrence of a given value shares a single {@link String} instance.
+ * <p>
+ * The pool is filled on a first-come basis: once it holds the configured maximum number of
+ * values, values which are not already in the pool are returned as-is rather than evicting
+ * existing entries. Values longer than {@link #MAX_VALUE_LENGTH} are never pooled.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @see ca.uhn.fhir.context.ParserOptions#setStringPoolMaxSize(int)
+ * @since 6.3.0
+ */
+public class ParserStringPool {
+
+	/**
+	 * Values longer than this are unlikely to be repeated and are never pooled
+	 */
+	public static final int MAX_VALUE_LENGTH = 256;
+	private final ConcurrentHashMap<String, String> myPool = new ConcurrentHashMap<>();
+	private final int myMaxSize;
+
+	/**
+	 * Constructor
+	 *
+	 * @param theMaxSize The maximum number of distinct values to hold in the pool
+	 */
+	public ParserStringPool(int theMaxSize) {
+		Validate.isTrue(theMaxSize > 0, "theMaxSize must be greater than 0");
+		myMaxSize = theMaxSize;
+	}
+
+	/**
+	 * Returns the pooled instance of the given value, adding the value to the pool if it
+	 * is not already present and the pool is not full
+	 */
+	public String intern(String theValue) {
+		if (theValue == null || theValue.length() > MAX_VALUE_LENGTH) {
+			return theValue;
+		}
+		String retVal = myPool.get(theValue);
+		if (retVal == null) {
+			if (myPool.size() >= myMaxSize) {
+				return theValue;
+			}
+			retVal = myPool.putIfAbsent(theValue, theValue);
+			if (retVal == null) {
+				retVal = theValue;
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the number of values currently held in the pool
+	 */
+	public int size() {
+		return myPool.size();
+	}
+
+	/**
+	 * Returns the maximum number of values which will be held in the pool
+	 */
+	public int getMaxSize() {
+		return myMaxSize;
+	}
+
+}
@@ -67,6 +67,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static ca.uhn.fhir.context.BaseRuntimeElementDefinition.ChildTypeEnum.ID_DATATYPE;
 import static ca.uhn.fhir.context.BaseRuntimeElementDefinition.ChildTypeEnum.PRIMITIVE_DATATYPE;
@@ -131,6 +132,18 @@ public class RDFParser extends BaseParser {
 		return this;
 	}
 
+	/**
+	 * The RDF parser always parses the complete resource, so this method only accepts
+	 * <code>null</code> or an empty set
+	 */
+	@Override
+	public IParser setParseElements(Set<String> theParseElements) {
+		if (theParseElements != null && !theParseElements.isEmpty()) {
+			throw new UnsupportedOperationException(Msg.code(2198) + "Parser " + getClass().getName() + " does not support parsing a subset of elements");
+		}
+		return super.setParseElements(theParseElements);
+	}
+
 	/**
 	 * Writes the provided resource to the writer.  This should only be called for the top-level resource being encoded.
 	 * @param resource FHIR resource for writing
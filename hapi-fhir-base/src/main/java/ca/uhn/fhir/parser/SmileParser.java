@@ -0,0 +1,182 @@
+package ca.uhn.fhir.parser;
+
+/*
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.parser.json.BaseJsonLikeWriter;
+import ca.uhn.fhir.parser.json.jackson.SmileStructure;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.hl7.fhir.instance.model.api.IBase;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * This class is the FHIR Smile parser/encoder. Smile is a binary representation of the JSON data model,
+ * so resources are encoded exactly as they would be by the {@link JsonParser}, but the resulting payload
+ * is smaller and considerably cheaper to parse. Users should not create instances of this class directly,
+ * but should use {@link FhirContext#newSmileParser()} to get an instance.
+ * <p>
+ * Because Smile is a binary format, resources can only be encoded to and parsed from bytes (e.g.
+ * {@link #encodeResourceToOutputStream(IBaseResource, OutputStream)} and
+ * {@link #parseResource(Class, InputStream)}). The methods of {@link IParser} which encode to or parse
+ * from characters throw {@link UnsupportedOperationException}. Since the data model is JSON,
+ * {@link #getEncoding()} returns {@link ca.uhn.fhir.rest.api.EncodingEnum#JSON}. The static
+ * {@link #toJson(byte[])} and {@link #fromJson(String)} methods convert between Smile content and its
+ * equivalent JSON text without parsing it into model classes.
+ * </p>
+ * <p>
+ * Content is always parsed directly from the Smile token stream, without first reading it into a tree.
+ * </p>
+ * <p>
+ * Thread safety: <b>Parsers are not guaranteed to be thread safe</b>. Create a new parser instance for every
+ * thread or every message being parsed/encoded.
+ * </p>
+ * <p>
+ * This parser requires the <code>com.fasterxml.jackson.dataformat:jackson-dataformat-smile</code> library
+ * to be present on the classpath.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+public class SmileParser extends JsonParser {
+
+	/**
+	 * Do not use this constructor, the recommended way to obtain a new instance of the Smile parser is to invoke
+	 * {@link FhirContext#newSmileParser()}.
+	 */
+	public SmileParser(FhirContext theContext, IParserErrorHandler theParserErrorHandler) {
+		super(theContext, theParserErrorHandler);
+	}
+
+	@Override
+	public SmileParser setParserErrorHandler(IParserErrorHandler theErrorHandler) {
+		super.setParserErrorHandler(theErrorHandler);
+		return this;
+	}
+
+	@Override
+	public SmileParser setDontEncodeElements(Collection<String> theDontEncodeElements) {
+		super.setDontEncodeElements(theDontEncodeElements);
+		return this;
+	}
+
+	@Override
+	public SmileParser setParseElements(Set<String> theParseElements) {
+		super.setParseElements(theParseElements);
+		return this;
+	}
+
+	/**
+	 * Encodes a resource as Smile
+	 */
+	public byte[] encodeResourceToBytes(IBaseResource theResource) {
+		ByteArrayOutputStream retVal = new ByteArrayOutputStream();
+		try {
+			encodeResourceToOutputStream(theResource, retVal);
+		} catch (IOException e) {
+			throw new InternalErrorException(Msg.code(2164) + "Failed to encode resource: " + e.getMessage(), e);
+		}
+		return retVal.toByteArray();
+	}
+
+	/**
+	 * Parses a Smile encoded resource
+	 *
+	 * @see #parseResource(Class, InputStream)
+	 */
+	public <T extends IBaseResource> T parseResource(Class<T> theResourceType, byte[] theContent) throws DataFormatException {
+		return parseResource(theResourceType, new ByteArrayInputStream(theContent));
+	}
+
+	@Override
+	protected void doEncodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream, EncodeContext theEncodeContext) throws IOException {
+		BaseJsonLikeWriter eventWriter = new SmileStructure().getJsonLikeWriter(theOutputStream);
+		doEncodeResourceToJsonLikeWriter(theResource, eventWriter, theEncodeContext);
+		eventWriter.close();
+	}
+
+	@Override
+	protected void doEncodeResourceToWriter(IBaseResource theResource, Writer theWriter, EncodeContext theEncodeContext) {
+		throw new UnsupportedOperationException(Msg.code(2199) + "Smile is a binary format and can not be written to a Writer");
+	}
+
+	@Override
+	protected <T extends IBaseResource> T doParseResource(Class<T> theResourceType, InputStream theInputStream) {
+		try (com.fasterxml.jackson.core.JsonParser smileParser = SmileStructure.createStreamingParser(theInputStream)) {
+			if (smileParser.nextToken() != JsonToken.START_OBJECT) {
+				throw new DataFormatException(Msg.code(2200) + "Content does not appear to be a Smile encoded FHIR resource");
+			}
+			return doParseResourceStreaming(theResourceType, smileParser);
+		} catch (IOException e) {
+			throw new DataFormatException(Msg.code(2201) + "Failed to parse Smile encoded FHIR content: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public <T extends IBaseResource> T doParseResource(Class<T> theResourceType, Reader theReader) {
+		throw new UnsupportedOperationException(Msg.code(2202) + "Smile is a binary format and can not be read from a Reader");
+	}
+
+	@Override
+	public Iterator<IBase> parseBundleEntries(InputStream theInputStream) {
+		throw newBundleEntriesNotSupportedException();
+	}
+
+	@Override
+	public Iterator<IBase> parseBundleEntries(Reader theReader) {
+		throw newBundleEntriesNotSupportedException();
+	}
+
+	private static UnsupportedOperationException newBundleEntriesNotSupportedException() {
+		return new UnsupportedOperationException(Msg.code(2203) + "Incremental Bundle parsing is not supported for Smile encoded content");
+	}
+
+	/**
+	 * Converts Smile encoded content into the equivalent JSON text
+	 *
+	 * @throws DataFormatException If the content is not valid Smile
+	 */
+	public static String toJson(byte[] theSmile) throws DataFormatException {
+		return SmileStructure.toJson(theSmile);
+	}
+
+	/**
+	 * Converts JSON text into the equivalent Smile encoded content
+	 *
+	 * @throws DataFormatException If the content is not valid JSON
+	 */
+	public static byte[] fromJson(String theJson) throws DataFormatException {
+		return SmileStructure.fromJson(theJson);
+	}
+
+}
@@ -50,6 +50,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.instance.model.api.IAnyResource;
 import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseBinary;
+import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseDatatype;
 import org.hl7.fhir.instance.model.api.IBaseExtension;
 import org.hl7.fhir.instance.model.api.IBaseHasExtensions;
@@ -72,12 +73,15 @@ import javax.xml.stream.events.EntityReference;
 import javax.xml.stream.events.Namespace;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -141,12 +145,30 @@ public class XmlParser extends BaseParser {
 		}
 	}
 
+	@Override
+	protected void doEncodeResourceToOutputStream(IBaseResource theResource, OutputStream theOutputStream, EncodeContext theEncodeContext) throws DataFormatException {
+		XMLStreamWriter eventWriter;
+		try {
+			eventWriter = decorateStreamWriter(XmlUtil.createXmlStreamWriter(theOutputStream));
+
+			encodeResourceToXmlStreamWriter(theResource, eventWriter, false, theEncodeContext);
+			eventWriter.flush();
+		} catch (XMLStreamException e) {
+			throw new ConfigurationException(Msg.code(2159) + "Failed to initialize STaX event factory", e);
+		}
+	}
+
 	@Override
 	public <T extends IBaseResource> T doParseResource(Class<T> theResourceType, Reader theReader) {
 		XMLEventReader streamReader = createStreamReader(theReader);
 		return parseResource(theResourceType, streamReader);
 	}
 
+	@Override
+	protected Iterator<IBaseBundle> doParseBundleEntries(Reader theReader) {
+		return new XmlBundleEntryIterator(createStreamReader(theReader));
+	}
+
 	private <T> T doXmlLoop(XMLEventReader streamReader, ParserState<T> parserState) {
 		ourLog.trace("Entering XML parsing loop with state: {}", parserState);
 
@@ -155,88 +177,114 @@ public class XmlParser extends BaseParser {
 
 			while (streamReader.hasNext()) {
 				XMLEvent nextEvent = streamReader.nextEvent();
-				try {
+				handleXmlEvent(nextEvent, parserState, heldComments);
+			}
+			return parserState.getObject();
+		} catch (XMLStreamException e) {
+			throw new DataFormatException(Msg.code(1852) + e);
+		}
+	}
 
-					switch (nextEvent.getEventType()) {
-						case XMLStreamConstants.START_ELEMENT: {
-							StartElement elem = nextEvent.asStartElement();
+	private void handleXmlEvent(XMLEvent nextEvent, ParserState<?> parserState, List<String> heldComments) {
+		try {
 
-							String namespaceURI = elem.getName().getNamespaceURI();
+			switch (nextEvent.getEventType()) {
+				case XMLStreamConstants.START_ELEMENT: {
+					StartElement elem = nextEvent.asStartElement();
 
-							if ("extension".equals(elem.getName().getLocalPart())) {
-								Attribute urlAttr = elem.getAttributeByName(new QName("url"));
-								String url;
-								if (urlAttr == null || isBlank(urlAttr.getValue())) {
-									getErrorHandler().missingRequiredElement(new ParseLocation().setParentElementName("extension"), "url");
-									url = null;
-								} else {
-									url = urlAttr.getValue();
-								}
-								parserState.enteringNewElementExtension(elem, url, false, getServerBaseUrl());
-							} else if ("modifierExtension".equals(elem.getName().getLocalPart())) {
-								Attribute urlAttr = elem.getAttributeByName(new QName("url"));
-								String url;
-								if (urlAttr == null || isBlank(urlAttr.getValue())) {
-									getErrorHandler().missingRequiredElement(new ParseLocation().setParentElementName("modifierExtension"), "url");
-									url = null;
-								} else {
-									url = urlAttr.getValue();
-								}
-								parserState.enteringNewElementExtension(elem, url, true, getServerBaseUrl());
-							} else {
-								String elementName = elem.getName().getLocalPart();
-								parserState.enteringNewElement(namespaceURI, elementName);
-							}
-
-							if (!heldComments.isEmpty()) {
-								for (String next : heldComments) {
-									parserState.commentPre(next);
-								}
-								heldComments.clear();
-							}
+					if (!isParseElement(parserState, elem.getName().getLocalPart())) {
+						heldComments.clear();
+						parserState.enteringSkippedElement();
+						break;
+					}
 
-							for (Iterator<Attribute> attributes = elem.getAttributes(); attributes.hasNext(); ) {
-								Attribute next = attributes.next();
-								parserState.attributeValue(next.getName().getLocalPart(), next.getValue());
-							}
+					String namespaceURI = elem.getName().getNamespaceURI();
 
-							break;
-						}
-						case XMLStreamConstants.END_DOCUMENT:
-						case XMLStreamConstants.END_ELEMENT: {
-							if (!heldComments.isEmpty()) {
-								for (String next : heldComments) {
-									parserState.commentPost(next);
-								}
-								heldComments.clear();
-							}
-							parserState.endingElement();
-							break;
+					if ("extension".equals(elem.getName().getLocalPart())) {
+						Attribute urlAttr = elem.getAttributeByName(new QName("url"));
+						String url;
+						if (urlAttr == null || isBlank(urlAttr.getValue())) {
+							getErrorHandler().missingRequiredElement(new ParseLocation().setParentElementName("extension"), "url");
+							url = null;
+						} else {
+							url = urlAttr.getValue();
 						}
-						case XMLStreamConstants.CHARACTERS: {
-							parserState.string(nextEvent.asCharacters().getData());
-							break;
+						parserState.enteringNewElementExtension(elem, url, false, getServerBaseUrl());
+					} else if ("modifierExtension".equals(elem.getName().getLocalPart())) {
+						Attribute urlAttr = elem.getAttributeByName(new QName("url"));
+						String url;
+						if (urlAttr == null || isBlank(urlAttr.getValue())) {
+							getErrorHandler().missingRequiredElement(new ParseLocation().setParentElementName("modifierExtension"), "url");
+							url = null;
+						} else {
+							url = urlAttr.getValue();
 						}
-						case XMLStreamConstants.COMMENT: {
-							Comment comment = (Comment) nextEvent;
-							String commentText = comment.getText();
-							heldComments.add(commentText);
-							break;
+						parserState.enteringNewElementExtension(elem, url, true, getServerBaseUrl());
+					} else {
+						String elementName = elem.getName().getLocalPart();
+						parserState.enteringNewElement(namespaceURI, elementName);
+					}
+
+					if (!heldComments.isEmpty()) {
+						for (String next : heldComments) {
+							parserState.commentPre(next);
 						}
+						heldComments.clear();
 					}
 
-					parserState.xmlEvent(nextEvent);
+					for (Iterator<Attribute> attributes = elem.getAttributes(); attributes.hasNext(); ) {
+						Attribute next = attributes.next();
+						parserState.attributeValue(next.getName().getLocalPart(), next.getValue());
+					}
 
-				} catch (DataFormatException e) {
-					throw new DataFormatException(Msg.code(1851) + "DataFormatException at [" + nextEvent.getLocation().toString() + "]: " + e.getMessage(), e);
+					break;
+				}
+				case XMLStreamConstants.END_DOCUMENT:
+				case XMLStreamConstants.END_ELEMENT: {
+					if (!heldComments.isEmpty()) {
+						for (String next : heldComments) {
+							parserState.commentPost(next);
+						}
+						heldComments.clear();
+					}
+					parserState.endingElement();
+					break;
+				}
+				case XMLStreamConstants.CHARACTERS: {
+					parserState.string(nextEvent.asCharacters().getData());
+					break;
+				}
+				case XMLStreamConstants.COMMENT: {
+					Comment comment = (Comment) nextEvent;
+					String commentText = comment.getText();
+					heldComments.add(commentText);
+					break;
 				}
 			}
-			return parserState.getObject();
-		} catch (XMLStreamException e) {
-			throw new DataFormatException(Msg.code(1852) + e);
+
+			parserState.xmlEvent(nextEvent);
+
+		} catch (DataFormatException e) {
+			throw new DataFormatException(Msg.code(1851) + "DataFormatException at [" + nextEvent.getLocation().toString() + "]: " + e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Returns <code>false</code> if the given element is a top level element of a resource which
+	 * should be skipped according to {@link #setParseElements(Set)}
+	 */
+	private boolean isParseElement(ParserState<?> theParserState, String theElementName) {
+		if (getParseElements() == null) {
+			return true;
+		}
+		String resourceName = theParserState.getCurrentResourceName();
+		if (resourceName == null) {
+			return true;
+		}
+		Set<String> elementNames = getParseElementNames(resourceName);
+		return elementNames == null || elementNames.contains(theElementName);
+	}
+
 	private void encodeChildElementToStreamWriter(IBaseResource theResource, XMLStreamWriter theEventWriter, BaseRuntimeChildDefinition theChildDefinition, IBase theElement, String theChildName, BaseRuntimeElementDefinition<?> childDef,
 																 String theExtensionUrl, boolean theIncludedResource, CompositeChildElement theParent, EncodeContext theEncodeContext) throws XMLStreamException, DataFormatException {
 
@@ -826,4 +874,101 @@ public class XmlParser extends BaseParser {
 		}
 	}
 
+
+	/**
+	 * Streams the entries of a Bundle, returning each one as a Bundle containing only that entry
+	 */
+	private class XmlBundleEntryIterator implements Iterator<IBaseBundle> {
+
+		private final XMLEventReader myStreamReader;
+		private final Class<? extends IBaseResource> myBundleType;
+		private String myBundleNamespace;
+		private boolean myDone;
+		private IBaseBundle myNext;
+
+		XmlBundleEntryIterator(XMLEventReader theStreamReader) {
+			myStreamReader = theStreamReader;
+			myBundleType = getContext().getResourceDefinition("Bundle").getImplementingClass();
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (myNext == null && !myDone) {
+				try {
+					myNext = readNextEntry();
+				} catch (XMLStreamException e) {
+					throw new DataFormatException(Msg.code(2157) + e);
+				}
+			}
+			return myNext != null;
+		}
+
+		@Override
+		public IBaseBundle next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			IBaseBundle retVal = myNext;
+			myNext = null;
+			return retVal;
+		}
+
+		private IBaseBundle readNextEntry() throws XMLStreamException {
+			while (myStreamReader.hasNext()) {
+				XMLEvent nextEvent = myStreamReader.nextEvent();
+
+				if (nextEvent.isStartElement()) {
+					StartElement elem = nextEvent.asStartElement();
+					if (myBundleNamespace == null) {
+						if (!"Bundle".equals(elem.getName().getLocalPart())) {
+							throw new DataFormatException(Msg.code(2158) + "Incremental parsing requires a Bundle, found root element: " + elem.getName().getLocalPart());
+						}
+						myBundleNamespace = elem.getName().getNamespaceURI();
+					} else if ("entry".equals(elem.getName().getLocalPart())) {
+						return parseEntry(nextEvent);
+					} else {
+						skipElement();
+					}
+				} else if (nextEvent.isEndElement()) {
+					break;
+				}
+			}
+
+			myDone = true;
+			return null;
+		}
+
+		private IBaseBundle parseEntry(XMLEvent theEntryStartEvent) throws XMLStreamException {
+			ParserState<? extends IBaseResource> state = ParserState.getPreResourceInstance(XmlParser.this, myBundleType, getContext(), false, getErrorHandler());
+			state.enteringNewElement(myBundleNamespace, "Bundle");
+
+			List<String> heldComments = new ArrayList<>(1);
+			handleXmlEvent(theEntryStartEvent, state, heldComments);
+			for (int depth = 1; depth > 0; ) {
+				XMLEvent nextEvent = myStreamReader.nextEvent();
+				if (nextEvent.isStartElement()) {
+					depth++;
+				} else if (nextEvent.isEndElement()) {
+					depth--;
+				}
+				handleXmlEvent(nextEvent, state, heldComments);
+			}
+
+			state.endingElement();
+			state.endingElement();
+			return (IBaseBundle) state.getObject();
+		}
+
+		private void skipElement() throws XMLStreamException {
+			for (int depth = 1; depth > 0; ) {
+				XMLEvent nextEvent = myStreamReader.nextEvent();
+				if (nextEvent.isStartElement()) {
+					depth++;
+				} else if (nextEvent.isEndElement()) {
+					depth--;
+				}
+			}
+		}
+
+	}
 }
@@ -29,6 +29,7 @@ import ca.uhn.fhir.parser.json.BaseJsonLikeWriter;
 import ca.uhn.fhir.parser.json.JsonLikeStructure;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -39,6 +40,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.Writer;
@@ -52,6 +54,7 @@ import java.util.Map;
 public class JacksonStructure implements JsonLikeStructure {
 
 	private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+	private static final ObjectMapper STREAMING_OBJECT_MAPPER = createObjectMapper().disable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
 	private JacksonWriter jacksonWriter;
 	private ROOT_TYPE rootType = null;
 	private JsonNode nativeRoot = null;
@@ -79,30 +82,10 @@ public class JacksonStructure implements JsonLikeStructure {
 
 	@Override
 	public void load(Reader theReader, boolean allowArray) throws DataFormatException {
-		PushbackReader pbr = new PushbackReader(theReader);
-		int nextInt;
 		try {
-			while (true) {
-				nextInt = pbr.read();
-				if (nextInt == -1) {
-					throw new DataFormatException(Msg.code(1857) + "Did not find any content to parse");
-				}
-				if (nextInt == '{') {
-					pbr.unread(nextInt);
-					break;
-				}
-				if (Character.isWhitespace(nextInt)) {
-					continue;
-				}
-				if (allowArray) {
-					if (nextInt == '[') {
-						pbr.unread(nextInt);
-						break;
-					}
-					throw new DataFormatException(Msg.code(1858) + "Content does not appear to be FHIR JSON, first non-whitespace character was: '" + (char) nextInt + "' (must be '{' or '[')");
-				}
-				throw new DataFormatException(Msg.code(1859) + "Content does not appear to be FHIR JSON, first non-whitespace character was: '" + (char) nextInt + "' (must be '{')");
-			}
+			PushbackReader pbr = skipToContent(theReader, allowArray);
+			int nextInt = pbr.read();
+			pbr.unread(nextInt);
 
 			if (nextInt == '{') {
 				setNativeObject((ObjectNode) OBJECT_MAPPER.readTree(pbr));
@@ -110,12 +93,50 @@ public class JacksonStructure implements JsonLikeStructure {
 				setNativeArray((ArrayNode) OBJECT_MAPPER.readTree(pbr));
 			}
 		} catch (Exception e) {
-			if (e.getMessage().startsWith("Unexpected char 39")) {
-				throw new DataFormatException(Msg.code(1860) + "Failed to parse JSON encoded FHIR content: " + e.getMessage() + " - " +
-					"This may indicate that single quotes are being used as JSON escapes where double quotes are required", e);
+			throw toDataFormatException(e);
+		}
+	}
+
+	/**
+	 * Skips any leading whitespace and verifies that the content begins with an object (or
+	 * an array if allowed). The returned reader is positioned on that first character.
+	 */
+	private static PushbackReader skipToContent(Reader theReader, boolean allowArray) throws IOException {
+		PushbackReader pbr = new PushbackReader(theReader);
+		int nextInt;
+		while (true) {
+			nextInt = pbr.read();
+			if (nextInt == -1) {
+				throw new DataFormatException(Msg.code(1857) + "Did not find any content to parse");
+			}
+			if (nextInt == '{') {
+				pbr.unread(nextInt);
+				break;
+			}
+			if (Character.isWhitespace(nextInt)) {
+				continue;
 			}
-			throw new DataFormatException(Msg.code(1861) + "Failed to parse JSON encoded FHIR content: " + e.getMessage(), e);
+			if (allowArray) {
+				if (nextInt == '[') {
+					pbr.unread(nextInt);
+					break;
+				}
+				throw new DataFormatException(Msg.code(1858) + "Content does not appear to be FHIR JSON, first non-whitespace character was: '" + (char) nextInt + "' (must be '{' or '[')");
+			}
+			throw new DataFormatException(Msg.code(1859) + "Content does not appear to be FHIR JSON, first non-whitespace character was: '" + (char) nextInt + "' (must be '{')");
 		}
+		return pbr;
+	}
+
+	/**
+	 * Converts a failure raised while reading JSON content into the exception reported to parser callers
+	 */
+	public static DataFormatException toDataFormatException(Exception theException) {
+		if (theException.getMessage() != null && theException.getMessage().startsWith("Unexpected char 39")) {
+			return new DataFormatException(Msg.code(1860) + "Failed to parse JSON encoded FHIR content: " + theException.getMessage() + " - " +
+				"This may indicate that single quotes are being used as JSON escapes where double quotes are required", theException);
+		}
+		return new DataFormatException(Msg.code(1861) + "Failed to parse JSON encoded FHIR content: " + theException.getMessage(), theException);
 	}
 
 	@Override
@@ -127,6 +148,17 @@ public class JacksonStructure implements JsonLikeStructure {
 		return jacksonWriter;
 	}
 
+	/**
+	 * Returns a writer which writes UTF-8 encoded JSON directly to the given stream
+	 */
+	public BaseJsonLikeWriter getJsonLikeWriter(OutputStream theOutputStream) throws IOException {
+		if (null == jacksonWriter) {
+			jacksonWriter = new JacksonWriter(OBJECT_MAPPER.getFactory(), theOutputStream);
+		}
+
+		return jacksonWriter;
+	}
+
 	@Override
 	public BaseJsonLikeWriter getJsonLikeWriter() {
 		if (null == jacksonWriter) {
@@ -148,6 +180,62 @@ public class JacksonStructure implements JsonLikeStructure {
 		throw new DataFormatException(Msg.code(1862) + "Content must be a valid JSON Object. It must start with '{'.");
 	}
 
+	/**
+	 * Creates a token-level Jackson parser for the given reader, configured the same way as
+	 * the parser used by {@link #load(Reader)}. The content must begin with a JSON object. The
+	 * caller is responsible for closing the returned parser (which will not close the
+	 * underlying reader).
+	 */
+	public static JsonParser createStreamingParser(Reader theReader) throws DataFormatException {
+		try {
+			return STREAMING_OBJECT_MAPPER.getFactory().createParser(skipToContent(theReader, false));
+		} catch (Exception e) {
+			throw toDataFormatException(e);
+		}
+	}
+
+	/**
+	 * Reads the value starting at the current token of a parser created by
+	 * {@link #createStreamingParser(Reader)} into a (small) tree. After this call the parser
+	 * has consumed the value, so the caller should advance to the next token.
+	 */
+	public static BaseJsonLikeValue readStreamingValue(JsonParser theParser) throws IOException {
+		JsonNode value = STREAMING_OBJECT_MAPPER.readTree(theParser);
+		return new JacksonJsonValue(value);
+	}
+
+	/**
+	 * Reads the remaining fields of a partially consumed object into a tree. The parser must be
+	 * positioned on a {@link JsonToken#FIELD_NAME} or on the closing {@link JsonToken#END_OBJECT},
+	 * and is left positioned on the closing {@link JsonToken#END_OBJECT}.
+	 */
+	public static BaseJsonLikeObject readStreamingObjectRemainder(JsonParser theParser) throws IOException {
+		ObjectNode object = STREAMING_OBJECT_MAPPER.getNodeFactory().objectNode();
+		while (theParser.currentToken() == JsonToken.FIELD_NAME) {
+			String name = theParser.currentName();
+			theParser.nextToken();
+			JsonNode next = STREAMING_OBJECT_MAPPER.readTree(theParser);
+			object.set(name, next);
+			theParser.nextToken();
+		}
+		return new JacksonJsonObject(object);
+	}
+
+	/**
+	 * Reads the remaining elements of a partially consumed array into a tree. The parser must be
+	 * positioned on the first unread element or on the closing {@link JsonToken#END_ARRAY}, and is
+	 * left positioned on the closing {@link JsonToken#END_ARRAY}.
+	 */
+	public static BaseJsonLikeValue readStreamingArrayRemainder(JsonParser theParser) throws IOException {
+		ArrayNode array = STREAMING_OBJECT_MAPPER.getNodeFactory().arrayNode();
+		while (theParser.currentToken() != null && theParser.currentToken() != JsonToken.END_ARRAY) {
+			JsonNode next = STREAMING_OBJECT_MAPPER.readTree(theParser);
+			array.add(next);
+			theParser.nextToken();
+		}
+		return new JacksonJsonValue(array);
+	}
+
 	private enum ROOT_TYPE {OBJECT, ARRAY}
 
 	private static class JacksonJsonObject extends BaseJsonLikeObject {
@@ -371,10 +459,14 @@ public class JacksonStructure implements JsonLikeStructure {
 	}
 
 	private static ObjectMapper createObjectMapper() {
-		ObjectMapper retVal =
-			JsonMapper
-				.builder()
-				.build();
+		return configureObjectMapper(JsonMapper.builder().build());
+	}
+
+	/**
+	 * Applies the settings used for reading and writing FHIR content to an ObjectMapper
+	 */
+	static ObjectMapper configureObjectMapper(ObjectMapper theObjectMapper) {
+		ObjectMapper retVal = theObjectMapper;
 		retVal = retVal.setNodeFactory(new JsonNodeFactory(true));
 		retVal = retVal.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
 		retVal = retVal.enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
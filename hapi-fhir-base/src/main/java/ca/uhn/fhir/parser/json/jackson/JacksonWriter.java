@@ -21,6 +21,7 @@ package ca.uhn.fhir.parser.json.jackson;
  */
 
 import ca.uhn.fhir.parser.json.BaseJsonLikeWriter;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
@@ -28,6 +29,7 @@ import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.core.util.Separators;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -41,6 +43,10 @@ public class JacksonWriter extends BaseJsonLikeWriter {
 		setWriter(theWriter);
 	}
 
+	public JacksonWriter(JsonFactory theJsonFactory, OutputStream theOutputStream) throws IOException {
+		myJsonGenerator = theJsonFactory.createGenerator(theOutputStream, JsonEncoding.UTF8);
+	}
+
 	public JacksonWriter() {
 	}
 
@@ -0,0 +1,122 @@
+package ca.uhn.fhir.parser.json.jackson;
+
+/*-
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.json.BaseJsonLikeWriter;
+import ca.uhn.fhir.parser.json.JsonLikeStructure;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * A {@link JsonLikeStructure} backed by the Smile binary JSON format. Smile content is
+ * binary, so it can only be read from an {@link InputStream} and written to an
+ * {@link OutputStream}.
+ */
+public class SmileStructure extends JacksonStructure {
+
+	private static final ObjectMapper OBJECT_MAPPER = configureObjectMapper(new ObjectMapper(new SmileFactory()));
+	private static final ObjectMapper JSON_OBJECT_MAPPER = configureObjectMapper(JsonMapper.builder().build());
+	private JacksonWriter mySmileWriter;
+
+	@Override
+	public JsonLikeStructure getInstance() {
+		return new SmileStructure();
+	}
+
+	/**
+	 * Parse the Smile document into the Json-like structure so that it can be navigated.
+	 *
+	 * @throws DataFormatException when invalid content is received
+	 */
+	public void load(InputStream theInputStream) throws DataFormatException {
+		JsonNode root;
+		try {
+			root = OBJECT_MAPPER.readTree(theInputStream);
+		} catch (IOException e) {
+			throw new DataFormatException(Msg.code(2160) + "Failed to parse Smile encoded FHIR content: " + e.getMessage(), e);
+		}
+		if (!(root instanceof ObjectNode)) {
+			throw new DataFormatException(Msg.code(2161) + "Content does not appear to be a Smile encoded FHIR resource");
+		}
+		setNativeObject((ObjectNode) root);
+	}
+
+	/**
+	 * Creates a streaming parser for Smile content. The parser does not close the stream when
+	 * it is closed.
+	 */
+	public static JsonParser createStreamingParser(InputStream theInputStream) throws IOException {
+		return OBJECT_MAPPER.getFactory().createParser(theInputStream);
+	}
+
+	@Override
+	public void load(Reader theReader, boolean allowArray) throws DataFormatException {
+		throw new UnsupportedOperationException(Msg.code(2162) + "Smile is a binary format and can not be read from a Reader");
+	}
+
+	@Override
+	public BaseJsonLikeWriter getJsonLikeWriter(Writer writer) {
+		throw new UnsupportedOperationException(Msg.code(2163) + "Smile is a binary format and can not be written to a Writer");
+	}
+
+	@Override
+	public BaseJsonLikeWriter getJsonLikeWriter(OutputStream theOutputStream) throws IOException {
+		if (null == mySmileWriter) {
+			mySmileWriter = new JacksonWriter(OBJECT_MAPPER.getFactory(), theOutputStream);
+		}
+		return mySmileWriter;
+	}
+
+	/**
+	 * Converts Smile encoded content into the equivalent JSON text
+	 */
+	public static String toJson(byte[] theSmile) throws DataFormatException {
+		try {
+			return JSON_OBJECT_MAPPER.writeValueAsString(OBJECT_MAPPER.readTree(theSmile));
+		} catch (IOException e) {
+			throw new DataFormatException(Msg.code(2165) + "Failed to parse Smile encoded FHIR content: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Converts JSON text into the equivalent Smile encoded content
+	 */
+	public static byte[] fromJson(String theJson) throws DataFormatException {
+		try {
+			return OBJECT_MAPPER.writeValueAsBytes(JSON_OBJECT_MAPPER.readTree(theJson));
+		} catch (IOException e) {
+			throw new DataFormatException(Msg.code(2166) + "Failed to parse JSON encoded FHIR content: " + e.getMessage(), e);
+		}
+	}
+
+}
@@ -241,8 +241,10 @@ public class Constants {
 	public static final int STATUS_HTTP_410_GONE = 410;
 	public static final int STATUS_HTTP_412_PRECONDITION_FAILED = 412;
 	public static final int STATUS_HTTP_422_UNPROCESSABLE_ENTITY = 422;
+	public static final int STATUS_HTTP_429_TOO_MANY_REQUESTS = 429;
 	public static final int STATUS_HTTP_500_INTERNAL_ERROR = 500;
 	public static final int STATUS_HTTP_501_NOT_IMPLEMENTED = 501;
+	public static final int STATUS_HTTP_503_SERVICE_UNAVAILABLE = 503;
 	public static final String TAG_SUBSETTED_CODE = "SUBSETTED";
 	public static final String TAG_SUBSETTED_SYSTEM_DSTU3 = "http://hl7.org/fhir/v3/ObservationValue";
 	public static final String TAG_SUBSETTED_SYSTEM_R4 = "http://terminology.hl7.org/CodeSystem/v3-ObservationValue";
@@ -67,6 +67,7 @@ public abstract class BaseServerResponseException extends RuntimeException {
 		registerExceptionType(ResourceVersionConflictException.STATUS_CODE, ResourceVersionConflictException.class);
 		registerExceptionType(UnprocessableEntityException.STATUS_CODE, UnprocessableEntityException.class);
 		registerExceptionType(ForbiddenOperationException.STATUS_CODE, ForbiddenOperationException.class);
+		registerExceptionType(TooManyRequestsException.STATUS_CODE, TooManyRequestsException.class);
 	}
 
 	private List<String> myAdditionalMessages = null;
@@ -0,0 +1,307 @@
+package ca.uhn.fhir.util;
+
+/*
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
+
+import javax.annotation.Nullable;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fast path for parsing the common fixed-width ISO-8601 forms used by the FHIR
+ * <code>date</code>, <code>dateTime</code> and <code>instant</code> datatypes
+ * (<code>yyyy</code>, <code>yyyy-MM</code>, <code>yyyy-MM-dd</code> and
+ * <code>yyyy-MM-ddTHH:mm:ss[.SSS...]</code> with an optional <code>Z</code> or
+ * <code>&plusmn;HH:mm</code> offset) without going through {@link java.util.Calendar}.
+ * <p>
+ * This class only handles input it can parse with exactly the same result as a
+ * lenient {@link java.util.GregorianCalendar}. Anything else (invalid values, years
+ * before the Gregorian cutover, minute precision, local times that fall in a
+ * daylight savings transition, etc.) returns <code>null</code> so that the caller
+ * can fall back to its general purpose parser, which is also responsible for
+ * producing error messages.
+ * </p>
+ */
+public final class DateTimeParseUtil {
+
+	private static final Map<String, TimeZone> ourTimeZoneCache = new ConcurrentHashMap<>();
+	private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+	private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+	private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+	/**
+	 * GregorianCalendar switches to the Julian calendar on 1582-10-15, so earlier
+	 * dates are left to the general purpose parser
+	 */
+	private static final int MIN_YEAR = 1583;
+
+	/**
+	 * Non instantiable
+	 */
+	private DateTimeParseUtil() {
+		// nothing
+	}
+
+	/**
+	 * Returns a cached {@link TimeZone} for the given ID. {@link TimeZone#getTimeZone(String)}
+	 * is relatively expensive and {@link TimeZone} instances are never modified by HAPI, so
+	 * this should be used instead when the same IDs (e.g. <code>GMT+05:00</code>) are
+	 * looked up repeatedly.
+	 */
+	public static TimeZone getTimeZone(String theId) {
+		return ourTimeZoneCache.computeIfAbsent(theId, TimeZone::getTimeZone);
+	}
+
+	/**
+	 * Parses the given value, or returns <code>null</code> if the value is not in one of
+	 * the forms handled by this class (see the class documentation).
+	 *
+	 * @param theValue The value to parse, which must already have been trimmed
+	 */
+	@Nullable
+	public static ParsedDateTime parse(String theValue) {
+		int length = theValue.length();
+		if (length != 4 && length != 7 && length != 10 && length < 19) {
+			return null;
+		}
+
+		int year = parseDigits(theValue, 0, 4);
+		if (year < MIN_YEAR) {
+			return null;
+		}
+		if (length == 4) {
+			return newLocal(TemporalPrecisionEnum.YEAR, year, 1, 1, 0, 0, 0, 0, "");
+		}
+
+		if (theValue.charAt(4) != '-') {
+			return null;
+		}
+		int month = parseDigits(theValue, 5, 2);
+		if (month < 1 || month > 12) {
+			return null;
+		}
+		if (length == 7) {
+			return newLocal(TemporalPrecisionEnum.MONTH, year, month, 1, 0, 0, 0, 0, "");
+		}
+
+		if (theValue.charAt(7) != '-') {
+			return null;
+		}
+		int day = parseDigits(theValue, 8, 2);
+		if (day < 1 || day > daysInMonth(year, month)) {
+			return null;
+		}
+		if (length == 10) {
+			return newLocal(TemporalPrecisionEnum.DAY, year, month, day, 0, 0, 0, 0, "");
+		}
+
+		if (theValue.charAt(10) != 'T' || theValue.charAt(13) != ':' || theValue.charAt(16) != ':') {
+			return null;
+		}
+		int hour = parseDigits(theValue, 11, 2);
+		int minute = parseDigits(theValue, 14, 2);
+		int second = parseDigits(theValue, 17, 2);
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+			return null;
+		}
+
+		TemporalPrecisionEnum precision = TemporalPrecisionEnum.SECOND;
+		int millis = 0;
+		String fractionalSeconds = "";
+		int index = 19;
+		if (index < length && theValue.charAt(index) == '.') {
+			int fractionEnd = index + 1;
+			while (fractionEnd < length && isDigit(theValue.charAt(fractionEnd))) {
+				fractionEnd++;
+			}
+			int fractionLength = fractionEnd - index - 1;
+			if (fractionLength == 0) {
+				return null;
+			}
+			fractionalSeconds = theValue.substring(index + 1, fractionEnd);
+			millis = parseDigits(theValue, index + 1, Math.min(fractionLength, 3));
+			if (fractionLength == 1) {
+				millis *= 100;
+			} else if (fractionLength == 2) {
+				millis *= 10;
+			}
+			precision = TemporalPrecisionEnum.MILLI;
+			index = fractionEnd;
+		}
+
+		if (index == length) {
+			return newLocal(precision, year, month, day, hour, minute, second, millis, fractionalSeconds);
+		}
+
+		long localMillis = toEpochDay(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * 1000L + millis;
+		char offsetChar = theValue.charAt(index);
+		if (offsetChar == 'Z' && index + 1 == length) {
+			return new ParsedDateTime(localMillis, precision, fractionalSeconds, null, true);
+		}
+		if ((offsetChar == '+' || offsetChar == '-') && index + 6 == length && theValue.charAt(index + 3) == ':') {
+			int offsetHours = parseDigits(theValue, index + 1, 2);
+			int offsetMinutes = parseDigits(theValue, index + 4, 2);
+			if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59) {
+				return null;
+			}
+			long offsetMillis = offsetHours * MILLIS_PER_HOUR + offsetMinutes * MILLIS_PER_MINUTE;
+			if (offsetChar == '-') {
+				offsetMillis = -offsetMillis;
+			}
+			TimeZone timeZone = getTimeZone("GMT" + theValue.substring(index));
+			return new ParsedDateTime(localMillis - offsetMillis, precision, fractionalSeconds, timeZone, false);
+		}
+
+		return null;
+	}
+
+	@Nullable
+	private static ParsedDateTime newLocal(TemporalPrecisionEnum thePrecision, int theYear, int theMonth, int theDay, int theHour, int theMinute, int theSecond, int theMillis, String theFractionalSeconds) {
+		// Values without an offset are interpreted in the JVM default timezone, which is
+		// only unambiguous when the local time isn't in a daylight savings gap or overlap
+		TimeZone defaultTimeZone = TimeZone.getDefault();
+		LocalDateTime localDateTime = LocalDateTime.of(theYear, theMonth, theDay, theHour, theMinute, theSecond);
+		List<ZoneOffset> offsets;
+		try {
+			offsets = defaultTimeZone.toZoneId().getRules().getValidOffsets(localDateTime);
+		} catch (DateTimeException e) {
+			// Custom default TimeZone which has no java.time equivalent
+			return null;
+		}
+		if (offsets.size() != 1) {
+			return null;
+		}
+
+		// java.time and java.util disagree on some historical (local mean time) offsets,
+		// in which case the Calendar result is the one we need to match
+		int offsetMillis = offsets.get(0).getTotalSeconds() * 1000;
+		long epochMillis = localDateTime.toEpochSecond(offsets.get(0)) * 1000L + theMillis;
+		if (defaultTimeZone.getOffset(epochMillis) != offsetMillis) {
+			return null;
+		}
+		return new ParsedDateTime(epochMillis, thePrecision, theFractionalSeconds, null, false);
+	}
+
+	/**
+	 * Parses a fixed number of ASCII digits, returning -1 if any character isn't a digit
+	 */
+	private static int parseDigits(String theValue, int theStart, int theLength) {
+		int retVal = 0;
+		for (int i = theStart; i < theStart + theLength; i++) {
+			char next = theValue.charAt(i);
+			if (!isDigit(next)) {
+				return -1;
+			}
+			retVal = retVal * 10 + (next - '0');
+		}
+		return retVal;
+	}
+
+	private static boolean isDigit(char theChar) {
+		return theChar >= '0' && theChar <= '9';
+	}
+
+	private static int daysInMonth(int theYear, int theMonth) {
+		switch (theMonth) {
+			case 2:
+				boolean leapYear = (theYear % 4 == 0 && theYear % 100 != 0) || theYear % 400 == 0;
+				return leapYear ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * Days since 1970-01-01 in the proleptic Gregorian calendar
+	 */
+	private static long toEpochDay(int theYear, int theMonth, int theDay) {
+		// See http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+		long year = theMonth <= 2 ? theYear - 1 : theYear;
+		long era = year / 400;
+		long yearOfEra = year - era * 400;
+		long dayOfYear = (153L * (theMonth > 2 ? theMonth - 3 : theMonth + 9) + 2) / 5 + theDay - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	/**
+	 * The result of {@link #parse(String)}
+	 */
+	public static final class ParsedDateTime {
+
+		private final long myEpochMillis;
+		private final TemporalPrecisionEnum myPrecision;
+		private final String myFractionalSeconds;
+		private final TimeZone myTimeZone;
+		private final boolean myTimeZoneZulu;
+
+		ParsedDateTime(long theEpochMillis, TemporalPrecisionEnum thePrecision, String theFractionalSeconds, TimeZone theTimeZone, boolean theTimeZoneZulu) {
+			myEpochMillis = theEpochMillis;
+			myPrecision = thePrecision;
+			myFractionalSeconds = theFractionalSeconds;
+			myTimeZone = theTimeZone;
+			myTimeZoneZulu = theTimeZoneZulu;
+		}
+
+		/**
+		 * The parsed instant, in milliseconds since the epoch
+		 */
+		public long getEpochMillis() {
+			return myEpochMillis;
+		}
+
+		public TemporalPrecisionEnum getPrecision() {
+			return myPrecision;
+		}
+
+		/**
+		 * The fractional seconds exactly as they appeared in the value (without
+		 * the leading <code>.</code>), or an empty string if there were none
+		 */
+		public String getFractionalSeconds() {
+			return myFractionalSeconds;
+		}
+
+		/**
+		 * The explicit offset from the value, or <code>null</code> if the value had no
+		 * offset or used <code>Z</code>
+		 */
+		@Nullable
+		public TimeZone getTimeZone() {
+			return myTimeZone;
+		}
+
+		public boolean isTimeZoneZulu() {
+			return myTimeZoneZulu;
+		}
+	}
+
+}
@@ -51,6 +51,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -83,8 +84,13 @@ import static org.apache.commons.lang3.StringUtils.substring;
 public class FhirTerser {
 
 	private static final Pattern COMPARTMENT_MATCHER_PATH = Pattern.compile("([a-zA-Z.]+)\\.where\\(resolve\\(\\) is ([a-zA-Z]+)\\)");
+	/**
+	 * Maximum number of compiled paths cached for any single element type
+	 */
+	private static final int COMPILED_PATH_CACHE_SIZE_PER_TYPE = 500;
 	private static final String USER_DATA_KEY_CONTAIN_RESOURCES_COMPLETED = FhirTerser.class.getName() + "_CONTAIN_RESOURCES_COMPLETED";
 	private final FhirContext myContext;
+	private final Map<BaseRuntimeElementCompositeDefinition<?>, Map<String, CompiledPath>> myCompiledPathCache = new ConcurrentHashMap<>();
 
 	public FhirTerser(FhirContext theContext) {
 		super();
@@ -312,9 +318,9 @@ public class FhirTerser {
 
 		BaseRuntimeElementCompositeDefinition<?> currentDef = (BaseRuntimeElementCompositeDefinition<?>) def;
 
-		List<String> parts = parsePath(currentDef, thePath);
+		CompiledPath path = getCompiledPath(currentDef, thePath);
 
-		List<T> retVal = getValues(currentDef, theTarget, parts, theWantedType);
+		List<T> retVal = getValues(currentDef, theTarget, path.getSteps(), 0, theWantedType, false, false);
 		if (retVal.isEmpty()) {
 			return null;
 		}
@@ -333,25 +339,19 @@ public class FhirTerser {
 		return Optional.ofNullable(getSingleValueOrNull(theTarget, thePath, theWantedType));
 	}
 
-	private <T extends IBase> List<T> getValues(BaseRuntimeElementCompositeDefinition<?> theCurrentDef, IBase theCurrentObj, List<String> theSubList, Class<T> theWantedClass) {
-		return getValues(theCurrentDef, theCurrentObj, theSubList, theWantedClass, false, false);
-	}
-
 	@SuppressWarnings("unchecked")
-	private <T extends IBase> List<T> getValues(BaseRuntimeElementCompositeDefinition<?> theCurrentDef, IBase theCurrentObj, List<String> theSubList, Class<T> theWantedClass, boolean theCreate, boolean theAddExtension) {
-		if (theSubList.isEmpty()) {
+	private <T extends IBase> List<T> getValues(BaseRuntimeElementCompositeDefinition<?> theCurrentDef, IBase theCurrentObj, List<PathStep> theSteps, int theStepIndex, Class<T> theWantedClass, boolean theCreate, boolean theAddExtension) {
+		if (theStepIndex >= theSteps.size()) {
 			return Collections.emptyList();
 		}
 
-		String name = theSubList.get(0);
+		PathStep step = theSteps.get(theStepIndex);
+		String name = step.getName();
+		boolean lastStep = theStepIndex == theSteps.size() - 1;
 		List<T> retVal = new ArrayList<>();
 
-		if (name.startsWith("extension('")) {
-			String extensionUrl = name.substring("extension('".length());
-			int endIndex = extensionUrl.indexOf('\'');
-			if (endIndex != -1) {
-				extensionUrl = extensionUrl.substring(0, endIndex);
-			}
+		if (step.getType() == PathStepTypeEnum.EXTENSION) {
+			String extensionUrl = step.getExtensionUrl();
 
 			if (myContext.getVersion().getVersion().isOlderThan(FhirVersionEnum.DSTU3)) {
 				// DTSU2
@@ -364,7 +364,7 @@ public class FhirTerser {
 						.collect(Collectors.toList());
 
 					if (theAddExtension
-						&& (!(theCurrentObj instanceof IBaseExtension) || (extensionDts.isEmpty() && theSubList.size() == 1))) {
+						&& (!(theCurrentObj instanceof IBaseExtension) || (extensionDts.isEmpty() && lastStep))) {
 						extensionDts.add(createEmptyExtensionDt((ISupportsUndeclaredExtensions) theCurrentObj, extensionUrl));
 					}
 
@@ -376,7 +376,7 @@ public class FhirTerser {
 					extensionDts = ((IBaseExtension) theCurrentObj).getExtension();
 
 					if (theAddExtension
-						&& (extensionDts.isEmpty() && theSubList.size() == 1)) {
+						&& (extensionDts.isEmpty() && lastStep)) {
 						extensionDts.add(createEmptyExtensionDt((IBaseExtension) theCurrentObj, extensionUrl));
 					}
 
@@ -401,7 +401,7 @@ public class FhirTerser {
 						.collect(Collectors.toList());
 
 					if (theAddExtension
-						&& (!(theCurrentObj instanceof IBaseExtension) || (extensions.isEmpty() && theSubList.size() == 1))) {
+						&& (!(theCurrentObj instanceof IBaseExtension) || (extensions.isEmpty() && lastStep))) {
 						extensions.add(createEmptyExtension((IBaseHasExtensions) theCurrentObj, extensionUrl));
 					}
 
@@ -417,12 +417,12 @@ public class FhirTerser {
 				}
 			}
 
-			if (theSubList.size() > 1) {
+			if (!lastStep) {
 				List<T> values = retVal;
 				retVal = new ArrayList<>();
 				for (T nextElement : values) {
-					BaseRuntimeElementCompositeDefinition<?> nextChildDef = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(nextElement.getClass());
-					List<T> foundValues = getValues(nextChildDef, nextElement, theSubList.subList(1, theSubList.size()), theWantedClass, theCreate, theAddExtension);
+					BaseRuntimeElementCompositeDefinition<?> nextChildDef = getCompositeDefinition(nextElement, theSteps.get(theStepIndex + 1));
+					List<T> foundValues = getValues(nextChildDef, nextElement, theSteps, theStepIndex + 1, theWantedClass, theCreate, theAddExtension);
 					retVal.addAll(foundValues);
 				}
 			}
@@ -430,12 +430,8 @@ public class FhirTerser {
 			return retVal;
 		}
 
-		if (name.startsWith("modifierExtension('")) {
-			String extensionUrl = name.substring("modifierExtension('".length());
-			int endIndex = extensionUrl.indexOf('\'');
-			if (endIndex != -1) {
-				extensionUrl = extensionUrl.substring(0, endIndex);
-			}
+		if (step.getType() == PathStepTypeEnum.MODIFIER_EXTENSION) {
+			String extensionUrl = step.getExtensionUrl();
 
 			if (myContext.getVersion().getVersion().isOlderThan(FhirVersionEnum.DSTU3)) {
 				// DSTU2
@@ -448,7 +444,7 @@ public class FhirTerser {
 						.collect(Collectors.toList());
 
 					if (theAddExtension
-						&& (!(theCurrentObj instanceof IBaseExtension) || (extensionDts.isEmpty() && theSubList.size() == 1))) {
+						&& (!(theCurrentObj instanceof IBaseExtension) || (extensionDts.isEmpty() && lastStep))) {
 						extensionDts.add(createEmptyModifierExtensionDt((ISupportsUndeclaredExtensions) theCurrentObj, extensionUrl));
 					}
 
@@ -460,7 +456,7 @@ public class FhirTerser {
 					extensionDts = ((IBaseExtension) theCurrentObj).getExtension();
 
 					if (theAddExtension
-						&& (extensionDts.isEmpty() && theSubList.size() == 1)) {
+						&& (extensionDts.isEmpty() && lastStep)) {
 						extensionDts.add(createEmptyExtensionDt((IBaseExtension) theCurrentObj, extensionUrl));
 					}
 
@@ -486,7 +482,7 @@ public class FhirTerser {
 						.collect(Collectors.toList());
 
 					if (theAddExtension
-						&& (!(theCurrentObj instanceof IBaseExtension) || (extensions.isEmpty() && theSubList.size() == 1))) {
+						&& (!(theCurrentObj instanceof IBaseExtension) || (extensions.isEmpty() && lastStep))) {
 						extensions.add(createEmptyModifierExtension((IBaseHasModifierExtensions) theCurrentObj, extensionUrl));
 					}
 
@@ -502,12 +498,12 @@ public class FhirTerser {
 				}
 			}
 
-			if (theSubList.size() > 1) {
+			if (!lastStep) {
 				List<T> values = retVal;
 				retVal = new ArrayList<>();
 				for (T nextElement : values) {
-					BaseRuntimeElementCompositeDefinition<?> nextChildDef = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(nextElement.getClass());
-					List<T> foundValues = getValues(nextChildDef, nextElement, theSubList.subList(1, theSubList.size()), theWantedClass, theCreate, theAddExtension);
+					BaseRuntimeElementCompositeDefinition<?> nextChildDef = getCompositeDefinition(nextElement, theSteps.get(theStepIndex + 1));
+					List<T> foundValues = getValues(nextChildDef, nextElement, theSteps, theStepIndex + 1, theWantedClass, theCreate, theAddExtension);
 					retVal.addAll(foundValues);
 				}
 			}
@@ -515,7 +511,7 @@ public class FhirTerser {
 			return retVal;
 		}
 
-		BaseRuntimeChildDefinition nextDef = theCurrentDef.getChildByNameOrThrowDataFormatException(name);
+		BaseRuntimeChildDefinition nextDef = step.getChildDefinition(theCurrentDef);
 		List<? extends IBase> values = nextDef.getAccessor().getValues(theCurrentObj);
 
 		if (values.isEmpty() && theCreate) {
@@ -533,7 +529,7 @@ public class FhirTerser {
 			values = list;
 		}
 
-		if (theSubList.size() == 1) {
+		if (lastStep) {
 			if (nextDef instanceof RuntimeChildChoiceDefinition) {
 				for (IBase next : values) {
 					if (next != null) {
@@ -543,7 +539,7 @@ public class FhirTerser {
 							}
 						} else {
 							String childName = nextDef.getChildNameByDatatype(next.getClass());
-							if (theSubList.get(0).equals(childName)) {
+							if (name.equals(childName)) {
 								if (theWantedClass == null || theWantedClass.isAssignableFrom(next.getClass())) {
 									retVal.add((T) next);
 								}
@@ -562,14 +558,26 @@ public class FhirTerser {
 			}
 		} else {
 			for (IBase nextElement : values) {
-				BaseRuntimeElementCompositeDefinition<?> nextChildDef = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(nextElement.getClass());
-				List<T> foundValues = getValues(nextChildDef, nextElement, theSubList.subList(1, theSubList.size()), theWantedClass, theCreate, theAddExtension);
+				BaseRuntimeElementCompositeDefinition<?> nextChildDef = getCompositeDefinition(nextElement, theSteps.get(theStepIndex + 1));
+				List<T> foundValues = getValues(nextChildDef, nextElement, theSteps, theStepIndex + 1, theWantedClass, theCreate, theAddExtension);
 				retVal.addAll(foundValues);
 			}
 		}
 		return retVal;
 	}
 
+	/**
+	 * Returns the definition for an element found while evaluating a path. If the element is of the
+	 * type that was expected when the path was compiled, no lookup is required.
+	 */
+	private BaseRuntimeElementCompositeDefinition<?> getCompositeDefinition(IBase theElement, PathStep theNextStep) {
+		BaseRuntimeElementCompositeDefinition<?> expectedDefinition = theNextStep.getExpectedDefinition();
+		if (expectedDefinition != null && expectedDefinition.getImplementingClass() == theElement.getClass()) {
+			return expectedDefinition;
+		}
+		return (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(theElement.getClass());
+	}
+
 	/**
 	 * Returns values stored in an element identified by its path. The list of values is of
 	 * type {@link Object}.
@@ -627,8 +635,8 @@ public class FhirTerser {
 	 */
 	public <T extends IBase> List<T> getValues(IBase theElement, String thePath, Class<T> theWantedClass) {
 		BaseRuntimeElementCompositeDefinition<?> def = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(theElement.getClass());
-		List<String> parts = parsePath(def, thePath);
-		return getValues(def, theElement, parts, theWantedClass);
+		CompiledPath path = getCompiledPath(def, thePath);
+		return getValues(def, theElement, path.getSteps(), 0, theWantedClass, false, false);
 	}
 
 	/**
@@ -644,8 +652,8 @@ public class FhirTerser {
 	 */
 	public <T extends IBase> List<T> getValues(IBase theElement, String thePath, Class<T> theWantedClass, boolean theCreate) {
 		BaseRuntimeElementCompositeDefinition<?> def = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(theElement.getClass());
-		List<String> parts = parsePath(def, thePath);
-		return getValues(def, theElement, parts, theWantedClass, theCreate, false);
+		CompiledPath path = getCompiledPath(def, thePath);
+		return getValues(def, theElement, path.getSteps(), 0, theWantedClass, theCreate, false);
 	}
 
 	/**
@@ -662,8 +670,142 @@ public class FhirTerser {
 	 */
 	public <T extends IBase> List<T> getValues(IBase theElement, String thePath, Class<T> theWantedClass, boolean theCreate, boolean theAddExtension) {
 		BaseRuntimeElementCompositeDefinition<?> def = (BaseRuntimeElementCompositeDefinition<?>) myContext.getElementDefinition(theElement.getClass());
-		List<String> parts = parsePath(def, thePath);
-		return getValues(def, theElement, parts, theWantedClass, theCreate, theAddExtension);
+		CompiledPath path = getCompiledPath(def, thePath);
+		return getValues(def, theElement, path.getSteps(), 0, theWantedClass, theCreate, theAddExtension);
+	}
+
+	/**
+	 * Returns values stored in an element identified by a path that was previously compiled using
+	 * {@link #compilePath(String, String)} or {@link #compilePath(Class, String)}.
+	 *
+	 * @param theElement The element to be accessed. Must not be null, and must be of the type the path was compiled for.
+	 * @param thePath    The compiled path for the element to be accessed.
+	 * @return A list of values of type {@link IBase}.
+	 * @since 6.3.0
+	 */
+	public List<IBase> getValues(IBase theElement, CompiledPath thePath) {
+		return getValues(theElement, thePath, IBase.class);
+	}
+
+	/**
+	 * Returns values stored in an element identified by a path that was previously compiled using
+	 * {@link #compilePath(String, String)} or {@link #compilePath(Class, String)}.
+	 *
+	 * @param theElement     The element to be accessed. Must not be null, and must be of the type the path was compiled for.
+	 * @param thePath        The compiled path for the element to be accessed.
+	 * @param theWantedClass The desired class to be returned in a list.
+	 * @param <T>            Type declared by <code>theWantedClass</code>
+	 * @return A list of values of type <code>theWantedClass</code>.
+	 * @since 6.3.0
+	 */
+	public <T extends IBase> List<T> getValues(IBase theElement, CompiledPath thePath, Class<T> theWantedClass) {
+		return getValues(theElement, thePath, theWantedClass, false, false);
+	}
+
+	/**
+	 * Returns values stored in an element identified by a path that was previously compiled using
+	 * {@link #compilePath(String, String)} or {@link #compilePath(Class, String)}.
+	 *
+	 * @param theElement      The element to be accessed. Must not be null, and must be of the type the path was compiled for.
+	 * @param thePath         The compiled path for the element to be accessed.
+	 * @param theWantedClass  The desired class to be returned in a list.
+	 * @param theCreate       When set to <code>true</code>, the terser will create a null-valued element where none exists.
+	 * @param theAddExtension When set to <code>true</code>, the terser will add a null-valued extension where one or more such extensions already exist.
+	 * @param <T>             Type declared by <code>theWantedClass</code>
+	 * @return A list of values of type <code>theWantedClass</code>.
+	 * @since 6.3.0
+	 */
+	public <T extends IBase> List<T> getValues(IBase theElement, CompiledPath thePath, Class<T> theWantedClass, boolean theCreate, boolean theAddExtension) {
+		Validate.notNull(theElement, "theElement must not be null");
+		Validate.notNull(thePath, "thePath must not be null");
+
+		BaseRuntimeElementCompositeDefinition<?> def = thePath.getElementDefinition();
+		if (def.getImplementingClass() != theElement.getClass()) {
+			BaseRuntimeElementDefinition<?> elementDef = myContext.getElementDefinition(theElement.getClass());
+			if (elementDef != def) {
+				throw new IllegalArgumentException(Msg.code(2171) + "Path " + thePath.getPath() + " was compiled for type " + def.getName() + " and can not be used with element of type " + theElement.getClass().getName());
+			}
+		}
+		return getValues(def, theElement, thePath.getSteps(), 0, theWantedClass, theCreate, theAddExtension);
+	}
+
+	/**
+	 * Returns the first value stored in an element identified by a path that was previously compiled using
+	 * {@link #compilePath(String, String)} or {@link #compilePath(Class, String)}, or <code>null</code>
+	 * if the path does not resolve to any values.
+	 *
+	 * @since 6.3.0
+	 */
+	public <T extends IBase> T getSingleValueOrNull(IBase theTarget, CompiledPath thePath, Class<T> theWantedType) {
+		List<T> retVal = getValues(theTarget, thePath, theWantedType);
+		if (retVal.isEmpty()) {
+			return null;
+		}
+		return retVal.get(0);
+	}
+
+	/**
+	 * Parses a path and resolves the child definitions it refers to, so that it can be evaluated repeatedly
+	 * using {@link #getValues(IBase, CompiledPath, Class)} without any further parsing. The returned object is
+	 * immutable and thread safe.
+	 *
+	 * @param theResourceType The resource type the path will be evaluated against, e.g. <code>"Patient"</code>
+	 * @param thePath         The path, e.g. <code>"Patient.name.family"</code>
+	 * @since 6.3.0
+	 */
+	public CompiledPath compilePath(String theResourceType, String thePath) {
+		Validate.notBlank(theResourceType, "theResourceType must not be blank");
+		return compilePath(myContext.getResourceDefinition(theResourceType), thePath);
+	}
+
+	/**
+	 * Parses a path and resolves the child definitions it refers to, so that it can be evaluated repeatedly
+	 * using {@link #getValues(IBase, CompiledPath, Class)} without any further parsing. The returned object is
+	 * immutable and thread safe.
+	 *
+	 * @param theElementType The resource or composite datatype the path will be evaluated against
+	 * @param thePath        The path, e.g. <code>"Patient.name.family"</code>
+	 * @since 6.3.0
+	 */
+	public CompiledPath compilePath(Class<? extends IBase> theElementType, String thePath) {
+		Validate.notNull(theElementType, "theElementType must not be null");
+		BaseRuntimeElementDefinition<?> def = myContext.getElementDefinition(theElementType);
+		if (!(def instanceof BaseRuntimeElementCompositeDefinition)) {
+			throw new IllegalArgumentException(Msg.code(2193) + "Target is not a composite type: " + theElementType.getName());
+		}
+		return compilePath((BaseRuntimeElementCompositeDefinition<?>) def, thePath);
+	}
+
+	private CompiledPath compilePath(BaseRuntimeElementCompositeDefinition<?> theElementDef, String thePath) {
+		Validate.notBlank(thePath, "thePath must not be empty");
+		return getCompiledPath(theElementDef, thePath);
+	}
+
+	/**
+	 * Returns a compiled path from the cache, compiling it if it isn't already present
+	 */
+	private CompiledPath getCompiledPath(BaseRuntimeElementCompositeDefinition<?> theElementDef, String thePath) {
+		Map<String, CompiledPath> pathToCompiledPath = myCompiledPathCache.computeIfAbsent(theElementDef, t -> new ConcurrentHashMap<>());
+		CompiledPath retVal = pathToCompiledPath.get(thePath);
+		if (retVal == null) {
+			List<String> parts = parsePath(theElementDef, thePath);
+			List<PathStep> steps = new ArrayList<>(parts.size());
+			BaseRuntimeElementCompositeDefinition<?> expectedDefinition = theElementDef;
+			for (String nextPart : parts) {
+				PathStep nextStep = new PathStep(nextPart, expectedDefinition);
+				steps.add(nextStep);
+				expectedDefinition = nextStep.getNextExpectedDefinition();
+			}
+			retVal = new CompiledPath(theElementDef, thePath, steps);
+
+			// Paths are normally a small fixed set, but callers could build them dynamically
+			// so we keep the cache bounded by simply starting over if it gets too big
+			if (pathToCompiledPath.size() >= COMPILED_PATH_CACHE_SIZE_PER_TYPE) {
+				pathToCompiledPath.clear();
+			}
+			pathToCompiledPath.put(thePath, retVal);
+		}
+		return retVal;
 	}
 
 	private List<String> parsePath(BaseRuntimeElementCompositeDefinition<?> theElementDef, String thePath) {
@@ -820,6 +962,65 @@ public class FhirTerser {
 		return false;
 	}
 
+	/**
+	 * Returns the owners of all compartments named <code>theCompartmentName</code> which
+	 * <code>theSource</code> is in, as unqualified versionless references (e.g. <code>Patient/123</code>).
+	 * This is the set of targets for which {@link #isSourceInCompartmentForTarget(String, IBaseResource, IIdType)}
+	 * would return <code>true</code>.
+	 *
+	 * @param theCompartmentName The name of the compartment
+	 * @param theSource          The potential member of the compartment
+	 * @since 6.3.0
+	 */
+	public Set<String> getCompartmentOwnersForResource(String theCompartmentName, IBaseResource theSource) {
+		Validate.notBlank(theCompartmentName, "theCompartmentName must not be null or blank");
+		Validate.notNull(theSource, "theSource must not be null");
+
+		Set<String> retVal = new HashSet<>();
+
+		RuntimeResourceDefinition sourceDef = myContext.getResourceDefinition(theSource);
+		if (theSource.getIdElement().hasIdPart() && sourceDef.getName().equals(theCompartmentName)) {
+			retVal.add(sourceDef.getName() + '/' + theSource.getIdElement().getIdPart());
+		}
+
+		List<RuntimeSearchParam> params = sourceDef.getSearchParamsForCompartmentName(theCompartmentName);
+		for (RuntimeSearchParam nextParam : params) {
+			for (String nextPath : nextParam.getPathsSplit()) {
+
+				// See isSourceInCompartmentForTarget(..) for an explanation of this
+				String wantType = null;
+				Matcher matcher = COMPARTMENT_MATCHER_PATH.matcher(nextPath);
+				if (matcher.matches()) {
+					nextPath = matcher.group(1);
+					wantType = matcher.group(2);
+				}
+
+				List<IBaseReference> values = getValues(theSource, nextPath, IBaseReference.class);
+				for (IBaseReference nextValue : values) {
+					IIdType nextTargetId = nextValue.getReferenceElement().toUnqualifiedVersionless();
+					if (isBlank(nextTargetId.getValue()) && nextValue.getResource() != null) {
+						IBaseResource nextTarget = nextValue.getResource();
+						nextTargetId = nextTarget.getIdElement().toUnqualifiedVersionless();
+						if (!nextTargetId.hasResourceType()) {
+							String resourceType = myContext.getResourceType(nextTarget);
+							nextTargetId.setParts(null, resourceType, nextTargetId.getIdPart(), null);
+						}
+					}
+
+					if (!theCompartmentName.equals(nextTargetId.getResourceType()) || !nextTargetId.hasIdPart()) {
+						continue;
+					}
+					if (isNotBlank(wantType) && !wantType.equals(nextTargetId.getResourceType())) {
+						continue;
+					}
+					retVal.add(nextTargetId.getValue());
+				}
+			}
+		}
+
+		return retVal;
+	}
+
 	private void visit(IBase theElement, BaseRuntimeChildDefinition theChildDefinition, BaseRuntimeElementDefinition<?> theDefinition, IModelVisitor2 theCallback, List<IBase> theContainingElementPath,
 							 List<BaseRuntimeChildDefinition> theChildDefinitionPath, List<BaseRuntimeElementDefinition<?>> theElementDefinitionPath) {
 		if (theChildDefinition != null) {
@@ -1583,4 +1784,137 @@ public class FhirTerser {
 		}
 	}
 
+	/**
+	 * A path which has been parsed and resolved against a specific element type by
+	 * {@link #compilePath(String, String)}. Instances are immutable and may be shared
+	 * between threads.
+	 *
+	 * @since 6.3.0
+	 */
+	public static class CompiledPath {
+
+		private final BaseRuntimeElementCompositeDefinition<?> myElementDefinition;
+		private final String myPath;
+		private final List<PathStep> mySteps;
+
+		private CompiledPath(BaseRuntimeElementCompositeDefinition<?> theElementDefinition, String thePath, List<PathStep> theSteps) {
+			myElementDefinition = theElementDefinition;
+			myPath = thePath;
+			mySteps = Collections.unmodifiableList(theSteps);
+		}
+
+		/**
+		 * The definition for the type this path was compiled for
+		 */
+		public BaseRuntimeElementCompositeDefinition<?> getElementDefinition() {
+			return myElementDefinition;
+		}
+
+		/**
+		 * The path as it was originally supplied
+		 */
+		public String getPath() {
+			return myPath;
+		}
+
+		private List<PathStep> getSteps() {
+			return mySteps;
+		}
+
+		@Override
+		public String toString() {
+			return myPath;
+		}
+	}
+
+	private enum PathStepTypeEnum {
+		CHILD,
+		EXTENSION,
+		MODIFIER_EXTENSION
+	}
+
+	/**
+	 * A single part of a {@link CompiledPath}
+	 */
+	private static class PathStep {
+
+		private final String myName;
+		private final PathStepTypeEnum myType;
+		private final String myExtensionUrl;
+		private final BaseRuntimeElementCompositeDefinition<?> myExpectedDefinition;
+		private final BaseRuntimeChildDefinition myChildDefinition;
+
+		/**
+		 * @param theName               The path part
+		 * @param theExpectedDefinition The definition of the elements this step is expected to be applied to, or <code>null</code> if this isn't known when the path is compiled
+		 */
+		PathStep(String theName, @Nullable BaseRuntimeElementCompositeDefinition<?> theExpectedDefinition) {
+			myName = theName;
+			myExpectedDefinition = theExpectedDefinition;
+
+			if (theName.startsWith("extension('")) {
+				myType = PathStepTypeEnum.EXTENSION;
+				myExtensionUrl = parseExtensionUrl(theName.substring("extension('".length()));
+				myChildDefinition = null;
+			} else if (theName.startsWith("modifierExtension('")) {
+				myType = PathStepTypeEnum.MODIFIER_EXTENSION;
+				myExtensionUrl = parseExtensionUrl(theName.substring("modifierExtension('".length()));
+				myChildDefinition = null;
+			} else {
+				myType = PathStepTypeEnum.CHILD;
+				myExtensionUrl = null;
+				// An unknown child name is not an error until the path is actually evaluated against an element
+				myChildDefinition = theExpectedDefinition != null ? theExpectedDefinition.getChildByName(theName) : null;
+			}
+		}
+
+		String getName() {
+			return myName;
+		}
+
+		PathStepTypeEnum getType() {
+			return myType;
+		}
+
+		String getExtensionUrl() {
+			return myExtensionUrl;
+		}
+
+		@Nullable
+		BaseRuntimeElementCompositeDefinition<?> getExpectedDefinition() {
+			return myExpectedDefinition;
+		}
+
+		BaseRuntimeChildDefinition getChildDefinition(BaseRuntimeElementCompositeDefinition<?> theCurrentDefinition) {
+			if (theCurrentDefinition == myExpectedDefinition && myChildDefinition != null) {
+				return myChildDefinition;
+			}
+			return theCurrentDefinition.getChildByNameOrThrowDataFormatException(myName);
+		}
+
+		/**
+		 * Returns the definition of the elements the following step is expected to be applied to,
+		 * or <code>null</code> if this can't be determined until the path is evaluated
+		 */
+		@Nullable
+		BaseRuntimeElementCompositeDefinition<?> getNextExpectedDefinition() {
+			// Choice children (e.g. value[x]) aren't known by the plain element name, so the type depends on the value
+			if (myChildDefinition != null && myChildDefinition.getValidChildNames().contains(myName)) {
+				BaseRuntimeElementDefinition<?> childElementDefinition = myChildDefinition.getChildByName(myName);
+				if (childElementDefinition instanceof BaseRuntimeElementCompositeDefinition) {
+					return (BaseRuntimeElementCompositeDefinition<?>) childElementDefinition;
+				}
+			}
+			return null;
+		}
+
+		private static String parseExtensionUrl(String theUrlAndRemainder) {
+			int endIndex = theUrlAndRemainder.indexOf('\'');
+			if (endIndex != -1) {
+				return theUrlAndRemainder.substring(0, endIndex);
+			}
+			return theUrlAndRemainder;
+		}
+	}
+
 }
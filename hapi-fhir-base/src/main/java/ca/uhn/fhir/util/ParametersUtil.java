@@ -108,7 +108,7 @@ public class ParametersUtil {
 		List<IBase> parts = valueChild.getAccessor().getValues(theParameter);
 
 		for (IBase nextPart : parts) {
-			Optional<IPrimitiveType> name = theCtx.newTerser().getSingleValue(nextPart, "name", IPrimitiveType.class);
+			Optional<IPrimitiveType> name = theCtx.getTerser().getSingleValue(nextPart, "name", IPrimitiveType.class);
 			if (name.isPresent() && theParameterName.equals(name.get().getValueAsString())) {
 				return Optional.of(nextPart);
 			}
@@ -120,7 +120,7 @@ public class ParametersUtil {
 	public static Optional<IBase> getParameterPartValue(FhirContext theCtx, IBase theParameter, String theParameterName) {
 		Optional<IBase> part = getParameterPart(theCtx, theParameter, theParameterName);
 		if (part.isPresent()) {
-			return theCtx.newTerser().getSingleValue(part.get(), "value[x]", IBase.class);
+			return theCtx.getTerser().getSingleValue(part.get(), "value[x]", IBase.class);
 		} else {
 			return Optional.empty();
 		}
@@ -63,6 +63,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -1662,6 +1663,16 @@ public class XmlUtil {
 		return outputFactory.createXMLStreamWriter(theWriter);
 	}
 
+	/**
+	 * Creates a stream writer which writes UTF-8 encoded XML to the given stream
+	 */
+	public static XMLStreamWriter createXmlStreamWriter(OutputStream theOutputStream) throws FactoryConfigurationError, XMLStreamException {
+		throwUnitTestExceptionIfConfiguredToDoSo();
+
+		XMLOutputFactory outputFactory = getOrCreateOutputFactory();
+		return outputFactory.createXMLStreamWriter(theOutputStream, StandardCharsets.UTF_8.name());
+	}
+
 	public static XMLEventWriter createXmlWriter(Writer theWriter) throws FactoryConfigurationError, XMLStreamException {
 		XMLOutputFactory outputFactory = getOrCreateOutputFactory();
 		return outputFactory.createXMLEventWriter(theWriter);
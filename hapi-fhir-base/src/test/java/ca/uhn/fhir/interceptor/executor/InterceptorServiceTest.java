@@ -22,6 +22,7 @@ import java.util.List;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -238,6 +239,72 @@ public class InterceptorServiceTest {
 
 	}
 
+	@Test
+	public void testHasHooksTracksRegistrationChanges() {
+		InterceptorService svc = new InterceptorService();
+		assertFalse(svc.hasHooks(Pointcut.TEST_RB));
+
+		MyTestInterceptorOne interceptor = new MyTestInterceptorOne();
+		svc.registerInterceptor(interceptor);
+		assertTrue(svc.hasHooks(Pointcut.TEST_RB));
+		assertFalse(svc.hasHooks(Pointcut.TEST_RO));
+
+		svc.unregisterInterceptor(interceptor);
+		assertFalse(svc.hasHooks(Pointcut.TEST_RB));
+
+		svc.registerAnonymousInterceptor(Pointcut.TEST_RO, (thePointcut, theArgs) -> myInvocations.add("anonymous"));
+		assertTrue(svc.hasHooks(Pointcut.TEST_RO));
+
+		svc.unregisterInterceptorsIf(t -> true);
+		assertFalse(svc.hasHooks(Pointcut.TEST_RO));
+		assertThat(svc.getInterceptorsWithInvokersForPointcut(Pointcut.TEST_RO), empty());
+	}
+
+	@Test
+	public void testRegisterInterceptorWhileHooksAreBeingCalled() {
+		InterceptorService svc = new InterceptorService();
+
+		MyTestInterceptorTwo interceptor1 = new MyTestInterceptorTwo();
+		@Interceptor(order = 100)
+		class RegisteringInterceptor {
+			@Hook(Pointcut.TEST_RB)
+			public void testRb(String theString0) {
+				myInvocations.add("RegisteringInterceptor.testRb");
+				svc.registerInterceptor(interceptor1);
+			}
+		}
+		svc.registerInterceptor(new RegisteringInterceptor());
+
+		// The newly registered interceptor only sees subsequent calls
+		svc.callHooks(Pointcut.TEST_RB, new HookParams("A", "B"));
+		assertThat(myInvocations, contains("RegisteringInterceptor.testRb"));
+
+		myInvocations.clear();
+		svc.callHooks(Pointcut.TEST_RB, new HookParams("A", "B"));
+		assertThat(myInvocations, contains("RegisteringInterceptor.testRb", "MyTestInterceptorTwo.testRb"));
+	}
+
+	@Test
+	public void testInterceptorWithCheckedException() {
+		class InterceptorThrowingCheckedException {
+			@Hook(Pointcut.TEST_RB)
+			public void test(String theValue) throws Exception {
+				throw new Exception(theValue);
+			}
+		}
+
+		InterceptorService svc = new InterceptorService();
+		svc.registerInterceptor(new InterceptorThrowingCheckedException());
+
+		try {
+			svc.callHooks(Pointcut.TEST_RB, new HookParams("A MESSAGE", "B"));
+			fail();
+		} catch (InternalErrorException e) {
+			assertThat(e.getMessage(), containsString(Msg.code(1910) + "Failure invoking interceptor for pointcut(s) TEST_RB"));
+			assertEquals("A MESSAGE", e.getCause().getMessage());
+		}
+	}
+
 	@Test
 	public void testInvokeGlobalInterceptorMethods() {
 		InterceptorService svc = new InterceptorService();
@@ -0,0 +1,60 @@
+package ca.uhn.fhir.model.primitive;
+
+import ca.uhn.fhir.util.StopWatch;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Date/time parsing throughput benchmarks. These are disabled by default and are intended
+ * to be run manually when working on date/time parsing.
+ */
+public class BaseDateTimeDtPerformanceTest {
+
+	private static final Logger ourLog = LoggerFactory.getLogger(BaseDateTimeDtPerformanceTest.class);
+	private static final String[] DATE_TIMES = {
+		"2022-11-14T10:15:30.123Z",
+		"2022-11-14T10:15:30-05:00",
+		"2022-11-14T10:15:30.123456+02:00",
+		"2022-11-14",
+		"2022-11"
+	};
+
+	/**
+	 * 2022-11-15 - Fixed format fast path instead of Calendar: 550ns/op before, 80ns/op after (UTC
+	 * default timezone), 930ns/op before, 105ns/op after (America/Toronto default timezone)
+	 */
+	@Test
+	@Disabled
+	public void testParseDateTime() {
+		for (int pass = 0; pass < 10; pass++) {
+			StopWatch sw = new StopWatch();
+			int count = 2000000;
+			long total = 0;
+			for (int i = 0; i < count; i++) {
+				total += new DateTimeDt(DATE_TIMES[i % DATE_TIMES.length]).getValue().getTime();
+			}
+			ourLog.info("Parsed {} dateTimes - {}ns/op ({})", count, sw.getMillis() * 1000000 / count, total);
+		}
+	}
+
+	/**
+	 * 2022-11-15 - Fixed format fast path instead of Calendar: 680ns/op before, 100ns/op after (UTC
+	 * default timezone), 1200ns/op before, 90ns/op after (America/Toronto default timezone)
+	 */
+	@Test
+	@Disabled
+	public void testParseInstant() {
+		for (int pass = 0; pass < 10; pass++) {
+			StopWatch sw = new StopWatch();
+			int count = 2000000;
+			long total = 0;
+			for (int i = 0; i < count; i++) {
+				total += new InstantDt(DATE_TIMES[i % 3]).getValue().getTime();
+			}
+			ourLog.info("Parsed {} instants - {}ns/op ({})", count, sw.getMillis() * 1000000 / count, total);
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package ca.uhn.fhir.util;
+
+import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
+import ca.uhn.fhir.model.primitive.DateTimeDt;
+import ca.uhn.fhir.model.primitive.InstantDt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DateTimeParseUtilTest {
+
+	private final TimeZone myDefaultTimeZone = TimeZone.getDefault();
+
+	@AfterEach
+	public void after() {
+		TimeZone.setDefault(myDefaultTimeZone);
+	}
+
+	@Test
+	public void testParseWithOffsets() {
+		DateTimeParseUtil.ParsedDateTime parsed = DateTimeParseUtil.parse("2022-11-14T10:15:30.1234Z");
+		assertEquals(1668420930123L, parsed.getEpochMillis());
+		assertEquals(TemporalPrecisionEnum.MILLI, parsed.getPrecision());
+		assertEquals("1234", parsed.getFractionalSeconds());
+		assertTrue(parsed.isTimeZoneZulu());
+		assertNull(parsed.getTimeZone());
+
+		parsed = DateTimeParseUtil.parse("2022-11-14T10:15:30-05:30");
+		assertEquals(1668420930000L + (5 * 60 + 30) * 60 * 1000L, parsed.getEpochMillis());
+		assertEquals(TemporalPrecisionEnum.SECOND, parsed.getPrecision());
+		assertEquals("", parsed.getFractionalSeconds());
+		assertFalse(parsed.isTimeZoneZulu());
+		assertEquals("GMT-05:30", parsed.getTimeZone().getID());
+		assertSame(parsed.getTimeZone(), DateTimeParseUtil.parse("2000-01-01T00:00:00-05:30").getTimeZone());
+
+		assertEquals(951782400500L, DateTimeParseUtil.parse("2000-02-29T00:00:00.5Z").getEpochMillis());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"America/Toronto",
+		"Australia/Lord_Howe",
+		"Asia/Kolkata",
+		"UTC"
+	})
+	public void testParseLocalMatchesCalendar(String theTimeZone) {
+		TimeZone timeZone = TimeZone.getTimeZone(theTimeZone);
+		TimeZone.setDefault(timeZone);
+
+		Random random = new Random(123);
+		for (int i = 0; i < 10000; i++) {
+			int year = 1600 + random.nextInt(500);
+			int month = 1 + random.nextInt(12);
+			int day = 1 + random.nextInt(28);
+			int hour = random.nextInt(24);
+			int minute = random.nextInt(60);
+			int second = random.nextInt(60);
+			String value = String.format("%04d-%02d-%02dT%02d:%02d:%02d", year, month, day, hour, minute, second);
+
+			DateTimeParseUtil.ParsedDateTime parsed = DateTimeParseUtil.parse(value);
+			if (parsed == null) {
+				// Only values in a daylight savings transition should be left to the Calendar parser
+				assertFalse(timeZone.toZoneId().getRules().isFixedOffset(), value);
+				continue;
+			}
+
+			GregorianCalendar cal = new GregorianCalendar(timeZone);
+			cal.clear();
+			cal.set(year, month - 1, day, hour, minute, second);
+			assertEquals(cal.getTimeInMillis(), parsed.getEpochMillis(), value);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"2022-11-14T10:15",
+		"2022-11-14T10:15:3",
+		"2022-11-14T10:15:30.",
+		"2022-11-14T10:15:30.12a",
+		"2022-11-14T10:15:30+0500",
+		"2022-11-14T10:15:30+05:00Z",
+		"2022-11-14T24:15:30Z",
+		"2022-02-29",
+		"2022-13",
+		"2022-1-01",
+		"1582-10-15",
+		"22022"
+	})
+	public void testParseUnsupportedFormats(String theValue) {
+		assertNull(DateTimeParseUtil.parse(theValue));
+	}
+
+	@Test
+	public void testDatatypesRoundTrip() {
+		TimeZone.setDefault(TimeZone.getTimeZone("America/Toronto"));
+
+		for (String next : new String[]{"2022", "2022-11", "2022-11-14", "2022-11-14T10:15:30", "2022-11-14T10:15:30.12+02:00", "2022-11-14T10:15:30.123456Z", "1500-01-01"}) {
+			DateTimeDt dateTime = new DateTimeDt(next);
+			assertEquals(next, dateTime.getValueAsString());
+			dateTime.setPrecision(dateTime.getPrecision());
+			assertEquals(next.replace(".12+", ".120+"), dateTime.getValueAsString());
+		}
+
+		InstantDt instant = new InstantDt("2022-11-14T10:15:30.123-05:00");
+		assertEquals(TemporalPrecisionEnum.MILLI, instant.getPrecision());
+		assertEquals(15, instant.getMinute());
+		assertEquals(1668438930123L, instant.getValue().getTime());
+	}
+
+}
@@ -0,0 +1,139 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files (as produced by running the benchmark jar with
+ * <code>-rf json -rff [file]</code>) and prints the relative change of every benchmark
+ * present in both files.
+ * <p>
+ * Usage:
+ * </p>
+ * <pre>
+ * java -jar target/hapi-fhir-benchmarks.jar -rf json -rff baseline.json
+ * (apply changes and rebuild)
+ * java -jar target/hapi-fhir-benchmarks.jar -rf json -rff current.json
+ * java -cp target/hapi-fhir-benchmarks.jar ca.uhn.fhir.benchmarks.BenchmarkComparisonReport baseline.json current.json [maxRegressionPercent]
+ * </pre>
+ * <p>
+ * The process exits with status 1 if any benchmark regressed by more than the given
+ * percentage (default {@value #DEFAULT_MAX_REGRESSION_PERCENT}).
+ * </p>
+ */
+public class BenchmarkComparisonReport {
+
+	public static final double DEFAULT_MAX_REGRESSION_PERCENT = 10.0;
+	private static final ObjectMapper ourObjectMapper = new ObjectMapper();
+
+	public static void main(String[] theArgs) throws IOException {
+		if (theArgs.length < 2) {
+			System.err.println("Usage: BenchmarkComparisonReport [baseline.json] [current.json] [maxRegressionPercent]");
+			System.exit(2);
+		}
+
+		Map<String, Result> baseline = readResults(new File(theArgs[0]));
+		Map<String, Result> current = readResults(new File(theArgs[1]));
+		double maxRegression = theArgs.length > 2 ? Double.parseDouble(theArgs[2]) : DEFAULT_MAX_REGRESSION_PERCENT;
+
+		int regressions = 0;
+		System.out.println(String.format("%-90s %16s %16s %10s", "Benchmark", "Baseline", "Current", "Change"));
+		for (Map.Entry<String, Result> next : new TreeMap<>(current).entrySet()) {
+			Result before = baseline.get(next.getKey());
+			Result after = next.getValue();
+			if (before == null || !before.myUnit.equals(after.myUnit)) {
+				System.out.println(String.format("%-90s %16s %16s %10s", next.getKey(), "-", after.format(), "new"));
+				continue;
+			}
+
+			double improvement = after.improvementPercentOver(before);
+			String flag = "";
+			if (-improvement > maxRegression) {
+				flag = " REGRESSION";
+				regressions++;
+			}
+			System.out.println(String.format("%-90s %16s %16s %+9.1f%%%s", next.getKey(), before.format(), after.format(), improvement, flag));
+		}
+
+		if (regressions > 0) {
+			System.out.println(regressions + " benchmark(s) regressed by more than " + maxRegression + "%");
+			System.exit(1);
+		}
+	}
+
+	static Map<String, Result> readResults(File theFile) throws IOException {
+		Map<String, Result> retVal = new LinkedHashMap<>();
+		for (JsonNode next : ourObjectMapper.readTree(theFile)) {
+			StringBuilder key = new StringBuilder(next.path("benchmark").asText());
+			JsonNode params = next.path("params");
+			if (params.isObject()) {
+				key.append('(');
+				for (Iterator<Map.Entry<String, JsonNode>> iter = params.fields(); iter.hasNext(); ) {
+					Map.Entry<String, JsonNode> param = iter.next();
+					key.append(param.getKey()).append('=').append(param.getValue().asText());
+					if (iter.hasNext()) {
+						key.append(", ");
+					}
+				}
+				key.append(')');
+			}
+
+			JsonNode metric = next.path("primaryMetric");
+			String mode = next.path("mode").asText();
+			retVal.put(key.toString(), new Result(metric.path("score").asDouble(), metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+		}
+		return retVal;
+	}
+
+	static class Result {
+		private final double myScore;
+		private final String myUnit;
+		private final boolean myHigherIsBetter;
+
+		Result(double theScore, String theUnit, boolean theHigherIsBetter) {
+			myScore = theScore;
+			myUnit = theUnit;
+			myHigherIsBetter = theHigherIsBetter;
+		}
+
+		/**
+		 * @return The improvement of this result relative to the given baseline, in percent. Negative values are regressions.
+		 */
+		double improvementPercentOver(Result theBaseline) {
+			double change = (myScore - theBaseline.myScore) / theBaseline.myScore * 100.0;
+			return myHigherIsBetter ? change : -change;
+		}
+
+		String format() {
+			return String.format("%.3f %s", myScore, myUnit);
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.model.entity.ModelConfig;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamToken;
+import ca.uhn.fhir.jpa.searchparam.MatchUrlService;
+import ca.uhn.fhir.jpa.searchparam.extractor.ResourceIndexedSearchParams;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorR4;
+import ca.uhn.fhir.jpa.searchparam.matcher.InMemoryMatchResult;
+import ca.uhn.fhir.jpa.searchparam.matcher.InMemoryResourceMatcher;
+import ca.uhn.fhir.rest.server.util.FhirContextSearchParamRegistry;
+import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InMemoryResourceMatcher} evaluating typical subscription criteria against an Observation,
+ * using search parameters extracted by {@link SearchParamExtractorR4}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryResourceMatcherBenchmark {
+
+	@Param({
+		"Observation?code=http://loinc.org|8867-4",
+		"Observation?status=final&category=vital-signs",
+		"Observation?status=final&date=gt2020-01-01",
+		"Observation?value-quantity=gt50"
+	})
+	public String myCriteria;
+
+	private AnnotationConfigApplicationContext myAppCtx;
+	private InMemoryResourceMatcher myMatcher;
+	private Observation myObservation;
+	private ResourceIndexedSearchParams mySearchParams;
+
+	@Setup
+	public void setup() {
+		myAppCtx = new AnnotationConfigApplicationContext(SpringConfig.class);
+		myMatcher = myAppCtx.getBean(InMemoryResourceMatcher.class);
+
+		SyntheticFixtures fixtures = new SyntheticFixtures(1L);
+		Patient patient = fixtures.createPatient("P1");
+		myObservation = fixtures.createObservation("O1", patient, fixtures.createEncounter("E1", patient));
+
+		SearchParamExtractorR4 extractor = myAppCtx.getBean(SearchParamExtractorR4.class);
+		mySearchParams = new ResourceIndexedSearchParams();
+		mySearchParams.myStringParams.addAll(extractor.extractSearchParamStrings(myObservation));
+		extractor.extractSearchParamTokens(myObservation).stream()
+			.filter(t -> t instanceof ResourceIndexedSearchParamToken)
+			.forEach(t -> mySearchParams.myTokenParams.add((ResourceIndexedSearchParamToken) t));
+		mySearchParams.myDateParams.addAll(extractor.extractSearchParamDates(myObservation));
+		mySearchParams.myQuantityParams.addAll(extractor.extractSearchParamQuantity(myObservation));
+
+		InMemoryMatchResult result = myMatcher.match(myCriteria, myObservation, mySearchParams);
+		if (!result.supported()) {
+			throw new IllegalStateException("Criteria can not be evaluated in memory: " + result.getUnsupportedReason());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		myAppCtx.close();
+	}
+
+	@Benchmark
+	public InMemoryMatchResult match() {
+		return myMatcher.match(myCriteria, myObservation, mySearchParams);
+	}
+
+	@Configuration
+	public static class SpringConfig {
+
+		@Bean
+		public FhirContext fhirContext() {
+			return FhirContext.forR4();
+		}
+
+		@Bean
+		public ModelConfig modelConfig() {
+			return new ModelConfig();
+		}
+
+		@Bean
+		public PartitionSettings partitionSettings() {
+			return new PartitionSettings();
+		}
+
+		@Bean
+		public ISearchParamRegistry searchParamRegistry(FhirContext theFhirContext) {
+			return new FhirContextSearchParamRegistry(theFhirContext);
+		}
+
+		@Bean
+		public IValidationSupport validationSupport(FhirContext theFhirContext) {
+			return theFhirContext.getValidationSupport();
+		}
+
+		@Bean
+		public MatchUrlService matchUrlService() {
+			return new MatchUrlService();
+		}
+
+		@Bean
+		public InMemoryResourceMatcher inMemoryResourceMatcher() {
+			return new InMemoryResourceMatcher();
+		}
+
+		@Bean
+		public SearchParamExtractorR4 searchParamExtractor(FhirContext theFhirContext, ModelConfig theModelConfig, PartitionSettings thePartitionSettings, ISearchParamRegistry theSearchParamRegistry) {
+			return new SearchParamExtractorR4(theModelConfig, thePartitionSettings, theFhirContext, theSearchParamRegistry);
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.EncodingEnum;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse and encode of a realistic searchset Bundle (patients, encounters, conditions and
+ * vital sign observations) using {@link ca.uhn.fhir.parser.JsonParser} and
+ * {@link ca.uhn.fhir.parser.XmlParser}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({"JSON", "XML"})
+	public EncodingEnum myEncoding;
+
+	@Param({"10", "100"})
+	public int myPatientCount;
+
+	private FhirContext myCtx;
+	private Bundle myBundle;
+	private String myEncodedBundle;
+
+	@Setup
+	public void setup() {
+		myCtx = FhirContext.forR4();
+		myBundle = new SyntheticFixtures(1L).createBundle(myPatientCount);
+		myEncodedBundle = newParser().encodeResourceToString(myBundle);
+	}
+
+	@Benchmark
+	public Bundle parse() {
+		return newParser().parseResource(Bundle.class, myEncodedBundle);
+	}
+
+	@Benchmark
+	public String encode() {
+		return newParser().encodeResourceToString(myBundle);
+	}
+
+	private IParser newParser() {
+		return myEncoding.newParser(myCtx);
+	}
+
+}
@@ -0,0 +1,110 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.model.entity.BaseResourceIndexedSearchParam;
+import ca.uhn.fhir.jpa.model.entity.ModelConfig;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamDate;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamQuantity;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamString;
+import ca.uhn.fhir.jpa.searchparam.extractor.ISearchParamExtractor;
+import ca.uhn.fhir.jpa.searchparam.extractor.PathAndRef;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorR4;
+import ca.uhn.fhir.rest.server.util.FhirContextSearchParamRegistry;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search parameter extraction (as performed by the JPA server on every create and update) using
+ * {@link SearchParamExtractorR4} with the built-in search parameters of the FhirContext
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchParamExtractorBenchmark {
+
+	private SearchParamExtractorR4 myExtractor;
+	private Patient myPatient;
+	private Observation myObservation;
+
+	@Setup
+	public void setup() {
+		FhirContext ctx = FhirContext.forR4();
+		myExtractor = new SearchParamExtractorR4(new ModelConfig(), new PartitionSettings(), ctx, new FhirContextSearchParamRegistry(ctx));
+
+		SyntheticFixtures fixtures = new SyntheticFixtures(1L);
+		myPatient = fixtures.createPatient("P1");
+		myObservation = fixtures.createObservation("O1", myPatient, fixtures.createEncounter("E1", myPatient));
+	}
+
+	@Benchmark
+	public void extractPatient(Blackhole theBlackhole) {
+		extractAll(myPatient, theBlackhole);
+	}
+
+	@Benchmark
+	public void extractObservation(Blackhole theBlackhole) {
+		extractAll(myObservation, theBlackhole);
+	}
+
+	@Benchmark
+	public ISearchParamExtractor.SearchParamSet<BaseResourceIndexedSearchParam> extractObservationTokens() {
+		return myExtractor.extractSearchParamTokens(myObservation);
+	}
+
+	@Benchmark
+	public ISearchParamExtractor.SearchParamSet<ResourceIndexedSearchParamString> extractPatientStrings() {
+		return myExtractor.extractSearchParamStrings(myPatient);
+	}
+
+	private void extractAll(IBaseResource theResource, Blackhole theBlackhole) {
+		ISearchParamExtractor.SearchParamSet<ResourceIndexedSearchParamString> strings = myExtractor.extractSearchParamStrings(theResource);
+		ISearchParamExtractor.SearchParamSet<BaseResourceIndexedSearchParam> tokens = myExtractor.extractSearchParamTokens(theResource);
+		ISearchParamExtractor.SearchParamSet<ResourceIndexedSearchParamDate> dates = myExtractor.extractSearchParamDates(theResource);
+		ISearchParamExtractor.SearchParamSet<ResourceIndexedSearchParamQuantity> quantities = myExtractor.extractSearchParamQuantity(theResource);
+		ISearchParamExtractor.SearchParamSet<PathAndRef> links = myExtractor.extractResourceLinks(theResource, false);
+		theBlackhole.consume(strings);
+		theBlackhole.consume(tokens);
+		theBlackhole.consume(dates);
+		theBlackhole.consume(quantities);
+		theBlackhole.consume(links);
+	}
+
+}
@@ -0,0 +1,241 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Condition;
+import org.hl7.fhir.r4.model.ContactPoint;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.DateType;
+import org.hl7.fhir.r4.model.ElementDefinition;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Enumerations;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Narrative;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.StructureDefinition;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Generates the synthetic, but realistically shaped, R4 resources used by the benchmarks. Generation
+ * is deterministic for a given seed so that results are comparable between runs.
+ */
+public class SyntheticFixtures {
+
+	public static final String PATIENT_PROFILE = "http://example.org/fhir/StructureDefinition/benchmark-patient";
+	public static final String OBSERVATION_PROFILE = "http://example.org/fhir/StructureDefinition/benchmark-vital-sign";
+	public static final String RACE_EXTENSION = "http://hl7.org/fhir/us/core/StructureDefinition/us-core-race";
+	public static final String MRN_SYSTEM = "http://example.org/fhir/mrn";
+
+	private static final String[] FAMILY_NAMES = {"Smith", "Tremblay", "Nguyen", "Garcia", "Müller", "O'Brien", "Kowalski", "Singh"};
+	private static final String[] GIVEN_NAMES = {"Alex", "Sam", "Jordan", "Maria", "Wei", "Fatima", "Olivia", "Noah"};
+	private static final String[][] VITAL_SIGNS = {
+		{"8867-4", "Heart rate", "/min", "60", "100"},
+		{"8310-5", "Body temperature", "Cel", "36", "39"},
+		{"29463-7", "Body weight", "kg", "4", "120"},
+		{"9279-1", "Respiratory rate", "/min", "12", "25"},
+		{"2708-6", "Oxygen saturation in Arterial blood", "%", "88", "100"}
+	};
+	private static final long BASE_TIME = 1668000000000L;
+
+	private final Random myRandom;
+
+	public SyntheticFixtures(long theSeed) {
+		myRandom = new Random(theSeed);
+	}
+
+	/**
+	 * Creates a searchset Bundle containing the given number of patients, each with
+	 * a number of encounters, conditions and vital sign observations
+	 */
+	public Bundle createBundle(int thePatientCount) {
+		Bundle retVal = new Bundle();
+		retVal.setType(Bundle.BundleType.SEARCHSET);
+		retVal.setTotal(thePatientCount);
+		retVal.getMeta().setLastUpdated(new Date(BASE_TIME));
+		for (int i = 0; i < thePatientCount; i++) {
+			Patient patient = createPatient("P" + i);
+			addEntry(retVal, patient);
+
+			Encounter encounter = createEncounter("E" + i, patient);
+			addEntry(retVal, encounter);
+			addEntry(retVal, createCondition("C" + i, patient, encounter));
+			for (int j = 0; j < VITAL_SIGNS.length; j++) {
+				addEntry(retVal, createObservation("O" + i + "-" + j, patient, encounter));
+			}
+		}
+		return retVal;
+	}
+
+	public Patient createPatient(String theId) {
+		Patient retVal = new Patient();
+		retVal.setId(theId);
+		retVal.getMeta().addProfile(PATIENT_PROFILE);
+		retVal.getMeta().setLastUpdated(nextDate());
+		retVal.getMeta().setVersionId("1");
+		retVal.getText().setStatus(Narrative.NarrativeStatus.GENERATED);
+		retVal.getText().setDivAsString("<div xmlns=\"http://www.w3.org/1999/xhtml\">Synthetic patient " + theId + "</div>");
+
+		Extension race = retVal.addExtension().setUrl(RACE_EXTENSION);
+		race.addExtension("ombCategory", new Coding("urn:oid:2.16.840.1.113883.6.238", "2106-3", "White"));
+		race.addExtension("text", new StringType("White"));
+
+		retVal.addIdentifier().setSystem(MRN_SYSTEM).setValue(Integer.toString(1000000 + myRandom.nextInt(9000000)));
+		retVal.addIdentifier().setSystem("http://hl7.org/fhir/sid/us-ssn").setValue(Integer.toString(100000000 + myRandom.nextInt(800000000)));
+		retVal.setActive(true);
+		retVal.addName()
+			.setUse(HumanName.NameUse.OFFICIAL)
+			.setFamily(pick(FAMILY_NAMES))
+			.addGiven(pick(GIVEN_NAMES))
+			.addGiven(pick(GIVEN_NAMES));
+		retVal.addTelecom().setSystem(ContactPoint.ContactPointSystem.PHONE).setValue("555-" + (1000 + myRandom.nextInt(9000))).setUse(ContactPoint.ContactPointUse.HOME);
+		retVal.addTelecom().setSystem(ContactPoint.ContactPointSystem.EMAIL).setValue(theId.toLowerCase() + "@example.org");
+		retVal.setGender(myRandom.nextBoolean() ? Enumerations.AdministrativeGender.FEMALE : Enumerations.AdministrativeGender.MALE);
+		retVal.setBirthDateElement(new DateType(1930 + myRandom.nextInt(90) + "-0" + (1 + myRandom.nextInt(9)) + "-1" + myRandom.nextInt(10)));
+		retVal.addAddress()
+			.addLine(1 + myRandom.nextInt(999) + " Main Street")
+			.setCity("Toronto")
+			.setState("ON")
+			.setPostalCode("M5V 2T6")
+			.setCountry("CA");
+		return retVal;
+	}
+
+	public Encounter createEncounter(String theId, Patient thePatient) {
+		Encounter retVal = new Encounter();
+		retVal.setId(theId);
+		retVal.getMeta().setLastUpdated(nextDate());
+		retVal.setStatus(Encounter.EncounterStatus.FINISHED);
+		retVal.setClass_(new Coding("http://terminology.hl7.org/CodeSystem/v3-ActCode", "AMB", "ambulatory"));
+		retVal.addType().addCoding().setSystem("http://snomed.info/sct").setCode("185349003").setDisplay("Encounter for check up");
+		retVal.setSubject(new Reference("Patient/" + thePatient.getIdElement().getIdPart()));
+		Date start = nextDate();
+		retVal.setPeriod(new Period().setStart(start).setEnd(new Date(start.getTime() + 30 * 60 * 1000L)));
+		return retVal;
+	}
+
+	public Condition createCondition(String theId, Patient thePatient, Encounter theEncounter) {
+		Condition retVal = new Condition();
+		retVal.setId(theId);
+		retVal.getMeta().setLastUpdated(nextDate());
+		retVal.getClinicalStatus().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/condition-clinical").setCode("active");
+		retVal.getVerificationStatus().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/condition-ver-status").setCode("confirmed");
+		retVal.addCategory().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/condition-category").setCode("encounter-diagnosis");
+		retVal.getCode().addCoding().setSystem("http://snomed.info/sct").setCode("44054006").setDisplay("Diabetes mellitus type 2");
+		retVal.setSubject(new Reference("Patient/" + thePatient.getIdElement().getIdPart()));
+		retVal.setEncounter(new Reference("Encounter/" + theEncounter.getIdElement().getIdPart()));
+		retVal.setOnset(new DateTimeType(nextDate()));
+		return retVal;
+	}
+
+	public Observation createObservation(String theId, Patient thePatient, Encounter theEncounter) {
+		String[] vitalSign = VITAL_SIGNS[myRandom.nextInt(VITAL_SIGNS.length)];
+		double low = Double.parseDouble(vitalSign[3]);
+		double high = Double.parseDouble(vitalSign[4]);
+
+		Observation retVal = new Observation();
+		retVal.setId(theId);
+		retVal.getMeta().addProfile(OBSERVATION_PROFILE);
+		retVal.getMeta().setLastUpdated(nextDate());
+		retVal.setStatus(Observation.ObservationStatus.FINAL);
+		retVal.addCategory().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/observation-category").setCode("vital-signs").setDisplay("Vital Signs");
+		retVal.setCode(new CodeableConcept().addCoding(new Coding("http://loinc.org", vitalSign[0], vitalSign[1])).setText(vitalSign[1]));
+		retVal.setSubject(new Reference("Patient/" + thePatient.getIdElement().getIdPart()));
+		retVal.setEncounter(new Reference("Encounter/" + theEncounter.getIdElement().getIdPart()));
+		retVal.setEffective(new DateTimeType(nextDate()));
+		retVal.setIssued(nextDate());
+		double value = Math.round((low + myRandom.nextDouble() * (high - low)) * 10) / 10.0;
+		retVal.setValue(new Quantity().setValue(value).setUnit(vitalSign[2]).setSystem("http://unitsofmeasure.org").setCode(vitalSign[2]));
+		return retVal;
+	}
+
+	/**
+	 * Creates US Core-like profiles which constrain Patient and Observation, for use with the validator
+	 */
+	public static StructureDefinition[] createProfiles() {
+		StructureDefinition patientProfile = createProfile(PATIENT_PROFILE, "BenchmarkPatient", "Patient");
+		addMinCardinality(patientProfile, "Patient.identifier", 1);
+		addMinCardinality(patientProfile, "Patient.identifier.system", 1);
+		addMinCardinality(patientProfile, "Patient.identifier.value", 1);
+		addMinCardinality(patientProfile, "Patient.name", 1);
+		addMinCardinality(patientProfile, "Patient.gender", 1);
+
+		StructureDefinition observationProfile = createProfile(OBSERVATION_PROFILE, "BenchmarkVitalSign", "Observation");
+		addMinCardinality(observationProfile, "Observation.category", 1);
+		addMinCardinality(observationProfile, "Observation.subject", 1);
+		addMinCardinality(observationProfile, "Observation.effective[x]", 1);
+		addMinCardinality(observationProfile, "Observation.value[x]", 1);
+
+		return new StructureDefinition[]{patientProfile, observationProfile};
+	}
+
+	private static StructureDefinition createProfile(String theUrl, String theName, String theType) {
+		StructureDefinition retVal = new StructureDefinition();
+		retVal.setUrl(theUrl);
+		retVal.setName(theName);
+		retVal.setStatus(Enumerations.PublicationStatus.ACTIVE);
+		retVal.setFhirVersion(Enumerations.FHIRVersion._4_0_1);
+		retVal.setKind(StructureDefinition.StructureDefinitionKind.RESOURCE);
+		retVal.setAbstract(false);
+		retVal.setType(theType);
+		retVal.setBaseDefinition("http://hl7.org/fhir/StructureDefinition/" + theType);
+		retVal.setDerivation(StructureDefinition.TypeDerivationRule.CONSTRAINT);
+		ElementDefinition root = retVal.getDifferential().addElement();
+		root.setId(theType);
+		root.setPath(theType);
+		return retVal;
+	}
+
+	private static void addMinCardinality(StructureDefinition theProfile, String thePath, int theMin) {
+		ElementDefinition element = theProfile.getDifferential().addElement();
+		element.setId(thePath);
+		element.setPath(thePath);
+		element.setMin(theMin);
+		element.setMustSupport(true);
+	}
+
+	private static void addEntry(Bundle theBundle, Resource theResource) {
+		theBundle.addEntry()
+			.setFullUrl("http://example.org/fhir/" + theResource.getResourceType().name() + "/" + theResource.getIdElement().getIdPart())
+			.setResource(theResource)
+			.getSearch().setMode(theResource instanceof Patient ? Bundle.SearchEntryMode.MATCH : Bundle.SearchEntryMode.INCLUDE);
+	}
+
+	private Date nextDate() {
+		return new Date(BASE_TIME - (long) myRandom.nextInt(365 * 24 * 60) * 60 * 1000L);
+	}
+
+	private String pick(String[] theValues) {
+		return theValues[myRandom.nextInt(theValues.length)];
+	}
+
+}
@@ -0,0 +1,108 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.util.FhirTerser;
+import org.hl7.fhir.instance.model.api.IBase;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FhirTerser#getValues(IBase, String, Class)} on typical paths, plus the equivalent
+ * precompiled {@link FhirTerser.CompiledPath} lookups
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TerserBenchmark {
+
+	private FhirTerser myTerser;
+	private Patient myPatient;
+	private Observation myObservation;
+	private FhirTerser.CompiledPath myCompiledFamilyPath;
+	private FhirTerser.CompiledPath myCompiledCodingSystemPath;
+
+	@Setup
+	public void setup() {
+		FhirContext ctx = FhirContext.forR4();
+		myTerser = ctx.newTerser();
+		SyntheticFixtures fixtures = new SyntheticFixtures(1L);
+		myPatient = fixtures.createPatient("P1");
+		myObservation = fixtures.createObservation("O1", myPatient, fixtures.createEncounter("E1", myPatient));
+		myCompiledFamilyPath = myTerser.compilePath("Patient", "Patient.name.family");
+		myCompiledCodingSystemPath = myTerser.compilePath("Observation", "Observation.code.coding.system");
+	}
+
+	@Benchmark
+	public List<IPrimitiveType> patientNameFamily() {
+		return myTerser.getValues(myPatient, "Patient.name.family", IPrimitiveType.class);
+	}
+
+	@Benchmark
+	public List<IPrimitiveType> patientIdentifierValue() {
+		return myTerser.getValues(myPatient, "Patient.identifier.value", IPrimitiveType.class);
+	}
+
+	@Benchmark
+	public List<Extension> patientExtension() {
+		return myTerser.getValues(myPatient, "Patient.extension('" + SyntheticFixtures.RACE_EXTENSION + "')", Extension.class);
+	}
+
+	@Benchmark
+	public List<IPrimitiveType> observationCodingSystem() {
+		return myTerser.getValues(myObservation, "Observation.code.coding.system", IPrimitiveType.class);
+	}
+
+	@Benchmark
+	public List<IBase> observationValue() {
+		return myTerser.getValues(myObservation, "Observation.value", IBase.class);
+	}
+
+	@Benchmark
+	public List<IPrimitiveType> compiledPatientNameFamily() {
+		return myTerser.getValues(myPatient, myCompiledFamilyPath, IPrimitiveType.class);
+	}
+
+	@Benchmark
+	public List<IPrimitiveType> compiledObservationCodingSystem() {
+		return myTerser.getValues(myObservation, myCompiledCodingSystemPath, IPrimitiveType.class);
+	}
+
+}
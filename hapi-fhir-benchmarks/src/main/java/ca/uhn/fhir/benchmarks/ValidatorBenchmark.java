@@ -0,0 +1,114 @@
+package ca.uhn.fhir.benchmarks;
+
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.validation.FhirValidator;
+import ca.uhn.fhir.validation.ValidationResult;
+import org.hl7.fhir.common.hapi.validation.support.CachingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.CommonCodeSystemsTerminologyService;
+import org.hl7.fhir.common.hapi.validation.support.InMemoryTerminologyServerValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.PrePopulatedValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.SnapshotGeneratingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
+import org.hl7.fhir.common.hapi.validation.validator.FhirInstanceValidator;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FhirInstanceValidator} validating resources against US Core-like profiles (see
+ * {@link SyntheticFixtures#createProfiles()}) using a typical validation support chain
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ValidatorBenchmark {
+
+	private FhirValidator myValidator;
+	private Patient myPatient;
+	private Observation myObservation;
+
+	@Setup
+	public void setup() {
+		FhirContext ctx = FhirContext.forR4();
+
+		PrePopulatedValidationSupport profiles = new PrePopulatedValidationSupport(ctx);
+		for (StructureDefinition next : SyntheticFixtures.createProfiles()) {
+			profiles.addStructureDefinition(next);
+		}
+		ValidationSupportChain chain = new ValidationSupportChain(
+			profiles,
+			ctx.getValidationSupport(),
+			new SnapshotGeneratingValidationSupport(ctx),
+			new InMemoryTerminologyServerValidationSupport(ctx),
+			new CommonCodeSystemsTerminologyService(ctx));
+		CachingValidationSupport validationSupport = new CachingValidationSupport(chain);
+
+		myValidator = ctx.newValidator();
+		myValidator.registerValidatorModule(new FhirInstanceValidator(validationSupport));
+
+		SyntheticFixtures fixtures = new SyntheticFixtures(1L);
+		myPatient = fixtures.createPatient("P1");
+		myObservation = fixtures.createObservation("O1", myPatient, fixtures.createEncounter("E1", myPatient));
+
+		// Make sure the profiles are actually usable, otherwise we'd be timing the failure path
+		for (ValidationResult next : new ValidationResult[]{validate(myPatient), validate(myObservation)}) {
+			next.getMessages().stream()
+				.filter(t -> t.getMessage().contains(SyntheticFixtures.PATIENT_PROFILE) || t.getMessage().contains(SyntheticFixtures.OBSERVATION_PROFILE))
+				.findFirst()
+				.ifPresent(t -> {
+					throw new IllegalStateException("Benchmark profile could not be used: " + t.getMessage());
+				});
+		}
+	}
+
+	@Benchmark
+	public ValidationResult validatePatient() {
+		return validate(myPatient);
+	}
+
+	@Benchmark
+	public ValidationResult validateObservation() {
+		return validate(myObservation);
+	}
+
+	private ValidationResult validate(IBaseResource theResource) {
+		return myValidator.validateWithResult(theResource);
+	}
+
+}
@@ -0,0 +1,4 @@
+package ca.uhn.fhir.benchmarks.jmh_generated;
+public class InMemoryResourceMatcherBenchmark_jmhType extends InMemoryResourceMatcherBenchmark_jmhType_B3 {
+}
+
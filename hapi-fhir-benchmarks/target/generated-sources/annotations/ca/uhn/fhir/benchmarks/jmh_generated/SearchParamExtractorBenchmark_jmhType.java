@@ -0,0 +1,4 @@
+package ca.uhn.fhir.benchmarks.jmh_generated;
+public class SearchParamExtractorBenchmark_jmhType extends SearchParamExtractorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package ca.uhn.fhir.benchmarks.jmh_generated;
+public class TerserBenchmark_jmhType extends TerserBenchmark_jmhType_B3 {
+}
+
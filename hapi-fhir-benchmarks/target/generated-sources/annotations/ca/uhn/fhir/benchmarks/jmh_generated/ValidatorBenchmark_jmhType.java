@@ -0,0 +1,4 @@
+package ca.uhn.fhir.benchmarks.jmh_generated;
+public class ValidatorBenchmark_jmhType extends ValidatorBenchmark_jmhType_B3 {
+}
+
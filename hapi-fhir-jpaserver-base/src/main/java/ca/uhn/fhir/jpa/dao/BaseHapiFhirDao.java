@@ -69,11 +69,14 @@ import ca.uhn.fhir.model.valueset.BundleEntryTransactionMethodEnum;
 import ca.uhn.fhir.parser.DataFormatException;
 import ca.uhn.fhir.parser.IParser;
 import ca.uhn.fhir.parser.LenientErrorHandler;
+import ca.uhn.fhir.parser.SmileParser;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.InterceptorInvocationTimingEnum;
+import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.storage.ResourcePersistentId;
+import ca.uhn.fhir.rest.api.server.storage.StoredEncodedResource;
 import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
 import ca.uhn.fhir.rest.param.HistorySearchStyleEnum;
 import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
@@ -586,16 +589,23 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 
 				HashFunction sha256 = Hashing.sha256();
 				HashCode hashCode;
-				String encodedResource = encodeResource(theResource, encoding, excludeElements, myContext);
-				if (getConfig().getInlineResourceTextBelowSize() > 0 && encodedResource.length() < getConfig().getInlineResourceTextBelowSize()) {
-					resourceText = encodedResource;
-					resourceBinary = null;
-					encoding = ResourceEncodingEnum.JSON;
-					hashCode = sha256.hashUnencodedChars(encodedResource);
-				} else {
+				if (encoding == ResourceEncodingEnum.SMILE) {
+					// Binary encodings are never inlined as text
 					resourceText = null;
-					resourceBinary = getResourceBinary(encoding, encodedResource);
+					resourceBinary = encodeResourceToSmile(theResource, excludeElements, myContext);
 					hashCode = sha256.hashBytes(resourceBinary);
+				} else {
+					String encodedResource = encodeResource(theResource, encoding, excludeElements, myContext);
+					if (getConfig().getInlineResourceTextBelowSize() > 0 && encodedResource.length() < getConfig().getInlineResourceTextBelowSize()) {
+						resourceText = encodedResource;
+						resourceBinary = null;
+						encoding = ResourceEncodingEnum.JSON;
+						hashCode = sha256.hashUnencodedChars(encodedResource);
+					} else {
+						resourceText = null;
+						resourceBinary = getResourceBinary(encoding, encodedResource);
+						hashCode = sha256.hashBytes(resourceBinary);
+					}
 				}
 
 				String hashSha256 = hashCode.toString();
@@ -685,6 +695,9 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			case JSONC:
 				resourceBinary = GZipUtil.compress(encodedResource);
 				break;
+			case SMILE:
+				resourceBinary = SmileParser.fromJson(encodedResource);
+				break;
 			default:
 			case DEL:
 				resourceBinary = new byte[0];
@@ -1012,9 +1025,31 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		return toResource(resourceType, theEntity, null, theForHistoryOperation);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <R extends IBaseResource> R toResource(Class<R> theResourceType, IBaseResourceEntity theEntity, Collection<ResourceTag> theTagList, boolean theForHistoryOperation) {
+		return toResource(theResourceType, theEntity, theTagList, theForHistoryOperation, false, null);
+	}
+
+	@Override
+	public <R extends IBaseResource> R toResource(Class<R> theResourceType, IBaseResourceEntity theEntity, Collection<ResourceTag> theTagList, boolean theForHistoryOperation, @Nullable Set<String> theParseElements) {
+		return toResource(theResourceType, theEntity, theTagList, theForHistoryOperation, false, theParseElements);
+	}
+
+	/**
+	 * Converts an entity to a resource for a read or vread. If the stored resource text can be
+	 * written to the client as-is (see {@link DaoConfig#isStoredResourcePassthroughEnabled()}),
+	 * it is attached to the returned resource as a {@link StoredEncodedResource}.
+	 */
+	protected <R extends IBaseResource> R toResourceForRead(Class<R> theResourceType, BaseHasResource theEntity, RequestDetails theRequest) {
+		boolean attachStoredText = getConfig().isStoredResourcePassthroughEnabled()
+			&& theRequest != null
+			&& (theRequest.getRestOperationType() == RestOperationTypeEnum.READ || theRequest.getRestOperationType() == RestOperationTypeEnum.VREAD)
+			&& !CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES, myInterceptorBroadcaster, theRequest);
+		return toResource(theResourceType, theEntity, null, false, attachStoredText, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends IBaseResource> R toResource(Class<R> theResourceType, IBaseResourceEntity theEntity, Collection<ResourceTag> theTagList, boolean theForHistoryOperation, boolean theAttachStoredText, @Nullable Set<String> theParseElements) {
 
 		// 1. get resource, it's encoding and the tags if any
 		byte[] resourceBytes;
@@ -1119,11 +1154,12 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			return null;
 		}
 
-		// 2. get The text
-		String decodedResourceText;
+		// 2. get The text (binary encodings are parsed directly from the bytes)
+		String decodedResourceText = null;
+		boolean parseBinary = resourceText == null && resourceEncoding == ResourceEncodingEnum.SMILE;
 		if (resourceText != null) {
 			decodedResourceText = resourceText;
-		} else {
+		} else if (!parseBinary) {
 			decodedResourceText = decodeResource(resourceBytes, resourceEncoding);
 		}
 
@@ -1152,10 +1188,21 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		if (resourceEncoding != ResourceEncodingEnum.DEL) {
 
 			LenientErrorHandler errorHandler = new LenientErrorHandler(false).setErrorOnInvalidValue(false);
-			IParser parser = new TolerantJsonParser(getContext(theEntity.getFhirVersion()), errorHandler, theEntity.getId());
 
 			try {
-				retVal = parser.parseResource(resourceType, decodedResourceText);
+				if (parseBinary) {
+					SmileParser parser = getContext(theEntity.getFhirVersion()).newSmileParser();
+					parser.setParserErrorHandler(errorHandler);
+					parser.setParseElements(theParseElements);
+					retVal = parser.parseResource(resourceType, resourceBytes);
+				} else {
+					TolerantJsonParser parser = new TolerantJsonParser(getContext(theEntity.getFhirVersion()), errorHandler, theEntity.getId());
+					parser.setParseElements(theParseElements);
+					retVal = parser.parseResource(resourceType, decodedResourceText);
+					if (theAttachStoredText && resourceType.equals(theResourceType) && !parser.isContentCorrected()) {
+						StoredEncodedResource.attach(retVal, myContext.getResourceType(resourceType), decodedResourceText);
+					}
+				}
 			} catch (Exception e) {
 				StringBuilder b = new StringBuilder();
 				b.append("Failed to parse database resource[");
@@ -1529,8 +1576,14 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			ResourceEncodingEnum encoding = myConfig.getResourceEncoding();
 			List<String> excludeElements = new ArrayList<>(8);
 			getExcludedElements(historyEntity.getResourceType(), excludeElements, theResource.getMeta());
-			String encodedResourceString = encodeResource(theResource, encoding, excludeElements, myContext);
-			byte[] resourceBinary = getResourceBinary(encoding, encodedResourceString);
+			String encodedResourceString = null;
+			byte[] resourceBinary;
+			if (encoding == ResourceEncodingEnum.SMILE) {
+				resourceBinary = encodeResourceToSmile(theResource, excludeElements, myContext);
+			} else {
+				encodedResourceString = encodeResource(theResource, encoding, excludeElements, myContext);
+				resourceBinary = getResourceBinary(encoding, encodedResourceString);
+			}
 			boolean changed = !Arrays.equals(historyEntity.getResource(), resourceBinary);
 
 			historyEntity.setUpdated(theTransactionDetails.getTransactionDate());
@@ -1541,7 +1594,7 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 				return historyEntity;
 			}
 
-			if (getConfig().getInlineResourceTextBelowSize() > 0 && encodedResourceString.length() < getConfig().getInlineResourceTextBelowSize()) {
+			if (encodedResourceString != null && getConfig().getInlineResourceTextBelowSize() > 0 && encodedResourceString.length() < getConfig().getInlineResourceTextBelowSize()) {
 				populateEncodedResource(encodedResource, encodedResourceString, null, ResourceEncodingEnum.JSON);
 			} else {
 				populateEncodedResource(encodedResource, null, resourceBinary, encoding);
@@ -1939,6 +1992,9 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			case JSONC:
 				resourceText = GZipUtil.decompress(theResourceBytes);
 				break;
+			case SMILE:
+				resourceText = SmileParser.toJson(theResourceBytes);
+				break;
 			case DEL:
 				break;
 		}
@@ -1951,6 +2007,16 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		return parser.encodeResourceToString(theResource);
 	}
 
+	/**
+	 * Encodes a resource using the binary {@link ResourceEncodingEnum#SMILE} encoding
+	 */
+	public static byte[] encodeResourceToSmile(IBaseResource theResource, List<String> theExcludeElements, FhirContext theContext) {
+		return theContext
+			.newSmileParser()
+			.setDontEncodeElements(theExcludeElements)
+			.encodeResourceToBytes(theResource);
+	}
+
 	private static String parseNarrativeTextIntoWords(IBaseResource theResource) {
 
 		StringBuilder b = new StringBuilder();
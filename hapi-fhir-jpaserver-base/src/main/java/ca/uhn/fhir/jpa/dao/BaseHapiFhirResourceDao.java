@@ -1237,7 +1237,7 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 		BaseHasResource entity = readEntity(theId, theRequest);
 		validateResourceType(entity);
 
-		T retVal = toResource(myResourceType, entity, null, false);
+		T retVal = toResourceForRead(myResourceType, entity, theRequest);
 
 		if (theDeletedOk == false) {
 			if (isDeleted(entity)) {
@@ -1246,7 +1246,7 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 		}
 
 		// Interceptor broadcast: STORAGE_PREACCESS_RESOURCES
-		{
+		if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PREACCESS_RESOURCES, myInterceptorBroadcaster, theRequest)) {
 			SimplePreResourceAccessDetails accessDetails = new SimplePreResourceAccessDetails(retVal);
 			HookParams params = new HookParams()
 				.add(IPreResourceAccessDetails.class, accessDetails)
@@ -1259,7 +1259,7 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 		}
 
 		// Interceptor broadcast: STORAGE_PRESHOW_RESOURCES
-		{
+		if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES, myInterceptorBroadcaster, theRequest)) {
 			SimplePreResourceShowDetails showDetails = new SimplePreResourceShowDetails(retVal);
 			HookParams params = new HookParams()
 				.add(IPreResourceShowDetails.class, showDetails)
@@ -44,6 +44,7 @@ public class TolerantJsonParser extends JsonParser {
 	private static final Logger ourLog = LoggerFactory.getLogger(TolerantJsonParser.class);
 	private final FhirContext myContext;
 	private final Long myResourcePid;
+	private boolean myContentCorrected;
 
 	/**
 	 * Constructor
@@ -85,6 +86,7 @@ public class TolerantJsonParser extends JsonParser {
 
 				JsonObject object = gson.fromJson(theMessageString, JsonObject.class);
 				String corrected = gson.toJson(object);
+				myContentCorrected = true;
 
 				T parsed = super.parseResource(theResourceType, corrected);
 
@@ -110,6 +112,14 @@ public class TolerantJsonParser extends JsonParser {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the most recently parsed content could not be parsed as stored,
+	 * and was corrected before parsing
+	 */
+	public boolean isContentCorrected() {
+		return myContentCorrected;
+	}
+
 	public static TolerantJsonParser createWithLenientErrorHandling(FhirContext theContext, @Nullable Long theResourcePid) {
 		LenientErrorHandler errorHandler = new LenientErrorHandler(false).setErrorOnInvalidValue(false);
 		return new TolerantJsonParser(theContext, errorHandler, theResourcePid);
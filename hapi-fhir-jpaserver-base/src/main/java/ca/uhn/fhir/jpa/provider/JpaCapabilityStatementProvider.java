@@ -25,6 +25,7 @@ import ca.uhn.fhir.context.support.IValidationSupport;
 import ca.uhn.fhir.jpa.api.config.DaoConfig;
 import ca.uhn.fhir.jpa.api.dao.IFhirSystemDao;
 import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.RestfulServer;
 import ca.uhn.fhir.rest.server.provider.ServerCapabilityStatementProvider;
 import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
@@ -124,6 +125,18 @@ public class JpaCapabilityStatementProvider extends ServerCapabilityStatementPro
 
 	}
 
+	@Override
+	public Object getCapabilityStatementCacheKey(RequestDetails theRequestDetails) {
+		// Resource counts change continually, so fall back to time based caching
+		if (myIncludeResourceCounts) {
+			return null;
+		}
+		return super.getCapabilityStatementCacheKey(theRequestDetails)
+			+ "|" + myDaoConfig.isAllowMultipleDelete()
+			+ "|" + myDaoConfig.getSupportedSubscriptionTypes()
+			+ "|" + myDaoConfig.getWebsocketContextPath();
+	}
+
 	public boolean isIncludeResourceCounts() {
 		return myIncludeResourceCounts;
 	}
@@ -20,6 +20,7 @@ package ca.uhn.fhir.jpa.search.builder;
  * #L%
  */
 
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
 import ca.uhn.fhir.context.ComboSearchParamType;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.FhirVersionEnum;
@@ -77,6 +78,7 @@ import ca.uhn.fhir.rest.api.RestSearchParameterTypeEnum;
 import ca.uhn.fhir.rest.api.SearchContainedModeEnum;
 import ca.uhn.fhir.rest.api.SortOrderEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.api.server.IPreResourceAccessDetails;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.storage.ResourcePersistentId;
@@ -84,8 +86,10 @@ import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.method.ElementsParameter;
 import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
 import ca.uhn.fhir.rest.server.util.CompositeInterceptorBroadcaster;
 import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
@@ -106,6 +110,7 @@ import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.PersistenceContextType;
@@ -372,11 +377,13 @@ public class SearchBuilder implements ISearchBuilder {
 
 			if (theSearchRuntimeDetails != null) {
 				theSearchRuntimeDetails.setFoundIndexMatchesCount(resultCount);
-				HookParams params = new HookParams()
-					.add(RequestDetails.class, theRequest)
-					.addIfMatchesType(ServletRequestDetails.class, theRequest)
-					.add(SearchRuntimeDetails.class, theSearchRuntimeDetails);
-				CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, theRequest, Pointcut.JPA_PERFTRACE_INDEXSEARCH_QUERY_COMPLETE, params);
+				if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.JPA_PERFTRACE_INDEXSEARCH_QUERY_COMPLETE, myInterceptorBroadcaster, theRequest)) {
+					HookParams params = new HookParams()
+						.add(RequestDetails.class, theRequest)
+						.addIfMatchesType(ServletRequestDetails.class, theRequest)
+						.add(SearchRuntimeDetails.class, theSearchRuntimeDetails);
+					CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, theRequest, Pointcut.JPA_PERFTRACE_INDEXSEARCH_QUERY_COMPLETE, params);
+				}
 			}
 
 			// todo MB extract this and move to FullText svc
@@ -843,7 +850,7 @@ public class SearchBuilder implements ISearchBuilder {
 	}
 
 	private void doLoadPids(Collection<ResourcePersistentId> thePids, Collection<ResourcePersistentId> theIncludedPids, List<IBaseResource> theResourceListToPopulate, boolean theForHistoryOperation,
-									Map<ResourcePersistentId, Integer> thePosition) {
+									Map<ResourcePersistentId, Integer> thePosition, @Nullable Set<String> theParseElements) {
 
 		Map<Long, Long> resourcePidToVersion = null;
 		for (ResourcePersistentId next : thePids) {
@@ -893,7 +900,7 @@ public class SearchBuilder implements ISearchBuilder {
 
 			IBaseResource resource = null;
 			if (next != null) {
-				resource = myCallingDao.toResource(resourceType, next, tagMap.get(next.getId()), theForHistoryOperation);
+				resource = myCallingDao.toResource(resourceType, next, tagMap.get(next.getId()), theForHistoryOperation, theParseElements);
 			}
 			if (resource == null) {
 				ourLog.warn("Unable to find resource {}/{}/_history/{} in database", next.getResourceType(), next.getIdDt().getIdPart(), next.getVersion());
@@ -996,8 +1003,59 @@ public class SearchBuilder implements ISearchBuilder {
 			}
 		}
 
+		Set<String> parseElements = determineParseElements(theDetails);
+
 		// We only chunk because some jdbc drivers can't handle long param lists.
-		new QueryChunker<ResourcePersistentId>().chunk(thePids, t -> doLoadPids(t, theIncludedPids, theResourceListToPopulate, theForHistoryOperation, position));
+		new QueryChunker<ResourcePersistentId>().chunk(thePids, t -> doLoadPids(t, theIncludedPids, theResourceListToPopulate, theForHistoryOperation, position, parseElements));
+	}
+
+	/**
+	 * If {@link DaoConfig#isParseOnlyRequestedElements()} is enabled, returns the elements of the
+	 * searched resource type which will actually be returned to the client according to the
+	 * <code>_elements</code> and <code>_summary</code> parameters. Resources of other types (e.g.
+	 * included resources) are always parsed in full.
+	 */
+	@Nullable
+	private Set<String> determineParseElements(RequestDetails theDetails) {
+		if (!myDaoConfig.isParseOnlyRequestedElements() || theDetails == null || theDetails.getServer() == null || myResourceName == null) {
+			return null;
+		}
+
+		Set<String> elements = ElementsParameter.getElementsValueOrNull(theDetails, false);
+		if (elements != null) {
+			Set<String> retVal = new HashSet<>();
+			for (String next : elements) {
+				if (Character.isUpperCase(next.charAt(0))) {
+					retVal.add(next);
+				} else {
+					retVal.add(myResourceName + "." + next);
+				}
+			}
+			return retVal;
+		}
+
+		Set<SummaryEnum> summaryMode = RestfulServerUtils.determineSummaryMode(theDetails);
+		if (summaryMode.size() != 1) {
+			return null;
+		}
+		switch (summaryMode.iterator().next()) {
+			case TRUE: {
+				Set<String> retVal = new HashSet<>();
+				for (BaseRuntimeChildDefinition next : myContext.getResourceDefinition(myResourceName).getChildren()) {
+					if (next.isSummary()) {
+						retVal.add(myResourceName + "." + next.getElementName());
+					}
+				}
+				return retVal;
+			}
+			case TEXT:
+				return Set.of(myResourceName + ".text", myResourceName + ".(mandatory)");
+			case COUNT:
+			case DATA:
+			case FALSE:
+			default:
+				return null;
+		}
 	}
 
 	/**
@@ -1689,15 +1747,17 @@ public class SearchBuilder implements ISearchBuilder {
 			}
 
 			if (myFirst) {
-				HookParams params = new HookParams()
-					.add(RequestDetails.class, myRequest)
-					.addIfMatchesType(ServletRequestDetails.class, myRequest)
-					.add(SearchRuntimeDetails.class, mySearchRuntimeDetails);
-				CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, myRequest, Pointcut.JPA_PERFTRACE_SEARCH_FIRST_RESULT_LOADED, params);
+				if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.JPA_PERFTRACE_SEARCH_FIRST_RESULT_LOADED, myInterceptorBroadcaster, myRequest)) {
+					HookParams params = new HookParams()
+						.add(RequestDetails.class, myRequest)
+						.addIfMatchesType(ServletRequestDetails.class, myRequest)
+						.add(SearchRuntimeDetails.class, mySearchRuntimeDetails);
+					CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, myRequest, Pointcut.JPA_PERFTRACE_SEARCH_FIRST_RESULT_LOADED, params);
+				}
 				myFirst = false;
 			}
 
-			if (NO_MORE.equals(myNext)) {
+			if (NO_MORE.equals(myNext) && CompositeInterceptorBroadcaster.hasHooks(Pointcut.JPA_PERFTRACE_SEARCH_SELECT_COMPLETE, myInterceptorBroadcaster, myRequest)) {
 				HookParams params = new HookParams()
 					.add(RequestDetails.class, myRequest)
 					.addIfMatchesType(ServletRequestDetails.class, myRequest)
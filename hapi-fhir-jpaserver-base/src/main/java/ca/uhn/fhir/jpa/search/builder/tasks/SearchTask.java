@@ -316,7 +316,7 @@ public class SearchTask implements Callable<Void> {
 				// Interceptor call: STORAGE_PREACCESS_RESOURCES
 				// This can be used to remove results from the search result details before
 				// the user has a chance to know that they were in the results
-				if (mySearchRuntimeDetails.getRequestDetails() != null && unsyncedPids.isEmpty() == false) {
+				if (mySearchRuntimeDetails.getRequestDetails() != null && unsyncedPids.isEmpty() == false && CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PREACCESS_RESOURCES, myInterceptorBroadcaster, myRequest)) {
 					JpaPreResourceAccessDetails accessDetails = new JpaPreResourceAccessDetails(unsyncedPids, () -> newSearchBuilder());
 					HookParams params = new HookParams()
 						.add(IPreResourceAccessDetails.class, accessDetails)
@@ -438,12 +438,14 @@ public class SearchTask implements Callable<Void> {
 
 			mySearchRuntimeDetails.setSearchStatus(mySearch.getStatus());
 			if (mySearch.getStatus() == SearchStatusEnum.FINISHED) {
-				HookParams params = new HookParams()
-					.add(RequestDetails.class, myRequest)
-					.addIfMatchesType(ServletRequestDetails.class, myRequest)
-					.add(SearchRuntimeDetails.class, mySearchRuntimeDetails);
-				CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, myRequest, Pointcut.JPA_PERFTRACE_SEARCH_COMPLETE, params);
-			} else {
+				if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.JPA_PERFTRACE_SEARCH_COMPLETE, myInterceptorBroadcaster, myRequest)) {
+					HookParams params = new HookParams()
+						.add(RequestDetails.class, myRequest)
+						.addIfMatchesType(ServletRequestDetails.class, myRequest)
+						.add(SearchRuntimeDetails.class, mySearchRuntimeDetails);
+					CompositeInterceptorBroadcaster.doCallHooks(myInterceptorBroadcaster, myRequest, Pointcut.JPA_PERFTRACE_SEARCH_COMPLETE, params);
+				}
+			} else if (CompositeInterceptorBroadcaster.hasHooks(Pointcut.JPA_PERFTRACE_SEARCH_PASS_COMPLETE, myInterceptorBroadcaster, myRequest)) {
 				HookParams params = new HookParams()
 					.add(RequestDetails.class, myRequest)
 					.addIfMatchesType(ServletRequestDetails.class, myRequest)
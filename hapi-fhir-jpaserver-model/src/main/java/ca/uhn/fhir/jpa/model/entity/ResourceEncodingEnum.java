@@ -44,11 +44,22 @@ public enum ResourceEncodingEnum {
 	 */
 	JSONC,
 
+	/**
+	 * Smile (binary JSON)
+	 *
+	 * @since 6.3.0
+	 */
+	SMILE,
+
 	/**
 	 * Resource was deleted - No contents expected
 	 */
 	DEL;
 
+	/**
+	 * Returns a parser for the textual form of this encoding. For all encodings, including
+	 * {@link #SMILE} (which is the binary form of JSON), this is a JSON parser.
+	 */
 	public IParser newParser(FhirContext theContext) {
 		return theContext.newJsonParser();
 	}
@@ -129,7 +129,7 @@ public class SearchParamExtractorService {
 
 	private void extractSearchIndexParametersForContainedResources(RequestDetails theRequestDetails, ResourceIndexedSearchParams theParams, IBaseResource theResource, ResourceTable theEntity) {
 
-		FhirTerser terser = myContext.newTerser();
+		FhirTerser terser = myContext.getTerser();
 
 		// 1. get all contained resources
 		Collection<IBaseResource> containedResources = terser.getAllEmbeddedResources(theResource, false);
@@ -437,7 +437,7 @@ public class SearchParamExtractorService {
 
 	private void extractResourceLinksForContainedResources(RequestPartitionId theRequestPartitionId, ResourceIndexedSearchParams theParams, ResourceTable theEntity, IBaseResource theResource, TransactionDetails theTransactionDetails, boolean theFailOnInvalidReference, RequestDetails theRequest) {
 
-		FhirTerser terser = myContext.newTerser();
+		FhirTerser terser = myContext.getTerser();
 
 		// 1. get all contained resources
 		Collection<IBaseResource> containedResources = terser.getAllEmbeddedResources(theResource, false);
@@ -58,6 +58,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -74,6 +75,7 @@ public class SearchParamRegistryImpl implements ISearchParamRegistry, IResourceC
 	private static final long REFRESH_INTERVAL = DateUtils.MILLIS_PER_MINUTE;
 
 	private final JpaSearchParamCache myJpaSearchParamCache = new JpaSearchParamCache();
+	private final AtomicLong myActiveSearchParamsVersion = new AtomicLong();
 	@Autowired
 	private ModelConfig myModelConfig;
 	@Autowired
@@ -124,6 +126,11 @@ public class SearchParamRegistryImpl implements ISearchParamRegistry, IResourceC
 		}
 	}
 
+	@Override
+	public long getActiveSearchParamsVersion() {
+		return myActiveSearchParamsVersion.get();
+	}
+
 	@Override
 	public List<RuntimeSearchParam> getActiveComboSearchParams(String theResourceName) {
 		return myJpaSearchParamCache.getActiveComboSearchParams(theResourceName);
@@ -177,6 +184,7 @@ public class SearchParamRegistryImpl implements ISearchParamRegistry, IResourceC
 		myActiveSearchParams = searchParams;
 
 		myJpaSearchParamCache.populateActiveSearchParams(myInterceptorBroadcaster, myPhoneticEncoder, myActiveSearchParams);
+		myActiveSearchParamsVersion.incrementAndGet();
 		ourLog.debug("Refreshed search parameter cache in {}ms", sw.getMillis());
 	}
 
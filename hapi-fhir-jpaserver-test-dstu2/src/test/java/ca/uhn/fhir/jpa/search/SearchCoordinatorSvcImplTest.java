@@ -320,6 +320,8 @@ public class SearchCoordinatorSvcImplTest extends BaseSearchSvc{
 		SlowIterator iter = new SlowIterator(pids.iterator(), 500);
 		when(mySearchBuilder.createQuery(same(params), any(), any(), nullable(RequestPartitionId.class))).thenReturn(iter);
 		mockSearchTask();
+		when(myInterceptorBroadcaster.hasHooks(any()))
+			.thenReturn(true);
 		when(myInterceptorBroadcaster.callHooks(any(), any()))
 			.thenReturn(true);
 
@@ -0,0 +1,88 @@
+package ca.uhn.fhir.jpa.dao.r4;
+
+import ca.uhn.fhir.jpa.api.config.DaoConfig;
+import ca.uhn.fhir.jpa.api.model.DaoMethodOutcome;
+import ca.uhn.fhir.jpa.dao.BaseHapiFhirDao;
+import ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum;
+import ca.uhn.fhir.jpa.model.entity.ResourceHistoryTable;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FhirResourceDaoR4SmileEncodingTest extends BaseJpaR4Test {
+
+	@BeforeEach
+	public void beforeSetDao() {
+		myDaoConfig.setResourceEncoding(ResourceEncodingEnum.SMILE);
+		myDaoConfig.setInlineResourceTextBelowSize(5000);
+	}
+
+	@AfterEach
+	public void afterResetDao() {
+		myDaoConfig.setResourceEncoding(new DaoConfig().getResourceEncoding());
+		myDaoConfig.setInlineResourceTextBelowSize(new DaoConfig().getInlineResourceTextBelowSize());
+	}
+
+	@Test
+	public void testCreateAndUpdateWithSmileStorage() {
+		Patient patient = new Patient();
+		patient.setActive(true);
+		patient.addName().setFamily("Müller");
+		Long resourceId = myPatientDao.create(patient).getId().getIdPartAsLong();
+
+		patient = new Patient();
+		patient.setId("Patient/" + resourceId);
+		patient.setActive(false);
+		patient.addName().setFamily("Müller");
+		myPatientDao.update(patient);
+
+		runInTransaction(() -> {
+			// Binary encodings are never inlined, even below the inline threshold
+			ResourceHistoryTable entity = myResourceHistoryTableDao.findForIdAndVersionAndFetchProvenance(resourceId, 1);
+			assertEquals(ResourceEncodingEnum.SMILE, entity.getEncoding());
+			assertNull(entity.getResourceTextVc());
+			assertThat(new String(entity.getResource(), StandardCharsets.ISO_8859_1), not(startsWith("{")));
+			// The generic decode path converts Smile back to JSON text
+			assertThat(BaseHapiFhirDao.decodeResource(entity.getResource(), ResourceEncodingEnum.SMILE), startsWith("{\"resourceType\":\"Patient\""));
+
+			entity = myResourceHistoryTableDao.findForIdAndVersionAndFetchProvenance(resourceId, 2);
+			assertEquals(ResourceEncodingEnum.SMILE, entity.getEncoding());
+		});
+
+		patient = myPatientDao.read(new IdType("Patient/" + resourceId + "/_history/1"));
+		assertTrue(patient.getActive());
+		assertEquals("Müller", patient.getNameFirstRep().getFamily());
+
+		patient = (Patient) myPatientDao.search(SearchParameterMap.newSynchronous()).getAllResources().get(0);
+		assertFalse(patient.getActive());
+	}
+
+	@Test
+	public void testNopOnUnchangedUpdate() {
+		Patient patient = new Patient();
+		patient.setActive(true);
+		Long resourceId = myPatientDao.create(patient).getId().getIdPartAsLong();
+
+		patient = new Patient();
+		patient.setId("Patient/" + resourceId);
+		patient.setActive(true);
+		DaoMethodOutcome updateOutcome = myPatientDao.update(patient);
+		assertEquals("1", updateOutcome.getId().getVersionIdPart());
+		assertTrue(updateOutcome.isNop());
+	}
+
+}
@@ -0,0 +1,104 @@
+package ca.uhn.fhir.jpa.provider.r4;
+
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.jpa.api.config.DaoConfig;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IPreResourceShowDetails;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResourceProviderR4ParseElementsTest extends BaseResourceProviderR4Test {
+
+	private final List<IBaseResource> myShownResources = new ArrayList<>();
+
+	@BeforeEach
+	@Override
+	public void before() throws Exception {
+		super.before();
+		myDaoConfig.setParseOnlyRequestedElements(true);
+		myInterceptorRegistry.registerAnonymousInterceptor(Pointcut.STORAGE_PRESHOW_RESOURCES, (thePointcut, theArgs) -> {
+			IPreResourceShowDetails details = theArgs.get(IPreResourceShowDetails.class);
+			for (int i = 0; i < details.size(); i++) {
+				myShownResources.add(details.getResource(i));
+			}
+		});
+
+		Patient patient = new Patient();
+		patient.setActive(true);
+		patient.addName().setFamily("Simpson");
+		patient.addAddress().setCity("Springfield");
+		patient.getText().getDiv().setValue("<div>Homer</div>");
+		myPatientDao.create(patient, mySrd);
+	}
+
+	@AfterEach
+	@Override
+	public void after() throws Exception {
+		super.after();
+		myDaoConfig.setParseOnlyRequestedElements(new DaoConfig().isParseOnlyRequestedElements());
+	}
+
+	@Test
+	public void testSearchWithElements() {
+		Bundle outcome = myClient
+			.search()
+			.forResource(Patient.class)
+			.elementsSubset("name")
+			.returnBundle(Bundle.class)
+			.execute();
+
+		Patient patient = (Patient) outcome.getEntryFirstRep().getResource();
+		assertEquals("Simpson", patient.getNameFirstRep().getFamily());
+		assertFalse(patient.hasAddress());
+
+		// The stored resource was only partially parsed
+		Patient shown = (Patient) myShownResources.get(0);
+		assertEquals("Simpson", shown.getNameFirstRep().getFamily());
+		assertTrue(shown.hasIdElement());
+		assertFalse(shown.hasAddress());
+		assertFalse(shown.hasActive());
+	}
+
+	@Test
+	public void testSearchWithSummary() {
+		Bundle outcome = myClient
+			.search()
+			.forResource(Patient.class)
+			.summaryMode(SummaryEnum.TRUE)
+			.returnBundle(Bundle.class)
+			.execute();
+
+		Patient patient = (Patient) outcome.getEntryFirstRep().getResource();
+		assertTrue(patient.getActive());
+		assertEquals("Simpson", patient.getNameFirstRep().getFamily());
+
+		Patient shown = (Patient) myShownResources.get(0);
+		assertTrue(shown.hasAddress());
+		assertFalse(shown.hasText());
+	}
+
+	@Test
+	public void testSearchWithoutElementsParsesFullResource() {
+		myClient
+			.search()
+			.forResource(Patient.class)
+			.returnBundle(Bundle.class)
+			.execute();
+
+		Patient shown = (Patient) myShownResources.get(0);
+		assertTrue(shown.hasAddress());
+		assertTrue(shown.hasText());
+	}
+
+}
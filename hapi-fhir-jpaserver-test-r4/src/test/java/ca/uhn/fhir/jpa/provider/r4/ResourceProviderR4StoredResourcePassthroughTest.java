@@ -0,0 +1,141 @@
+package ca.uhn.fhir.jpa.provider.r4;
+
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.jpa.api.config.DaoConfig;
+import ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum;
+import ca.uhn.fhir.jpa.model.entity.ResourceHistoryTable;
+import ca.uhn.fhir.narrative.DefaultThymeleafNarrativeGenerator;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResourceProviderR4StoredResourcePassthroughTest extends BaseResourceProviderR4Test {
+
+	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(ResourceProviderR4StoredResourcePassthroughTest.class);
+
+	/**
+	 * Elements are stored in a different order than the parser would encode them in, so
+	 * the response shows whether the stored text was written as-is
+	 */
+	private static final String STORED_JSON = "{\"resourceType\":\"Patient\",\"name\":[{\"family\":\"Simpson\"}],\"active\":true}";
+	private static final String STORED_ELEMENTS = "\"name\":[{\"family\":\"Simpson\"}],\"active\":true}";
+	private static final String ENCODED_ELEMENTS = "\"active\":true,\"name\":[{\"family\":\"Simpson\"}]}";
+
+	private IIdType myPatientId;
+
+	@BeforeEach
+	@Override
+	public void before() throws Exception {
+		super.before();
+		myDaoConfig.setStoredResourcePassthroughEnabled(true);
+
+		// The default test server is set up with interceptors and a narrative generator, all of which disable passthrough
+		ourRestServer.getInterceptorService().unregisterAllInterceptors();
+		ourRestServer.getFhirContext().setNarrativeGenerator(null);
+
+		Patient patient = new Patient();
+		patient.setActive(true);
+		patient.addName().setFamily("Simpson");
+		myPatientId = myPatientDao.create(patient, mySrd).getId().toUnqualifiedVersionless();
+
+		runInTransaction(() -> {
+			ResourceHistoryTable history = myResourceHistoryTableDao.findForIdAndVersionAndFetchProvenance(myPatientId.getIdPartAsLong(), 1);
+			history.setEncoding(ResourceEncodingEnum.JSON);
+			history.setResource(null);
+			history.setResourceTextVc(STORED_JSON);
+			myResourceHistoryTableDao.save(history);
+		});
+	}
+
+	@AfterEach
+	@Override
+	public void after() throws Exception {
+		super.after();
+		myDaoConfig.setStoredResourcePassthroughEnabled(new DaoConfig().isStoredResourcePassthroughEnabled());
+		ourRestServer.getInterceptorService().unregisterAllInterceptors();
+		ourRestServer.getInterceptorService().registerInterceptor(myBinaryStorageInterceptor);
+		ourRestServer.getFhirContext().setNarrativeGenerator(new DefaultThymeleafNarrativeGenerator());
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		String response = executeGet("/Patient/" + myPatientId.getIdPart());
+
+		assertThat(response, startsWith("{\"resourceType\":\"Patient\",\"id\":\"" + myPatientId.getIdPart() + "\",\"meta\":{\"versionId\":\"1\""));
+		assertThat(response, containsString(STORED_ELEMENTS));
+		assertParsesToStoredPatient(response);
+	}
+
+	@Test
+	public void testVread() throws IOException {
+		String response = executeGet("/Patient/" + myPatientId.getIdPart() + "/_history/1");
+
+		assertThat(response, containsString("\"versionId\":\"1\""));
+		assertThat(response, containsString(STORED_ELEMENTS));
+		assertParsesToStoredPatient(response);
+	}
+
+	@Test
+	public void testReadWithPassthroughDisabled() throws IOException {
+		myDaoConfig.setStoredResourcePassthroughEnabled(false);
+
+		String response = executeGet("/Patient/" + myPatientId.getIdPart());
+
+		assertThat(response, containsString(ENCODED_ELEMENTS));
+		assertParsesToStoredPatient(response);
+	}
+
+	@Test
+	public void testReadWithPrettyPrint() throws IOException {
+		String response = executeGet("/Patient/" + myPatientId.getIdPart() + "?_pretty=true");
+
+		assertThat(response, containsString("\"active\": true"));
+		assertParsesToStoredPatient(response);
+	}
+
+	@Test
+	public void testReadWithPreShowInterceptor() throws IOException {
+		myInterceptorRegistry.registerAnonymousInterceptor(Pointcut.STORAGE_PRESHOW_RESOURCES, (thePointcut, theArgs) -> {
+			// nothing
+		});
+
+		String response = executeGet("/Patient/" + myPatientId.getIdPart());
+
+		assertThat(response, containsString(ENCODED_ELEMENTS));
+		assertParsesToStoredPatient(response);
+	}
+
+	private String executeGet(String thePath) throws IOException {
+		HttpGet httpGet = new HttpGet(ourServerBase + thePath);
+		httpGet.addHeader("Accept", "application/fhir+json");
+		try (CloseableHttpResponse status = ourHttpClient.execute(httpGet)) {
+			String responseContent = IOUtils.toString(status.getEntity().getContent(), StandardCharsets.UTF_8);
+			ourLog.info("Response content: {}", responseContent);
+			assertEquals(200, status.getStatusLine().getStatusCode());
+			return responseContent;
+		}
+	}
+
+	private void assertParsesToStoredPatient(String theResponse) {
+		Patient patient = myFhirContext.newJsonParser().parseResource(Patient.class, theResponse);
+		assertEquals(myPatientId.getIdPart(), patient.getIdElement().getIdPart());
+		assertEquals("1", patient.getMeta().getVersionId());
+		assertTrue(patient.getActive());
+		assertEquals("Simpson", patient.getNameFirstRep().getFamily());
+	}
+
+}
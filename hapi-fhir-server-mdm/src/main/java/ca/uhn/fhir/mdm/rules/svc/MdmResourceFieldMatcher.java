@@ -20,8 +20,10 @@ package ca.uhn.fhir.mdm.rules.svc;
  * #L%
  */
 
+import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.fhirpath.IFhirPath;
+import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.mdm.api.MdmMatchEvaluation;
 import ca.uhn.fhir.mdm.rules.json.MdmFieldMatchJson;
 import ca.uhn.fhir.mdm.rules.json.MdmRulesJson;
@@ -48,6 +50,7 @@ public class MdmResourceFieldMatcher {
 	private final MdmRulesJson myMdmRulesJson;
 	private final String myName;
 	private final boolean myIsFhirPathExpression;
+	private final IFhirPath.IParsedExpression myParsedFhirPath;
 
 	public MdmResourceFieldMatcher(FhirContext theFhirContext, MdmFieldMatchJson theMdmFieldMatchJson, MdmRulesJson theMdmRulesJson) {
 		myFhirContext = theFhirContext;
@@ -58,6 +61,15 @@ public class MdmResourceFieldMatcher {
 		myName = theMdmFieldMatchJson.getName();
 		myMdmRulesJson = theMdmRulesJson;
 		myIsFhirPathExpression = myFhirPath != null;
+		myParsedFhirPath = myIsFhirPathExpression ? parseFhirPath() : null;
+	}
+
+	private IFhirPath.IParsedExpression parseFhirPath() {
+		try {
+			return myFhirContext.getFhirPath().parseExpression(myFhirPath);
+		} catch (Exception e) {
+			throw new ConfigurationException(Msg.code(2172) + "MatchField [" + myName + "] has invalid FHIRPath expression: " + e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -80,11 +92,11 @@ public class MdmResourceFieldMatcher {
 		List<IBase> rightValues;
 
 		if (myIsFhirPathExpression) {
-			IFhirPath fhirPath = myFhirContext.newFhirPath();
-			leftValues = fhirPath.evaluate(theLeftResource, myFhirPath, IBase.class);
-			rightValues = fhirPath.evaluate(theRightResource, myFhirPath, IBase.class);
+			IFhirPath fhirPath = myFhirContext.getFhirPath();
+			leftValues = fhirPath.evaluate(theLeftResource, myParsedFhirPath, IBase.class);
+			rightValues = fhirPath.evaluate(theRightResource, myParsedFhirPath, IBase.class);
 		} else {
-			FhirTerser fhirTerser = myFhirContext.newTerser();
+			FhirTerser fhirTerser = myFhirContext.getTerser();
 			leftValues = fhirTerser.getValues(theLeftResource, myResourcePath, IBase.class);
 			rightValues = fhirTerser.getValues(theRightResource, myResourcePath, IBase.class);
 		}
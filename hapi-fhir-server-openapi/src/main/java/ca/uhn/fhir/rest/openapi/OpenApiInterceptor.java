@@ -105,6 +105,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -128,6 +130,7 @@ public class OpenApiInterceptor {
 	private final HtmlRenderer myFlexmarkRenderer;
 	private final Map<String, String> myResourcePathToClasspath = new HashMap<>();
 	private final Map<String, String> myExtensionToContentType = new HashMap<>();
+	private final AtomicReference<CachedOpenApi> myCachedOpenApi = new AtomicReference<>();
 	private String myBannerImage;
 	private String myCssText;
 	private boolean myUseResourcePages;
@@ -213,8 +216,7 @@ public class OpenApiInterceptor {
 
 		} else if (requestPath.equals("/api-docs")) {
 
-			OpenAPI openApi = generateOpenApi(theRequestDetails);
-			String response = Yaml.pretty(openApi);
+			String response = getOpenApiYaml(theRequestDetails);
 
 			theResponse.setContentType("text/yaml");
 			theResponse.setStatus(200);
@@ -411,6 +413,26 @@ public class OpenApiInterceptor {
 		return page;
 	}
 
+	/**
+	 * The OpenAPI document is derived from the server CapabilityStatement, so the encoded document
+	 * is cached for as long as the server keeps returning the same CapabilityStatement instance
+	 */
+	private String getOpenApiYaml(ServletRequestDetails theRequestDetails) {
+		IBaseConformance capabilityStatement = theRequestDetails.getServer().getCapabilityStatement(theRequestDetails);
+		CachedOpenApi cached = myCachedOpenApi.get();
+		if (cached == null || cached.getCapabilityStatement() != capabilityStatement) {
+			cached = new CachedOpenApi(capabilityStatement);
+			myCachedOpenApi.set(cached);
+		}
+
+		// Only cache known pages so that arbitrary page names can't grow the cache
+		String page = extractPageName(theRequestDetails, null);
+		if (page != null && !page.equals(PAGE_SYSTEM) && !page.equals(PAGE_ALL) && !theRequestDetails.getFhirContext().getResourceTypes().contains(page)) {
+			return Yaml.pretty(generateOpenApi(theRequestDetails));
+		}
+		return cached.getYaml(defaultString(page), () -> Yaml.pretty(generateOpenApi(theRequestDetails)));
+	}
+
 	protected OpenAPI generateOpenApi(ServletRequestDetails theRequestDetails) {
 		String page = extractPageName(theRequestDetails, null);
 
@@ -937,6 +959,23 @@ public class OpenApiInterceptor {
 		return (T) canonical;
 	}
 
+	private static class CachedOpenApi {
+		private final IBaseConformance myCapabilityStatement;
+		private final Map<String, String> myPageToYaml = new ConcurrentHashMap<>();
+
+		private CachedOpenApi(IBaseConformance theCapabilityStatement) {
+			myCapabilityStatement = theCapabilityStatement;
+		}
+
+		public IBaseConformance getCapabilityStatement() {
+			return myCapabilityStatement;
+		}
+
+		public String getYaml(String thePage, Supplier<String> theGenerator) {
+			return myPageToYaml.computeIfAbsent(thePage, t -> theGenerator.get());
+		}
+	}
+
 	private class SwaggerUiTemplateResolver implements ITemplateResolver {
 		@Override
 		public String getName() {
@@ -28,6 +28,7 @@ import org.hl7.fhir.instance.model.api.IIdType;
 import org.hl7.fhir.instance.model.api.IPrimitiveType;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Date;
 import java.util.List;
@@ -48,6 +49,19 @@ public interface IRestfulResponse {
 
 	Object sendWriterResponse(int status, String contentType, String charset, Writer writer) throws IOException;
 
+	/**
+	 * Returns a stream to which a response body may be written directly as UTF-8 encoded bytes, or
+	 * <code>null</code> if this response type only supports writing through
+	 * {@link #getResponseWriter(int, String, String, String, boolean)}. If a stream is returned, it is
+	 * also the value to return from the method invocation, and will be closed by the server once the
+	 * response has been written.
+	 *
+	 * @since 6.3.0
+	 */
+	default OutputStream getResponseOutputStream(int theStatusCode, String theContentType, boolean theRespondGzip) throws IOException {
+		return null;
+	}
+
 	void addHeader(String headerKey, String headerValue);
 
 	Object sendAttachmentResponse(IBaseBinary bin, int stausCode, String contentType) throws IOException;
@@ -447,10 +447,15 @@ public abstract class RequestDetails {
 	 * method to the {@link IServerInterceptor#outgoingResponse(RequestDetails, org.hl7.fhir.instance.model.api.IBaseResource, javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)}
 	 * method.
 	 * </p>
+	 * <p>
+	 * Individual operations on this map are thread safe, since some interceptors (e.g. the
+	 * {@link ca.uhn.fhir.rest.server.interceptor.consent.ConsentInterceptor}) may pass the same request
+	 * to code running on several threads. Iterating over the map must be synchronized on the map.
+	 * </p>
 	 */
 	public Map<Object, Object> getUserData() {
 		if (myUserData == null) {
-			myUserData = new HashMap<>();
+			myUserData = Collections.synchronizedMap(new HashMap<>());
 		}
 		return myUserData;
 	}
@@ -0,0 +1,99 @@
+package ca.uhn.fhir.rest.api.server.storage;
+
+/*-
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.Validate;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the JSON text of a resource exactly as it was loaded from storage, in the case where the
+ * stored text does not include the resource <code>id</code> or <code>meta</code> elements (because
+ * these are stored separately and populated on the resource after parsing).
+ * <p>
+ * A storage implementation may attach this to a resource it has loaded. A server responding with
+ * only that resource can then write the stored text along with a freshly encoded id and meta,
+ * instead of encoding the whole resource again. Code which modifies a resource that may have a
+ * stored form attached must call {@link #remove(IBaseResource)}.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+public class StoredEncodedResource {
+
+	private static final String USER_DATA_KEY = StoredEncodedResource.class.getName();
+	private final String myStoredJson;
+	private final int myElementsStart;
+
+	private StoredEncodedResource(String theStoredJson, int theElementsStart) {
+		myStoredJson = theStoredJson;
+		myElementsStart = theElementsStart;
+	}
+
+	/**
+	 * Appends the stored elements of the resource to a JSON object which has been opened and
+	 * populated with the resource type, id and meta, and closes the object.
+	 */
+	public void appendElementsAndClose(StringBuilder theJson) {
+		theJson.append(myStoredJson, myElementsStart, myStoredJson.length());
+	}
+
+	/**
+	 * Attaches the stored form of a resource to the resource, if the stored text has the expected
+	 * form (compact JSON starting with the resource type, and not containing an id or meta element)
+	 *
+	 * @param theResource     The resource parsed from the stored text
+	 * @param theResourceType The resource type name
+	 * @param theStoredJson   The stored text
+	 * @return Returns <code>true</code> if the stored form was attached
+	 */
+	public static boolean attach(IBaseResource theResource, String theResourceType, String theStoredJson) {
+		Validate.notNull(theResource);
+		String prefix = "{\"resourceType\":\"" + theResourceType + "\"";
+		if (!theStoredJson.startsWith(prefix) || !theStoredJson.endsWith("}")) {
+			return false;
+		}
+		if (theStoredJson.startsWith(",\"id\":", prefix.length()) || theStoredJson.startsWith(",\"meta\":", prefix.length())) {
+			return false;
+		}
+
+		theResource.setUserData(USER_DATA_KEY, new StoredEncodedResource(theStoredJson, prefix.length()));
+		return true;
+	}
+
+	/**
+	 * Returns the stored form attached to the given resource, or <code>null</code> if none
+	 */
+	@Nullable
+	public static StoredEncodedResource get(IBaseResource theResource) {
+		return (StoredEncodedResource) theResource.getUserData(USER_DATA_KEY);
+	}
+
+	/**
+	 * Removes any stored form from the given resource. This must be called by any code which
+	 * modifies a resource loaded from storage.
+	 */
+	public static void remove(IBaseResource theResource) {
+		theResource.setUserData(USER_DATA_KEY, null);
+	}
+
+}
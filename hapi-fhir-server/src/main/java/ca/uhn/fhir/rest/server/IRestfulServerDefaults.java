@@ -88,6 +88,17 @@ public interface IRestfulServerDefaults {
 		return null;
 	}
 
+	/**
+	 * If greater than 0, search-set Bundles containing more than this many resources are streamed
+	 * to the client, loading and encoding the resources in batches of this size instead of building
+	 * the complete Bundle in memory. The default is 0 (disabled).
+	 *
+	 * @since 6.3.0
+	 */
+	default int getStreamingBundleBatchSize() {
+		return 0;
+	}
+
 	/**
 	 * Should the server "pretty print" responses by default (requesting clients can always override this default by
 	 * supplying an <code>Accept</code> header in the request, or a <code>_pretty</code>
@@ -42,6 +42,25 @@ public interface IServerConformanceProvider<T extends IBaseResource> {
 		return null;
 	}
 
+	/**
+	 * Returns a key which changes whenever the conformance statement returned by
+	 * {@link #getServerConformance(HttpServletRequest, RequestDetails)} for the given request
+	 * would change. If a non-null key is returned, the server will reuse the generated
+	 * statement (and its encoded forms) until the key changes, or until the cache period set on
+	 * the {@link ca.uhn.fhir.rest.annotation.Metadata} annotation expires, whichever comes first.
+	 * The cache period is kept as an upper bound because changes which the key doesn't capture
+	 * (e.g. registering an interceptor which modifies the generated statement) must still be
+	 * picked up eventually.
+	 * <p>
+	 * The default implementation returns <code>null</code>, meaning that the key is not known.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	default Object getCapabilityStatementCacheKey(RequestDetails theRequestDetails) {
+		return null;
+	}
+
 	/**
 	 * This setter is needed in implementation classes (along with
 	 * a no-arg constructor) to avoid reference cycles in the
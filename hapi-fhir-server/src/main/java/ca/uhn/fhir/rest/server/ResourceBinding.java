@@ -22,11 +22,15 @@ package ca.uhn.fhir.rest.server;
 
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
-import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
 import ca.uhn.fhir.rest.server.method.MethodMatchEnum;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Holds all method bindings for an individual resource type
@@ -37,6 +41,7 @@ public class ResourceBinding {
 
 	private String resourceName;
 	private LinkedList<BaseMethodBinding> myMethodBindings = new LinkedList<>();
+	private volatile DispatchIndex myDispatchIndex;
 
 	/**
 	 * Constructor
@@ -60,7 +65,7 @@ public class ResourceBinding {
 		BaseMethodBinding matchedMethod = null;
 		MethodMatchEnum matchedMethodStrength = null;
 
-		for (BaseMethodBinding rm : myMethodBindings) {
+		for (BaseMethodBinding rm : getDispatchIndex().getCandidates(theRequest.getOperation())) {
 			MethodMatchEnum nextMethodMatch = rm.incomingServerRequestMatchesMethod(theRequest);
 			if (nextMethodMatch != MethodMatchEnum.NONE) {
 				if (matchedMethodStrength == null || matchedMethodStrength.ordinal() < nextMethodMatch.ordinal()) {
@@ -76,6 +81,15 @@ public class ResourceBinding {
 		return matchedMethod;
 	}
 
+	private DispatchIndex getDispatchIndex() {
+		DispatchIndex retVal = myDispatchIndex;
+		if (retVal == null || retVal.myMethodBindingCount != myMethodBindings.size()) {
+			retVal = new DispatchIndex(myMethodBindings);
+			myDispatchIndex = retVal;
+		}
+		return retVal;
+	}
+
 	public String getResourceName() {
 		return resourceName;
 	}
@@ -84,12 +98,25 @@ public class ResourceBinding {
 		this.resourceName = resourceName;
 	}
 
+	/**
+	 * Returns the method bindings. Code which modifies the returned list directly must call
+	 * {@link #invalidateDispatchIndex()} afterwards.
+	 */
 	public List<BaseMethodBinding> getMethodBindings() {
 		return myMethodBindings;
 	}
 
 	public void addMethod(BaseMethodBinding method) {
 		this.myMethodBindings.push(method);
+		invalidateDispatchIndex();
+	}
+
+	/**
+	 * Discards the index used to select candidate method bindings for a request. This is
+	 * called automatically when methods are added using {@link #addMethod(BaseMethodBinding)}.
+	 */
+	public void invalidateDispatchIndex() {
+		myDispatchIndex = null;
 	}
 
 	@Override
@@ -104,4 +131,56 @@ public class ResourceBinding {
 		return 0;
 	}
 
+	/**
+	 * Precomputed lists of the method bindings which could possibly match a request, keyed by
+	 * the operation name of the request. Bindings which can only match a single operation
+	 * (see {@link BaseMethodBinding#getRequiredOperationName()}) appear only in the list for
+	 * that operation, so requests don't need to be tested against every registered operation.
+	 * Each list preserves the order of the method bindings, so the selected method is the same
+	 * as it would be if all bindings were tested.
+	 */
+	private static class DispatchIndex {
+
+		private final int myMethodBindingCount;
+		private final Map<String, List<BaseMethodBinding>> myOperationNameToCandidates = new HashMap<>();
+		private final List<BaseMethodBinding> myOtherCandidates = new ArrayList<>();
+
+		DispatchIndex(List<BaseMethodBinding> theMethodBindings) {
+			List<BaseMethodBinding> methodBindings = new ArrayList<>(theMethodBindings);
+			myMethodBindingCount = methodBindings.size();
+
+			Set<String> operationNames = new LinkedHashSet<>();
+			for (BaseMethodBinding next : methodBindings) {
+				String operationName = next.getRequiredOperationName();
+				if (operationName != null) {
+					operationNames.add(operationName);
+				} else {
+					myOtherCandidates.add(next);
+				}
+			}
+
+			for (String nextOperationName : operationNames) {
+				List<BaseMethodBinding> candidates = new ArrayList<>();
+				for (BaseMethodBinding next : methodBindings) {
+					String operationName = next.getRequiredOperationName();
+					if (operationName == null || operationName.equals(nextOperationName)) {
+						candidates.add(next);
+					}
+				}
+				myOperationNameToCandidates.put(nextOperationName, candidates);
+			}
+		}
+
+		List<BaseMethodBinding> getCandidates(String theOperationName) {
+			if (theOperationName != null) {
+				List<BaseMethodBinding> retVal = myOperationNameToCandidates.get(theOperationName);
+				if (retVal != null) {
+					return retVal;
+				}
+			}
+			return myOtherCandidates;
+		}
+
+	}
+
 }
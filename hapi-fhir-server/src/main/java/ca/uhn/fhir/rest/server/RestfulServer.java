@@ -76,17 +76,25 @@ import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.UnavailableException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -104,6 +112,10 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.Manifest;
@@ -145,6 +157,7 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 	private static final long serialVersionUID = 1L;
 	private final List<Object> myPlainProviders = new ArrayList<>();
 	private final List<IResourceProvider> myResourceProviders = new ArrayList<>();
+	private final AtomicLong myProviderRegistrationVersion = new AtomicLong();
 	private IInterceptorService myInterceptorService;
 	private BundleInclusionRule myBundleInclusionRule = BundleInclusionRule.BASED_ON_INCLUDES;
 	private boolean myDefaultPrettyPrint = false;
@@ -175,6 +188,9 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 	private ITenantIdentificationStrategy myTenantIdentificationStrategy;
 	private PreferReturnEnum myDefaultPreferReturn = DEFAULT_PREFER_RETURN;
 	private ElementsSupportEnum myElementsSupport = ElementsSupportEnum.EXTENDED;
+	private Executor myAsyncExecutor;
+	private long myAsyncTimeoutMillis = 0;
+	private int myStreamingBundleBatchSize = 0;
 
 	/**
 	 * Constructor. Note that if no {@link FhirContext} is passed in to the server (either through the constructor, or
@@ -743,6 +759,110 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 		setInterceptors(Arrays.asList(theInterceptors));
 	}
 
+	/**
+	 * Returns the executor used to process requests asynchronously, or <code>null</code> (which is
+	 * the default) if requests are processed on the servlet container thread which received them.
+	 *
+	 * @see #setAsyncExecutor(Executor)
+	 * @since 6.3.0
+	 */
+	@Nullable
+	public Executor getAsyncExecutor() {
+		return myAsyncExecutor;
+	}
+
+	/**
+	 * If set (default is <code>null</code>), requests are processed asynchronously using the
+	 * Servlet 3.1 async API: the servlet container thread which received the request is released
+	 * immediately, and the request is processed (including all interceptor invocations, which
+	 * happen exactly as they do for synchronous processing) on a thread supplied by the given
+	 * executor. This means that slow requests such as long-running searches don't pin the
+	 * container's request threads.
+	 * <p>
+	 * The servlet must be registered with async support enabled (e.g. <code>asyncSupported</code>
+	 * in web.xml or {@link javax.servlet.ServletRegistration.Dynamic#setAsyncSupported(boolean)}),
+	 * otherwise requests are processed synchronously. See
+	 * {@link ca.uhn.fhir.rest.server.util.AsyncRequestExecutors} for suitable executors, including
+	 * a virtual-thread-per-request executor on Java 21+.
+	 * </p>
+	 * <p>
+	 * The SLF4J MDC of the container thread is copied to the executor thread, but no other thread-bound
+	 * state is. Anything a servlet filter binds to the container thread (e.g. the Spring Security
+	 * <code>SecurityContextHolder</code>, an open-session-in-view <code>EntityManager</code>, or Spring
+	 * request scope) is therefore not visible to interceptors or resource providers. Either wrap the
+	 * executor in one which propagates that state (e.g. Spring Security's
+	 * <code>DelegatingSecurityContextExecutor</code>) or do not use asynchronous processing.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public void setAsyncExecutor(@Nullable Executor theAsyncExecutor) {
+		myAsyncExecutor = theAsyncExecutor;
+	}
+
+	/**
+	 * Returns the timeout for requests processed asynchronously, in milliseconds. A value of
+	 * <code>0</code> (which is the default) means no timeout.
+	 *
+	 * @see #setAsyncExecutor(Executor)
+	 * @since 6.3.0
+	 */
+	public long getAsyncTimeoutMillis() {
+		return myAsyncTimeoutMillis;
+	}
+
+	/**
+	 * Sets the timeout for requests processed asynchronously, in milliseconds. A value of
+	 * <code>0</code> (which is the default) means no timeout. Note that this replaces the servlet
+	 * container's own default async timeout, which is often quite short (e.g. 30 seconds).
+	 * <p>
+	 * A request which times out is answered with an HTTP 503 and abandoned: processing continues
+	 * on the executor thread, but its response is discarded.
+	 * </p>
+	 *
+	 * @see #setAsyncExecutor(Executor)
+	 * @since 6.3.0
+	 */
+	public void setAsyncTimeoutMillis(long theAsyncTimeoutMillis) {
+		Validate.isTrue(theAsyncTimeoutMillis >= 0, "theAsyncTimeoutMillis must not be negative");
+		myAsyncTimeoutMillis = theAsyncTimeoutMillis;
+	}
+
+	/**
+	 * If greater than 0, search-set Bundles containing more than this many resources are streamed
+	 * to the client, loading and encoding the resources in batches of this size instead of building
+	 * the complete Bundle in memory. The default is 0 (disabled).
+	 *
+	 * @see #setStreamingBundleBatchSize(int)
+	 * @since 6.3.0
+	 */
+	@Override
+	public int getStreamingBundleBatchSize() {
+		return myStreamingBundleBatchSize;
+	}
+
+	/**
+	 * If set to a value greater than 0 (default is 0, meaning disabled), search-set Bundles
+	 * containing more than this many resources are streamed to the client: the Bundle root
+	 * properties are written first, and then the resources are loaded from the
+	 * {@link ca.uhn.fhir.rest.api.server.IBundleProvider} and encoded in batches of this size, so that only one batch of
+	 * resources is held in memory at any time. Each batch is loaded using a separate call to
+	 * {@link ca.uhn.fhir.rest.api.server.IBundleProvider#getResources(int, int)}, so storage interceptors such as
+	 * {@link Pointcut#STORAGE_PRESHOW_RESOURCES} are invoked once per batch.
+	 * <p>
+	 * Streaming only applies to compact (non pretty-printed) JSON responses for servers with a
+	 * paging provider, and is not used if any interceptor is registered against
+	 * {@link Pointcut#SERVER_OUTGOING_RESPONSE} since these expect to see the complete Bundle.
+	 * Note that if loading a later batch fails, the response has already been partially written
+	 * and the client will receive an incomplete Bundle.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public void setStreamingBundleBatchSize(int theStreamingBundleBatchSize) {
+		myStreamingBundleBatchSize = theStreamingBundleBatchSize;
+	}
+
 	@Override
 	public IPagingProvider getPagingProvider() {
 		return myPagingProvider;
@@ -967,6 +1087,17 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 		myServerConformanceProvider = theServerConformanceProvider;
 	}
 
+	/**
+	 * Returns a counter which is incremented every time providers are registered with, or
+	 * unregistered from, this server. This can be used to detect that anything derived from
+	 * the registered providers (e.g. the server CapabilityStatement) needs to be regenerated.
+	 *
+	 * @since 6.3.0
+	 */
+	public long getProviderRegistrationVersion() {
+		return myProviderRegistrationVersion.get();
+	}
+
 	/**
 	 * Gets the server's name, as exported in conformance profiles exported by the server. This is informational only,
 	 * but can be helpful to set with something appropriate.
@@ -1759,6 +1890,7 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 				}
 			}
 		}
+		myProviderRegistrationVersion.incrementAndGet();
 	}
 
 	/*
@@ -1777,6 +1909,7 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 		removeResourceMethods(theProvider, clazz, resourceNames);
 		removeResourceMethodsOnInterfaces(theProvider, clazz.getInterfaces(), resourceNames);
 		removeResourceNameBindings(resourceNames, theProvider);
+		myProviderRegistrationVersion.incrementAndGet();
 	}
 
 	private void removeResourceNameBindings(Collection<String> resourceNames, Object theProvider) {
@@ -1793,6 +1926,7 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 					ourLog.info("{} binding of {} was removed", resourceName, binding);
 				}
 			}
+			resourceBinding.invalidateDispatchIndex();
 
 			if (resourceBinding.getMethodBindings().isEmpty()) {
 				myResourceNameToBinding.remove(resourceName);
@@ -1854,6 +1988,68 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 	protected void service(HttpServletRequest theReq, HttpServletResponse theResp) throws ServletException, IOException {
 		theReq.setAttribute(REQUEST_START_TIME, new Date());
 
+		Executor asyncExecutor = myAsyncExecutor;
+		if (asyncExecutor != null && theReq.isAsyncSupported() && theReq.getDispatcherType() == DispatcherType.REQUEST) {
+			serviceAsync(asyncExecutor, theReq, theResp);
+		} else {
+			serviceRequest(theReq, theResp);
+		}
+	}
+
+	private void serviceAsync(Executor theExecutor, HttpServletRequest theReq, HttpServletResponse theResp) throws ServletException, IOException {
+		AsyncContext asyncContext = theReq.startAsync(theReq, theResp);
+		asyncContext.setTimeout(myAsyncTimeoutMillis);
+		AsyncRequestListener listener = new AsyncRequestListener();
+		asyncContext.addListener(listener);
+		HttpServletResponse response = new AsyncResponseWrapper(theResp, listener);
+		Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+		Runnable task = () -> {
+			Map<String, String> previousMdcContext = MDC.getCopyOfContextMap();
+			setMdcContext(mdcContext);
+			try {
+				if (listener.isAbandoned()) {
+					ourLog.debug("Asynchronous request was abandoned before processing started");
+					return;
+				}
+				serviceRequest(theReq, response);
+			} catch (Throwable e) {
+				if (listener.isAbandoned()) {
+					ourLog.debug("Failure during abandoned asynchronous request processing", e);
+				} else {
+					ourLog.error("Failure during asynchronous request processing", e);
+					if (!theResp.isCommitted()) {
+						try {
+							response.sendError(Constants.STATUS_HTTP_500_INTERNAL_ERROR);
+						} catch (IOException e2) {
+							ourLog.debug("Failed to send error response", e2);
+						}
+					}
+				}
+			} finally {
+				listener.complete(asyncContext);
+				setMdcContext(previousMdcContext);
+			}
+		};
+
+		try {
+			theExecutor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// The executor is saturated or shut down, so fall back to the container thread
+			ourLog.debug("Async executor rejected request, processing it synchronously");
+			task.run();
+		}
+	}
+
+	private static void setMdcContext(@Nullable Map<String, String> theContext) {
+		if (theContext != null) {
+			MDC.setContextMap(theContext);
+		} else {
+			MDC.clear();
+		}
+	}
+
+	private void serviceRequest(HttpServletRequest theReq, HttpServletResponse theResp) throws ServletException, IOException {
 		RequestTypeEnum method;
 		try {
 			method = RequestTypeEnum.valueOf(theReq.getMethod());
@@ -2086,4 +2282,172 @@ public class RestfulServer extends HttpServlet implements IRestfulServer<Servlet
 //
 //		return retVal;
 //	}
+
+	/**
+	 * Tracks whether an asynchronous request has been completed, either by the task processing it or
+	 * by the container (timeout or error). A request which times out is answered with a 503 and is
+	 * abandoned, meaning that the task processing it must no longer write to the response or complete it.
+	 */
+	private static class AsyncRequestListener implements AsyncListener {
+
+		private final AtomicBoolean myCompleted = new AtomicBoolean(false);
+		private volatile boolean myAbandoned;
+
+		boolean isAbandoned() {
+			return myAbandoned;
+		}
+
+		/**
+		 * Completes the request unless it has already been completed or abandoned
+		 */
+		void complete(AsyncContext theAsyncContext) {
+			if (myCompleted.compareAndSet(false, true)) {
+				try {
+					theAsyncContext.complete();
+				} catch (IllegalStateException e) {
+					ourLog.debug("Asynchronous request was already completed", e);
+				}
+			}
+		}
+
+		@Override
+		public void onComplete(AsyncEvent theEvent) {
+			myCompleted.set(true);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent theEvent) throws IOException {
+			myAbandoned = true;
+			if (myCompleted.compareAndSet(false, true)) {
+				ourLog.warn("Asynchronous request timed out before processing completed");
+				HttpServletResponse response = (HttpServletResponse) theEvent.getAsyncContext().getResponse();
+				if (!response.isCommitted()) {
+					response.sendError(Constants.STATUS_HTTP_503_SERVICE_UNAVAILABLE);
+				}
+				theEvent.getAsyncContext().complete();
+			}
+		}
+
+		@Override
+		public void onError(AsyncEvent theEvent) {
+			myAbandoned = true;
+			if (myCompleted.compareAndSet(false, true)) {
+				ourLog.debug("Asynchronous request failed", theEvent.getThrowable());
+				theEvent.getAsyncContext().complete();
+			}
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent theEvent) {
+			// nothing
+		}
+
+	}
+
+	/**
+	 * Refuses to write to the response once the request has been abandoned, and ignores any changes
+	 * to its status and headers, since the container may already have recycled the underlying response
+	 */
+	private static class AsyncResponseWrapper extends HttpServletResponseWrapper {
+
+		private final AsyncRequestListener myListener;
+
+		AsyncResponseWrapper(HttpServletResponse theResponse, AsyncRequestListener theListener) {
+			super(theResponse);
+			myListener = theListener;
+		}
+
+		private void assertNotAbandoned() throws IOException {
+			if (myListener.isAbandoned()) {
+				throw new IOException(Msg.code(2185) + "Asynchronous request timed out or failed before the response was written");
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			assertNotAbandoned();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			assertNotAbandoned();
+			return super.getWriter();
+		}
+
+		@Override
+		public void sendError(int theStatusCode) throws IOException {
+			assertNotAbandoned();
+			super.sendError(theStatusCode);
+		}
+
+		@Override
+		public void sendError(int theStatusCode, String theMessage) throws IOException {
+			assertNotAbandoned();
+			super.sendError(theStatusCode, theMessage);
+		}
+
+		@Override
+		public void sendRedirect(String theLocation) throws IOException {
+			assertNotAbandoned();
+			super.sendRedirect(theLocation);
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			assertNotAbandoned();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void reset() {
+			if (!myListener.isAbandoned()) {
+				super.reset();
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (!myListener.isAbandoned()) {
+				super.resetBuffer();
+			}
+		}
+
+		@Override
+		public void setStatus(int theStatusCode) {
+			if (!myListener.isAbandoned()) {
+				super.setStatus(theStatusCode);
+			}
+		}
+
+		@Override
+		public void setHeader(String theName, String theValue) {
+			if (!myListener.isAbandoned()) {
+				super.setHeader(theName, theValue);
+			}
+		}
+
+		@Override
+		public void addHeader(String theName, String theValue) {
+			if (!myListener.isAbandoned()) {
+				super.addHeader(theName, theValue);
+			}
+		}
+
+		@Override
+		public void setContentType(String theContentType) {
+			if (!myListener.isAbandoned()) {
+				super.setContentType(theContentType);
+			}
+		}
+
+		@Override
+		public void setCharacterEncoding(String theCharset) {
+			if (!myListener.isAbandoned()) {
+				super.setCharacterEncoding(theCharset);
+			}
+		}
+
+	}
+
 }
@@ -23,7 +23,9 @@ package ca.uhn.fhir.rest.server;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.FhirVersionEnum;
+import ca.uhn.fhir.context.RuntimeResourceDefinition;
 import ca.uhn.fhir.interceptor.api.HookParams;
+import ca.uhn.fhir.interceptor.api.IInterceptorBroadcaster;
 import ca.uhn.fhir.interceptor.api.Pointcut;
 import ca.uhn.fhir.model.api.IResource;
 import ca.uhn.fhir.model.api.Include;
@@ -43,9 +45,11 @@ import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.api.server.IRestfulResponse;
 import ca.uhn.fhir.rest.api.server.IRestfulServer;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.api.server.storage.StoredEncodedResource;
 import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.method.ElementsParameter;
+import ca.uhn.fhir.rest.server.method.StreamedBundleEntries;
 import ca.uhn.fhir.rest.server.method.SummaryEnumParameter;
 import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
 import ca.uhn.fhir.util.BinaryUtil;
@@ -65,7 +69,10 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -1004,6 +1011,39 @@ public class RestfulServerUtils {
 		}
 		String charset = Constants.CHARSET_NAME_UTF8;
 
+		/*
+		 * If nothing needs to see the response as characters, write the encoded resource straight
+		 * to the response as UTF-8 bytes
+		 */
+		boolean canWriteBytes = theResource != null && !encodingDomainResourceAsText;
+		if (canWriteBytes && theServer.getInterceptorService() != null && theServer.getInterceptorService().hasHooks(Pointcut.SERVER_OUTGOING_WRITER_CREATED)) {
+			canWriteBytes = false;
+		}
+		String storedEncoding = null;
+		if (theResource != null && !encodingDomainResourceAsText) {
+			storedEncoding = encodeFromStoredResource(theServer, theResource, theSummaryMode, theRequestDetails);
+		}
+		if (canWriteBytes) {
+			OutputStream outputStream = response.getResponseOutputStream(theStatusCode, contentType, respondGzip);
+			if (outputStream != null) {
+				if (storedEncoding != null) {
+					outputStream.write(storedEncoding.getBytes(StandardCharsets.UTF_8));
+					return outputStream;
+				}
+				FhirVersionEnum forVersion = theResource.getStructureFhirVersionEnum();
+				IParser parser = getNewParser(theServer.getFhirContext(), forVersion, theRequestDetails);
+				StreamedBundleEntries streamedEntries = StreamedBundleEntries.get(theResource);
+				if (streamedEntries != null) {
+					Writer streamWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+					writeStreamedBundle(parser, theResource, streamedEntries, streamWriter);
+					streamWriter.flush();
+					return outputStream;
+				}
+				parser.encodeResourceToOutputStream(theResource, outputStream);
+				return outputStream;
+			}
+		}
+
 		Writer writer = response.getResponseWriter(theStatusCode, theStatusMessage, contentType, charset, respondGzip);
 
 		// Interceptor call: SERVER_OUTGOING_WRITER_CREATED
@@ -1030,15 +1070,104 @@ public class RestfulServerUtils {
 			} catch (Exception e) {
 				throw new InternalErrorException(Msg.code(305) + e);
 			}
+		} else if (storedEncoding != null) {
+			writer.append(storedEncoding);
 		} else {
 			FhirVersionEnum forVersion = theResource.getStructureFhirVersionEnum();
 			IParser parser = getNewParser(theServer.getFhirContext(), forVersion, theRequestDetails);
-			parser.encodeResourceToWriter(theResource, writer);
+			StreamedBundleEntries streamedEntries = StreamedBundleEntries.get(theResource);
+			if (streamedEntries != null) {
+				writeStreamedBundle(parser, theResource, streamedEntries, writer);
+			} else {
+				parser.encodeResourceToWriter(theResource, writer);
+			}
 		}
 
 		return response.sendWriterResponse(theStatusCode, contentType, charset, writer);
 	}
 
+	/**
+	 * If the resource being returned by a read or vread was loaded from storage with its stored
+	 * text attached (see {@link StoredEncodedResource}), and the response would be identical to
+	 * that text, returns the response body built from the stored text plus a freshly encoded id
+	 * and meta. Otherwise returns <code>null</code> and the resource must be encoded normally.
+	 */
+	@Nullable
+	private static String encodeFromStoredResource(IRestfulServerDefaults theServer, IBaseResource theResource, Set<SummaryEnum> theSummaryMode, RequestDetails theRequestDetails) {
+		StoredEncodedResource stored = StoredEncodedResource.get(theResource);
+		if (stored == null || !(theResource instanceof IAnyResource)) {
+			return null;
+		}
+
+		/*
+		 * Only plain reads and vreads are eligible, and only if no interceptor could have modified
+		 * the resource after it was loaded
+		 */
+		RestOperationTypeEnum operationType = theRequestDetails.getRestOperationType();
+		if (operationType != RestOperationTypeEnum.READ && operationType != RestOperationTypeEnum.VREAD) {
+			return null;
+		}
+		if (hasResourceModifyingHooks(theServer.getInterceptorService()) || hasResourceModifyingHooks(theRequestDetails.getInterceptorBroadcaster())) {
+			return null;
+		}
+
+		/*
+		 * Anything that would cause the encoded resource to differ from the stored form
+		 */
+		FhirContext ctx = theServer.getFhirContext();
+		if (ctx.getNarrativeGenerator() != null || theResource.getStructureFhirVersionEnum() != ctx.getVersion().getVersion()) {
+			return null;
+		}
+		if (!theSummaryMode.equals(Collections.singleton(SummaryEnum.FALSE)) || prettyPrintResponse(theServer, theRequestDetails)) {
+			return null;
+		}
+		if (ElementsParameter.getElementsValueOrNull(theRequestDetails, false) != null || ElementsParameter.getElementsValueOrNull(theRequestDetails, true) != null) {
+			return null;
+		}
+		IParser parser = getNewParser(ctx, ctx.getVersion().getVersion(), theRequestDetails);
+		if (parser.getEncoding() != EncodingEnum.JSON) {
+			return null;
+		}
+
+		// Versioned and absolute references may be rewritten (version stripping, server base) when encoding the response
+		for (IBaseReference next : ctx.getTerser().getAllPopulatedChildElementsOfType(theResource, IBaseReference.class)) {
+			IIdType referenceElement = next.getReferenceElement();
+			if (referenceElement.hasVersionIdPart() || referenceElement.hasBaseUrl()) {
+				return null;
+			}
+		}
+
+		// Encode a resource containing only the id and meta, and append the stored elements to it
+		RuntimeResourceDefinition resourceDef = ctx.getResourceDefinition(theResource);
+		IBaseResource idAndMeta = resourceDef.newInstance();
+		idAndMeta.setId(theResource.getIdElement());
+		resourceDef.getChildByName("meta").getMutator().setValue(idAndMeta, theResource.getMeta());
+		String encoded = parser.encodeResourceToString(idAndMeta);
+
+		StringBuilder retVal = new StringBuilder(encoded.length() + 1024);
+		retVal.append(encoded, 0, encoded.length() - 1);
+		stored.appendElementsAndClose(retVal);
+		return retVal.toString();
+	}
+
+	/**
+	 * Writes a Bundle whose entries are loaded and encoded in batches as they are written. The
+	 * Bundle root properties are encoded first, and the entries are appended to them (entry is
+	 * the last element populated in a search-set Bundle).
+	 */
+	private static void writeStreamedBundle(IParser theParser, IBaseResource theBundle, StreamedBundleEntries theEntries, Writer theWriter) throws IOException {
+		String encodedRoot = theParser.encodeResourceToString(theBundle);
+		theWriter.append(encodedRoot, 0, encodedRoot.length() - 1);
+		theWriter.append(",\"entry\":[");
+		theEntries.writeEntries(theParser, theWriter);
+		theWriter.append("]}");
+	}
+
+	private static boolean hasResourceModifyingHooks(@Nullable IInterceptorBroadcaster theInterceptorBroadcaster) {
+		return theInterceptorBroadcaster != null &&
+			(theInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES) || theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_OUTGOING_RESPONSE));
+	}
+
 	private static String getBinaryContentTypeOrDefault(IBaseBinary theBinary) {
 		String contentType;
 		if (isNotBlank(theBinary.getContentType())) {
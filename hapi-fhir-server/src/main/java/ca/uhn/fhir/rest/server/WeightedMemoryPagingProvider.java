@@ -0,0 +1,494 @@
+package ca.uhn.fhir.rest.server;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.model.api.ResourceMetadataKeyEnum;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.hl7.fhir.instance.model.api.IAnyResource;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A paging provider which holds result lists in memory, bounded by the estimated memory used
+ * by the lists rather than by their number, and which discards lists that have not been
+ * accessed for a configurable time.
+ * <p>
+ * Optionally, a spill directory may be configured. Result lists which are evicted to make
+ * room for new ones (but not lists which have expired) are then written to a file in that
+ * directory instead of being discarded, and later pages are read back from the file. Only
+ * result lists which are held completely in memory (i.e. {@link SimpleBundleProvider}
+ * instances) are spilled. Spilling happens on a background thread (see
+ * {@link #setSpillExecutor(Executor)}), and {@link #shutdown()} should be called when the
+ * server stops in order to delete any spilled files.
+ * </p>
+ * <p>
+ * This class requires Caffeine (<code>com.github.ben-manes.caffeine:caffeine</code>) on the
+ * classpath.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+public class WeightedMemoryPagingProvider extends BasePagingProvider {
+
+	public static final long DEFAULT_ESTIMATED_BYTES_PER_RESOURCE = 4096;
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+	private static final Logger ourLog = LoggerFactory.getLogger(WeightedMemoryPagingProvider.class);
+	/**
+	 * The weight given to result lists which are not held in memory (e.g. lists which
+	 * load their contents from a database when a page is requested)
+	 */
+	private static final long NON_MEMORY_RESULT_LIST_WEIGHT = 1024;
+	private final FhirContext myContext;
+	private final Cache<String, IBundleProvider> myResultLists;
+	private final Map<String, IBundleProvider> myPendingSpills = new ConcurrentHashMap<>();
+	private final Map<String, SpilledBundleProvider> mySpilledResultLists = new ConcurrentHashMap<>();
+	private final AtomicLong mySpilledBytes = new AtomicLong();
+	private final Duration myTimeToLive;
+	private final ExecutorService myDefaultSpillExecutor;
+	private Executor mySpillExecutor;
+	private volatile boolean myShutdown;
+	private long myEstimatedBytesPerResource = DEFAULT_ESTIMATED_BYTES_PER_RESOURCE;
+	private Path mySpillDirectory;
+	private long myMaximumSpillBytes = Long.MAX_VALUE;
+
+	/**
+	 * Constructor which uses the {@link #DEFAULT_TIME_TO_LIVE default time to live}
+	 *
+	 * @param theContext          The FHIR context, used to encode and parse spilled result lists
+	 * @param theMaximumWeightBytes The maximum estimated number of bytes of memory to use for result lists
+	 */
+	public WeightedMemoryPagingProvider(FhirContext theContext, long theMaximumWeightBytes) {
+		this(theContext, theMaximumWeightBytes, DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param theContext            The FHIR context, used to encode and parse spilled result lists
+	 * @param theMaximumWeightBytes The maximum estimated number of bytes of memory to use for result lists
+	 * @param theTimeToLive         Result lists which are not accessed for this long are discarded
+	 */
+	public WeightedMemoryPagingProvider(FhirContext theContext, long theMaximumWeightBytes, Duration theTimeToLive) {
+		Validate.notNull(theContext, "theContext must not be null");
+		Validate.isTrue(theMaximumWeightBytes > 0, "theMaximumWeightBytes must be greater than 0");
+		Validate.notNull(theTimeToLive, "theTimeToLive must not be null");
+
+		myContext = theContext;
+		myTimeToLive = theTimeToLive;
+		myDefaultSpillExecutor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+			.namingPattern("hapi-fhir-paging-spill-%d")
+			.daemon(true)
+			.build());
+		mySpillExecutor = myDefaultSpillExecutor;
+		myResultLists = Caffeine
+			.newBuilder()
+			.maximumWeight(theMaximumWeightBytes)
+			.weigher((String theKey, IBundleProvider theValue) -> (int) Math.min(Integer.MAX_VALUE, estimateWeight(theValue)))
+			.expireAfterAccess(theTimeToLive)
+			.evictionListener(this::onEviction)
+			.executor(Runnable::run)
+			.build();
+	}
+
+	/**
+	 * Returns the estimated number of bytes of memory used by each resource in a result list
+	 * which is held in memory. Default is {@link #DEFAULT_ESTIMATED_BYTES_PER_RESOURCE}.
+	 */
+	public long getEstimatedBytesPerResource() {
+		return myEstimatedBytesPerResource;
+	}
+
+	/**
+	 * Sets the estimated number of bytes of memory used by each resource in a result list
+	 * which is held in memory. Default is {@link #DEFAULT_ESTIMATED_BYTES_PER_RESOURCE}.
+	 */
+	public WeightedMemoryPagingProvider setEstimatedBytesPerResource(long theEstimatedBytesPerResource) {
+		Validate.isTrue(theEstimatedBytesPerResource > 0, "theEstimatedBytesPerResource must be greater than 0");
+		myEstimatedBytesPerResource = theEstimatedBytesPerResource;
+		return this;
+	}
+
+	/**
+	 * Returns the directory to which evicted result lists are spilled, or <code>null</code>
+	 * (which is the default) if evicted result lists are discarded
+	 */
+	@Nullable
+	public Path getSpillDirectory() {
+		return mySpillDirectory;
+	}
+
+	/**
+	 * Sets the directory to which evicted result lists are spilled, or <code>null</code>
+	 * (which is the default) if evicted result lists should be discarded
+	 */
+	public WeightedMemoryPagingProvider setSpillDirectory(@Nullable Path theSpillDirectory) {
+		mySpillDirectory = theSpillDirectory;
+		return this;
+	}
+
+	/**
+	 * Sets the executor used to write evicted result lists to the spill directory. By default a
+	 * single background thread owned by this provider is used. An executor supplied here is not
+	 * shut down by {@link #shutdown()}.
+	 */
+	public WeightedMemoryPagingProvider setSpillExecutor(@Nonnull Executor theSpillExecutor) {
+		Validate.notNull(theSpillExecutor, "theSpillExecutor must not be null");
+		mySpillExecutor = theSpillExecutor;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of spilled result lists to keep on disk. When this is
+	 * exceeded, the least recently spilled lists are discarded. Default is no limit (spilled
+	 * lists are still discarded when they expire).
+	 */
+	public WeightedMemoryPagingProvider setMaximumSpillBytes(long theMaximumSpillBytes) {
+		Validate.isTrue(theMaximumSpillBytes > 0, "theMaximumSpillBytes must be greater than 0");
+		myMaximumSpillBytes = theMaximumSpillBytes;
+		return this;
+	}
+
+	@Override
+	public IBundleProvider retrieveResultList(RequestDetails theRequestDetails, String theId) {
+		IBundleProvider retVal = myResultLists.getIfPresent(theId);
+		if (retVal == null) {
+			retVal = myPendingSpills.get(theId);
+		}
+		if (retVal == null) {
+			purgeExpiredSpilledResultLists();
+			SpilledBundleProvider spilled = mySpilledResultLists.get(theId);
+			if (spilled != null) {
+				spilled.touch();
+				retVal = spilled;
+			}
+		}
+		return retVal;
+	}
+
+	@Override
+	public String storeResultList(RequestDetails theRequestDetails, IBundleProvider theList) {
+		String key = UUID.randomUUID().toString();
+		myResultLists.put(key, theList);
+		myResultLists.cleanUp();
+		return key;
+	}
+
+	/**
+	 * Returns the estimated number of bytes of memory used by the given result list
+	 */
+	protected long estimateWeight(IBundleProvider theResultList) {
+		if (theResultList instanceof SimpleBundleProvider) {
+			int count = ((SimpleBundleProvider) theResultList).getList().size();
+			return NON_MEMORY_RESULT_LIST_WEIGHT + count * myEstimatedBytesPerResource;
+		}
+		return NON_MEMORY_RESULT_LIST_WEIGHT;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given result list can be spilled to disk. The default
+	 * implementation only spills {@link SimpleBundleProvider} instances, since other result
+	 * lists are generally able to reload their contents themselves.
+	 */
+	protected boolean isSpillable(IBundleProvider theResultList) {
+		return theResultList instanceof SimpleBundleProvider && theResultList.getCurrentPageOffset() == null;
+	}
+
+	/**
+	 * Stops spilling result lists and deletes all spilled files. This should be called when the
+	 * server shuts down (Spring calls it automatically for a provider declared as a bean).
+	 */
+	public void shutdown() {
+		myShutdown = true;
+		myDefaultSpillExecutor.shutdown();
+		myPendingSpills.clear();
+		for (String next : new ArrayList<>(mySpilledResultLists.keySet())) {
+			discardSpilledResultList(next);
+		}
+	}
+
+	/**
+	 * Called by the cache while it holds its eviction lock, so the spill itself is handed off to
+	 * the spill executor. Until it completes, the result list remains available from memory.
+	 */
+	private void onEviction(String theKey, IBundleProvider theResultList, RemovalCause theCause) {
+		if (theCause != RemovalCause.SIZE || myShutdown || mySpillDirectory == null || theKey == null || theResultList == null || !isSpillable(theResultList)) {
+			return;
+		}
+
+		myPendingSpills.put(theKey, theResultList);
+		try {
+			mySpillExecutor.execute(() -> spillAndStore(theKey, theResultList));
+		} catch (RejectedExecutionException e) {
+			myPendingSpills.remove(theKey);
+			ourLog.warn("Failed to spill result list {} to disk, it will be discarded: {}", theKey, e.toString());
+		}
+	}
+
+	private void spillAndStore(String theKey, IBundleProvider theResultList) {
+		try {
+			if (myShutdown) {
+				return;
+			}
+
+			SpilledBundleProvider spilled;
+			try {
+				spilled = spill(theResultList);
+			} catch (IOException | RuntimeException e) {
+				ourLog.warn("Failed to spill result list {} to disk, it will be discarded: {}", theKey, e.toString());
+				return;
+			}
+			mySpilledResultLists.put(theKey, spilled);
+			mySpilledBytes.addAndGet(spilled.getFileSize());
+			if (myShutdown) {
+				discardSpilledResultList(theKey);
+				return;
+			}
+			ourLog.debug("Spilled result list {} with {} resources to {}", theKey, spilled.size(), spilled.myFile);
+		} finally {
+			myPendingSpills.remove(theKey);
+		}
+
+		purgeExpiredSpilledResultLists();
+		while (mySpilledBytes.get() > myMaximumSpillBytes) {
+			String oldest = mySpilledResultLists
+				.entrySet()
+				.stream()
+				.min((o1, o2) -> Long.compare(o1.getValue().mySpilledAt, o2.getValue().mySpilledAt))
+				.map(Map.Entry::getKey)
+				.orElse(null);
+			if (oldest == null) {
+				break;
+			}
+			discardSpilledResultList(oldest);
+		}
+	}
+
+	private SpilledBundleProvider spill(IBundleProvider theResultList) throws IOException {
+		List<IBaseResource> resources = ((SimpleBundleProvider) theResultList).getResources(0, Integer.MAX_VALUE);
+		Files.createDirectories(mySpillDirectory);
+		Path file = Files.createTempFile(mySpillDirectory, "hapi-fhir-paging-", ".ndjson");
+
+		long[] offsets = new long[resources.size() + 1];
+		String[] searchModes = new String[resources.size()];
+		IParser parser = myContext.newJsonParser();
+		try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+			long offset = 0;
+			for (int i = 0; i < resources.size(); i++) {
+				IBaseResource next = resources.get(i);
+				if (next instanceof IAnyResource) {
+					searchModes[i] = ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.get((IAnyResource) next);
+				}
+				byte[] encoded = parser.encodeResourceToString(next).getBytes(StandardCharsets.UTF_8);
+				outputStream.write(encoded);
+				offsets[i] = offset;
+				offset += encoded.length;
+			}
+			offsets[resources.size()] = offset;
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+
+		return new SpilledBundleProvider(myContext, theResultList, file, offsets, searchModes);
+	}
+
+	private void purgeExpiredSpilledResultLists() {
+		long cutoff = System.currentTimeMillis() - myTimeToLive.toMillis();
+		for (Iterator<Map.Entry<String, SpilledBundleProvider>> iter = mySpilledResultLists.entrySet().iterator(); iter.hasNext(); ) {
+			Map.Entry<String, SpilledBundleProvider> next = iter.next();
+			if (next.getValue().myLastAccessed < cutoff) {
+				discardSpilledResultList(next.getKey());
+			}
+		}
+	}
+
+	private void discardSpilledResultList(String theKey) {
+		SpilledBundleProvider spilled = mySpilledResultLists.remove(theKey);
+		if (spilled != null) {
+			mySpilledBytes.addAndGet(-spilled.getFileSize());
+			try {
+				Files.deleteIfExists(spilled.myFile);
+			} catch (IOException e) {
+				ourLog.warn("Failed to delete spilled result list file {}: {}", spilled.myFile, e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of result lists currently held in memory
+	 */
+	public long getResultListCount() {
+		myResultLists.cleanUp();
+		return myResultLists.estimatedSize();
+	}
+
+	/**
+	 * Returns the number of result lists currently spilled to disk
+	 */
+	public int getSpilledResultListCount() {
+		return mySpilledResultLists.size();
+	}
+
+	/**
+	 * A result list which has been spilled to disk. Resources are read from the file using
+	 * positional reads and parsed each time a page is requested, so no file handle or mapped
+	 * buffer is held between requests.
+	 */
+	private static class SpilledBundleProvider implements IBundleProvider {
+
+		private final FhirContext myContext;
+		private final Path myFile;
+		private final long[] myOffsets;
+		private final String[] mySearchModes;
+		private final String myUuid;
+		private final IPrimitiveType<Date> myPublished;
+		private final Integer myPreferredPageSize;
+		private final Integer mySize;
+		private final long mySpilledAt;
+		private volatile long myLastAccessed;
+
+		SpilledBundleProvider(FhirContext theContext, IBundleProvider theSource, Path theFile, long[] theOffsets, String[] theSearchModes) {
+			myContext = theContext;
+			myFile = theFile;
+			myOffsets = theOffsets;
+			mySearchModes = theSearchModes;
+			myUuid = theSource.getUuid();
+			myPublished = theSource.getPublished();
+			myPreferredPageSize = theSource.preferredPageSize();
+			mySize = theSource.size();
+			mySpilledAt = System.currentTimeMillis();
+			myLastAccessed = mySpilledAt;
+		}
+
+		void touch() {
+			myLastAccessed = System.currentTimeMillis();
+		}
+
+		long getFileSize() {
+			return myOffsets[myOffsets.length - 1];
+		}
+
+		@Nonnull
+		@Override
+		public List<IBaseResource> getResources(int theFromIndex, int theToIndex) {
+			int count = myOffsets.length - 1;
+			int from = Math.max(0, theFromIndex);
+			int to = Math.min(theToIndex, count);
+
+			List<IBaseResource> retVal = new ArrayList<>(Math.max(0, to - from));
+			if (from >= to) {
+				return retVal;
+			}
+
+			ByteBuffer page = ByteBuffer.allocate(Math.toIntExact(myOffsets[to] - myOffsets[from]));
+			try (FileChannel channel = FileChannel.open(myFile, StandardOpenOption.READ)) {
+				while (page.hasRemaining()) {
+					if (channel.read(page, myOffsets[from] + page.position()) < 0) {
+						throw new EOFException(Msg.code(2186) + "Unexpected end of file");
+					}
+				}
+			} catch (IOException | ArithmeticException e) {
+				throw new InternalErrorException(Msg.code(2187) + "Failed to read spilled search result from " + myFile + ": " + e.getMessage(), e);
+			}
+
+			IParser parser = myContext.newJsonParser();
+			for (int i = from; i < to; i++) {
+				int start = (int) (myOffsets[i] - myOffsets[from]);
+				int length = (int) (myOffsets[i + 1] - myOffsets[i]);
+
+				IBaseResource next;
+				try {
+					next = parser.parseResource(new String(page.array(), start, length, StandardCharsets.UTF_8));
+				} catch (RuntimeException e) {
+					throw new InternalErrorException(Msg.code(2178) + "Failed to read spilled search result from " + myFile + ": " + e.getMessage(), e);
+				}
+				if (mySearchModes[i] != null && next instanceof IAnyResource) {
+					ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.put((IAnyResource) next, mySearchModes[i]);
+				}
+				retVal.add(next);
+			}
+			return retVal;
+		}
+
+		@Override
+		public IPrimitiveType<Date> getPublished() {
+			return myPublished;
+		}
+
+		@Override
+		public String getUuid() {
+			return myUuid;
+		}
+
+		@Override
+		public Integer preferredPageSize() {
+			return myPreferredPageSize;
+		}
+
+		@Override
+		public Integer size() {
+			if (mySize != null) {
+				return mySize;
+			}
+			return myOffsets.length - 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,545 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.exceptions.TooManyRequestsException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+/**
+ * This interceptor enforces limits on the number of requests which may be processed concurrently,
+ * and sheds load by rejecting requests with an <b>HTTP 429 Too Many Requests</b> (and a
+ * <code>Retry-After</code> header) once the bounded wait queue for a limit is full, or once a
+ * request has waited longer than the limit allows.
+ * <p>
+ * Three kinds of limits can be configured, and each one is optional:
+ * </p>
+ * <ul>
+ *    <li>
+ *       A {@link #setTenantLimit(Limit) tenant limit}, which applies separately to each tenant (see
+ *       {@link RequestDetails#getTenantId()}). On a server which is not partitioned all requests share
+ *       a single tenant, so this is effectively a server-wide limit.
+ *    </li>
+ *    <li>
+ *       {@link #setOperationClassLimit(OperationClassEnum, Limit) Operation class limits}, which apply
+ *       separately to each tenant and each {@link OperationClassEnum class of operation}. These can be used
+ *       for example to stop expensive searches or <code>$export</code> requests from starving reads.
+ *    </li>
+ *    <li>
+ *       A {@link #setClientLimit(Limit) client limit}, which applies separately to each client as
+ *       identified by the {@link #setClientIdentifierFunction(Function) client identifier function}
+ *       (by default the remote address of the request).
+ *    </li>
+ * </ul>
+ * <p>
+ * A request must be admitted by every applicable limit before it is handled, and it holds its permits
+ * until processing of the request has completed. Limits are acquired from the most specific (client) to
+ * the least specific (tenant), and each limit's maximum wait applies independently. <code>metadata</code>
+ * requests are never limited. Note that for asynchronous operations such as <code>$export</code> only
+ * the kick-off request is limited.
+ * </p>
+ * <p>
+ * Queue depth and wait time statistics are available through {@link #getLimiterStatistics()} for every
+ * limiter which currently has a request in progress or waiting (idle limiters are discarded), and as
+ * cumulative totals through {@link #getRejectedCount()}, {@link #getQueuedCount()} and
+ * {@link #getTotalWaitMillis()}.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+@Interceptor
+public class AdmissionControlInterceptor {
+
+	public static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+	private static final String HELD_LIMITERS_KEY = AdmissionControlInterceptor.class.getName() + "_HELD_LIMITERS";
+	private static final String OPERATION_EXPORT = "$export";
+
+	private final ConcurrentHashMap<String, Limiter> myLimiters = new ConcurrentHashMap<>();
+	private final Map<OperationClassEnum, Limit> myOperationClassLimits = Collections.synchronizedMap(new EnumMap<>(OperationClassEnum.class));
+	private final LongAdder myRejectedCount = new LongAdder();
+	private final LongAdder myQueuedCount = new LongAdder();
+	private final LongAdder myTotalWaitNanos = new LongAdder();
+	private volatile Limit myTenantLimit;
+	private volatile Limit myClientLimit;
+	private volatile Function<RequestDetails, String> myClientIdentifierFunction = AdmissionControlInterceptor::getRemoteAddress;
+	private volatile Duration myRetryAfter = DEFAULT_RETRY_AFTER;
+
+	/**
+	 * Sets the limit which applies to each tenant, or <code>null</code> (the default) for no tenant limit.
+	 * Changes apply to limiters created after this method is called.
+	 */
+	public AdmissionControlInterceptor setTenantLimit(@Nullable Limit theLimit) {
+		myTenantLimit = theLimit;
+		return this;
+	}
+
+	/**
+	 * Sets the limit which applies to each tenant for the given class of operation, or <code>null</code>
+	 * (the default) for no limit. Changes apply to limiters created after this method is called.
+	 */
+	public AdmissionControlInterceptor setOperationClassLimit(@Nonnull OperationClassEnum theOperationClass, @Nullable Limit theLimit) {
+		Validate.notNull(theOperationClass, "theOperationClass must not be null");
+		if (theLimit == null) {
+			myOperationClassLimits.remove(theOperationClass);
+		} else {
+			myOperationClassLimits.put(theOperationClass, theLimit);
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the limit which applies to each client, or <code>null</code> (the default) for no client limit.
+	 * Changes apply to limiters created after this method is called.
+	 *
+	 * @see #setClientIdentifierFunction(Function)
+	 */
+	public AdmissionControlInterceptor setClientLimit(@Nullable Limit theLimit) {
+		myClientLimit = theLimit;
+		return this;
+	}
+
+	/**
+	 * Sets the function used to identify the client making a request for the purposes of the
+	 * {@link #setClientLimit(Limit) client limit}. The function may return <code>null</code>, in which
+	 * case the client limit is not applied to the request. By default the remote address of the request
+	 * is used.
+	 */
+	public AdmissionControlInterceptor setClientIdentifierFunction(@Nonnull Function<RequestDetails, String> theClientIdentifierFunction) {
+		Validate.notNull(theClientIdentifierFunction, "theClientIdentifierFunction must not be null");
+		myClientIdentifierFunction = theClientIdentifierFunction;
+		return this;
+	}
+
+	/**
+	 * Sets the delay suggested to rejected clients in the <code>Retry-After</code> header. The value is
+	 * rounded up to whole seconds. Default is {@link #DEFAULT_RETRY_AFTER}.
+	 */
+	public AdmissionControlInterceptor setRetryAfter(@Nonnull Duration theRetryAfter) {
+		Validate.notNull(theRetryAfter, "theRetryAfter must not be null");
+		Validate.isTrue(!theRetryAfter.isNegative(), "theRetryAfter must not be negative");
+		myRetryAfter = theRetryAfter;
+		return this;
+	}
+
+	@Hook(value = Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLED, order = InterceptorOrders.ADMISSION_CONTROL_INTERCEPTOR)
+	public void incomingRequestPreHandled(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails) {
+		OperationClassEnum operationClass = classify(theOperation, theRequestDetails);
+		if (operationClass == null || theRequestDetails.getUserData().containsKey(HELD_LIMITERS_KEY)) {
+			return;
+		}
+
+		String tenantId = defaultString(theRequestDetails.getTenantId());
+		List<Limiter> held = new ArrayList<>(3);
+		try {
+			Limit clientLimit = myClientLimit;
+			if (clientLimit != null) {
+				String clientId = myClientIdentifierFunction.apply(theRequestDetails);
+				if (clientId != null) {
+					admit("client:" + clientId, clientLimit, held);
+				}
+			}
+			Limit operationClassLimit = myOperationClassLimits.get(operationClass);
+			if (operationClassLimit != null) {
+				admit("operation:" + tenantId + ":" + operationClass.name(), operationClassLimit, held);
+			}
+			Limit tenantLimit = myTenantLimit;
+			if (tenantLimit != null) {
+				admit("tenant:" + tenantId, tenantLimit, held);
+			}
+		} catch (TooManyRequestsException e) {
+			release(held);
+			throw e;
+		}
+
+		if (!held.isEmpty()) {
+			theRequestDetails.getUserData().put(HELD_LIMITERS_KEY, held);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Hook(Pointcut.SERVER_PROCESSING_COMPLETED)
+	public void processingCompleted(RequestDetails theRequestDetails) {
+		List<Limiter> held = (List<Limiter>) theRequestDetails.getUserData().remove(HELD_LIMITERS_KEY);
+		if (held != null) {
+			release(held);
+		}
+	}
+
+	private void admit(String theKey, Limit theLimit, List<Limiter> theHeld) {
+		Limiter limiter = myLimiters.compute(theKey, (k, existing) -> {
+			Limiter retVal = existing != null ? existing : new Limiter(k, theLimit);
+			retVal.myReferences++;
+			return retVal;
+		});
+
+		AdmissionOutcome outcome = limiter.acquire();
+		switch (outcome) {
+			case ADMITTED:
+				theHeld.add(limiter);
+				return;
+			case QUEUE_FULL:
+				unreference(limiter);
+				throw newTooManyRequestsException(Msg.code(2180) + "Too many concurrent requests for " + theKey + ", please try again later");
+			case TIMED_OUT:
+			default:
+				unreference(limiter);
+				throw newTooManyRequestsException(Msg.code(2181) + "Timed out waiting to process request for " + theKey + ", please try again later");
+		}
+	}
+
+	private TooManyRequestsException newTooManyRequestsException(String theMessage) {
+		myRejectedCount.increment();
+		long retryAfterSeconds = (myRetryAfter.toMillis() + 999) / 1000;
+		TooManyRequestsException retVal = new TooManyRequestsException(theMessage);
+		retVal.addResponseHeader(Constants.HEADER_RETRY_AFTER, Long.toString(retryAfterSeconds));
+		return retVal;
+	}
+
+	private void release(List<Limiter> theHeld) {
+		for (int i = theHeld.size() - 1; i >= 0; i--) {
+			Limiter next = theHeld.get(i);
+			next.mySemaphore.release();
+			unreference(next);
+		}
+	}
+
+	private void unreference(Limiter theLimiter) {
+		myLimiters.computeIfPresent(theLimiter.myName, (k, existing) -> --existing.myReferences == 0 ? null : existing);
+	}
+
+	/**
+	 * Returns a snapshot of the statistics for every limiter which currently has a request in
+	 * progress or waiting
+	 */
+	public List<LimiterStatistics> getLimiterStatistics() {
+		List<LimiterStatistics> retVal = new ArrayList<>();
+		for (Limiter next : myLimiters.values()) {
+			retVal.add(new LimiterStatistics(next));
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the total number of requests which have been rejected with an HTTP 429
+	 */
+	public long getRejectedCount() {
+		return myRejectedCount.sum();
+	}
+
+	/**
+	 * Returns the total number of requests which have had to wait in a queue
+	 */
+	public long getQueuedCount() {
+		return myQueuedCount.sum();
+	}
+
+	/**
+	 * Returns the total time, in milliseconds, that requests have spent waiting in queues
+	 */
+	public long getTotalWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(myTotalWaitNanos.sum());
+	}
+
+	@Nullable
+	private static OperationClassEnum classify(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails) {
+		if (theOperation == null) {
+			return OperationClassEnum.OTHER;
+		}
+		switch (theOperation) {
+			case METADATA:
+				return null;
+			case READ:
+			case VREAD:
+			case HISTORY_INSTANCE:
+			case HISTORY_TYPE:
+			case HISTORY_SYSTEM:
+			case GET_TAGS:
+			case META:
+				return OperationClassEnum.READ;
+			case SEARCH_TYPE:
+			case SEARCH_SYSTEM:
+			case GET_PAGE:
+			case GRAPHQL_REQUEST:
+				return OperationClassEnum.SEARCH;
+			case CREATE:
+			case UPDATE:
+			case UPDATE_REWRITE_HISTORY:
+			case DELETE:
+			case PATCH:
+			case TRANSACTION:
+			case BATCH:
+			case ADD_TAGS:
+			case DELETE_TAGS:
+			case META_ADD:
+			case META_DELETE:
+				return OperationClassEnum.WRITE;
+			case EXTENDED_OPERATION_SERVER:
+			case EXTENDED_OPERATION_TYPE:
+			case EXTENDED_OPERATION_INSTANCE:
+				if (OPERATION_EXPORT.equals(theRequestDetails.getOperation())) {
+					return OperationClassEnum.EXPORT;
+				}
+				return OperationClassEnum.OTHER;
+			default:
+				return OperationClassEnum.OTHER;
+		}
+	}
+
+	@Nullable
+	private static String getRemoteAddress(RequestDetails theRequestDetails) {
+		if (theRequestDetails instanceof ServletRequestDetails) {
+			return ((ServletRequestDetails) theRequestDetails).getServletRequest().getRemoteAddr();
+		}
+		return null;
+	}
+
+	/**
+	 * The classes of operation which can be given separate limits
+	 */
+	public enum OperationClassEnum {
+		/**
+		 * <code>read</code>, <code>vread</code>, <code>history</code> and <code>$meta</code>
+		 */
+		READ,
+		/**
+		 * Searches, paging requests and GraphQL requests
+		 */
+		SEARCH,
+		/**
+		 * <code>create</code>, <code>update</code>, <code>patch</code>, <code>delete</code>,
+		 * <code>transaction</code>, <code>batch</code> and tag/meta modifications
+		 */
+		WRITE,
+		/**
+		 * <code>$export</code> at any level
+		 */
+		EXPORT,
+		/**
+		 * All other operations
+		 */
+		OTHER
+	}
+
+	private enum AdmissionOutcome {
+		ADMITTED, QUEUE_FULL, TIMED_OUT
+	}
+
+	/**
+	 * A concurrency limit
+	 */
+	public static class Limit {
+
+		private final int myMaximumConcurrent;
+		private final int myMaximumQueued;
+		private final Duration myMaximumWait;
+
+		/**
+		 * Constructor
+		 *
+		 * @param theMaximumConcurrent The maximum number of requests which may be processed concurrently
+		 * @param theMaximumQueued     The maximum number of requests which may wait for a permit once
+		 *                             <code>theMaximumConcurrent</code> requests are in progress. Further
+		 *                             requests are rejected immediately. May be 0.
+		 * @param theMaximumWait       The maximum amount of time a request will wait in the queue before
+		 *                             being rejected
+		 */
+		public Limit(int theMaximumConcurrent, int theMaximumQueued, @Nonnull Duration theMaximumWait) {
+			Validate.isTrue(theMaximumConcurrent > 0, "theMaximumConcurrent must be greater than 0");
+			Validate.isTrue(theMaximumQueued >= 0, "theMaximumQueued must not be negative");
+			Validate.notNull(theMaximumWait, "theMaximumWait must not be null");
+			Validate.isTrue(!theMaximumWait.isNegative(), "theMaximumWait must not be negative");
+			myMaximumConcurrent = theMaximumConcurrent;
+			myMaximumQueued = theMaximumQueued;
+			myMaximumWait = theMaximumWait;
+		}
+
+		public int getMaximumConcurrent() {
+			return myMaximumConcurrent;
+		}
+
+		public int getMaximumQueued() {
+			return myMaximumQueued;
+		}
+
+		public Duration getMaximumWait() {
+			return myMaximumWait;
+		}
+	}
+
+	/**
+	 * A point-in-time snapshot of the statistics for a single limiter
+	 */
+	public static class LimiterStatistics {
+
+		private final String myName;
+		private final int myMaximumConcurrent;
+		private final int myActiveCount;
+		private final int myQueueDepth;
+		private final long myRejectedCount;
+		private final long myQueuedCount;
+		private final long myTotalWaitMillis;
+		private final long myMaximumWaitMillis;
+
+		private LimiterStatistics(Limiter theLimiter) {
+			myName = theLimiter.myName;
+			myMaximumConcurrent = theLimiter.myLimit.getMaximumConcurrent();
+			myActiveCount = Math.max(0, myMaximumConcurrent - theLimiter.mySemaphore.availablePermits());
+			myQueueDepth = theLimiter.myQueueDepth.get();
+			myRejectedCount = theLimiter.myRejectedCount.sum();
+			myQueuedCount = theLimiter.myQueuedCount.sum();
+			myTotalWaitMillis = TimeUnit.NANOSECONDS.toMillis(theLimiter.myTotalWaitNanos.sum());
+			myMaximumWaitMillis = TimeUnit.NANOSECONDS.toMillis(theLimiter.myMaximumWaitNanos.get());
+		}
+
+		/**
+		 * Returns the name of the limiter, e.g. <code>tenant:TENANT-A</code>,
+		 * <code>operation:TENANT-A:SEARCH</code> or <code>client:127.0.0.1</code>
+		 */
+		public String getName() {
+			return myName;
+		}
+
+		public int getMaximumConcurrent() {
+			return myMaximumConcurrent;
+		}
+
+		/**
+		 * Returns the number of requests currently holding a permit from this limiter
+		 */
+		public int getActiveCount() {
+			return myActiveCount;
+		}
+
+		/**
+		 * Returns the number of requests currently waiting for a permit from this limiter
+		 */
+		public int getQueueDepth() {
+			return myQueueDepth;
+		}
+
+		public long getRejectedCount() {
+			return myRejectedCount;
+		}
+
+		public long getQueuedCount() {
+			return myQueuedCount;
+		}
+
+		public long getTotalWaitMillis() {
+			return myTotalWaitMillis;
+		}
+
+		public long getMaximumWaitMillis() {
+			return myMaximumWaitMillis;
+		}
+	}
+
+	private class Limiter {
+
+		private final String myName;
+		private final Limit myLimit;
+		private final Semaphore mySemaphore;
+		private final AtomicInteger myQueueDepth = new AtomicInteger();
+		private final LongAdder myRejectedCount = new LongAdder();
+		private final LongAdder myQueuedCount = new LongAdder();
+		private final LongAdder myTotalWaitNanos = new LongAdder();
+		private final AtomicLong myMaximumWaitNanos = new AtomicLong();
+		/**
+		 * Number of requests holding or waiting for a permit. Only accessed while
+		 * the entry is locked by {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}.
+		 */
+		private int myReferences;
+
+		private Limiter(String theName, Limit theLimit) {
+			myName = theName;
+			myLimit = theLimit;
+			mySemaphore = new Semaphore(theLimit.getMaximumConcurrent(), true);
+		}
+
+		private AdmissionOutcome acquire() {
+			try {
+				// The timed variant honours fairness, so new arrivals can't overtake queued requests
+				if (mySemaphore.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+					return AdmissionOutcome.ADMITTED;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				myRejectedCount.increment();
+				return AdmissionOutcome.TIMED_OUT;
+			}
+
+			if (myQueueDepth.incrementAndGet() > myLimit.getMaximumQueued()) {
+				myQueueDepth.decrementAndGet();
+				myRejectedCount.increment();
+				return AdmissionOutcome.QUEUE_FULL;
+			}
+
+			myQueuedCount.increment();
+			AdmissionControlInterceptor.this.myQueuedCount.increment();
+			long start = System.nanoTime();
+			boolean acquired;
+			try {
+				acquired = mySemaphore.tryAcquire(myLimit.getMaximumWait().toNanos(), TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				acquired = false;
+			} finally {
+				myQueueDepth.decrementAndGet();
+				long waited = System.nanoTime() - start;
+				myTotalWaitNanos.add(waited);
+				myMaximumWaitNanos.accumulateAndGet(waited, Math::max);
+				AdmissionControlInterceptor.this.myTotalWaitNanos.add(waited);
+			}
+
+			if (!acquired) {
+				myRejectedCount.increment();
+				return AdmissionOutcome.TIMED_OUT;
+			}
+			return AdmissionOutcome.ADMITTED;
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes everything through to the wrapped writer, keeping a copy of the written characters
+ * until the limit is exceeded
+ */
+class CapturingWriter extends Writer {
+
+	private final Writer myWrap;
+	private final long myMaximumChars;
+	private StringBuilder myCaptured = new StringBuilder();
+
+	CapturingWriter(Writer theWrap, long theMaximumChars) {
+		myWrap = theWrap;
+		myMaximumChars = theMaximumChars;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		myWrap.write(cbuf, off, len);
+		if (myCaptured != null) {
+			if (myCaptured.length() + len > myMaximumChars) {
+				myCaptured = null;
+			} else {
+				myCaptured.append(cbuf, off, len);
+			}
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		myWrap.write(str, off, len);
+		if (myCaptured != null) {
+			if (myCaptured.length() + len > myMaximumChars) {
+				myCaptured = null;
+			} else {
+				myCaptured.append(str, off, off + len);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		myWrap.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		myWrap.close();
+	}
+
+	boolean isOverflowed() {
+		return myCaptured == null;
+	}
+
+	String getCaptured() {
+		return myCaptured.toString();
+	}
+
+}
@@ -65,7 +65,7 @@ public class FhirPathFilterInterceptor {
 						IBase resultPart = ParametersUtil.addParameterToParameters(ctx, responseParameters, "result");
 						ParametersUtil.addPartString(ctx, resultPart, "expression", expression);
 
-						IFhirPath fhirPath = ctx.newFhirPath();
+						IFhirPath fhirPath = ctx.getFhirPath();
 						List<IBase> outputs;
 						try {
 							outputs = fhirPath.evaluate(responseResource, expression, IBase.class);
@@ -0,0 +1,419 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
+import ca.uhn.fhir.rest.api.server.IRestfulResponse;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.param.ParameterUtil;
+import ca.uhn.fhir.rest.server.ETagSupportEnum;
+import ca.uhn.fhir.rest.server.IRestfulServerDefaults;
+import ca.uhn.fhir.rest.server.RestfulServer;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.apache.commons.lang3.Validate;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IIdType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * This interceptor caches the encoded response bodies of <code>read</code> and <code>vread</code>
+ * operations in memory, keyed by the resource ID, version and the response format, and serves
+ * repeated requests for the same resource directly from the cache before any resource provider
+ * or DAO is invoked. If {@link ETagSupportEnum ETag support} is enabled on the server, a request
+ * with an <code>If-None-Match</code> header matching the cached version is answered with an
+ * HTTP 304 without a response body.
+ * <p>
+ * Cached entries for a resource are invalidated when the resource is created, updated, deleted or
+ * expunged through the storage layer, so this interceptor must be registered with the interceptor
+ * service used by the storage layer (which, for the JPA server, is normally also the one used by
+ * the RestfulServer). Responses captured while a write to the same resource might still be in the
+ * process of committing (see {@link #setInvalidationSettlePeriod(Duration)}) are not cached.
+ * </p>
+ * <p>
+ * Only requests with no parameters other than <code>_format</code> and <code>_pretty</code> are
+ * cached. Cached responses are served before the request is authorized, and the cache key does not
+ * include the identity of the caller. Caching is therefore skipped entirely while any interceptor
+ * is registered which can authorize requests (i.e. any hook on
+ * {@link Pointcut#SERVER_INCOMING_REQUEST_POST_PROCESSED} or {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLED},
+ * such as the AuthorizationInterceptor) or inspect, filter or modify returned resources (e.g. the
+ * ConsentInterceptor), since serving a cached response would bypass those checks.
+ * </p>
+ * <p>
+ * Requests answered from the cache fire {@link Pointcut#SERVER_PROCESSING_COMPLETED_NORMALLY} and
+ * {@link Pointcut#SERVER_PROCESSING_COMPLETED} as usual, but none of the pointcuts between
+ * {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED} and the writing of the response.
+ * </p>
+ * <p>
+ * This class requires Caffeine (<code>com.github.ben-manes.caffeine:caffeine</code>) on the
+ * classpath.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+@Interceptor
+public class ReadResponseCachingInterceptor {
+
+	public static final long DEFAULT_MAXIMUM_ENTRY_BYTES = 256 * 1024;
+	public static final Duration DEFAULT_INVALIDATION_SETTLE_PERIOD = Duration.ofSeconds(1);
+	private static final String CAPTURE_KEY = ReadResponseCachingInterceptor.class.getName() + "_CAPTURE";
+	private static final Set<String> CACHEABLE_PARAMETERS = Set.of(Constants.PARAM_FORMAT, Constants.PARAM_PRETTY);
+	private static final int INVALIDATION_STRIPES = 256;
+	/**
+	 * Approximate fixed overhead of a cached response, in bytes
+	 */
+	private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+	private final Cache<String, Map<String, CachedResponse>> myCache;
+	private final AtomicLongArray myInvalidationTimestamps = new AtomicLongArray(INVALIDATION_STRIPES);
+	private final LongAdder myHitCount = new LongAdder();
+	private final LongAdder myMissCount = new LongAdder();
+	private final LongAdder myNotModifiedCount = new LongAdder();
+	private final LongAdder myInvalidationCount = new LongAdder();
+	private long myMaximumEntryBytes = DEFAULT_MAXIMUM_ENTRY_BYTES;
+	private long myInvalidationSettleMillis = DEFAULT_INVALIDATION_SETTLE_PERIOD.toMillis();
+
+	/**
+	 * Constructor. Cached responses are kept until they are invalidated or evicted to make room
+	 * for others.
+	 *
+	 * @param theMaximumBytes The approximate maximum number of bytes of memory to use for cached responses
+	 */
+	public ReadResponseCachingInterceptor(long theMaximumBytes) {
+		this(theMaximumBytes, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param theMaximumBytes The approximate maximum number of bytes of memory to use for cached responses
+	 * @param theTimeToLive   If not <code>null</code>, cached responses are discarded this long after they
+	 *                        were cached. This bounds how stale a response can be if a write to the
+	 *                        resource is not seen by this interceptor (e.g. a write made by another server).
+	 */
+	public ReadResponseCachingInterceptor(long theMaximumBytes, @Nullable Duration theTimeToLive) {
+		Validate.isTrue(theMaximumBytes > 0, "theMaximumBytes must be greater than 0");
+		Caffeine<String, Map<String, CachedResponse>> builder = Caffeine
+			.newBuilder()
+			.maximumWeight(theMaximumBytes)
+			.weigher((String theKey, Map<String, CachedResponse> theValue) -> weigh(theValue));
+		if (theTimeToLive != null) {
+			builder.expireAfterWrite(theTimeToLive);
+		}
+		myCache = builder.build();
+	}
+
+	/**
+	 * Returns the maximum size in bytes of an individual response which will be cached. Larger
+	 * responses are never cached. Default is {@link #DEFAULT_MAXIMUM_ENTRY_BYTES}.
+	 */
+	public long getMaximumEntryBytes() {
+		return myMaximumEntryBytes;
+	}
+
+	/**
+	 * Sets the maximum size in bytes of an individual response which will be cached. Larger
+	 * responses are never cached. Default is {@link #DEFAULT_MAXIMUM_ENTRY_BYTES}.
+	 */
+	public ReadResponseCachingInterceptor setMaximumEntryBytes(long theMaximumEntryBytes) {
+		Validate.isTrue(theMaximumEntryBytes > 0, "theMaximumEntryBytes must be greater than 0");
+		myMaximumEntryBytes = theMaximumEntryBytes;
+		return this;
+	}
+
+	/**
+	 * Storage write pointcuts are invoked before the write is committed, so a read which starts
+	 * shortly after a resource is invalidated may still see the previous version. Responses for
+	 * a resource are not cached if the read started within this period after the resource was
+	 * last invalidated. Default is {@link #DEFAULT_INVALIDATION_SETTLE_PERIOD}.
+	 */
+	public ReadResponseCachingInterceptor setInvalidationSettlePeriod(@Nonnull Duration theInvalidationSettlePeriod) {
+		Validate.notNull(theInvalidationSettlePeriod, "theInvalidationSettlePeriod must not be null");
+		myInvalidationSettleMillis = theInvalidationSettlePeriod.toMillis();
+		return this;
+	}
+
+	@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED)
+	public boolean incomingRequestPreHandlerSelected(RequestDetails theRequestDetails, HttpServletResponse theServletResponse) throws IOException {
+		String resourceKey = toResourceKey(theRequestDetails);
+		if (resourceKey == null || ServerInterceptorUtil.hasResourceInspectingHooks(theRequestDetails)) {
+			return true;
+		}
+
+		IRestfulServerDefaults server = theRequestDetails.getServer();
+		String contentType = RestfulServerUtils.determineResponseEncodingWithDefault(theRequestDetails).getResourceContentType();
+		String variantKey = defaultString(theRequestDetails.getTenantId()) + "|" +
+			defaultString(theRequestDetails.getId().getVersionIdPart()) + "|" +
+			contentType + "|" +
+			RestfulServerUtils.prettyPrintResponse(server, theRequestDetails) + "|" +
+			theRequestDetails.getFhirServerBase();
+
+		Map<String, CachedResponse> variants = myCache.getIfPresent(resourceKey);
+		CachedResponse cached = variants != null ? variants.get(variantKey) : null;
+		if (cached == null) {
+			myMissCount.increment();
+			theRequestDetails.getUserData().put(CAPTURE_KEY, new Capture(resourceKey, variantKey, contentType, System.currentTimeMillis()));
+			return true;
+		}
+
+		myHitCount.increment();
+
+		if (server.getETagSupport() == ETagSupportEnum.ENABLED && cached.myVersionId != null) {
+			String ifNoneMatch = theRequestDetails.getHeader(Constants.HEADER_IF_NONE_MATCH_LC);
+			if (isNotBlank(ifNoneMatch) && cached.myVersionId.equals(ParameterUtil.parseETagValue(ifNoneMatch))) {
+				myNotModifiedCount.increment();
+				theServletResponse.setStatus(Constants.STATUS_HTTP_304_NOT_MODIFIED);
+				theServletResponse.addHeader(Constants.HEADER_ETAG, cached.myETag);
+				if (server instanceof RestfulServer) {
+					((RestfulServer) server).addHeadersToResponse(theServletResponse);
+				}
+				ServerInterceptorUtil.fireProcessingCompletedNormally(theRequestDetails);
+				return false;
+			}
+		}
+
+		IRestfulResponse response = theRequestDetails.getResponse();
+		for (Map.Entry<String, String> nextHeader : cached.myHeaders.entrySet()) {
+			response.addHeader(nextHeader.getKey(), nextHeader.getValue());
+		}
+		Writer writer = response.getResponseWriter(Constants.STATUS_HTTP_200_OK, null, cached.myContentType, Constants.CHARSET_NAME_UTF8, theRequestDetails.isRespondGzip());
+		writer.write(cached.myBody);
+		response.sendWriterResponse(Constants.STATUS_HTTP_200_OK, cached.myContentType, Constants.CHARSET_NAME_UTF8, writer);
+		writer.close();
+		ServerInterceptorUtil.fireProcessingCompletedNormally(theRequestDetails);
+		return false;
+	}
+
+	@Hook(Pointcut.SERVER_OUTGOING_WRITER_CREATED)
+	public Writer outgoingWriterCreated(RequestDetails theRequestDetails, Writer theWriter) {
+		Capture capture = (Capture) theRequestDetails.getUserData().get(CAPTURE_KEY);
+		if (capture == null) {
+			return null;
+		}
+		capture.myWriter = new CapturingWriter(theWriter, myMaximumEntryBytes / 2);
+		return capture.myWriter;
+	}
+
+	@Hook(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)
+	public void processingCompletedNormally(RequestDetails theRequestDetails) {
+		Capture capture = (Capture) theRequestDetails.getUserData().remove(CAPTURE_KEY);
+		if (capture == null || capture.myWriter == null || capture.myWriter.isOverflowed()) {
+			return;
+		}
+		RestOperationTypeEnum operation = theRequestDetails.getRestOperationType();
+		if (operation != RestOperationTypeEnum.READ && operation != RestOperationTypeEnum.VREAD) {
+			return;
+		}
+		if (capture.myStartedMillis < myInvalidationTimestamps.get(stripe(capture.myResourceKey)) + myInvalidationSettleMillis) {
+			return;
+		}
+
+		Map<String, String> headers = new HashMap<>();
+		Map<String, List<String>> responseHeaders = theRequestDetails.getResponse().getHeaders();
+		for (String nextHeader : new String[]{Constants.HEADER_ETAG, Constants.HEADER_LAST_MODIFIED, Constants.HEADER_CONTENT_LOCATION}) {
+			List<String> values = responseHeaders.get(nextHeader);
+			if (values != null && values.size() == 1) {
+				headers.put(nextHeader, values.get(0));
+			}
+		}
+
+		CachedResponse cached = new CachedResponse(capture.myWriter.getCaptured(), capture.myContentType, headers);
+		myCache.asMap().merge(capture.myResourceKey, Collections.singletonMap(capture.myVariantKey, cached), (theExisting, theNew) -> {
+			Map<String, CachedResponse> merged = new HashMap<>(theExisting);
+			merged.putAll(theNew);
+			return Collections.unmodifiableMap(merged);
+		});
+	}
+
+	@Hook(Pointcut.STORAGE_PRECOMMIT_RESOURCE_CREATED)
+	public void resourceCreated(IBaseResource theResource) {
+		invalidate(theResource.getIdElement());
+	}
+
+	@Hook(Pointcut.STORAGE_PRECOMMIT_RESOURCE_UPDATED)
+	public void resourceUpdated(IBaseResource theOldResource, IBaseResource theNewResource) {
+		invalidate(theNewResource.getIdElement());
+	}
+
+	@Hook(Pointcut.STORAGE_PRECOMMIT_RESOURCE_DELETED)
+	public void resourceDeleted(IBaseResource theResource) {
+		invalidate(theResource.getIdElement());
+	}
+
+	@Hook(Pointcut.STORAGE_PRESTORAGE_EXPUNGE_RESOURCE)
+	public void resourceExpunged(IIdType theResourceId) {
+		invalidate(theResourceId);
+	}
+
+	@Hook(Pointcut.STORAGE_PRESTORAGE_EXPUNGE_EVERYTHING)
+	public void everythingExpunged() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < INVALIDATION_STRIPES; i++) {
+			myInvalidationTimestamps.set(i, now);
+		}
+		myInvalidationCount.increment();
+		myCache.invalidateAll();
+	}
+
+	/**
+	 * Removes any cached responses for the given resource
+	 */
+	public void invalidate(IIdType theResourceId) {
+		if (theResourceId == null || !theResourceId.hasResourceType() || !theResourceId.hasIdPart()) {
+			return;
+		}
+		String resourceKey = theResourceId.getResourceType() + "/" + theResourceId.getIdPart();
+		myInvalidationTimestamps.set(stripe(resourceKey), System.currentTimeMillis());
+		myInvalidationCount.increment();
+		myCache.invalidate(resourceKey);
+	}
+
+	/**
+	 * Returns the number of requests answered from the cache (including HTTP 304 responses)
+	 */
+	public long getHitCount() {
+		return myHitCount.sum();
+	}
+
+	/**
+	 * Returns the number of cacheable requests which were not found in the cache
+	 */
+	public long getMissCount() {
+		return myMissCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests answered from the cache with an HTTP 304
+	 */
+	public long getNotModifiedCount() {
+		return myNotModifiedCount.sum();
+	}
+
+	/**
+	 * Returns the number of times a resource has been invalidated
+	 */
+	public long getInvalidationCount() {
+		return myInvalidationCount.sum();
+	}
+
+	/**
+	 * Returns the approximate number of bytes of memory used by cached responses
+	 */
+	public long getCachedBytes() {
+		myCache.cleanUp();
+		return myCache.policy().eviction().map(Policy.Eviction::weightedSize).map(t -> t.orElse(0)).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of resources with at least one cached response
+	 */
+	public long getCachedResourceCount() {
+		myCache.cleanUp();
+		return myCache.estimatedSize();
+	}
+
+	@Nullable
+	private static String toResourceKey(RequestDetails theRequestDetails) {
+		if (theRequestDetails.getRequestType() != RequestTypeEnum.GET || theRequestDetails.getResourceName() == null) {
+			return null;
+		}
+		IIdType id = theRequestDetails.getId();
+		if (id == null || !id.hasIdPart() || theRequestDetails.getOperation() != null || theRequestDetails.getCompartmentName() != null) {
+			return null;
+		}
+		if (!CACHEABLE_PARAMETERS.containsAll(theRequestDetails.getParameters().keySet())) {
+			return null;
+		}
+		if (isNotBlank(theRequestDetails.getHeader(Constants.HEADER_IF_MODIFIED_SINCE_LC))) {
+			return null;
+		}
+		return theRequestDetails.getResourceName() + "/" + id.getIdPart();
+	}
+
+	private static int stripe(String theResourceKey) {
+		return (theResourceKey.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+	}
+
+	private static int weigh(Map<String, CachedResponse> theVariants) {
+		long retVal = 0;
+		for (CachedResponse next : theVariants.values()) {
+			retVal += ENTRY_OVERHEAD_BYTES + 2L * next.myBody.length();
+		}
+		return (int) Math.min(Integer.MAX_VALUE, retVal);
+	}
+
+	private static class Capture {
+
+		private final String myResourceKey;
+		private final String myVariantKey;
+		private final String myContentType;
+		private final long myStartedMillis;
+		private CapturingWriter myWriter;
+
+		private Capture(String theResourceKey, String theVariantKey, String theContentType, long theStartedMillis) {
+			myResourceKey = theResourceKey;
+			myVariantKey = theVariantKey;
+			myContentType = theContentType;
+			myStartedMillis = theStartedMillis;
+		}
+	}
+
+	private static class CachedResponse {
+
+		private final String myBody;
+		private final String myContentType;
+		private final Map<String, String> myHeaders;
+		private final String myETag;
+		private final String myVersionId;
+
+		private CachedResponse(String theBody, String theContentType, Map<String, String> theHeaders) {
+			myBody = theBody;
+			myContentType = theContentType;
+			myHeaders = theHeaders;
+			myETag = theHeaders.get(Constants.HEADER_ETAG);
+			myVersionId = myETag != null ? ParameterUtil.parseETagValue(myETag) : null;
+		}
+	}
+
+}
@@ -0,0 +1,320 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.api.server.IRestfulResponse;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * This interceptor coalesces identical <code>read</code>, <code>vread</code>, <code>history</code>
+ * and search requests which arrive while an identical request is already being processed. Only the
+ * first request (the leader) is passed to the resource provider, and every identical request which
+ * arrives before the leader completes waits for it and receives a copy of the leader's encoded
+ * response body instead of being processed separately. Unlike a cache, a response is never shared
+ * with requests which arrive after the leader has completed.
+ * <p>
+ * Requests are considered identical if they have the same tenant, server base, complete URL,
+ * <code>Accept</code> and <code>Prefer</code> headers, response encoding, and authorization identity.
+ * The identity is determined by the function supplied to the constructor, and must identify everything
+ * which can affect what the request is allowed to see (e.g. the authenticated user rather than the raw
+ * <code>Authorization</code> header, if equivalent tokens can carry different permissions). Only <code>GET</code> requests against a resource type which do not invoke an extended
+ * operation and do not include conditional headers (<code>If-None-Match</code> or
+ * <code>If-Modified-Since</code>) are coalesced.
+ * </p>
+ * <p>
+ * Waiting requests are released with their own response as soon as the leader completes. If the
+ * leader fails, returns a response which is not written through a {@link Writer} (e.g. raw binary
+ * content), returns a response larger than the {@link #setMaximumResponseBytes(long) maximum response size},
+ * or does not complete within the {@link #setMaximumWait(Duration) maximum wait}, waiting requests are
+ * processed normally instead.
+ * </p>
+ * <p>
+ * Waiting requests are answered from {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED}, before
+ * the hooks where requests are normally authorized run. Coalescing is therefore skipped entirely while any
+ * interceptor which can authorize a request, or inspect, filter or modify returned resources (e.g. the
+ * AuthorizationInterceptor or the ConsentInterceptor) is registered, since sharing a response would bypass
+ * those checks for the waiting requests. {@link Pointcut#SERVER_PROCESSING_COMPLETED_NORMALLY} is fired for
+ * waiting requests which receive a shared response, so that auditing and metrics interceptors still see them.
+ * </p>
+ *
+ * @since 6.3.0
+ */
+@Interceptor
+public class RequestCoalescingInterceptor {
+
+	public static final long DEFAULT_MAXIMUM_RESPONSE_BYTES = 4 * 1024 * 1024;
+	public static final Duration DEFAULT_MAXIMUM_WAIT = Duration.ofSeconds(30);
+	private static final String LEADER_KEY = RequestCoalescingInterceptor.class.getName() + "_LEADER";
+	private static final String[] SHARED_HEADERS = new String[]{Constants.HEADER_ETAG, Constants.HEADER_LAST_MODIFIED, Constants.HEADER_CONTENT_LOCATION};
+
+	private final ConcurrentHashMap<String, CompletableFuture<SharedResponse>> myInFlight = new ConcurrentHashMap<>();
+	private final LongAdder myLeaderCount = new LongAdder();
+	private final LongAdder myCoalescedCount = new LongAdder();
+	private final LongAdder myFallbackCount = new LongAdder();
+	private final AtomicInteger myWaitingCount = new AtomicInteger();
+	private volatile Function<RequestDetails, String> myIdentityFunction;
+	private volatile long myMaximumResponseBytes = DEFAULT_MAXIMUM_RESPONSE_BYTES;
+	private volatile long myMaximumWaitMillis = DEFAULT_MAXIMUM_WAIT.toMillis();
+
+	/**
+	 * Constructor
+	 *
+	 * @param theIdentityFunction The function used to determine the authorization identity of a request.
+	 *                            Requests are only coalesced with requests which have the same identity.
+	 *                            The function may return <code>null</code> for anonymous requests.
+	 */
+	public RequestCoalescingInterceptor(@Nonnull Function<RequestDetails, String> theIdentityFunction) {
+		setIdentityFunction(theIdentityFunction);
+	}
+
+	/**
+	 * Sets the function used to determine the authorization identity of a request. Requests are only
+	 * coalesced with requests which have the same identity.
+	 */
+	public RequestCoalescingInterceptor setIdentityFunction(@Nonnull Function<RequestDetails, String> theIdentityFunction) {
+		Validate.notNull(theIdentityFunction, "theIdentityFunction must not be null");
+		myIdentityFunction = theIdentityFunction;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum size in bytes of a response which will be shared with waiting requests.
+	 * Default is {@link #DEFAULT_MAXIMUM_RESPONSE_BYTES}.
+	 */
+	public RequestCoalescingInterceptor setMaximumResponseBytes(long theMaximumResponseBytes) {
+		Validate.isTrue(theMaximumResponseBytes > 0, "theMaximumResponseBytes must be greater than 0");
+		myMaximumResponseBytes = theMaximumResponseBytes;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of time a request will wait for an identical in-flight request to complete
+	 * before being processed normally. Default is {@link #DEFAULT_MAXIMUM_WAIT}.
+	 */
+	public RequestCoalescingInterceptor setMaximumWait(@Nonnull Duration theMaximumWait) {
+		Validate.notNull(theMaximumWait, "theMaximumWait must not be null");
+		Validate.isTrue(!theMaximumWait.isNegative(), "theMaximumWait must not be negative");
+		myMaximumWaitMillis = theMaximumWait.toMillis();
+		return this;
+	}
+
+	@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED)
+	public boolean incomingRequestPreHandlerSelected(RequestDetails theRequestDetails) throws IOException {
+		if (!isCoalescable(theRequestDetails) || ServerInterceptorUtil.hasResourceInspectingHooks(theRequestDetails)) {
+			return true;
+		}
+
+		String contentType = RestfulServerUtils.determineResponseEncodingWithDefault(theRequestDetails).getResourceContentType();
+		String key = defaultString(theRequestDetails.getTenantId()) + "|" +
+			theRequestDetails.getFhirServerBase() + "|" +
+			theRequestDetails.getCompleteUrl() + "|" +
+			defaultString(theRequestDetails.getHeader(Constants.HEADER_ACCEPT)) + "|" +
+			defaultString(theRequestDetails.getHeader(Constants.HEADER_PREFER)) + "|" +
+			contentType + "|" +
+			RestfulServerUtils.prettyPrintResponse(theRequestDetails.getServer(), theRequestDetails) + "|" +
+			defaultString(myIdentityFunction.apply(theRequestDetails));
+
+		CompletableFuture<SharedResponse> leader = new CompletableFuture<>();
+		CompletableFuture<SharedResponse> existing = myInFlight.putIfAbsent(key, leader);
+		if (existing == null) {
+			myLeaderCount.increment();
+			theRequestDetails.getUserData().put(LEADER_KEY, new Leader(key, leader, contentType));
+			return true;
+		}
+
+		SharedResponse shared = awaitLeader(existing);
+		if (shared == null) {
+			myFallbackCount.increment();
+			return true;
+		}
+
+		myCoalescedCount.increment();
+		IRestfulResponse response = theRequestDetails.getResponse();
+		for (Map.Entry<String, String> nextHeader : shared.myHeaders.entrySet()) {
+			response.addHeader(nextHeader.getKey(), nextHeader.getValue());
+		}
+		Writer writer = response.getResponseWriter(Constants.STATUS_HTTP_200_OK, null, shared.myContentType, Constants.CHARSET_NAME_UTF8, theRequestDetails.isRespondGzip());
+		writer.write(shared.myBody);
+		response.sendWriterResponse(Constants.STATUS_HTTP_200_OK, shared.myContentType, Constants.CHARSET_NAME_UTF8, writer);
+		writer.close();
+		ServerInterceptorUtil.fireProcessingCompletedNormally(theRequestDetails);
+		return false;
+	}
+
+	@Hook(Pointcut.SERVER_OUTGOING_WRITER_CREATED)
+	public Writer outgoingWriterCreated(RequestDetails theRequestDetails, Writer theWriter) {
+		Leader leader = (Leader) theRequestDetails.getUserData().get(LEADER_KEY);
+		if (leader == null) {
+			return null;
+		}
+		leader.myWriter = new CapturingWriter(theWriter, myMaximumResponseBytes / 2);
+		return leader.myWriter;
+	}
+
+	@Hook(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)
+	public void processingCompletedNormally(RequestDetails theRequestDetails) {
+		Leader leader = (Leader) theRequestDetails.getUserData().remove(LEADER_KEY);
+		if (leader == null) {
+			return;
+		}
+
+		SharedResponse shared = null;
+		if (leader.myWriter != null && !leader.myWriter.isOverflowed()) {
+			Map<String, String> headers = new HashMap<>();
+			Map<String, List<String>> responseHeaders = theRequestDetails.getResponse().getHeaders();
+			for (String nextHeader : SHARED_HEADERS) {
+				List<String> values = responseHeaders.get(nextHeader);
+				if (values != null && values.size() == 1) {
+					headers.put(nextHeader, values.get(0));
+				}
+			}
+			shared = new SharedResponse(leader.myWriter.getCaptured(), leader.myContentType, headers);
+		}
+		complete(leader, shared);
+	}
+
+	@Hook(Pointcut.SERVER_PROCESSING_COMPLETED)
+	public void processingCompleted(RequestDetails theRequestDetails) {
+		Leader leader = (Leader) theRequestDetails.getUserData().remove(LEADER_KEY);
+		if (leader != null) {
+			// The leader failed, so waiting requests are processed normally
+			complete(leader, null);
+		}
+	}
+
+	/**
+	 * Returns the number of requests which were processed normally and which identical requests
+	 * arriving while they were in progress could wait for
+	 */
+	public long getLeaderCount() {
+		return myLeaderCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests which were answered with a response shared from an identical
+	 * in-flight request
+	 */
+	public long getCoalescedCount() {
+		return myCoalescedCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests which waited for an identical in-flight request but then had
+	 * to be processed normally, because the in-flight request failed, timed out or could not be shared
+	 */
+	public long getFallbackCount() {
+		return myFallbackCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests currently waiting for an identical in-flight request to complete
+	 */
+	public int getWaitingCount() {
+		return myWaitingCount.get();
+	}
+
+	private void complete(Leader theLeader, @Nullable SharedResponse theSharedResponse) {
+		// Remove first so that requests arriving from now on don't receive this response
+		myInFlight.remove(theLeader.myKey, theLeader.myFuture);
+		theLeader.myFuture.complete(theSharedResponse);
+	}
+
+	@Nullable
+	private SharedResponse awaitLeader(CompletableFuture<SharedResponse> theLeader) {
+		myWaitingCount.incrementAndGet();
+		try {
+			return theLeader.get(myMaximumWaitMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException | TimeoutException e) {
+			return null;
+		} finally {
+			myWaitingCount.decrementAndGet();
+		}
+	}
+
+	private static boolean isCoalescable(RequestDetails theRequestDetails) {
+		if (theRequestDetails.getRequestType() != RequestTypeEnum.GET || theRequestDetails.getResourceName() == null) {
+			return false;
+		}
+		if (theRequestDetails.getOperation() != null) {
+			return false;
+		}
+		return isBlank(theRequestDetails.getHeader(Constants.HEADER_IF_NONE_MATCH_LC)) &&
+			isBlank(theRequestDetails.getHeader(Constants.HEADER_IF_MODIFIED_SINCE_LC));
+	}
+
+	private static class Leader {
+
+		private final String myKey;
+		private final CompletableFuture<SharedResponse> myFuture;
+		private final String myContentType;
+		private CapturingWriter myWriter;
+
+		private Leader(String theKey, CompletableFuture<SharedResponse> theFuture, String theContentType) {
+			myKey = theKey;
+			myFuture = theFuture;
+			myContentType = theContentType;
+		}
+	}
+
+	private static class SharedResponse {
+
+		private final String myBody;
+		private final String myContentType;
+		private final Map<String, String> myHeaders;
+
+		private SharedResponse(String theBody, String theContentType, Map<String, String> theHeaders) {
+			myBody = theBody;
+			myContentType = theContentType;
+			myHeaders = theHeaders;
+		}
+	}
+
+}
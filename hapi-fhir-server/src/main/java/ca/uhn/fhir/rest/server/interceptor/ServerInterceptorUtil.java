@@ -31,6 +31,7 @@ import ca.uhn.fhir.rest.server.util.CompositeInterceptorBroadcaster;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
 import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
 
@@ -67,4 +68,41 @@ public class ServerInterceptorUtil {
 		return retVal;
 	}
 
+	/**
+	 * Returns <code>true</code> if any interceptor which can authorize a request, or inspect, filter or
+	 * modify the resources returned by it (e.g. the AuthorizationInterceptor or the ConsentInterceptor)
+	 * is registered with either the server or the request. Interceptors which serve a response from
+	 * {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED} without invoking the resource provider
+	 * should not do so if this returns <code>true</code>, since the hooks on
+	 * {@link Pointcut#SERVER_INCOMING_REQUEST_POST_PROCESSED} and {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLED}
+	 * (where requests are normally authorized) would never be invoked.
+	 */
+	static boolean hasResourceInspectingHooks(RequestDetails theRequestDetails) {
+		return hasResourceInspectingHooks(theRequestDetails.getServer().getInterceptorService()) || hasResourceInspectingHooks(theRequestDetails.getInterceptorBroadcaster());
+	}
+
+	/**
+	 * Fires {@link Pointcut#SERVER_PROCESSING_COMPLETED_NORMALLY} for a request which an interceptor has
+	 * answered itself from {@link Pointcut#SERVER_INCOMING_REQUEST_PRE_HANDLER_SELECTED}, since the server
+	 * only fires it for requests which reach a resource provider
+	 */
+	static void fireProcessingCompletedNormally(RequestDetails theRequestDetails) {
+		IInterceptorBroadcaster interceptorService = theRequestDetails.getServer().getInterceptorService();
+		if (interceptorService != null && interceptorService.hasHooks(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)) {
+			HookParams params = new HookParams()
+				.add(RequestDetails.class, theRequestDetails)
+				.addIfMatchesType(ServletRequestDetails.class, theRequestDetails);
+			interceptorService.callHooks(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY, params);
+		}
+	}
+
+	private static boolean hasResourceInspectingHooks(@Nullable IInterceptorBroadcaster theInterceptorBroadcaster) {
+		return theInterceptorBroadcaster != null &&
+			(theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_INCOMING_REQUEST_POST_PROCESSED)
+				|| theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLED)
+				|| theInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PREACCESS_RESOURCES)
+				|| theInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES)
+				|| theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_OUTGOING_RESPONSE));
+	}
+
 }
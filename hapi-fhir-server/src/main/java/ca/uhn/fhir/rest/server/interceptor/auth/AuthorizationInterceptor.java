@@ -128,14 +128,14 @@ public class AuthorizationInterceptor implements IRuleApplier {
 	@Override
 	public Verdict applyRulesAndReturnDecision(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails, IBaseResource theInputResource, IIdType theInputResourceId,
 															 IBaseResource theOutputResource, Pointcut thePointcut) {
-		@SuppressWarnings("unchecked")
-		List<IAuthRule> rules = (List<IAuthRule>) theRequestDetails.getUserData().get(myRequestRuleListKey);
-		if (rules == null) {
-			rules = buildRuleList(theRequestDetails);
-			theRequestDetails.getUserData().put(myRequestRuleListKey, rules);
+		RuleIndex ruleIndex = (RuleIndex) theRequestDetails.getUserData().get(myRequestRuleListKey);
+		if (ruleIndex == null) {
+			ruleIndex = new RuleIndex(buildRuleList(theRequestDetails));
+			theRequestDetails.getUserData().put(myRequestRuleListKey, ruleIndex);
 		}
+		List<IAuthRule> rules = ruleIndex.getCandidates(theOperation, theInputResourceId, theOutputResource);
 		Set<AuthorizationFlagsEnum> flags = getFlags();
-		ourLog.trace("Applying {} rules to render an auth decision for operation {}, theInputResource type={}, theOutputResource type={} ", rules.size(), theOperation,
+		ourLog.trace("Applying {} of {} rules to render an auth decision for operation {}, theInputResource type={}, theOutputResource type={} ", rules.size(), ruleIndex.getRules().size(), theOperation,
 			((theInputResource != null) && (theInputResource.getIdElement() != null)) ? theInputResource.getIdElement().getResourceType() : "",
 			((theOutputResource != null) && (theOutputResource.getIdElement() != null)) ? theOutputResource.getIdElement().getResourceType() : "");
 
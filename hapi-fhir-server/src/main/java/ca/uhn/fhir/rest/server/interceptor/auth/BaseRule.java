@@ -30,9 +30,11 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 abstract class BaseRule implements IAuthRule {
 	private String myName;
@@ -110,6 +112,27 @@ abstract class BaseRule implements IAuthRule {
 		return new Verdict(myMode, this);
 	}
 
+	/**
+	 * Returns <code>false</code> only if {@link #applyRule} is guaranteed to return <code>null</code>
+	 * for the given operation and presence of an output resource, regardless of any other arguments.
+	 * This is used by {@link RuleIndex} to skip rules which can never apply to a request, so
+	 * implementations must be conservative.
+	 */
+	boolean isApplicableToOperation(RestOperationTypeEnum theOperation, boolean theHaveOutputResource) {
+		return true;
+	}
+
+	/**
+	 * Returns the resource types this rule is restricted to if {@link #applyRule} is guaranteed to
+	 * return <code>null</code> for the given operation whenever the {@link RuleIndex#getTargetResourceType(IIdType, IBaseResource) target resource type}
+	 * is known and is not in the returned set. Returns <code>null</code> if the rule can't be
+	 * skipped based on the resource type.
+	 */
+	@Nullable
+	Set<String> getApplicableResourceTypes(RestOperationTypeEnum theOperation, boolean theHaveOutputResource) {
+		return null;
+	}
+
 	protected boolean isResourceAccess(Pointcut thePointcut) {
 		return thePointcut.equals(Pointcut.STORAGE_PREACCESS_RESOURCES) || thePointcut.equals(Pointcut.STORAGE_PRESHOW_RESOURCES);
 	}
@@ -79,6 +79,18 @@ class OperationRule extends BaseRule implements IAuthRule {
 		myAppliesToTypes = theAppliesToTypes;
 	}
 
+	@Override
+	boolean isApplicableToOperation(RestOperationTypeEnum theOperation, boolean theHaveOutputResource) {
+		switch (theOperation) {
+			case EXTENDED_OPERATION_SERVER:
+			case EXTENDED_OPERATION_TYPE:
+			case EXTENDED_OPERATION_INSTANCE:
+				return true;
+			default:
+				return false;
+		}
+	}
+
 	@Override
 	public Verdict applyRule(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails, IBaseResource theInputResource, IIdType theInputResourceId, IBaseResource theOutputResource, IRuleApplier theRuleApplier, Set<AuthorizationFlagsEnum> theFlags, Pointcut thePointcut) {
 		FhirContext ctx = theRequestDetails.getServer().getFhirContext();
@@ -32,10 +32,13 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.defaultString;
@@ -65,6 +68,7 @@ import static org.hl7.fhir.instance.model.api.IAnyResource.SP_RES_ID;
 @SuppressWarnings("EnumSwitchStatementWhichMissesCases")
 class RuleImplOp extends BaseRule /* implements IAuthRule */ {
 	private static final Logger ourLog = LoggerFactory.getLogger(RuleImplOp.class);
+	private static final String COMPARTMENT_MEMBERSHIP_KEY = RuleImplOp.class.getName() + "_COMPARTMENT_MEMBERSHIP";
 
 	private AppliesTypeEnum myAppliesTo;
 	private Set<String> myAppliesToTypes;
@@ -308,6 +312,82 @@ class RuleImplOp extends BaseRule /* implements IAuthRule */ {
 		return applyRuleLogic(theOperation, theRequestDetails, theInputResource, theInputResourceId, theOutputResource, theFlags, ctx, target, theRuleApplier);
 	}
 
+	@Override
+	boolean isApplicableToOperation(RestOperationTypeEnum theOperation, boolean theHaveOutputResource) {
+		switch (myOp) {
+			case READ:
+				if (theHaveOutputResource) {
+					return true;
+				}
+				switch (theOperation) {
+					case READ:
+					case VREAD:
+					case SEARCH_SYSTEM:
+					case HISTORY_SYSTEM:
+					case SEARCH_TYPE:
+					case HISTORY_TYPE:
+					case HISTORY_INSTANCE:
+					case GET_PAGE:
+						return true;
+					default:
+						return false;
+				}
+			case WRITE:
+				switch (theOperation) {
+					case CREATE:
+					case UPDATE:
+					case ADD_TAGS:
+					case DELETE_TAGS:
+					case META_ADD:
+					case META_DELETE:
+					case PATCH:
+						return true;
+					default:
+						return false;
+				}
+			case CREATE:
+				return theOperation == RestOperationTypeEnum.CREATE;
+			case DELETE:
+				return theOperation == RestOperationTypeEnum.DELETE;
+			case GRAPHQL:
+				return theOperation == RestOperationTypeEnum.GRAPHQL_REQUEST;
+			case TRANSACTION:
+				return theOperation == RestOperationTypeEnum.TRANSACTION;
+			case METADATA:
+				return theOperation == RestOperationTypeEnum.METADATA;
+			default:
+				return true;
+		}
+	}
+
+	@Nullable
+	@Override
+	Set<String> getApplicableResourceTypes(RestOperationTypeEnum theOperation, boolean theHaveOutputResource) {
+		if (myAppliesTo != AppliesTypeEnum.TYPES || myAppliesToTypes == null) {
+			return null;
+		}
+		switch (myOp) {
+			case READ:
+				/*
+				 * The target IDs are the output resource ID, or for a read/vread the input
+				 * resource ID, and any ID with a type not in the list causes a null verdict
+				 */
+				if (theHaveOutputResource || theOperation == RestOperationTypeEnum.READ || theOperation == RestOperationTypeEnum.VREAD) {
+					return myAppliesToTypes;
+				}
+				return null;
+			case WRITE:
+			case CREATE:
+				// The target ID is the input resource ID
+				if (!theHaveOutputResource) {
+					return myAppliesToTypes;
+				}
+				return null;
+			default:
+				return null;
+		}
+	}
+
 	/**
 	 * Apply any special processing logic specific to this rule.
 	 * This is intended to be overridden.
@@ -345,7 +425,7 @@ class RuleImplOp extends BaseRule /* implements IAuthRule */ {
 
 	@Nullable
 	private Verdict applyRuleToCompartment(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails, IBaseResource theInputResource, IIdType theInputResourceId, IBaseResource theOutputResource, Set<AuthorizationFlagsEnum> theFlags, FhirContext ctx, RuleTarget target, IRuleApplier theRuleApplier) {
-		FhirTerser t = ctx.newTerser();
+		FhirTerser t = ctx.getTerser();
 		boolean foundMatch = false;
 
 		if (target.resourceIds != null && target.resourceIds.size() > 0) {
@@ -364,7 +444,13 @@ class RuleImplOp extends BaseRule /* implements IAuthRule */ {
 				if (myAdditionalCompartmentSearchParamMap != null) {
 					additionalSearchParamNames = myAdditionalCompartmentSearchParamMap.getSearchParamNamesForResourceType(ctx.getResourceType(target.resource));
 				}
-				if (t.isSourceInCompartmentForTarget(myClassifierCompartmentName, target.resource, next, additionalSearchParamNames)) {
+				boolean inCompartment;
+				if (target.resource == theOutputResource) {
+					inCompartment = isOutputResourceInCompartment(theRequestDetails, t, target.resource, next, additionalSearchParamNames);
+				} else {
+					inCompartment = t.isSourceInCompartmentForTarget(myClassifierCompartmentName, target.resource, next, additionalSearchParamNames);
+				}
+				if (inCompartment) {
 					foundMatch = true;
 					break;
 				}
@@ -441,6 +527,33 @@ class RuleImplOp extends BaseRule /* implements IAuthRule */ {
 		return newVerdict(theOperation, theRequestDetails, theInputResource, theInputResourceId, theOutputResource, theRuleApplier);
 	}
 
+	/**
+	 * Resources returned by the server are checked against the same compartments by many rules
+	 * (and more than once per request, e.g. before being shown and again in the response), so the
+	 * result of the check is remembered for the remainder of the request
+	 */
+	private boolean isOutputResourceInCompartment(RequestDetails theRequestDetails, FhirTerser theTerser, IBaseResource theResource, IIdType theOwner, @Nullable Set<String> theAdditionalSearchParamNames) {
+		@SuppressWarnings("unchecked")
+		IdentityHashMap<IBaseResource, Map<String, Boolean>> memo = (IdentityHashMap<IBaseResource, Map<String, Boolean>>) theRequestDetails.getUserData().get(COMPARTMENT_MEMBERSHIP_KEY);
+		if (memo == null) {
+			memo = new IdentityHashMap<>();
+			theRequestDetails.getUserData().put(COMPARTMENT_MEMBERSHIP_KEY, memo);
+		}
+
+		String key = myClassifierCompartmentName + "|" + theOwner.toUnqualifiedVersionless().getValue();
+		if (theAdditionalSearchParamNames != null && !theAdditionalSearchParamNames.isEmpty()) {
+			key = key + "|" + new TreeSet<>(theAdditionalSearchParamNames);
+		}
+
+		Map<String, Boolean> resourceMemo = memo.computeIfAbsent(theResource, t -> new HashMap<>());
+		Boolean retVal = resourceMemo.get(key);
+		if (retVal == null) {
+			retVal = theTerser.isSourceInCompartmentForTarget(myClassifierCompartmentName, theResource, theOwner, theAdditionalSearchParamNames);
+			resourceMemo.put(key, retVal);
+		}
+		return retVal;
+	}
+
 	@Nullable
 	private Verdict applyRuleToInstances(RestOperationTypeEnum theOperation, RequestDetails theRequestDetails, IBaseResource theInputResource, IIdType theInputResourceId, IBaseResource theOutputResource, RuleTarget target, IRuleApplier theRuleApplier) {
 		if (target.resourceIds != null && target.resourceIds.size() > 0) {
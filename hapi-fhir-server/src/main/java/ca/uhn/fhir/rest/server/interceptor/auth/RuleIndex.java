@@ -0,0 +1,108 @@
+package ca.uhn.fhir.rest.server.interceptor.auth;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IIdType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index over a rule list which returns, for a given operation and target resource type,
+ * the (ordered) subset of the rules which could possibly return a verdict. Rules which are
+ * certain not to apply are skipped, so first-match semantics are preserved.
+ * <p>
+ * Candidate lists are built lazily the first time each combination is seen. Instances are
+ * created per request (since rule lists are built per request) and are not thread safe.
+ * </p>
+ */
+class RuleIndex {
+
+	private final List<IAuthRule> myRules;
+	private final Map<String, List<IAuthRule>> myCandidates = new HashMap<>();
+
+	RuleIndex(List<IAuthRule> theRules) {
+		myRules = Collections.unmodifiableList(theRules);
+	}
+
+	List<IAuthRule> getRules() {
+		return myRules;
+	}
+
+	/**
+	 * Returns the rules which could return a verdict for the given operation, in their original order
+	 *
+	 * @param theOperation          The operation, or <code>null</code> if not known (in which case all rules are returned)
+	 * @param theInputResourceId    The input resource ID, if any
+	 * @param theOutputResource     The output resource, if any
+	 */
+	List<IAuthRule> getCandidates(@Nullable RestOperationTypeEnum theOperation, @Nullable IIdType theInputResourceId, @Nullable IBaseResource theOutputResource) {
+		if (theOperation == null) {
+			return myRules;
+		}
+		boolean haveOutputResource = theOutputResource != null;
+		String targetResourceType = getTargetResourceType(theInputResourceId, theOutputResource);
+		String key = theOperation.name() + "|" + haveOutputResource + "|" + (targetResourceType != null ? targetResourceType : "");
+		return myCandidates.computeIfAbsent(key, t -> buildCandidates(theOperation, haveOutputResource, targetResourceType));
+	}
+
+	private List<IAuthRule> buildCandidates(RestOperationTypeEnum theOperation, boolean theHaveOutputResource, @Nullable String theTargetResourceType) {
+		List<IAuthRule> retVal = new ArrayList<>(myRules.size());
+		for (IAuthRule next : myRules) {
+			if (next instanceof BaseRule) {
+				BaseRule rule = (BaseRule) next;
+				if (!rule.isApplicableToOperation(theOperation, theHaveOutputResource)) {
+					continue;
+				}
+				if (theTargetResourceType != null) {
+					Set<String> types = rule.getApplicableResourceTypes(theOperation, theHaveOutputResource);
+					if (types != null && !types.contains(theTargetResourceType)) {
+						continue;
+					}
+				}
+			}
+			retVal.add(next);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the resource type of the output resource ID if there is an output resource, or
+	 * otherwise of the input resource ID. Returns <code>null</code> if the applicable ID has no
+	 * resource type.
+	 */
+	@Nullable
+	static String getTargetResourceType(@Nullable IIdType theInputResourceId, @Nullable IBaseResource theOutputResource) {
+		IIdType id = theOutputResource != null ? theOutputResource.getIdElement() : theInputResourceId;
+		if (id != null && id.hasResourceType()) {
+			return id.getResourceType();
+		}
+		return null;
+	}
+
+}
@@ -150,7 +150,7 @@ class SearchParameterAndValueSetRuleImpl extends RuleImplOp {
 		theTroubleshootingLog.debug("Applying {} {}:{} for valueSet: {}", theOperationDescription, theSearchParameterName, theReturnOnFirstMatch ? "in" : "not-in", theValueSetUrl);
 
 		FhirContext fhirContext = theValidationSupport.getFhirContext();
-		FhirTerser terser = fhirContext.newTerser();
+		FhirTerser terser = fhirContext.getTerser();
 		ConceptValidationOptions conceptValidationOptions = new ConceptValidationOptions();
 		ValidationSupportContext validationSupportContext = new ValidationSupportContext(theValidationSupport);
 
@@ -164,7 +164,7 @@ class SearchParameterAndValueSetRuleImpl extends RuleImplOp {
 
 		CodeMatchCount codeMatchCount = new CodeMatchCount();
 		for (String nextPath : paths) {
-			List<ICompositeType> foundCodeableConcepts = fhirContext.newFhirPath().evaluate(theResource, nextPath, ICompositeType.class);
+			List<ICompositeType> foundCodeableConcepts = fhirContext.getFhirPath().evaluate(theResource, nextPath, ICompositeType.class);
 			for (ICompositeType nextCodeableConcept : foundCodeableConcepts) {
 				for (IBase nextCoding : terser.getValues(nextCodeableConcept, "coding")) {
 					String system = terser.getSinglePrimitiveValueOrNull(nextCoding, "system");
@@ -34,10 +34,12 @@ import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.ResponseDetails;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.exceptions.ForbiddenOperationException;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.interceptor.auth.AuthorizationConstants;
 import ca.uhn.fhir.rest.server.util.ICachedSearchDetails;
 import ca.uhn.fhir.util.BundleUtil;
+import ca.uhn.fhir.util.FhirTerser;
 import ca.uhn.fhir.util.IModelVisitor2;
 import org.apache.commons.lang3.Validate;
 import org.hl7.fhir.instance.model.api.IBase;
@@ -46,12 +48,18 @@ import org.hl7.fhir.instance.model.api.IBaseExtension;
 import org.hl7.fhir.instance.model.api.IBaseOperationOutcome;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -73,9 +81,12 @@ public class ConsentInterceptor {
 	private final String myRequestAuthorizedKey = ConsentInterceptor.class.getName() + "_" + myInstanceIndex + "_AUTHORIZED";
 	private final String myRequestCompletedKey = ConsentInterceptor.class.getName() + "_" + myInstanceIndex + "_COMPLETED";
 	private final String myRequestSeenResourcesKey = ConsentInterceptor.class.getName() + "_" + myInstanceIndex + "_SEENRESOURCES";
+	private final String myRequestCompartmentDecisionsKey = ConsentInterceptor.class.getName() + "_" + myInstanceIndex + "_COMPARTMENTDECISIONS";
 
 	private volatile List<IConsentService> myConsentService = Collections.emptyList();
 	private IConsentContextServices myContextConsentServices = IConsentContextServices.NULL_IMPL;
+	private volatile Executor myCanSeeResourcesExecutor;
+	private volatile int myCanSeeResourcesChunkSize;
 
 	/**
 	 * Constructor
@@ -109,6 +120,30 @@ public class ConsentInterceptor {
 		myContextConsentServices = theContextConsentServices;
 	}
 
+	/**
+	 * Supplies an executor which will be used to evaluate large batches of resources in parallel
+	 * by splitting them into chunks of the given size, each of which is passed to
+	 * {@link IConsentService#canSeeResources(RequestDetails, List, IConsentContextServices)} on the
+	 * executor. This is useful for consent services which are CPU bound. Consent services must be
+	 * thread safe if this is used. By default no executor is used, and each batch is passed to the
+	 * consent service on the request thread.
+	 * <p>
+	 * Every chunk is passed the same {@link RequestDetails}, so consent services must treat it as
+	 * read-only while evaluating a chunk. The only exception is the {@link RequestDetails#getUserData() user data}
+	 * map, which is safe to access concurrently.
+	 * </p>
+	 *
+	 * @param theExecutor  The executor, or <code>null</code> to evaluate all batches on the request thread
+	 * @param theChunkSize The maximum number of resources to pass to the consent service in each call
+	 * @since 6.3.0
+	 */
+	public ConsentInterceptor setCanSeeResourcesExecutor(@Nullable Executor theExecutor, int theChunkSize) {
+		Validate.isTrue(theChunkSize > 0, "theChunkSize must be greater than 0");
+		myCanSeeResourcesChunkSize = theChunkSize;
+		myCanSeeResourcesExecutor = theExecutor;
+		return this;
+	}
+
 	/**
 	 * @deprecated Use {@link #registerConsentService(IConsentService)} instead
 	 */
@@ -222,38 +257,161 @@ public class ConsentInterceptor {
 		}
 
 		IdentityHashMap<IBaseResource, Boolean> authorizedResources = getAuthorizedResourcesMap(theRequestDetails);
+
+		// Indexes of the resources which no service has rejected or authorized yet
+		List<Integer> undecided = new ArrayList<>(thePreResourceAccessDetails.size());
 		for (int resourceIdx = 0; resourceIdx < thePreResourceAccessDetails.size(); resourceIdx++) {
-			IBaseResource nextResource = thePreResourceAccessDetails.getResource(resourceIdx);
-			for (int consentSvcIdx = 0; consentSvcIdx < myConsentService.size(); consentSvcIdx++) {
-				IConsentService nextService = myConsentService.get(consentSvcIdx);
+			undecided.add(resourceIdx);
+		}
 
-				if (!processConsentSvcs[consentSvcIdx]) {
-					continue;
-				}
+		for (int consentSvcIdx = 0; consentSvcIdx < myConsentService.size() && !undecided.isEmpty(); consentSvcIdx++) {
+			IConsentService nextService = myConsentService.get(consentSvcIdx);
+			if (!processConsentSvcs[consentSvcIdx]) {
+				continue;
+			}
 
-				ConsentOutcome outcome = nextService.canSeeResource(theRequestDetails, nextResource, myContextConsentServices);
+			List<IBaseResource> resources = new ArrayList<>(undecided.size());
+			for (Integer nextIdx : undecided) {
+				resources.add(thePreResourceAccessDetails.getResource(nextIdx));
+			}
+			List<ConsentOutcome> outcomes = canSeeResources(theRequestDetails, nextService, resources);
+
+			List<Integer> stillUndecided = new ArrayList<>();
+			for (int i = 0; i < undecided.size(); i++) {
+				int resourceIdx = undecided.get(i);
+				ConsentOutcome outcome = outcomes.get(i);
 				Validate.notNull(outcome, "Consent service returned null outcome");
 				Validate.isTrue(outcome.getResource() == null, "Consent service returned a resource in its outcome. This is not permitted in canSeeResource(..)");
 
-				boolean skipSubsequentServices = false;
 				switch (outcome.getStatus()) {
 					case PROCEED:
+						stillUndecided.add(resourceIdx);
 						break;
 					case AUTHORIZED:
-						authorizedResources.put(nextResource, Boolean.TRUE);
-						skipSubsequentServices = true;
+						authorizedResources.put(resources.get(i), Boolean.TRUE);
 						break;
 					case REJECT:
 						thePreResourceAccessDetails.setDontReturnResourceAtIndex(resourceIdx);
-						skipSubsequentServices = true;
 						break;
 				}
+			}
+			undecided = stillUndecided;
+		}
+	}
 
-				if (skipSubsequentServices) {
-					break;
+	/**
+	 * Asks the given service for a decision on each of the given resources, reusing decisions
+	 * already made in this request for the same compartment if the service allows it
+	 */
+	private List<ConsentOutcome> canSeeResources(RequestDetails theRequestDetails, IConsentService theService, List<IBaseResource> theResources) {
+		String compartmentName = theService.getCanSeeResourceCompartmentName(theRequestDetails);
+		if (compartmentName == null) {
+			return invokeCanSeeResources(theRequestDetails, theService, theResources);
+		}
+
+		Map<String, ConsentOutcome> decisions = getCompartmentDecisionsMap(theRequestDetails, theService);
+		FhirTerser terser = theRequestDetails.getFhirContext().newTerser();
+		ConsentOutcome[] retVal = new ConsentOutcome[theResources.size()];
+		List<IBaseResource> toEvaluate = new ArrayList<>();
+		List<String> toEvaluateOwners = new ArrayList<>();
+		Map<String, List<Integer>> pendingOwnerIndexes = new HashMap<>();
+		List<Integer> toEvaluateIndexes = new ArrayList<>();
+
+		for (int i = 0; i < theResources.size(); i++) {
+			IBaseResource next = theResources.get(i);
+			String owner = null;
+			if (next != null) {
+				Set<String> owners = terser.getCompartmentOwnersForResource(compartmentName, next);
+				if (owners.size() == 1) {
+					owner = owners.iterator().next();
 				}
 			}
+
+			if (owner != null) {
+				ConsentOutcome decided = decisions.get(owner);
+				if (decided != null) {
+					retVal[i] = decided;
+					continue;
+				}
+				List<Integer> pending = pendingOwnerIndexes.get(owner);
+				if (pending != null) {
+					pending.add(i);
+					continue;
+				}
+				pendingOwnerIndexes.put(owner, new ArrayList<>());
+			}
+
+			toEvaluate.add(next);
+			toEvaluateOwners.add(owner);
+			toEvaluateIndexes.add(i);
+		}
+
+		if (!toEvaluate.isEmpty()) {
+			List<ConsentOutcome> outcomes = invokeCanSeeResources(theRequestDetails, theService, toEvaluate);
+			for (int i = 0; i < toEvaluate.size(); i++) {
+				ConsentOutcome outcome = outcomes.get(i);
+				retVal[toEvaluateIndexes.get(i)] = outcome;
+				String owner = toEvaluateOwners.get(i);
+				if (owner != null) {
+					for (Integer nextPending : pendingOwnerIndexes.get(owner)) {
+						retVal[nextPending] = outcome;
+					}
+					if (outcome != null) {
+						decisions.put(owner, outcome);
+					}
+				}
+			}
+		}
+
+		return Arrays.asList(retVal);
+	}
+
+	/**
+	 * Invokes {@link IConsentService#canSeeResources(RequestDetails, List, IConsentContextServices)},
+	 * splitting the batch across the configured executor if there is one and the batch is large enough
+	 */
+	private List<ConsentOutcome> invokeCanSeeResources(RequestDetails theRequestDetails, IConsentService theService, List<IBaseResource> theResources) {
+		Executor executor = myCanSeeResourcesExecutor;
+		int chunkSize = myCanSeeResourcesChunkSize;
+		List<ConsentOutcome> retVal;
+		if (executor == null || theResources.size() <= chunkSize) {
+			retVal = theService.canSeeResources(theRequestDetails, theResources, myContextConsentServices);
+		} else {
+			// Create the user data map before the request is shared with the executor threads
+			theRequestDetails.getUserData();
+
+			List<CompletableFuture<List<ConsentOutcome>>> futures = new ArrayList<>();
+			for (int from = 0; from < theResources.size(); from += chunkSize) {
+				List<IBaseResource> chunk = theResources.subList(from, Math.min(from + chunkSize, theResources.size()));
+				futures.add(CompletableFuture.supplyAsync(() -> theService.canSeeResources(theRequestDetails, chunk, myContextConsentServices), executor));
+			}
+
+			retVal = new ArrayList<>(theResources.size());
+			for (CompletableFuture<List<ConsentOutcome>> next : futures) {
+				try {
+					retVal.addAll(next.join());
+				} catch (CompletionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new InternalErrorException(Msg.code(2179) + "Failure while evaluating consent: " + e.getCause(), e.getCause());
+				}
+			}
+		}
+
+		Validate.notNull(retVal, "Consent service returned null outcomes");
+		Validate.isTrue(retVal.size() == theResources.size(), "Consent service returned %d outcomes for %d resources", retVal.size(), theResources.size());
+		return retVal;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, ConsentOutcome> getCompartmentDecisionsMap(RequestDetails theRequestDetails, IConsentService theService) {
+		IdentityHashMap<IConsentService, Map<String, ConsentOutcome>> decisions = (IdentityHashMap<IConsentService, Map<String, ConsentOutcome>>) theRequestDetails.getUserData().get(myRequestCompartmentDecisionsKey);
+		if (decisions == null) {
+			decisions = new IdentityHashMap<>();
+			theRequestDetails.getUserData().put(myRequestCompartmentDecisionsKey, decisions);
 		}
+		return decisions.computeIfAbsent(theService, t -> new HashMap<>());
 	}
 
 	@Hook(value = Pointcut.STORAGE_PRESHOW_RESOURCES)
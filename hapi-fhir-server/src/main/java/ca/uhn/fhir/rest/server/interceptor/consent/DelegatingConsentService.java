@@ -24,6 +24,8 @@ import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
+import java.util.List;
+
 /**
  * Implementation of {@link IConsentService} that forwards to another
  * implementation of {@link IConsentService}. This class is mostly
@@ -43,6 +45,16 @@ public class DelegatingConsentService implements IConsentService {
 		return myTarget.canSeeResource(theRequestDetails, theResource, theContextServices);
 	}
 
+	@Override
+	public List<ConsentOutcome> canSeeResources(RequestDetails theRequestDetails, List<IBaseResource> theResources, IConsentContextServices theContextServices) {
+		return myTarget.canSeeResources(theRequestDetails, theResources, theContextServices);
+	}
+
+	@Override
+	public String getCanSeeResourceCompartmentName(RequestDetails theRequestDetails) {
+		return myTarget.getCanSeeResourceCompartmentName(theRequestDetails);
+	}
+
 	@Override
 	public ConsentOutcome willSeeResource(RequestDetails theRequestDetails, IBaseResource theResource, IConsentContextServices theContextServices) {
 		return myTarget.willSeeResource(theRequestDetails, theResource ,theContextServices);
@@ -24,6 +24,9 @@ import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This interface is intended to be implemented as the user-defined contract for
  * the {@link ConsentInterceptor}.
@@ -135,6 +138,63 @@ public interface IConsentService {
 		return ConsentOutcome.PROCEED;
 	}
 
+	/**
+	 * This method is called with each batch of resources (e.g. a page of search results) which
+	 * a user may potentially see, and must return one outcome per resource, in the same order.
+	 * The outcomes have the same meaning as the outcomes of
+	 * {@link #canSeeResource(RequestDetails, IBaseResource, IConsentContextServices)}.
+	 * <p>
+	 * The default implementation calls {@link #canSeeResource(RequestDetails, IBaseResource, IConsentContextServices)}
+	 * once for each resource. Services which need to look up data in order to make a decision
+	 * (e.g. the Consent resources for the patients whose data is being returned) can override
+	 * this method to perform the lookups once for the whole batch.
+	 * </p>
+	 * <p>
+	 * If the {@link ConsentInterceptor} has been configured with an executor using
+	 * {@link ConsentInterceptor#setCanSeeResourcesExecutor(java.util.concurrent.Executor, int)},
+	 * large batches are split and this method may be called concurrently from several threads,
+	 * so it must be thread safe. The same <code>theRequestDetails</code> is passed to each of the
+	 * concurrent calls and must be treated as read-only, other than its
+	 * {@link RequestDetails#getUserData() user data} map which is safe to access concurrently.
+	 * </p>
+	 *
+	 * @param theRequestDetails  Contains details about the operation that is
+	 *                           beginning, including details about the request type,
+	 *                           URL, etc.
+	 * @param theResources       The resources that will be exposed
+	 * @param theContextServices An object passed in by the consent framework that
+	 *                           provides utility functions relevant to acting on
+	 *                           consent directives.
+	 * @return A list containing one outcome for each resource in <code>theResources</code>
+	 * @since 6.3.0
+	 */
+	default List<ConsentOutcome> canSeeResources(RequestDetails theRequestDetails, List<IBaseResource> theResources, IConsentContextServices theContextServices) {
+		List<ConsentOutcome> retVal = new ArrayList<>(theResources.size());
+		for (IBaseResource next : theResources) {
+			retVal.add(canSeeResource(theRequestDetails, next, theContextServices));
+		}
+		return retVal;
+	}
+
+	/**
+	 * If this method returns the name of a compartment (e.g. <code>"Patient"</code>), the
+	 * decisions returned by {@link #canSeeResources(RequestDetails, List, IConsentContextServices)}
+	 * are assumed to depend only on which compartment of that type a resource belongs to. The
+	 * {@link ConsentInterceptor} will then only ask for a decision for the first resource it sees
+	 * in each compartment, and reuse that decision for all other resources in the same compartment
+	 * for the rest of the request. Resources which are in no compartment, or in more than one
+	 * compartment, of the given type are always passed to the service.
+	 * <p>
+	 * The default implementation returns <code>null</code>, meaning that decisions are not reused.
+	 * </p>
+	 *
+	 * @param theRequestDetails The request
+	 * @since 6.3.0
+	 */
+	default String getCanSeeResourceCompartmentName(RequestDetails theRequestDetails) {
+		return null;
+	}
+
 	/**
 	 * This method is called if a user is about to see a resource, either completely
 	 * or partially. In other words, if the user is going to see any part of this resource
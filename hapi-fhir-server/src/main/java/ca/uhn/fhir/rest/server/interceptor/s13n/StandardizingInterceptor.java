@@ -120,7 +120,7 @@ public class StandardizingInterceptor {
 		FhirContext ctx = theRequest.getFhirContext();
 
 		String resourceType = ctx.getResourceType(theResource);
-		IFhirPath fhirPath = ctx.newFhirPath();
+		IFhirPath fhirPath = ctx.getFhirPath();
 
 		for (Map.Entry<String, Map<String, String>> rule : myConfig.entrySet()) {
 			String resourceFromConfig = rule.getKey();
@@ -88,7 +88,7 @@ public class FieldValidatingInterceptor {
 		}
 
 		FhirContext ctx = theRequest.getFhirContext();
-		IFhirPath fhirPath = ctx.newFhirPath();
+		IFhirPath fhirPath = ctx.getFhirPath();
 
 		for (Map.Entry<String, String> e : myConfig.entrySet()) {
 			IValidator validator = getValidator(e.getValue());
@@ -45,6 +45,7 @@ import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -234,6 +235,20 @@ public abstract class BaseMethodBinding {
 
 	public abstract MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest);
 
+	/**
+	 * If this binding can only ever match requests for a single operation name (as returned by
+	 * {@link RequestDetails#getOperation()}), returns that name. The server uses this to skip the
+	 * binding without calling {@link #incomingServerRequestMatchesMethod(RequestDetails)} for
+	 * requests for any other operation. The default implementation returns <code>null</code>,
+	 * meaning the binding must always be checked.
+	 *
+	 * @since 6.3.0
+	 */
+	@Nullable
+	public String getRequiredOperationName() {
+		return null;
+	}
+
 	public abstract Object invokeServer(IRestfulServer<?> theServer, RequestDetails theRequest) throws BaseServerResponseException, IOException;
 
 	protected final Object invokeServerMethod(RequestDetails theRequest, Object[] theMethodParams) {
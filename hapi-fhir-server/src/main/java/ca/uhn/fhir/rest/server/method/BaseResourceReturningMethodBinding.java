@@ -156,6 +156,7 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 		String searchId = null;
 		List<IBaseResource> resourceList;
 		Integer numTotalResults = theResult.size();
+		int streamingBatchSize = 0;
 
 		int pageSize;
 		if (offset != null || !theServer.canStoreSearchResults()) {
@@ -193,7 +194,10 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 				numToReturn = Math.min(numToReturn, numTotalResults - theOffset);
 			}
 
-			if (numToReturn > 0 || theResult.getCurrentPageId() != null) {
+			streamingBatchSize = determineStreamingBatchSize(theServer, theRequest, theResult, numToReturn);
+			if (streamingBatchSize > 0) {
+				resourceList = theResult.getResources(theOffset, streamingBatchSize + theOffset);
+			} else if (numToReturn > 0 || theResult.getCurrentPageId() != null) {
 				resourceList = theResult.getResources(theOffset, numToReturn + theOffset);
 			} else {
 				resourceList = Collections.emptyList();
@@ -217,32 +221,7 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 			}
 		}
 
-		/*
-		 * Remove any null entries in the list - This generally shouldn't happen but can if
-		 * data has been manually purged from the JPA database
-		 */
-		boolean hasNull = false;
-		for (IBaseResource next : resourceList) {
-			if (next == null) {
-				hasNull = true;
-				break;
-			}
-		}
-		if (hasNull) {
-			resourceList.removeIf(Objects::isNull);
-		}
-
-		/*
-		 * Make sure all returned resources have an ID (if not, this is a bug
-		 * in the user server code)
-		 */
-		for (IBaseResource next : resourceList) {
-			if (next.getIdElement() == null || next.getIdElement().isEmpty()) {
-				if (!(next instanceof IBaseOperationOutcome)) {
-					throw new InternalErrorException(Msg.code(435) + "Server method returned resource of type[" + next.getClass().getSimpleName() + "] with no ID specified (IResource#setId(IdDt) must be called)");
-				}
-			}
-		}
+		removeNullsAndValidateIds(resourceList);
 
 		BundleLinks links = new BundleLinks(theRequest.getFhirServerBase(), theIncludes, RestfulServerUtils.prettyPrintResponse(theServer, theRequest), theBundleType);
 		links.setSelf(theLinkSelf);
@@ -303,12 +282,76 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 		}
 
 		bundleFactory.addRootPropertiesToBundle(theResult.getUuid(), links, theResult.size(), theResult.getPublished());
+		if (streamingBatchSize > 0 && !resourceList.isEmpty()) {
+			IBaseResource retVal = bundleFactory.getResourceBundle();
+			new StreamedBundleEntries(theServer.getFhirContext(), theResult, resourceList, theOffset + streamingBatchSize, theOffset + numToReturn, streamingBatchSize, theBundleType, links.serverBase, theServer.getBundleInclusionRule(), theIncludes)
+				.attachTo(retVal);
+			return retVal;
+		}
 		bundleFactory.addResourcesToBundle(new ArrayList<>(resourceList), theBundleType, links.serverBase, theServer.getBundleInclusionRule(), theIncludes);
 
 		return bundleFactory.getResourceBundle();
 
 	}
 
+	/**
+	 * Returns the batch size to use if the entries of this search page should be streamed to the
+	 * client (see {@link StreamedBundleEntries}), or 0 if the page should be built in memory
+	 */
+	private int determineStreamingBatchSize(IRestfulServer<?> theServer, RequestDetails theRequest, IBundleProvider theResult, int theNumToReturn) {
+		int batchSize = theServer.getStreamingBundleBatchSize();
+		if (batchSize <= 0 || theNumToReturn <= batchSize || theResult.getCurrentPageId() != null) {
+			return 0;
+		}
+
+		// Entries are spliced into a compact JSON encoding of the Bundle root
+		if (RestfulServerUtils.prettyPrintResponse(theServer, theRequest) || RestfulServerUtils.determineResponseEncodingWithDefault(theRequest).getEncoding() != EncodingEnum.JSON) {
+			return 0;
+		}
+		if (RestfulServerUtils.determineSummaryMode(theRequest).contains(SummaryEnum.COUNT)) {
+			return 0;
+		}
+
+		// Interceptors on this pointcut expect to see (and possibly replace) the complete Bundle
+		if (theServer.getInterceptorService() != null && theServer.getInterceptorService().hasHooks(Pointcut.SERVER_OUTGOING_RESPONSE)) {
+			return 0;
+		}
+		if (theRequest.getInterceptorBroadcaster() != null && theRequest.getInterceptorBroadcaster().hasHooks(Pointcut.SERVER_OUTGOING_RESPONSE)) {
+			return 0;
+		}
+
+		return batchSize;
+	}
+
+	static void removeNullsAndValidateIds(List<IBaseResource> theResourceList) {
+		/*
+		 * Remove any null entries in the list - This generally shouldn't happen but can if
+		 * data has been manually purged from the JPA database
+		 */
+		boolean hasNull = false;
+		for (IBaseResource next : theResourceList) {
+			if (next == null) {
+				hasNull = true;
+				break;
+			}
+		}
+		if (hasNull) {
+			theResourceList.removeIf(Objects::isNull);
+		}
+
+		/*
+		 * Make sure all returned resources have an ID (if not, this is a bug
+		 * in the user server code)
+		 */
+		for (IBaseResource next : theResourceList) {
+			if (next.getIdElement() == null || next.getIdElement().isEmpty()) {
+				if (!(next instanceof IBaseOperationOutcome)) {
+					throw new InternalErrorException(Msg.code(435) + "Server method returned resource of type[" + next.getClass().getSimpleName() + "] with no ID specified (IResource#setId(IdDt) must be called)");
+				}
+			}
+		}
+	}
+
 	protected boolean isOffsetModeHistory() {
 		return false;
 	}
@@ -430,11 +473,19 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 	@Override
 	public Object invokeServer(IRestfulServer<?> theServer, RequestDetails theRequest) throws BaseServerResponseException, IOException {
 		IBaseResource response = doInvokeServer(theServer, theRequest);
+		return streamResponse(theServer, theRequest, response);
+	}
+
+	/**
+	 * Calls the outgoing response interceptors and streams the response returned by
+	 * {@link #doInvokeServer(IRestfulServer, RequestDetails)} to the client
+	 */
+	protected Object streamResponse(IRestfulServer<?> theServer, RequestDetails theRequest, IBaseResource theResponse) throws IOException {
 		/*
 		 When we write directly to an HttpServletResponse, the invocation returns null. However, we still want to invoke
 		 the SERVER_OUTGOING_RESPONSE pointcut.
 		*/
-		if (response == null) {
+		if (theResponse == null) {
 			ResponseDetails responseDetails = new ResponseDetails();
 			responseDetails.setResponseCode(Constants.STATUS_HTTP_200_OK);
 			callOutgoingResponseHook(theRequest, responseDetails);
@@ -442,7 +493,7 @@ public abstract class BaseResourceReturningMethodBinding extends BaseMethodBindi
 		} else {
 			Set<SummaryEnum> summaryMode = RestfulServerUtils.determineSummaryMode(theRequest);
 			ResponseDetails responseDetails = new ResponseDetails();
-			responseDetails.setResponseResource(response);
+			responseDetails.setResponseResource(theResponse);
 			responseDetails.setResponseCode(Constants.STATUS_HTTP_200_OK);
 			if (!callOutgoingResponseHook(theRequest, responseDetails)) {
 				return null;
@@ -24,25 +24,43 @@ import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.interceptor.api.HookParams;
+import ca.uhn.fhir.interceptor.api.IInterceptorBroadcaster;
 import ca.uhn.fhir.interceptor.api.Pointcut;
 import ca.uhn.fhir.model.valueset.BundleTypeEnum;
+import ca.uhn.fhir.parser.IParser;
 import ca.uhn.fhir.rest.annotation.Metadata;
 import ca.uhn.fhir.rest.api.CacheControlDirective;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.RequestTypeEnum;
 import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
+import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.api.server.IRestfulServer;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.IServerConformanceProvider;
 import ca.uhn.fhir.rest.server.RestfulServer;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import ca.uhn.fhir.rest.server.RestfulServerUtils.ResponseEncoding;
 import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import ca.uhn.fhir.util.DateUtils;
 import org.hl7.fhir.instance.model.api.IBaseConformance;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
@@ -50,6 +68,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding {
 	public static final String CACHE_THREAD_PREFIX = "capabilitystatement-cache-";
@@ -60,6 +79,7 @@ public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding
 	 */
 	private final AtomicReference<IBaseConformance> myCachedResponse = new AtomicReference<>();
 	private final AtomicLong myCachedResponseExpires = new AtomicLong(0L);
+	private final AtomicReference<KeyedCapabilityStatement> myKeyedCachedResponse = new AtomicReference<>();
 	private final ExecutorService myThreadPool;
 	private long myCacheMillis = 60 * 1000;
 
@@ -132,18 +152,25 @@ public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding
 
 		CacheControlDirective cacheControlDirective = new CacheControlDirective().parse(theRequest.getHeaders(Constants.HEADER_CACHE_CONTROL));
 
+		Object cacheKey = getCacheKey(theRequest);
+
 		if (cacheControlDirective.isNoCache())
 			conf = null;
 		else {
-			conf = myCachedResponse.get();
+			if (cacheKey != null) {
+				KeyedCapabilityStatement keyed = myKeyedCachedResponse.get();
+				conf = keyed != null && keyed.isValidFor(cacheKey) ? keyed.getCapabilityStatement() : null;
+			} else {
+				conf = myCachedResponse.get();
+			}
 			if ("true".equals(System.getProperty("test"))) {
 				conf = null;
 			}
-			if (conf != null) {
+			if (conf != null && cacheKey == null) {
 				long expires = myCachedResponseExpires.get();
 				if (expires < System.currentTimeMillis()) {
 					myCachedResponseExpires.set(System.currentTimeMillis() + getCacheMillis());
-					myThreadPool.submit(() -> createCapabilityStatement(theRequest, theMethodParams));
+					myThreadPool.submit(() -> createCapabilityStatement(theRequest, theMethodParams, null));
 				}
 			}
 		}
@@ -168,13 +195,13 @@ public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding
 		}
 
 		if (conf == null) {
-			conf = createCapabilityStatement(theRequest, theMethodParams);
+			conf = createCapabilityStatement(theRequest, theMethodParams, cacheKey);
 		}
 
 		return new SimpleBundleProvider(conf);
 	}
 
-	private IBaseConformance createCapabilityStatement(RequestDetails theRequest, Object[] theMethodParams) {
+	private IBaseConformance createCapabilityStatement(RequestDetails theRequest, Object[] theMethodParams, Object theCacheKey) {
 		IBaseConformance conf = (IBaseConformance) invokeServerMethod(theRequest, theMethodParams);
 
 		// Interceptor hook: SERVER_CAPABILITY_STATEMENT_GENERATED
@@ -192,13 +219,95 @@ public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding
 		}
 
 		if (myCacheMillis > 0) {
-			myCachedResponse.set(conf);
-			myCachedResponseExpires.set(System.currentTimeMillis() + getCacheMillis());
+			if (theCacheKey != null) {
+				myKeyedCachedResponse.set(new KeyedCapabilityStatement(theCacheKey, conf, System.currentTimeMillis() + getCacheMillis()));
+			} else {
+				myCachedResponse.set(conf);
+				myCachedResponseExpires.set(System.currentTimeMillis() + getCacheMillis());
+			}
 		}
 
 		return conf;
 	}
 
+	/**
+	 * If the conformance provider can tell us what the generated statement depends on, we cache
+	 * it until that changes. The cache period still applies as an upper bound, since the key can't
+	 * capture everything (e.g. interceptors registered later which modify the generated statement).
+	 */
+	private Object getCacheKey(RequestDetails theRequest) {
+		if (getProvider() instanceof IServerConformanceProvider) {
+			return ((IServerConformanceProvider<?>) getProvider()).getCapabilityStatementCacheKey(theRequest);
+		}
+		return null;
+	}
+
+	@Override
+	public Object invokeServer(IRestfulServer<?> theServer, RequestDetails theRequest) throws BaseServerResponseException, IOException {
+		IBaseResource response = doInvokeServer(theServer, theRequest);
+
+		/*
+		 * If we're returning the keyed cached statement, we can also reuse its encoded form as long
+		 * as nothing about the request or the interceptors could make the encoding differ
+		 */
+		KeyedCapabilityStatement keyed = myKeyedCachedResponse.get();
+		if (keyed != null && keyed.getCapabilityStatement() == response && theRequest instanceof ServletRequestDetails) {
+			ResponseEncoding responseEncoding = RestfulServerUtils.determineResponseEncodingNoDefault(theRequest, theServer.getDefaultResponseEncoding());
+			if (responseEncoding == null) {
+				responseEncoding = new ResponseEncoding(theServer.getFhirContext(), theServer.getDefaultResponseEncoding(), null);
+			}
+			String encodedKey = getEncodedCacheKey(theServer, theRequest, responseEncoding);
+			if (encodedKey != null) {
+				byte[] encoded = keyed.getEncoded(encodedKey, () -> encode(theServer, theRequest, response));
+
+				IIdType fullId = RestfulServerUtils.fullyQualifyResourceIdOrReturnNull(theServer, response, theRequest.getFhirServerBase(), response.getIdElement());
+				if (fullId != null) {
+					theRequest.getResponse().addHeader(Constants.HEADER_CONTENT_LOCATION, fullId.getValue());
+				}
+				IPrimitiveType<Date> lastUpdated = RestfulServerUtils.extractLastUpdatedFromResource(response);
+				if (lastUpdated != null && !lastUpdated.isEmpty()) {
+					theRequest.getResponse().addHeader(Constants.HEADER_LAST_MODIFIED, DateUtils.formatDate(lastUpdated.getValue()));
+				}
+
+				OutputStream outputStream = theRequest.getResponse().getResponseOutputStream(Constants.STATUS_HTTP_200_OK, responseEncoding.getResourceContentType(), theRequest.isRespondGzip());
+				outputStream.write(encoded);
+				return outputStream;
+			}
+		}
+
+		return streamResponse(theServer, theRequest, response);
+	}
+
+	private static byte[] encode(IRestfulServer<?> theServer, RequestDetails theRequest, IBaseResource theResource) {
+		IParser parser = RestfulServerUtils.getNewParser(theServer.getFhirContext(), theResource.getStructureFhirVersionEnum(), theRequest);
+		return parser.encodeResourceToString(theResource).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return A key identifying the encoded form of the CapabilityStatement for this request, or
+	 * <code>null</code> if the encoded form should not be cached
+	 */
+	private static String getEncodedCacheKey(IRestfulServer<?> theServer, RequestDetails theRequest, ResponseEncoding theResponseEncoding) {
+		if (!RestfulServerUtils.determineSummaryMode(theRequest).equals(Collections.singleton(SummaryEnum.FALSE))) {
+			return null;
+		}
+		if (ElementsParameter.getElementsValueOrNull(theRequest, false) != null || ElementsParameter.getElementsValueOrNull(theRequest, true) != null) {
+			return null;
+		}
+		if (theRequest.getParameters().containsKey(Constants.PARAM_COUNT)) {
+			return null;
+		}
+		if (hasResponseModifyingHooks(theServer.getInterceptorService()) || hasResponseModifyingHooks(theRequest.getInterceptorBroadcaster())) {
+			return null;
+		}
+		return theResponseEncoding.getResourceContentType() + "|" + RestfulServerUtils.prettyPrintResponse(theServer, theRequest);
+	}
+
+	private static boolean hasResponseModifyingHooks(@Nullable IInterceptorBroadcaster theInterceptorBroadcaster) {
+		return theInterceptorBroadcaster != null &&
+			(theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_OUTGOING_RESPONSE) || theInterceptorBroadcaster.hasHooks(Pointcut.SERVER_OUTGOING_WRITER_CREATED));
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (theRequest.getRequestType() == RequestTypeEnum.OPTIONS) {
@@ -241,4 +350,29 @@ public class ConformanceMethodBinding extends BaseResourceReturningMethodBinding
 		return (IBaseConformance) resultObj.getResources(0, 1).get(0);
 	}
 
+	private static class KeyedCapabilityStatement {
+		private final Object myKey;
+		private final IBaseConformance myCapabilityStatement;
+		private final long myExpires;
+		private final Map<String, byte[]> myEncoded = new ConcurrentHashMap<>();
+
+		private KeyedCapabilityStatement(Object theKey, IBaseConformance theCapabilityStatement, long theExpires) {
+			myKey = theKey;
+			myCapabilityStatement = theCapabilityStatement;
+			myExpires = theExpires;
+		}
+
+		public boolean isValidFor(Object theKey) {
+			return myKey.equals(theKey) && myExpires >= System.currentTimeMillis();
+		}
+
+		public IBaseConformance getCapabilityStatement() {
+			return myCapabilityStatement;
+		}
+
+		public byte[] getEncoded(String theEncodedKey, Supplier<byte[]> theEncoder) {
+			return myEncoded.computeIfAbsent(theEncodedKey, t -> theEncoder.get());
+		}
+	}
+
 }
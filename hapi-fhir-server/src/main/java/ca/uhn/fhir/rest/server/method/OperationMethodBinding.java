@@ -45,6 +45,7 @@ import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -235,6 +236,15 @@ public class OperationMethodBinding extends BaseResourceReturningMethodBinding {
 		return myReturnType;
 	}
 
+	@Nullable
+	@Override
+	public String getRequiredOperationName() {
+		if (WILDCARD_NAME.equals(myName)) {
+			return null;
+		}
+		return myName;
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (isBlank(theRequest.getOperation())) {
@@ -0,0 +1,172 @@
+package ca.uhn.fhir.rest.server.method;
+
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeResourceDefinition;
+import ca.uhn.fhir.context.api.BundleInclusionRule;
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.model.valueset.BundleTypeEnum;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.BundleLinks;
+import ca.uhn.fhir.rest.api.IVersionSpecificBundleFactory;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.util.FhirTerser;
+import org.hl7.fhir.instance.model.api.IBase;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Supplies the entries of a search-set Bundle which is streamed to the client instead of being
+ * fully built in memory. The Bundle which is returned by the method binding holds only the root
+ * properties (id, meta, type, total, links) and has this object attached to it. When the response
+ * is written, the root properties are encoded first, and then the entries are loaded from the
+ * {@link IBundleProvider} and encoded one batch at a time so that only a single batch of
+ * resources is held in memory at any point.
+ *
+ * @see ca.uhn.fhir.rest.server.RestfulServer#setStreamingBundleBatchSize(int)
+ * @since 6.3.0
+ */
+public class StreamedBundleEntries {
+
+	private static final String USER_DATA_KEY = StreamedBundleEntries.class.getName();
+	private static final String ENTRIES_PREFIX = "{\"resourceType\":\"Bundle\",\"entry\":[";
+	private static final String ENTRIES_SUFFIX = "]}";
+	private final FhirContext myContext;
+	private final IBundleProvider myBundleProvider;
+	private final List<IBaseResource> myFirstBatch;
+	private final int myFromIndex;
+	private final int myToIndex;
+	private final int myBatchSize;
+	private final BundleTypeEnum myBundleType;
+	private final String myServerBase;
+	private final BundleInclusionRule myBundleInclusionRule;
+	private final Set<Include> myIncludes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param theFirstBatch The first batch of resources, which have already been loaded
+	 * @param theFromIndex  The index of the first resource in the bundle provider which follows the first batch
+	 * @param theToIndex    The index following the last resource in the bundle provider to include in the response
+	 */
+	StreamedBundleEntries(FhirContext theContext, IBundleProvider theBundleProvider, List<IBaseResource> theFirstBatch, int theFromIndex, int theToIndex, int theBatchSize, BundleTypeEnum theBundleType, String theServerBase, @Nullable BundleInclusionRule theBundleInclusionRule, @Nullable Set<Include> theIncludes) {
+		myContext = theContext;
+		myBundleProvider = theBundleProvider;
+		myFirstBatch = theFirstBatch;
+		myFromIndex = theFromIndex;
+		myToIndex = theToIndex;
+		myBatchSize = theBatchSize;
+		myBundleType = theBundleType;
+		myServerBase = theServerBase;
+		myBundleInclusionRule = theBundleInclusionRule;
+		myIncludes = theIncludes;
+	}
+
+	/**
+	 * Writes the entries as the contents of a JSON array (i.e. the entry objects separated by
+	 * commas, without the enclosing brackets). At least one entry is always written.
+	 *
+	 * @param theParser The parser to use, which must be a non pretty-printing JSON parser
+	 */
+	public void writeEntries(IParser theParser, Writer theWriter) throws IOException {
+		Set<String> writtenFullUrls = new HashSet<>();
+		boolean first = true;
+
+		List<IBaseResource> batch = myFirstBatch;
+		int nextIndex = myFromIndex;
+		while (true) {
+			IBaseResource entriesBundle = createEntriesBundle(batch, writtenFullUrls);
+			String encoded = theParser.encodeResourceToString(entriesBundle);
+			if (encoded.startsWith(ENTRIES_PREFIX) && encoded.endsWith(ENTRIES_SUFFIX)) {
+				if (!first) {
+					theWriter.append(',');
+				}
+				theWriter.append(encoded, ENTRIES_PREFIX.length(), encoded.length() - ENTRIES_SUFFIX.length());
+				first = false;
+			} else if (!encoded.equals("{\"resourceType\":\"Bundle\"}")) {
+				throw new InternalErrorException(Msg.code(2177) + "Unable to stream Bundle entries, unexpected encoding: " + encoded);
+			}
+
+			if (nextIndex >= myToIndex) {
+				break;
+			}
+			int batchEnd = Math.min(nextIndex + myBatchSize, myToIndex);
+			batch = myBundleProvider.getResources(nextIndex, batchEnd);
+			if (batch == null || batch.isEmpty()) {
+				break;
+			}
+			BaseResourceReturningMethodBinding.removeNullsAndValidateIds(batch);
+			nextIndex = batchEnd;
+		}
+	}
+
+	/**
+	 * Creates a Bundle containing only the entries for the given batch of resources, omitting
+	 * any entry whose fullUrl has already been written in a previous batch (this can happen
+	 * when the same resource is included by resources in more than one batch)
+	 */
+	private IBaseResource createEntriesBundle(List<IBaseResource> theBatch, Set<String> theWrittenFullUrls) {
+		IVersionSpecificBundleFactory bundleFactory = myContext.newBundleFactory();
+		bundleFactory.addRootPropertiesToBundle(null, new BundleLinks(myServerBase, myIncludes, false, myBundleType), null, null);
+		bundleFactory.addResourcesToBundle(new ArrayList<>(theBatch), myBundleType, myServerBase, myBundleInclusionRule, myIncludes);
+		IBaseResource batchBundle = bundleFactory.getResourceBundle();
+
+		RuntimeResourceDefinition bundleDef = myContext.getResourceDefinition(batchBundle);
+		BaseRuntimeChildDefinition entryChild = bundleDef.getChildByName("entry");
+		FhirTerser terser = myContext.newTerser();
+
+		IBaseResource retVal = bundleDef.newInstance();
+		for (IBase nextEntry : entryChild.getAccessor().getValues(batchBundle)) {
+			String fullUrl = terser.getSinglePrimitiveValueOrNull(nextEntry, "fullUrl");
+			if (fullUrl == null || theWrittenFullUrls.add(fullUrl)) {
+				entryChild.getMutator().addValue(retVal, nextEntry);
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Attaches the streamed entries to the Bundle holding the root properties
+	 */
+	void attachTo(IBaseResource theBundle) {
+		theBundle.setUserData(USER_DATA_KEY, this);
+	}
+
+	/**
+	 * Returns the streamed entries attached to the given Bundle, or <code>null</code> if none
+	 */
+	@Nullable
+	public static StreamedBundleEntries get(IBaseResource theBundle) {
+		return (StreamedBundleEntries) theBundle.getUserData(USER_DATA_KEY);
+	}
+
+}
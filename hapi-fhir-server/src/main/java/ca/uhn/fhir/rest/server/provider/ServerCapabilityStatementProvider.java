@@ -183,6 +183,17 @@ public class ServerCapabilityStatementProvider implements IServerConformanceProv
 		myPublisher = thePublisher;
 	}
 
+	/**
+	 * The generated CapabilityStatement depends on the server base, the providers registered
+	 * with the server and the active search parameters, so the key combines all three.
+	 */
+	@Override
+	public Object getCapabilityStatementCacheKey(RequestDetails theRequestDetails) {
+		long providerVersion = myServer != null ? myServer.getProviderRegistrationVersion() : 0;
+		long searchParamsVersion = mySearchParamRegistry != null ? mySearchParamRegistry.getActiveSearchParamsVersion() : 0;
+		return theRequestDetails.getFhirServerBase() + "|" + providerVersion + "|" + searchParamsVersion;
+	}
+
 	@Override
 	@Metadata
 	public IBaseConformance getServerConformance(HttpServletRequest theRequest, RequestDetails theRequestDetails) {
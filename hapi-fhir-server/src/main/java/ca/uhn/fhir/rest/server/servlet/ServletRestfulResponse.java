@@ -79,6 +79,20 @@ public class ServletRestfulResponse extends BaseRestfulResponse<ServletRequestDe
 		return theHttpResponse.getWriter();
 	}
 
+	@Override
+	public OutputStream getResponseOutputStream(int theStatusCode, String theContentType, boolean theRespondGzip) throws IOException {
+		addHeaders();
+		HttpServletResponse theHttpResponse = getRequestDetails().getServletResponse();
+		theHttpResponse.setCharacterEncoding(Constants.CHARSET_NAME_UTF8);
+		theHttpResponse.setStatus(theStatusCode);
+		theHttpResponse.setContentType(theContentType);
+		if (theRespondGzip) {
+			theHttpResponse.addHeader(Constants.HEADER_CONTENT_ENCODING, Constants.ENCODING_GZIP);
+			return new GZIPOutputStream(theHttpResponse.getOutputStream());
+		}
+		return theHttpResponse.getOutputStream();
+	}
+
 	private void addHeaders() {
 		HttpServletResponse theHttpResponse = getRequestDetails().getServletResponse();
 		getRequestDetails().getServer().addHeadersToResponse(theHttpResponse);
@@ -0,0 +1,93 @@
+package ca.uhn.fhir.rest.server.util;
+
+/*-
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2022 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ca.uhn.fhir.context.ConfigurationException;
+import ca.uhn.fhir.i18n.Msg;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory methods for executors suitable for use with
+ * {@link ca.uhn.fhir.rest.server.RestfulServer#setAsyncExecutor(java.util.concurrent.Executor)}
+ *
+ * @since 6.3.0
+ */
+public class AsyncRequestExecutors {
+
+	/**
+	 * Non-instantiable
+	 */
+	private AsyncRequestExecutors() {
+		// nothing
+	}
+
+	/**
+	 * Returns <code>true</code> if the running JVM supports virtual threads (Java 21+)
+	 */
+	public static boolean isVirtualThreadPerRequestSupported() {
+		return findVirtualThreadFactoryMethod() != null;
+	}
+
+	/**
+	 * Creates an executor which starts a new virtual thread for each request. Virtual threads
+	 * are cheap to create and block, so requests are never queued waiting for a free thread.
+	 * This requires Java 21 or later.
+	 *
+	 * @throws ConfigurationException If the running JVM does not support virtual threads
+	 */
+	public static ExecutorService newVirtualThreadPerRequestExecutor() {
+		Method factoryMethod = findVirtualThreadFactoryMethod();
+		if (factoryMethod == null) {
+			throw new ConfigurationException(Msg.code(2175) + "Virtual threads are not supported by this JVM (Java 21 or later is required)");
+		}
+		try {
+			return (ExecutorService) factoryMethod.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new ConfigurationException(Msg.code(2176) + "Failed to create virtual thread executor: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates an executor which uses a fixed size pool of platform threads
+	 *
+	 * @param theThreadCount The number of threads in the pool
+	 */
+	public static ExecutorService newFixedThreadPoolExecutor(int theThreadCount) {
+		BasicThreadFactory threadFactory = new BasicThreadFactory.Builder()
+			.namingPattern("hapi-fhir-request-%d")
+			.daemon(true)
+			.build();
+		return Executors.newFixedThreadPool(theThreadCount, threadFactory);
+	}
+
+	private static Method findVirtualThreadFactoryMethod() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+}
@@ -41,7 +41,15 @@ public class CompositeInterceptorBroadcaster {
 	 * as the one associated with the JPA module.
 	 */
 	public static boolean doCallHooks(IInterceptorBroadcaster theInterceptorBroadcaster, @Nullable RequestDetails theRequestDetails, Pointcut thePointcut, HookParams theParams) {
-		return newCompositeBroadcaster(theInterceptorBroadcaster, theRequestDetails).callHooks(thePointcut, theParams);
+		boolean retVal = true;
+		if (theInterceptorBroadcaster != null) {
+			retVal = theInterceptorBroadcaster.callHooks(thePointcut, theParams);
+		}
+		IInterceptorBroadcaster requestBroadcaster = getRequestInterceptorBroadcaster(theRequestDetails);
+		if (requestBroadcaster != null && retVal) {
+			requestBroadcaster.callHooks(thePointcut, theParams);
+		}
+		return retVal;
 	}
 
 	/**
@@ -49,11 +57,34 @@ public class CompositeInterceptorBroadcaster {
 	 * as the one associated with the JPA module.
 	 */
 	public static Object doCallHooksAndReturnObject(IInterceptorBroadcaster theInterceptorBroadcaster, RequestDetails theRequestDetails, Pointcut thePointcut, HookParams theParams) {
-		return newCompositeBroadcaster(theInterceptorBroadcaster, theRequestDetails).callHooksAndReturnObject(thePointcut, theParams);
+		Object retVal = true;
+		if (theInterceptorBroadcaster != null) {
+			retVal = theInterceptorBroadcaster.callHooksAndReturnObject(thePointcut, theParams);
+		}
+		IInterceptorBroadcaster requestBroadcaster = getRequestInterceptorBroadcaster(theRequestDetails);
+		if (requestBroadcaster != null && retVal == null) {
+			retVal = requestBroadcaster.callHooksAndReturnObject(thePointcut, theParams);
+		}
+		return retVal;
 	}
 
+	/**
+	 * Returns <code>true</code> if either the interceptor service associated with the request,
+	 * or the one associated with the JPA module, has hooks registered for the given pointcut.
+	 * Callers should check this before building {@link HookParams} for frequently
+	 * invoked pointcuts.
+	 */
 	public static boolean hasHooks(Pointcut thePointcut, IInterceptorBroadcaster theInterceptorBroadcaster, RequestDetails theRequestDetails) {
-		return newCompositeBroadcaster(theInterceptorBroadcaster, theRequestDetails).hasHooks(thePointcut);
+		if (theInterceptorBroadcaster != null && theInterceptorBroadcaster.hasHooks(thePointcut)) {
+			return true;
+		}
+		IInterceptorBroadcaster requestBroadcaster = getRequestInterceptorBroadcaster(theRequestDetails);
+		return requestBroadcaster != null && requestBroadcaster.hasHooks(thePointcut);
+	}
+
+	@Nullable
+	private static IInterceptorBroadcaster getRequestInterceptorBroadcaster(@Nullable RequestDetails theRequestDetails) {
+		return theRequestDetails != null ? theRequestDetails.getInterceptorBroadcaster() : null;
 	}
 
 	/**
@@ -63,38 +94,17 @@ public class CompositeInterceptorBroadcaster {
 		return new IInterceptorBroadcaster() {
 			@Override
 			public boolean callHooks(Pointcut thePointcut, HookParams theParams) {
-				boolean retVal = true;
-				if (theInterceptorBroadcaster != null) {
-					retVal = theInterceptorBroadcaster.callHooks(thePointcut, theParams);
-				}
-				if (theRequestDetails != null && theRequestDetails.getInterceptorBroadcaster() != null && retVal) {
-					IInterceptorBroadcaster interceptorBroadcaster = theRequestDetails.getInterceptorBroadcaster();
-					interceptorBroadcaster.callHooks(thePointcut, theParams);
-				}
-				return retVal;
+				return doCallHooks(theInterceptorBroadcaster, theRequestDetails, thePointcut, theParams);
 			}
 
 			@Override
 			public Object callHooksAndReturnObject(Pointcut thePointcut, HookParams theParams) {
-				Object retVal = true;
-				if (theInterceptorBroadcaster != null) {
-					retVal = theInterceptorBroadcaster.callHooksAndReturnObject(thePointcut, theParams);
-				}
-				if (theRequestDetails != null && theRequestDetails.getInterceptorBroadcaster() != null && retVal == null) {
-					IInterceptorBroadcaster interceptorBroadcaster = theRequestDetails.getInterceptorBroadcaster();
-					retVal = interceptorBroadcaster.callHooksAndReturnObject(thePointcut, theParams);
-				}
-				return retVal;
+				return doCallHooksAndReturnObject(theInterceptorBroadcaster, theRequestDetails, thePointcut, theParams);
 			}
 
 			@Override
 			public boolean hasHooks(Pointcut thePointcut) {
-				if (theInterceptorBroadcaster != null && theInterceptorBroadcaster.hasHooks(thePointcut)) {
-					return true;
-				}
-				return theRequestDetails != null &&
-					theRequestDetails.getInterceptorBroadcaster() != null &&
-					theRequestDetails.getInterceptorBroadcaster().hasHooks(thePointcut);
+				return CompositeInterceptorBroadcaster.hasHooks(thePointcut, theInterceptorBroadcaster, theRequestDetails);
 			}
 		};
 	}
@@ -60,6 +60,18 @@ public interface ISearchParamRegistry {
 	default void requestRefresh() {
 	}
 
+	/**
+	 * Returns a number which changes every time the set of active search parameters changes, so
+	 * that callers can cache anything derived from the active search parameters (such as the
+	 * server CapabilityStatement). The default implementation returns <code>0</code>, meaning
+	 * that the active search parameters never change.
+	 *
+	 * @since 6.3.0
+	 */
+	default long getActiveSearchParamsVersion() {
+		return 0;
+	}
+
 	/**
 	 * When indexing a HumanName, if a StringEncoder is set in the context, then the "phonetic" search parameter will normalize
 	 * the String using this encoder.
@@ -1,7 +1,9 @@
 package ca.uhn.fhir.rest.server;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
+import ca.uhn.fhir.rest.server.method.MethodMatchEnum;
 import ca.uhn.fhir.rest.server.method.PageMethodBinding;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +15,13 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ResourceBindingTest {
@@ -38,4 +47,33 @@ class ResourceBindingTest {
 		assertEquals(second, list.get(0));
 		assertEquals(first, list.get(1));
 	}
+
+	@Test
+	public void testDispatchSkipsBindingsForOtherOperations() {
+		BaseMethodBinding operationA = mock(BaseMethodBinding.class);
+		when(operationA.getRequiredOperationName()).thenReturn("$a");
+		BaseMethodBinding operationB = mock(BaseMethodBinding.class);
+		when(operationB.getRequiredOperationName()).thenReturn("$b");
+		BaseMethodBinding other = mock(BaseMethodBinding.class);
+		myResourceBinding.addMethod(operationA);
+		myResourceBinding.addMethod(operationB);
+		myResourceBinding.addMethod(other);
+
+		RequestDetails operationRequest = mock(RequestDetails.class);
+		when(operationRequest.getOperation()).thenReturn("$b");
+		when(other.incomingServerRequestMatchesMethod(operationRequest)).thenReturn(MethodMatchEnum.NONE);
+		when(operationB.incomingServerRequestMatchesMethod(operationRequest)).thenReturn(MethodMatchEnum.EXACT);
+		assertSame(operationB, myResourceBinding.getMethod(operationRequest));
+		verify(operationA, never()).incomingServerRequestMatchesMethod(any());
+
+		RequestDetails historyRequest = mock(RequestDetails.class);
+		when(historyRequest.getOperation()).thenReturn("_history");
+		when(other.incomingServerRequestMatchesMethod(historyRequest)).thenReturn(MethodMatchEnum.EXACT);
+		assertSame(other, myResourceBinding.getMethod(historyRequest));
+		verify(operationB, never()).incomingServerRequestMatchesMethod(historyRequest);
+
+		// Bindings removed from the list directly are no longer dispatched to
+		myResourceBinding.getMethodBindings().remove(operationB);
+		assertNull(myResourceBinding.getMethod(operationRequest));
+	}
 }
@@ -0,0 +1,53 @@
+package ca.uhn.fhir.rest.server.interceptor.auth;
+
+import ca.uhn.fhir.model.primitive.IdDt;
+import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RuleIndexTest {
+
+	@Test
+	public void testCandidatesKeepRuleOrder() {
+		List<IAuthRule> rules = new RuleBuilder()
+			.allow("read observation").read().resourcesOfType("Observation").withAnyId().andThen()
+			.allow("operation").operation().named("$everything").onAnyType().andRequireExplicitResponseAuthorization().andThen()
+			.allow("write patient").write().resourcesOfType("Patient").withAnyId().andThen()
+			.allow("read patient").read().resourcesOfType("Patient").withAnyId().andThen()
+			.allow("read all").read().allResources().withAnyId().andThen()
+			.denyAll("deny all")
+			.build();
+		RuleIndex index = new RuleIndex(rules);
+
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.READ, new IdDt("Patient/123"), null)), contains("read patient", "read all", "deny all"));
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.READ, new IdDt("Observation/123"), null)), contains("read observation", "read all", "deny all"));
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.UPDATE, new IdDt("Patient/123"), null)), contains("write patient", "deny all"));
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.EXTENDED_OPERATION_TYPE, new IdDt("Patient"), null)), contains("operation", "deny all"));
+
+		// Without a known type, no rules can be skipped based on type
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.READ, null, null)), contains("read observation", "read patient", "read all", "deny all"));
+
+		// Outgoing resources are checked against all read rules for the resource's type
+		IBaseResource patient = mock(IBaseResource.class);
+		when(patient.getIdElement()).thenReturn(new IdDt("Patient/123"));
+		assertThat(names(index.getCandidates(RestOperationTypeEnum.SEARCH_TYPE, null, patient)), contains("read patient", "read all", "deny all"));
+
+		// Candidate lists are reused
+		assertSame(index.getCandidates(RestOperationTypeEnum.READ, new IdDt("Patient/456"), null), index.getCandidates(RestOperationTypeEnum.READ, new IdDt("Patient/123"), null));
+		assertSame(index.getRules(), index.getCandidates(null, null, null));
+	}
+
+	private static List<String> names(List<IAuthRule> theRules) {
+		return theRules.stream().map(IAuthRule::getName).collect(Collectors.toList());
+	}
+
+}
@@ -292,6 +292,14 @@ public class DaoConfig {
 	 * @since 5.7.0
 	 */
 	private int myInlineResourceTextBelowSize = 0;
+	/**
+	 * @since 6.3.0
+	 */
+	private boolean myParseOnlyRequestedElements = false;
+	/**
+	 * @since 6.3.0
+	 */
+	private boolean myStoredResourcePassthroughEnabled = false;
 
 	/**
 	 * @since 5.7.0
@@ -382,6 +390,84 @@ public class DaoConfig {
 		myInlineResourceTextBelowSize = theInlineResourceTextBelowSize;
 	}
 
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), search results are only partially
+	 * parsed from the stored resource text when the client has requested a subset of the resource
+	 * elements using the <code>_elements</code> or <code>_summary</code> parameters. Elements which
+	 * would not be returned to the client are skipped by the parser instead of being discarded when
+	 * the response is encoded.
+	 * <p>
+	 * Note that when this setting is enabled, interceptors which examine the search results
+	 * (e.g. consent services) will only see the requested elements along with the resource
+	 * <code>id</code> and <code>meta</code>.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public boolean isParseOnlyRequestedElements() {
+		return myParseOnlyRequestedElements;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), search results are only partially
+	 * parsed from the stored resource text when the client has requested a subset of the resource
+	 * elements using the <code>_elements</code> or <code>_summary</code> parameters. Elements which
+	 * would not be returned to the client are skipped by the parser instead of being discarded when
+	 * the response is encoded.
+	 * <p>
+	 * Note that when this setting is enabled, interceptors which examine the search results
+	 * (e.g. consent services) will only see the requested elements along with the resource
+	 * <code>id</code> and <code>meta</code>.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public void setParseOnlyRequestedElements(boolean theParseOnlyRequestedElements) {
+		myParseOnlyRequestedElements = theParseOnlyRequestedElements;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), resources loaded by a read or
+	 * vread keep a reference to their stored JSON text. When such a resource is returned unmodified
+	 * as the response, the server writes the stored text (along with a freshly
+	 * encoded <code>id</code> and <code>meta</code>) instead of encoding the whole resource again.
+	 * The server only does this when nothing could make the response differ from the stored text,
+	 * e.g. no pretty printing, no <code>_summary</code> or <code>_elements</code>, and no
+	 * interceptors registered against {@link ca.uhn.fhir.interceptor.api.Pointcut#STORAGE_PRESHOW_RESOURCES}
+	 * or {@link ca.uhn.fhir.interceptor.api.Pointcut#SERVER_OUTGOING_RESPONSE}.
+	 * <p>
+	 * Note that any other custom code which modifies a resource returned by a read must call
+	 * {@link ca.uhn.fhir.rest.api.server.storage.StoredEncodedResource#remove(org.hl7.fhir.instance.model.api.IBaseResource)}
+	 * on the resource when this setting is enabled.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public boolean isStoredResourcePassthroughEnabled() {
+		return myStoredResourcePassthroughEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), resources loaded by a read or
+	 * vread keep a reference to their stored JSON text. When such a resource is returned unmodified
+	 * as the response, the server writes the stored text (along with a freshly
+	 * encoded <code>id</code> and <code>meta</code>) instead of encoding the whole resource again.
+	 * The server only does this when nothing could make the response differ from the stored text,
+	 * e.g. no pretty printing, no <code>_summary</code> or <code>_elements</code>, and no
+	 * interceptors registered against {@link ca.uhn.fhir.interceptor.api.Pointcut#STORAGE_PRESHOW_RESOURCES}
+	 * or {@link ca.uhn.fhir.interceptor.api.Pointcut#SERVER_OUTGOING_RESPONSE}.
+	 * <p>
+	 * Note that any other custom code which modifies a resource returned by a read must call
+	 * {@link ca.uhn.fhir.rest.api.server.storage.StoredEncodedResource#remove(org.hl7.fhir.instance.model.api.IBaseResource)}
+	 * on the resource when this setting is enabled.
+	 * </p>
+	 *
+	 * @since 6.3.0
+	 */
+	public void setStoredResourcePassthroughEnabled(boolean theStoredResourcePassthroughEnabled) {
+		myStoredResourcePassthroughEnabled = theStoredResourcePassthroughEnabled;
+	}
+
 	/**
 	 * Sets the tag storage mode for the server. Default is {@link TagStorageModeEnum#VERSIONED}.
 	 *
@@ -6,7 +6,9 @@ import ca.uhn.fhir.jpa.model.entity.IBaseResourceEntity;
 import ca.uhn.fhir.jpa.model.entity.ResourceTag;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Set;
 
 /*
  * #%L
@@ -46,4 +48,15 @@ public interface IDao {
 
 	<R extends IBaseResource> R toResource(Class<R> theResourceType, IBaseResourceEntity theEntity, Collection<ResourceTag> theTagList, boolean theForHistoryOperation);
 
+	/**
+	 * Converts an entity to a resource, populating only the given elements. The default implementation
+	 * ignores <code>theParseElements</code> and populates the complete resource.
+	 *
+	 * @param theParseElements The elements to parse (see {@link ca.uhn.fhir.parser.IParser#setParseElements(Set)}), or <code>null</code> to parse the complete resource
+	 * @since 6.3.0
+	 */
+	default <R extends IBaseResource> R toResource(Class<R> theResourceType, IBaseResourceEntity theEntity, Collection<ResourceTag> theTagList, boolean theForHistoryOperation, @Nullable Set<String> theParseElements) {
+		return toResource(theResourceType, theEntity, theTagList, theForHistoryOperation);
+	}
+
 }
@@ -276,7 +276,7 @@ public abstract class BaseStorageDao {
 		outcome.setEntity(theEntity);
 
 		// Interceptor broadcast: STORAGE_PREACCESS_RESOURCES
-		if (outcome.getResource() != null) {
+		if (outcome.getResource() != null && CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PREACCESS_RESOURCES, getInterceptorBroadcaster(), theRequest)) {
 			SimplePreResourceAccessDetails accessDetails = new SimplePreResourceAccessDetails(outcome.getResource());
 			HookParams params = new HookParams()
 				.add(IPreResourceAccessDetails.class, accessDetails)
@@ -293,7 +293,7 @@ public abstract class BaseStorageDao {
 		// resource in a response (it's their responsibility to call
 		// outcome.fireResourceViewCallback())
 		outcome.registerResourceViewCallback(() -> {
-			if (outcome.getResource() != null) {
+			if (outcome.getResource() != null && CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES, getInterceptorBroadcaster(), theRequest)) {
 				SimplePreResourceShowDetails showDetails = new SimplePreResourceShowDetails(outcome.getResource());
 				HookParams params = new HookParams()
 					.add(IPreResourceShowDetails.class, showDetails)
@@ -314,7 +314,7 @@ public abstract class BaseStorageDao {
 		outcome.setIdSupplier(theIdSupplier);
 		outcome.setEntitySupplierUseCallback(() -> {
 			// Interceptor broadcast: STORAGE_PREACCESS_RESOURCES
-			if (outcome.getResource() != null) {
+			if (outcome.getResource() != null && CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PREACCESS_RESOURCES, getInterceptorBroadcaster(), theRequest)) {
 				SimplePreResourceAccessDetails accessDetails = new SimplePreResourceAccessDetails(outcome.getResource());
 				HookParams params = new HookParams()
 					.add(IPreResourceAccessDetails.class, accessDetails)
@@ -331,7 +331,7 @@ public abstract class BaseStorageDao {
 			// resource in a response (it's their responsibility to call
 			// outcome.fireResourceViewCallback())
 			outcome.registerResourceViewCallback(() -> {
-				if (outcome.getResource() != null) {
+				if (outcome.getResource() != null && CompositeInterceptorBroadcaster.hasHooks(Pointcut.STORAGE_PRESHOW_RESOURCES, getInterceptorBroadcaster(), theRequest)) {
 					SimplePreResourceShowDetails showDetails = new SimplePreResourceShowDetails(outcome.getResource());
 					HookParams params = new HookParams()
 						.add(IPreResourceShowDetails.class, showDetails)
@@ -235,13 +235,13 @@ public class DaoResourceLinkResolver implements IResourceLinkResolver {
 	}
 
 	private CanonicalIdentifier extractIdentifierReference(IBaseReference theSourceReference) {
-		Optional<IBase> identifier = myContext.newFhirPath().evaluateFirst(theSourceReference, "identifier", IBase.class);
+		Optional<IBase> identifier = myContext.getFhirPath().evaluateFirst(theSourceReference, "identifier", IBase.class);
 		if (!identifier.isPresent()) {
 			return null;
 		} else {
 			CanonicalIdentifier canonicalIdentifier = new CanonicalIdentifier();
-			Optional<IPrimitiveType> system = myContext.newFhirPath().evaluateFirst(identifier.get(), "system", IPrimitiveType.class);
-			Optional<IPrimitiveType> value = myContext.newFhirPath().evaluateFirst(identifier.get(), "value", IPrimitiveType.class);
+			Optional<IPrimitiveType> system = myContext.getFhirPath().evaluateFirst(identifier.get(), "system", IPrimitiveType.class);
+			Optional<IPrimitiveType> value = myContext.getFhirPath().evaluateFirst(identifier.get(), "value", IPrimitiveType.class);
 
 			system.ifPresent(theIPrimitiveType -> canonicalIdentifier.setSystem(theIPrimitiveType.getValueAsString()));
 			value.ifPresent(theIPrimitiveType -> canonicalIdentifier.setValue(theIPrimitiveType.getValueAsString()));
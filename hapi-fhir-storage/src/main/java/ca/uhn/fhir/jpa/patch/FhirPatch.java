@@ -145,7 +145,7 @@ public class FhirPatch {
 
 			}
 
-			List<IBase> paths = myContext.newFhirPath().evaluate(theResource, containingPath, IBase.class);
+			List<IBase> paths = myContext.getFhirPath().evaluate(theResource, containingPath, IBase.class);
 			for (IBase next : paths) {
 
 				BaseRuntimeElementDefinition<?> elementDef = myContext.getElementDefinition(next.getClass());
@@ -248,7 +248,7 @@ public class FhirPatch {
 	}
 
 	private void doDelete(IBaseResource theResource, String thePath) {
-		List<IBase> paths = myContext.newFhirPath().evaluate(theResource, thePath, IBase.class);
+		List<IBase> paths = myContext.getFhirPath().evaluate(theResource, thePath, IBase.class);
 		for (IBase next : paths) {
 			myContext.newTerser().visit(next, new IModelVisitor2() {
 				@Override
@@ -5,17 +5,28 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.support.IValidationSupport;
 import ca.uhn.fhir.fhirpath.FhirPathExecutionException;
 import ca.uhn.fhir.fhirpath.IFhirPath;
+import org.apache.commons.lang3.Validate;
 import org.hl7.fhir.exceptions.FHIRException;
 import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.r4.hapi.ctx.HapiWorkerContext;
 import org.hl7.fhir.r4.model.Base;
+import org.hl7.fhir.r4.model.ExpressionNode;
 import org.hl7.fhir.r4.utils.FHIRPathEngine;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FhirPathR4 implements IFhirPath {
 
+  /**
+   * Parsed expressions are immutable, so each instance keeps a bounded cache of the
+   * expressions it has parsed. The cache is simply cleared if it ever fills up.
+   */
+  private static final int PARSED_EXPRESSION_CACHE_SIZE = 1000;
+  private final Map<String, ParsedExpression> myParsedExpressionCache = new ConcurrentHashMap<>();
+
   private FHIRPathEngine myEngine;
 
   public FhirPathR4(FhirContext theCtx) {
@@ -23,19 +34,33 @@ public class FhirPathR4 implements IFhirPath {
     myEngine = new FHIRPathEngine(new HapiWorkerContext(theCtx, validationSupport));
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public <T extends IBase> List<T> evaluate(IBase theInput, String thePath, Class<T> theReturnType) {
+    ParsedExpression parsedExpression;
+    try {
+      parsedExpression = parseCached(thePath);
+    } catch (FHIRException e) {
+      throw new FhirPathExecutionException(Msg.code(2194) + e);
+    }
+    return evaluate(theInput, parsedExpression, theReturnType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends IBase> List<T> evaluate(IBase theInput, IParsedExpression theParsedExpression, Class<T> theReturnType) {
+    Validate.isInstanceOf(ParsedExpression.class, theParsedExpression, "Expression was not parsed by %s", getClass().getSimpleName());
+    ParsedExpression parsedExpression = (ParsedExpression) theParsedExpression;
+
     List<Base> result;
     try {
-      result = myEngine.evaluate((Base) theInput, thePath);
+      result = myEngine.evaluate((Base) theInput, parsedExpression.getExpressionNode());
     } catch (FHIRException e) {
       throw new FhirPathExecutionException(Msg.code(255) + e);
     }
 
     for (Base next : result) {
       if (!theReturnType.isAssignableFrom(next.getClass())) {
-        throw new FhirPathExecutionException(Msg.code(256) + "FluentPath expression \"" + thePath + "\" returned unexpected type " + next.getClass().getSimpleName() + " - Expected " + theReturnType.getName());
+        throw new FhirPathExecutionException(Msg.code(256) + "FluentPath expression \"" + parsedExpression.getExpression() + "\" returned unexpected type " + next.getClass().getSimpleName() + " - Expected " + theReturnType.getName());
       }
     }
 
@@ -47,10 +72,51 @@ public class FhirPathR4 implements IFhirPath {
     return evaluate(theInput, thePath, theReturnType).stream().findFirst();
   }
 
+  @Override
+  public <T extends IBase> Optional<T> evaluateFirst(IBase theInput, IParsedExpression theParsedExpression, Class<T> theReturnType) {
+    return evaluate(theInput, theParsedExpression, theReturnType).stream().findFirst();
+  }
+
   @Override
   public void parse(String theExpression) {
     myEngine.parse(theExpression);
   }
 
+  @Override
+  public IParsedExpression parseExpression(String theExpression) {
+    return parseCached(theExpression);
+  }
+
+  private ParsedExpression parseCached(String theExpression) {
+    ParsedExpression retVal = myParsedExpressionCache.get(theExpression);
+    if (retVal == null) {
+      retVal = new ParsedExpression(theExpression, myEngine.parse(theExpression));
+      if (myParsedExpressionCache.size() >= PARSED_EXPRESSION_CACHE_SIZE) {
+        myParsedExpressionCache.clear();
+      }
+      myParsedExpressionCache.put(theExpression, retVal);
+    }
+    return retVal;
+  }
+
+  private static class ParsedExpression implements IParsedExpression {
+
+    private final String myExpression;
+    private final ExpressionNode myExpressionNode;
+
+    ParsedExpression(String theExpression, ExpressionNode theExpressionNode) {
+      myExpression = theExpression;
+      myExpressionNode = theExpressionNode;
+    }
+
+    String getExpression() {
+      return myExpression;
+    }
+
+    ExpressionNode getExpressionNode() {
+      return myExpressionNode;
+    }
+  }
+
 
 }
@@ -0,0 +1,72 @@
+package ca.uhn.fhir.context;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.ExtendedPatient;
+import org.hl7.fhir.r4.model.CodeType;
+import org.hl7.fhir.r4.model.Group;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.StringType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FhirContextR4Test {
+
+	@Test
+	public void testLazyResourceTypeLoading() {
+		FhirContext ctx = new FhirContext(FhirVersionEnum.R4);
+		ctx.setPerformanceOptions(PerformanceOptionsEnum.LAZY_RESOURCE_TYPE_LOADING);
+
+		Observation obs = new Observation();
+		obs.setStatus(Observation.ObservationStatus.FINAL);
+		obs.getSubject().setReference("Group/123");
+		obs.addExtension("http://foo", new StringType("bar"));
+		String encoded = ctx.newJsonParser().encodeResourceToString(obs);
+
+		// Group is a reference target of Observation.subject, but hasn't been used yet
+		assertFalse(isScanned(ctx, Group.class));
+
+		Observation parsed = ctx.newJsonParser().parseResource(Observation.class, encoded);
+		assertEquals("Group/123", parsed.getSubject().getReference());
+		assertEquals("bar", parsed.getExtensionByUrl("http://foo").getValueAsPrimitive().getValueAsString());
+		assertEquals(FhirContext.forR4Cached().newJsonParser().encodeResourceToString(obs), encoded);
+
+		RuntimeResourceDefinition groupDef = ctx.getResourceDefinition("group");
+		assertEquals(Group.class, groupDef.getImplementingClass());
+		assertTrue(groupDef.isStandardType());
+		assertTrue(isScanned(ctx, Group.class));
+	}
+
+	@Test
+	public void testLazyResourceTypeLoading_CustomTypeDoesntBecomeDefault() {
+		FhirContext ctx = new FhirContext(FhirVersionEnum.R4);
+		ctx.setPerformanceOptions(PerformanceOptionsEnum.LAZY_RESOURCE_TYPE_LOADING);
+
+		ExtendedPatient patient = new ExtendedPatient();
+		patient.setEyeColour(new CodeType("blue"));
+		ctx.newJsonParser().encodeResourceToString(patient);
+		assertFalse(ctx.getResourceDefinition(ExtendedPatient.class).isStandardType());
+
+		assertEquals(Patient.class, ctx.getResourceDefinition("Patient").getImplementingClass());
+		assertTrue(ctx.getResourceDefinition("Patient").isStandardType());
+	}
+
+	@Test
+	public void testLazyResourceTypeLoading_UnknownResourceType() {
+		FhirContext ctx = new FhirContext(FhirVersionEnum.R4);
+		ctx.setPerformanceOptions(PerformanceOptionsEnum.LAZY_RESOURCE_TYPE_LOADING);
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> ctx.getResourceDefinition("FooResource"));
+		assertEquals(Msg.code(1684) + "Unknown resource name \"FooResource\" (this name is not known in FHIR version \"R4\")", e.getMessage());
+	}
+
+	private static boolean isScanned(FhirContext theContext, Class<?> theType) {
+		return theContext.getElementDefinitions().stream().anyMatch(t -> t.getImplementingClass().equals(theType));
+	}
+
+}
@@ -0,0 +1,115 @@
+package ca.uhn.fhir.parser;
+
+import ca.uhn.fhir.context.FhirContext;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.StringType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonParserParseElementsR4Test {
+	private static final FhirContext ourCtx = FhirContext.forR4();
+
+	@AfterEach
+	public void afterEach() {
+		ourCtx.getParserOptions().setStreamingJsonParsing(false);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void testParseOnlyRequestedElements(boolean theStreaming) {
+		ourCtx.getParserOptions().setStreamingJsonParsing(theStreaming);
+
+		Patient input = new Patient();
+		input.setId("Patient/123/_history/2");
+		input.getMeta().addTag("http://tags", "foo", null);
+		input.addExtension("http://ext", new StringType("ext"));
+		input.addName().setFamily("Simpson").addGiven("Homer");
+		input.addAddress().setCity("Springfield");
+		input.getBirthDateElement().setValueAsString("1956-05-12");
+		input.getBirthDateElement().addExtension("http://birth", new StringType("birth"));
+		input.getGenderElement().addExtension("http://gender", new StringType("gender"));
+		String encoded = ourCtx.newJsonParser().encodeResourceToString(input);
+
+		Patient parsed = ourCtx.newJsonParser().setParseElements(Set.of("Patient.name")).parseResource(Patient.class, encoded);
+		assertEquals("123", parsed.getIdElement().getIdPart());
+		assertEquals("foo", parsed.getMeta().getTagFirstRep().getCode());
+		assertEquals("Simpson", parsed.getNameFirstRep().getFamily());
+		assertFalse(parsed.hasExtension());
+		assertFalse(parsed.hasAddress());
+		assertFalse(parsed.hasBirthDateElement());
+		assertFalse(parsed.hasGenderElement());
+
+		parsed = ourCtx.newJsonParser().setParseElements(Set.of("*.birthDate", "Patient.extension")).parseResource(Patient.class, encoded);
+		assertEquals("1956-05-12", parsed.getBirthDateElement().getValueAsString());
+		assertEquals("birth", parsed.getBirthDateElement().getExtensionByUrl("http://birth").getValue().primitiveValue());
+		assertEquals("ext", parsed.getExtensionByUrl("http://ext").getValue().primitiveValue());
+		assertFalse(parsed.hasName());
+		assertFalse(parsed.hasGenderElement());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void testParseChoiceAndMandatoryElements(boolean theStreaming) {
+		ourCtx.getParserOptions().setStreamingJsonParsing(theStreaming);
+
+		Observation input = new Observation();
+		input.setStatus(Observation.ObservationStatus.FINAL);
+		input.getCode().setText("Heart rate");
+		input.getSubject().setReference("Patient/123");
+		input.setValue(new Quantity(72).setUnit("/min"));
+		String encoded = ourCtx.newJsonParser().encodeResourceToString(input);
+
+		IParser parser = ourCtx.newJsonParser().setParseElements(Set.of("Observation.value[x]", "*.(mandatory)"));
+		Observation parsed = parser.parseResource(Observation.class, encoded);
+		assertEquals(72, parsed.getValueQuantity().getValue().intValue());
+		assertEquals(Observation.ObservationStatus.FINAL, parsed.getStatus());
+		assertEquals("Heart rate", parsed.getCode().getText());
+		assertFalse(parsed.hasSubject());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void testParseElementsOnlyApplyToNamedResourceTypes(boolean theStreaming) {
+		ourCtx.getParserOptions().setStreamingJsonParsing(theStreaming);
+
+		Bundle input = new Bundle();
+		input.setType(Bundle.BundleType.SEARCHSET);
+		input.setTotal(2);
+		Patient patient = new Patient();
+		patient.setActive(true);
+		patient.addName().setFamily("Simpson");
+		input.addEntry().setFullUrl("http://example.com/Patient/1").setResource(patient);
+		Observation observation = new Observation();
+		observation.setStatus(Observation.ObservationStatus.FINAL);
+		input.addEntry().setFullUrl("http://example.com/Observation/2").setResource(observation);
+		String encoded = ourCtx.newJsonParser().encodeResourceToString(input);
+
+		Bundle parsed = ourCtx.newJsonParser().setParseElements(Set.of("Patient.name")).parseResource(Bundle.class, encoded);
+		assertEquals(2, parsed.getTotal());
+		assertEquals(Bundle.BundleType.SEARCHSET, parsed.getType());
+
+		Patient parsedPatient = (Patient) parsed.getEntry().get(0).getResource();
+		assertEquals("Simpson", parsedPatient.getNameFirstRep().getFamily());
+		assertFalse(parsedPatient.hasActive());
+		assertTrue(((Observation) parsed.getEntry().get(1).getResource()).hasStatus());
+
+		// A bare resource type requests the whole resource
+		parsed = ourCtx.newJsonParser().setParseElements(Set.of("Patient", "Patient.name")).parseResource(Bundle.class, encoded);
+		assertTrue(((Patient) parsed.getEntry().get(0).getResource()).hasActive());
+
+		IParser parser = ourCtx.newJsonParser().setParseElements(Set.of("Patient.name"));
+		assertNull(parser.setParseElements(null).getParseElements());
+	}
+
+}
@@ -2,6 +2,7 @@ package ca.uhn.fhir.parser;
 
 import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.FhirVersionEnum;
 import ca.uhn.fhir.context.PerformanceOptionsEnum;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.model.api.annotation.DatatypeDef;
@@ -13,6 +14,7 @@ import com.google.common.collect.Sets;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.NullWriter;
 import org.apache.commons.lang.StringUtils;
+import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Appointment;
 import org.hl7.fhir.r4.model.AuditEvent;
@@ -49,10 +51,14 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -69,8 +75,13 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.hamcrest.core.IsNot.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -1136,6 +1147,115 @@ public class JsonParserR4Test extends BaseTest {
 	}
 
 
+	@Test
+	public void testParseBundleEntries() {
+		Bundle input = new Bundle();
+		input.setType(Bundle.BundleType.TRANSACTION);
+		for (int i = 0; i < 5; i++) {
+			Patient patient = new Patient();
+			patient.addName().setFamily("FAMILY" + i);
+			input.addEntry()
+				.setFullUrl("urn:uuid:" + i)
+				.setResource(patient)
+				.getRequest().setMethod(Bundle.HTTPVerb.POST).setUrl("Patient");
+		}
+		input.addLink().setRelation("self").setUrl("http://example.com/Bundle");
+		String encoded = ourCtx.newJsonParser().encodeResourceToString(input);
+
+		Iterator<IBase> entries = ourCtx.newJsonParser().parseBundleEntries(new StringReader(encoded));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(entries.hasNext());
+			Bundle.BundleEntryComponent entry = (Bundle.BundleEntryComponent) entries.next();
+			assertEquals("urn:uuid:" + i, entry.getFullUrl());
+			assertEquals("urn:uuid:" + i, entry.getResource().getIdElement().getValue());
+			assertEquals("FAMILY" + i, ((Patient) entry.getResource()).getNameFirstRep().getFamily());
+			assertEquals(Bundle.HTTPVerb.POST, entry.getRequest().getMethod());
+			assertEquals("Patient", entry.getRequest().getUrl());
+		}
+		assertFalse(entries.hasNext());
+	}
+
+	@Test
+	public void testParseBundleEntriesNotABundle() {
+		Iterator<IBase> entries = ourCtx.newJsonParser().parseBundleEntries(new StringReader("{\"resourceType\":\"Patient\",\"active\":true}"));
+		try {
+			entries.hasNext();
+			fail();
+		} catch (DataFormatException e) {
+			assertEquals(Msg.code(2156) + "Incremental parsing requires a Bundle, found resourceType: Patient", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testParseBundleEntriesResourceTypeMissingOrAfterEntries() {
+		Iterator<IBase> entries = ourCtx.newJsonParser().parseBundleEntries(new StringReader("{\"entry\":[{\"fullUrl\":\"urn:uuid:1\"}],\"resourceType\":\"Bundle\"}"));
+		DataFormatException e = assertThrows(DataFormatException.class, entries::hasNext);
+		assertEquals(Msg.code(2192) + "Incremental parsing requires the 'resourceType' element to appear before 'entry'", e.getMessage());
+		// The iterator is finished once parsing has failed
+		assertFalse(entries.hasNext());
+
+		entries = ourCtx.newJsonParser().parseBundleEntries(new StringReader("{\"type\":\"collection\"}"));
+		e = assertThrows(DataFormatException.class, entries::hasNext);
+		assertEquals(Msg.code(2191) + "Invalid JSON content detected, missing required element: 'resourceType'", e.getMessage());
+	}
+
+	@Test
+	public void testParseBundleEntriesNotSupportedByNdJson() {
+		IParser parser = ourCtx.newNDJsonParser();
+		UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class, () -> parser.parseBundleEntries(new StringReader("")));
+		assertEquals(Msg.code(2155) + "Incremental Bundle parsing is not supported for encoding: NDJSON", e.getMessage());
+	}
+
+	@Test
+	public void testEncodeResourceToOutputStream() throws IOException {
+		Patient p = new Patient();
+		p.setId("Patient/123");
+		p.addName().setFamily("Müller \"<&>\" 日本").addGiven("Ærøskøbing");
+		p.getText().setDivAsString("<div xmlns=\"http://www.w3.org/1999/xhtml\">Zoë &amp; 🙂</div>");
+
+		IParser parser = ourCtx.newJsonParser().setPrettyPrint(true);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		parser.encodeResourceToOutputStream(p, bytes);
+
+		String encoded = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		assertThat(encoded, containsString("\"family\": \"Müller \\\"<&>\\\" 日本\""));
+
+		// Characters outside the BMP are escaped by the byte encoder, but must survive a round trip
+		Patient parsed = parser.parseResource(Patient.class, encoded);
+		assertEquals(parser.encodeResourceToString(p), parser.encodeResourceToString(parsed));
+	}
+
+	@Test
+	public void testParseWithStringPool() {
+		FhirContext ctx = new FhirContext(FhirVersionEnum.R4);
+		ctx.getParserOptions().setStringPoolMaxSize(3);
+
+		Bundle bundle = new Bundle();
+		for (int i = 0; i < 3; i++) {
+			Observation obs = new Observation();
+			obs.setStatus(Observation.ObservationStatus.FINAL);
+			obs.getCode().addCoding().setSystem("http://loinc.org").setCode("1234-5");
+			obs.getValueStringType().setValue("value " + i);
+			bundle.addEntry().setResource(obs);
+		}
+		String encoded = ourCtx.newJsonParser().encodeResourceToString(bundle);
+
+		Bundle parsed = ctx.newJsonParser().parseResource(Bundle.class, encoded);
+		Observation obs0 = (Observation) parsed.getEntry().get(0).getResource();
+		Observation obs2 = (Observation) parsed.getEntry().get(2).getResource();
+		assertSame(obs0.getCode().getCodingFirstRep().getSystem(), obs2.getCode().getCodingFirstRep().getSystem());
+		assertSame(obs0.getCode().getCodingFirstRep().getCode(), obs2.getCode().getCodingFirstRep().getCode());
+		assertSame(obs0.getStatusElement().getValueAsString(), obs2.getStatusElement().getValueAsString());
+
+		// Strings are not pooled, and the pool doesn't grow beyond its maximum size
+		assertNotSame(obs0.getValueStringType().getValue(), obs2.getValueStringType().getValue());
+		assertEquals(3, ctx.getParserOptions().getStringPool().size());
+		assertEquals(encoded, ourCtx.newJsonParser().encodeResourceToString(parsed));
+
+		ctx.getParserOptions().setStringPoolMaxSize(0);
+		assertNull(ctx.getParserOptions().getStringPool());
+	}
+
 	@AfterAll
 	public static void afterClassClearContext() {
 		TestUtil.randomizeLocaleAndTimezone();
@@ -0,0 +1,146 @@
+package ca.uhn.fhir.parser;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.test.BaseTest;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonParserStreamingR4Test extends BaseTest {
+	private static final FhirContext ourCtx = FhirContext.forR4();
+
+	@AfterEach
+	public void afterEach() {
+		ourCtx.getParserOptions().setStreamingJsonParsing(false);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"/bundle-with-two-patient-resources.json",
+		"/multi-thread-parsing-issue-bundle.json",
+		"/entities-from-cerner.json",
+		"/bundle-circ-ref.json"
+	})
+	public void testStreamingParseMatchesTreeParse(String theFile) throws IOException {
+		String input = loadResource(theFile);
+		assertStreamingMatchesTree(input);
+	}
+
+	@Test
+	public void testPrimitiveExtensionsBeforeAndAfterValue() {
+		String input = "{" +
+			"\"resourceType\":\"Patient\"," +
+			"\"_gender\":{\"extension\":[{\"url\":\"http://foo\",\"valueString\":\"before\"}]}," +
+			"\"gender\":\"male\"," +
+			"\"name\":[{\"given\":[\"A\",\"B\"],\"_given\":[null,{\"id\":\"b\"}]}]," +
+			"\"birthDate\":\"2000-01-01\"," +
+			"\"_birthDate\":{\"extension\":[{\"url\":\"http://bar\",\"valueString\":\"after\"}]}," +
+			"\"_active\":{\"extension\":[{\"url\":\"http://baz\",\"valueBoolean\":true}]}" +
+			"}";
+
+		Patient patient = assertStreamingMatchesTree(input);
+		assertEquals("before", patient.getGenderElement().getExtensionByUrl("http://foo").getValue().primitiveValue());
+		assertEquals("after", patient.getBirthDateElement().getExtensionByUrl("http://bar").getValue().primitiveValue());
+		assertEquals("b", patient.getNameFirstRep().getGiven().get(1).getId());
+		assertEquals(1, patient.getActiveElement().getExtension().size());
+	}
+
+	@Test
+	public void testCompositeExtensionsAfterValue() {
+		String input = "{" +
+			"\"resourceType\":\"Patient\"," +
+			"\"name\":[{\"family\":\"A\"},{\"family\":\"B\"}]," +
+			"\"maritalStatus\":{\"text\":\"M\"}," +
+			"\"_name\":[null,{\"id\":\"b\",\"extension\":[{\"url\":\"http://foo\",\"valueString\":\"after\"}]}]," +
+			"\"_maritalStatus\":{\"id\":\"m\"}" +
+			"}";
+
+		Patient patient = assertStreamingMatchesTree(input);
+		assertEquals("b", patient.getName().get(1).getId());
+		assertEquals("after", patient.getName().get(1).getExtensionByUrl("http://foo").getValue().primitiveValue());
+		assertEquals("m", patient.getMaritalStatus().getId());
+	}
+
+	@Test
+	public void testResourceTypeNotFirst() {
+		String input = "{" +
+			"\"id\":\"B\"," +
+			"\"type\":\"collection\"," +
+			"\"resourceType\":\"Bundle\"," +
+			"\"entry\":[" +
+			"{\"fullUrl\":\"http://example.com/Observation/O\",\"resource\":{\"status\":\"final\",\"resourceType\":\"Observation\"}}," +
+			"{\"resource\":{\"resourceType\":\"Patient\",\"active\":true}}" +
+			"]}";
+
+		Bundle bundle = assertStreamingMatchesTree(input);
+		assertEquals("http://example.com/Observation/O", bundle.getEntry().get(0).getResource().getIdElement().getValue());
+		assertEquals(Observation.ObservationStatus.FINAL, ((Observation) bundle.getEntry().get(0).getResource()).getStatus());
+	}
+
+	@Test
+	public void testMissingResourceType() {
+		ourCtx.getParserOptions().setStreamingJsonParsing(true);
+		IParser parser = ourCtx.newJsonParser();
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"id\":\"1\"}"));
+		assertThat(e.getMessage(), containsString("missing required element: 'resourceType'"));
+
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"resourceType\":\"Bundle\",\"entry\":[{\"resource\":{\"id\":\"1\"}}]}"));
+		assertThat(e.getMessage(), containsString("Missing required element 'resourceType'"));
+	}
+
+	@Test
+	public void testInvalidContent() {
+		ourCtx.getParserOptions().setStreamingJsonParsing(true);
+		IParser parser = ourCtx.newJsonParser();
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> parser.parseResource("   "));
+		assertThat(e.getMessage(), containsString("Did not find any content to parse"));
+
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource("[]"));
+		assertThat(e.getMessage(), containsString("Content does not appear to be FHIR JSON"));
+
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"resourceType\":\"Patient\"} {}"));
+		assertThat(e.getMessage(), containsString("Unexpected content found after the end of the resource"));
+
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"resourceType\":\"Patient\",\"active\":"));
+		assertThat(e.getMessage(), containsString("Failed to parse JSON encoded FHIR content"));
+	}
+
+	@Test
+	public void testErrorHandlerIsInvoked() {
+		ourCtx.getParserOptions().setStreamingJsonParsing(true);
+		IParser parser = ourCtx.newJsonParser().setParserErrorHandler(new StrictErrorHandler());
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"resourceType\":\"Patient\",\"name\":{\"family\":\"F\"}}"));
+		assertThat(e.getMessage(), containsString("name"));
+
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource("{\"resourceType\":\"Patient\",\"foo\":{\"bar\":\"baz\"}}"));
+		assertThat(e.getMessage(), containsString("foo"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends IBaseResource> T assertStreamingMatchesTree(String theInput) {
+		ourCtx.getParserOptions().setStreamingJsonParsing(false);
+		IBaseResource tree = ourCtx.newJsonParser().parseResource(theInput);
+
+		ourCtx.getParserOptions().setStreamingJsonParsing(true);
+		IBaseResource streamed = ourCtx.newJsonParser().parseResource(theInput);
+
+		assertEquals(ourCtx.newJsonParser().encodeResourceToString(tree), ourCtx.newJsonParser().encodeResourceToString(streamed));
+		return (T) streamed;
+	}
+
+}
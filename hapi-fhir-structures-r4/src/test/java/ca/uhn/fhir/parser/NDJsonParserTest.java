@@ -1,6 +1,8 @@
 package ca.uhn.fhir.parser;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -14,8 +16,15 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.util.BundleBuilder;
 import ca.uhn.fhir.util.TestUtil;
 
+import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Patient;
 
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
 public class NDJsonParserTest {
 	private static FhirContext ourCtx = FhirContext.forR4();
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(NDJsonParserTest.class);
@@ -121,6 +130,94 @@ public class NDJsonParserTest {
 		             ()->{parser.parseResource(Patient.class, myBundleJson);});
 	}
 	
+	@Test
+	public void testParseResourcesIterator() {
+		String ndjson = "{\"resourceType\":\"Patient\",\"id\":\"P1\"}\n\n  {\"resourceType\":\"Observation\",\"id\":\"O1\"}  \n";
+		NDJsonParser parser = (NDJsonParser) ourCtx.newNDJsonParser();
+
+		Iterator<IBaseResource> resources = parser.parseResources(new StringReader(ndjson));
+		assertTrue(resources.hasNext());
+		assertEquals("Patient/P1", resources.next().getIdElement().getValue());
+		assertTrue(resources.hasNext());
+		assertEquals("Observation/O1", resources.next().getIdElement().getValue());
+		assertFalse(resources.hasNext());
+		assertThrows(NoSuchElementException.class, resources::next);
+	}
+
+	@Test
+	public void testParseResourcesParallelKeepsOrder() {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 1234; i++) {
+			ndjson.append("{\"resourceType\":\"Patient\",\"id\":\"P").append(i).append("\"}\n");
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			NDJsonParser parser = (NDJsonParser) ourCtx.newNDJsonParser();
+			parser.setParallelParsingPool(pool);
+
+			Iterator<IBaseResource> resources = parser.parseResources(new StringReader(ndjson.toString()));
+			int count = 0;
+			while (resources.hasNext()) {
+				assertEquals("Patient/P" + count, resources.next().getIdElement().getValue());
+				count++;
+			}
+			assertEquals(1234, count);
+
+			Bundle bundle = (Bundle) parser.parseResource(ndjson.toString());
+			assertEquals(1234, bundle.getEntry().size());
+			assertEquals("Patient/P1233", bundle.getEntry().get(1233).getResource().getIdElement().getValue());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testParseResourcesParallelInvalidLine() {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			ndjson.append("{\"resourceType\":\"Patient\",\"id\":\"P").append(i).append("\"}\n");
+		}
+		ndjson.append("{\"resourceType\":\"Patient\",\n");
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			NDJsonParser parser = (NDJsonParser) ourCtx.newNDJsonParser();
+			parser.setParallelParsingPool(pool);
+			assertThrows(DataFormatException.class, () -> parser.parseResource(ndjson.toString()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testParseResourcesParallelUsesParserConfiguration() {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 250; i++) {
+			ndjson.append("{\"resourceType\":\"Patient\",\"id\":\"P").append(i).append("\",\"active\":true,\"gender\":\"male\"}\n");
+		}
+		ndjson.append("{\"resourceType\":\"Patient\",\"id\":\"P250\",\"foo\":\"bar\"}\n");
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			NDJsonParser parser = (NDJsonParser) ourCtx.newNDJsonParser();
+			parser.setParallelParsingPool(pool);
+			parser.setParseElements(Set.of("Patient.active"));
+
+			Iterator<IBaseResource> resources = parser.parseResources(new StringReader(ndjson.toString()));
+			Patient first = (Patient) resources.next();
+			assertTrue(first.getActive());
+			assertFalse(first.hasGender());
+
+			parser.setParseElements(null);
+			parser.setParserErrorHandler(new StrictErrorHandler());
+			Iterator<IBaseResource> strictResources = parser.parseResources(new StringReader(ndjson.toString()));
+			assertThrows(DataFormatException.class, () -> strictResources.forEachRemaining(t -> {}));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	@AfterAll
 	public static void afterClassClearContext() {
 		TestUtil.randomizeLocaleAndTimezone();
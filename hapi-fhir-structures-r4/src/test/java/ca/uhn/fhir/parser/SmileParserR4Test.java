@@ -0,0 +1,125 @@
+package ca.uhn.fhir.parser;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.test.BaseTest;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.DecimalType;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Quantity;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SmileParserR4Test extends BaseTest {
+	private static final Logger ourLog = LoggerFactory.getLogger(SmileParserR4Test.class);
+	private static final FhirContext ourCtx = FhirContext.forR4Cached();
+
+	@Test
+	public void testEncodeAndParse() throws IOException {
+		Observation obs = new Observation();
+		obs.setId("Observation/123");
+		obs.setStatus(Observation.ObservationStatus.FINAL);
+		obs.getCode().addCoding().setSystem("http://loinc.org").setCode("1234-5").setDisplay("Zoë 日本 🙂");
+		obs.setValue(new Quantity().setValueElement(new DecimalType("1.50")).setUnit("mg"));
+		obs.getCode().addExtension("http://foo", new DecimalType("0.000000000000000000001"));
+		obs.getStatusElement().addExtension("http://bar", new Patient().setActive(true).getActiveElement());
+
+		byte[] encoded = encode(obs);
+		Observation parsed = ourCtx.newSmileParser().parseResource(Observation.class, new ByteArrayInputStream(encoded));
+
+		IParser jsonParser = ourCtx.newJsonParser();
+		assertEquals(jsonParser.encodeResourceToString(obs), jsonParser.encodeResourceToString(parsed));
+		assertEquals("1.50", parsed.getValueQuantity().getValueElement().getValueAsString());
+	}
+
+	@Test
+	public void testEncodedSizeIsSmallerThanJson() throws IOException {
+		Bundle bundle = ourCtx.newJsonParser().parseResource(Bundle.class, loadResource("/bundle-with-two-patient-resources.json"));
+
+		byte[] encoded = encode(bundle);
+		byte[] json = ourCtx.newJsonParser().encodeResourceToString(bundle).getBytes(StandardCharsets.UTF_8);
+		ourLog.info("Smile size {} bytes - JSON size {} bytes", encoded.length, json.length);
+		assertThat(encoded.length, lessThan(json.length));
+
+		IBaseResource parsed = ourCtx.newSmileParser().parseResource(new ByteArrayInputStream(encoded));
+		assertEquals(ourCtx.newJsonParser().encodeResourceToString(bundle), ourCtx.newJsonParser().encodeResourceToString(parsed));
+	}
+
+	@Test
+	public void testConvertToAndFromJson() throws IOException {
+		Observation obs = new Observation();
+		obs.setStatus(Observation.ObservationStatus.FINAL);
+		obs.setValue(new Quantity().setValueElement(new DecimalType("1.50")).setUnit("mg"));
+		String json = ourCtx.newJsonParser().encodeResourceToString(obs);
+
+		byte[] smile = SmileParser.fromJson(json);
+		assertEquals(json, ourCtx.newJsonParser().encodeResourceToString(ourCtx.newSmileParser().parseResource(Observation.class, smile)));
+		assertEquals(json, SmileParser.toJson(encode(obs)));
+	}
+
+	@Test
+	public void testParseInvalidContent() {
+		SmileParser parser = ourCtx.newSmileParser();
+		byte[] json = "{\"resourceType\":\"Patient\"}".getBytes(StandardCharsets.UTF_8);
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> parser.parseResource(new ByteArrayInputStream(json)));
+		assertEquals(Msg.code(2200) + "Content does not appear to be a Smile encoded FHIR resource", e.getMessage());
+
+		byte[] smile = SmileParser.fromJson("{\"resourceType\":\"Patient\",\"active\":true}");
+		byte[] truncated = Arrays.copyOf(smile, smile.length - 2);
+		e = assertThrows(DataFormatException.class, () -> parser.parseResource(new ByteArrayInputStream(truncated)));
+		assertThat(e.getMessage(), startsWith(Msg.code(2201) + "Failed to parse Smile encoded FHIR content"));
+	}
+
+	@Test
+	public void testParseResourceTypeNotFirstAndParseElements() {
+		byte[] smile = SmileParser.fromJson("{\"active\":true,\"name\":[{\"family\":\"Simpson\"}],\"resourceType\":\"Patient\",\"id\":\"123\"}");
+
+		Patient parsed = ourCtx.newSmileParser().parseResource(Patient.class, smile);
+		assertEquals("123", parsed.getIdElement().getIdPart());
+		assertTrue(parsed.getActive());
+		assertEquals("Simpson", parsed.getNameFirstRep().getFamily());
+
+		parsed = ourCtx.newSmileParser().setParseElements(Set.of("Patient.name")).parseResource(Patient.class, smile);
+		assertEquals("Simpson", parsed.getNameFirstRep().getFamily());
+		assertFalse(parsed.hasActive());
+	}
+
+	@Test
+	public void testCharacterBasedMethodsNotSupported() {
+		IParser parser = ourCtx.newSmileParser();
+		Patient patient = new Patient().setActive(true);
+
+		UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class, () -> parser.encodeResourceToString(patient));
+		assertEquals(Msg.code(2199) + "Smile is a binary format and can not be written to a Writer", e.getMessage());
+		e = assertThrows(UnsupportedOperationException.class, () -> parser.parseResource("{}"));
+		assertEquals(Msg.code(2202) + "Smile is a binary format and can not be read from a Reader", e.getMessage());
+		e = assertThrows(UnsupportedOperationException.class, () -> parser.parseBundleEntries(new ByteArrayInputStream(new byte[0])));
+		assertEquals(Msg.code(2203) + "Incremental Bundle parsing is not supported for Smile encoded content", e.getMessage());
+	}
+
+	private byte[] encode(IBaseResource theResource) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ourCtx.newSmileParser().encodeResourceToOutputStream(theResource, bytes);
+		return bytes.toByteArray();
+	}
+
+}
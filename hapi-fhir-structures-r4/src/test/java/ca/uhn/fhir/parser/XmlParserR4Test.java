@@ -4,12 +4,22 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
 
+import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.r4.model.Appointment;
 import org.hl7.fhir.r4.model.AuditEvent;
 import org.hl7.fhir.r4.model.Bundle;
@@ -24,6 +34,7 @@ import org.hl7.fhir.r4.model.Organization;
 import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.StringType;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +43,7 @@ import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.test.BaseTest;
 
 public class XmlParserR4Test extends BaseTest {
@@ -261,4 +273,100 @@ public class XmlParserR4Test extends BaseTest {
 
 
 
+	@Test
+	public void testParseBundleEntries() {
+		Bundle input = new Bundle();
+		input.setType(Bundle.BundleType.TRANSACTION);
+		input.addLink().setRelation("self").setUrl("http://example.com/Bundle");
+		for (int i = 0; i < 5; i++) {
+			Patient patient = new Patient();
+			patient.setId("Patient/P" + i);
+			patient.addName().setFamily("FAMILY" + i);
+			patient.getText().setDivAsString("<div xmlns=\"http://www.w3.org/1999/xhtml\">Patient " + i + "</div>");
+			input.addEntry()
+				.setFullUrl("http://example.com/Patient/P" + i)
+				.setResource(patient)
+				.getRequest().setMethod(Bundle.HTTPVerb.PUT).setUrl("Patient/P" + i);
+		}
+		input.getMeta().addTag().setCode("TAG");
+		String encoded = ourCtx.newXmlParser().encodeResourceToString(input);
+
+		Iterator<IBase> entries = ourCtx.newXmlParser().parseBundleEntries(new StringReader(encoded));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(entries.hasNext());
+			Bundle.BundleEntryComponent entry = (Bundle.BundleEntryComponent) entries.next();
+			Patient patient = (Patient) entry.getResource();
+			assertEquals("http://example.com/Patient/P" + i, entry.getFullUrl());
+			assertEquals("http://example.com/Patient/P" + i, patient.getIdElement().getValue());
+			assertEquals("FAMILY" + i, patient.getNameFirstRep().getFamily());
+			assertEquals("<div xmlns=\"http://www.w3.org/1999/xhtml\">Patient " + i + "</div>", patient.getText().getDivAsString());
+			assertEquals(Bundle.HTTPVerb.PUT, entry.getRequest().getMethod());
+		}
+		assertFalse(entries.hasNext());
+	}
+
+	@Test
+	public void testParseBundleEntriesNotABundle() {
+		Iterator<IBase> entries = ourCtx.newXmlParser().parseBundleEntries(new StringReader("<Patient xmlns=\"http://hl7.org/fhir\"><active value=\"true\"/></Patient>"));
+		DataFormatException e = assertThrows(DataFormatException.class, entries::hasNext);
+		assertEquals(Msg.code(2158) + "Incremental parsing requires a Bundle, found root element: Patient", e.getMessage());
+	}
+
+	@Test
+	public void testEncodeResourceToOutputStream() throws IOException {
+		Patient p = new Patient();
+		p.setId("Patient/123");
+		p.addName().setFamily("Müller \"<&>\" 日本").addGiven("Ærøskøbing");
+		p.getText().setDivAsString("<div xmlns=\"http://www.w3.org/1999/xhtml\">Zoë &amp; 🙂</div>");
+
+		IParser parser = ourCtx.newXmlParser().setPrettyPrint(true);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		parser.encodeResourceToOutputStream(p, bytes);
+
+		assertEquals(parser.encodeResourceToString(p), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testParseOnlyRequestedElements() {
+		Patient patient = new Patient();
+		patient.setId("Patient/123");
+		patient.getMeta().addTag("http://tags", "foo", null);
+		patient.addExtension("http://ext", new StringType("ext"));
+		patient.setActive(true);
+		patient.addName().setFamily("Simpson").addGiven("Homer");
+		patient.getText().setDivAsString("<div xmlns=\"http://www.w3.org/1999/xhtml\">Homer <b>Simpson</b></div>");
+		patient.addContained(new Organization().setName("Contained").setId("org"));
+
+		Bundle input = new Bundle();
+		input.setType(Bundle.BundleType.SEARCHSET);
+		input.addEntry().setResource(patient);
+		input.addEntry().setResource(new Observation().setStatus(Observation.ObservationStatus.FINAL));
+		String encoded = ourCtx.newXmlParser().encodeResourceToString(input);
+
+		Bundle parsed = ourCtx.newXmlParser().setParseElements(Set.of("Patient.name")).parseResource(Bundle.class, encoded);
+		assertEquals(Bundle.BundleType.SEARCHSET, parsed.getType());
+		Patient parsedPatient = (Patient) parsed.getEntry().get(0).getResource();
+		assertEquals("123", parsedPatient.getIdElement().getIdPart());
+		assertEquals("foo", parsedPatient.getMeta().getTagFirstRep().getCode());
+		assertEquals("Simpson", parsedPatient.getNameFirstRep().getFamily());
+		assertFalse(parsedPatient.hasActive());
+		assertFalse(parsedPatient.hasExtension());
+		assertFalse(parsedPatient.hasText());
+		assertFalse(parsedPatient.hasContained());
+		assertTrue(((Observation) parsed.getEntry().get(1).getResource()).hasStatus());
+
+		parsedPatient = ourCtx.newXmlParser().setParseElements(Set.of("Patient.text", "Patient.contained")).parseResource(Patient.class, ourCtx.newXmlParser().encodeResourceToString(patient));
+		assertThat(parsedPatient.getText().getDivAsString(), containsString("<b>Simpson</b>"));
+		assertEquals("Contained", ((Organization) parsedPatient.getContained().get(0)).getName());
+		assertFalse(parsedPatient.hasName());
+	}
+
+	@Test
+	public void testParseElementsNotSupportedByRdf() {
+		IParser parser = ourCtx.newRDFParser();
+		UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class, () -> parser.setParseElements(Set.of("Patient.name")));
+		assertThat(e.getMessage(), containsString(Msg.code(2198)));
+		assertNull(parser.setParseElements(null).getParseElements());
+	}
+
 }
@@ -0,0 +1,191 @@
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.util.AsyncRequestExecutors;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AsyncRequestR4Test {
+
+	private final FhirContext myCtx = FhirContext.forR4Cached();
+	private final List<String> myProviderThreadNames = new CopyOnWriteArrayList<>();
+	private final List<Pointcut> myInvokedPointcuts = new CopyOnWriteArrayList<>();
+	private final CountDownLatch mySlowLatch = new CountDownLatch(1);
+	@RegisterExtension
+	public RestfulServerExtension myServer = new RestfulServerExtension(myCtx)
+		.withAsyncSupported(true)
+		.registerProvider(new PatientProvider())
+		.registerInterceptor(new PointcutRecordingInterceptor());
+	private ExecutorService myExecutor;
+
+	@BeforeEach
+	public void before() {
+		myExecutor = AsyncRequestExecutors.newFixedThreadPoolExecutor(2);
+		myServer.getRestfulServer().setAsyncExecutor(myExecutor);
+		myProviderThreadNames.clear();
+		myInvokedPointcuts.clear();
+	}
+
+	@AfterEach
+	public void after() {
+		myServer.getRestfulServer().setAsyncExecutor(null);
+		mySlowLatch.countDown();
+		myExecutor.shutdown();
+	}
+
+	@Test
+	public void testReadIsProcessedOnExecutorThread() throws Exception {
+		HttpGet get = new HttpGet("http://localhost:" + myServer.getPort() + "/Patient/123");
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			String body = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+			assertEquals(200, response.getStatusLine().getStatusCode());
+			assertThat(body, containsString("\"id\": \"123\""));
+		}
+
+		assertThat(myProviderThreadNames.get(0), startsWith("hapi-fhir-request-"));
+		assertThat(myInvokedPointcuts, contains(
+			Pointcut.SERVER_INCOMING_REQUEST_PRE_PROCESSED,
+			Pointcut.SERVER_INCOMING_REQUEST_POST_PROCESSED,
+			Pointcut.SERVER_OUTGOING_RESPONSE,
+			Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY
+		));
+	}
+
+	@Test
+	public void testErrorIsReturnedFromExecutorThread() throws Exception {
+		HttpGet get = new HttpGet("http://localhost:" + myServer.getPort() + "/Patient/999");
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			String body = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+			assertEquals(404, response.getStatusLine().getStatusCode());
+			assertThat(body, containsString("Resource Patient/999 is not known"));
+		}
+
+		assertThat(myProviderThreadNames.get(0), startsWith("hapi-fhir-request-"));
+		assertThat(myInvokedPointcuts, contains(
+			Pointcut.SERVER_INCOMING_REQUEST_PRE_PROCESSED,
+			Pointcut.SERVER_INCOMING_REQUEST_POST_PROCESSED,
+			Pointcut.SERVER_HANDLE_EXCEPTION
+		));
+	}
+
+	@Test
+	public void testRejectedRequestIsProcessedOnContainerThread() throws Exception {
+		myExecutor.shutdown();
+
+		HttpGet get = new HttpGet("http://localhost:" + myServer.getPort() + "/Patient/123");
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			assertEquals(200, response.getStatusLine().getStatusCode());
+		}
+
+		assertThat(myProviderThreadNames.get(0), not(startsWith("hapi-fhir-request-")));
+	}
+
+	@Test
+	public void testTimedOutRequestIsAbandoned() throws Exception {
+		myServer.getRestfulServer().setAsyncTimeoutMillis(200);
+		try {
+			HttpGet get = new HttpGet("http://localhost:" + myServer.getPort() + "/Patient/slow");
+			try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+				assertEquals(503, response.getStatusLine().getStatusCode());
+			}
+			mySlowLatch.countDown();
+
+			// The abandoned request finishes on the executor thread without disturbing later requests
+			get = new HttpGet("http://localhost:" + myServer.getPort() + "/Patient/123");
+			try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+				assertEquals(200, response.getStatusLine().getStatusCode());
+				assertThat(IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8), containsString("\"id\": \"123\""));
+			}
+		} finally {
+			myServer.getRestfulServer().setAsyncTimeoutMillis(0);
+		}
+	}
+
+	@Interceptor
+	public class PointcutRecordingInterceptor {
+
+		@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_PROCESSED)
+		public void preProcessed() {
+			myInvokedPointcuts.add(Pointcut.SERVER_INCOMING_REQUEST_PRE_PROCESSED);
+		}
+
+		@Hook(Pointcut.SERVER_INCOMING_REQUEST_POST_PROCESSED)
+		public void postProcessed() {
+			myInvokedPointcuts.add(Pointcut.SERVER_INCOMING_REQUEST_POST_PROCESSED);
+		}
+
+		@Hook(Pointcut.SERVER_OUTGOING_RESPONSE)
+		public void outgoingResponse() {
+			myInvokedPointcuts.add(Pointcut.SERVER_OUTGOING_RESPONSE);
+		}
+
+		@Hook(Pointcut.SERVER_HANDLE_EXCEPTION)
+		public void handleException() {
+			myInvokedPointcuts.add(Pointcut.SERVER_HANDLE_EXCEPTION);
+		}
+
+		@Hook(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)
+		public void completedNormally() {
+			myInvokedPointcuts.add(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY);
+		}
+
+	}
+
+	public class PatientProvider implements IResourceProvider {
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read
+		public Patient read(@IdParam IdType theId) {
+			myProviderThreadNames.add(Thread.currentThread().getName());
+			if ("slow".equals(theId.getIdPart())) {
+				try {
+					mySlowLatch.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (!"123".equals(theId.getIdPart())) {
+				throw new ResourceNotFoundException(theId);
+			}
+			Patient patient = new Patient();
+			patient.setId(theId.getIdPart());
+			patient.setActive(true);
+			return patient;
+		}
+
+	}
+
+}
@@ -1,25 +1,42 @@
 package ca.uhn.fhir.rest.server;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
 import ca.uhn.fhir.rest.annotation.Metadata;
+import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.server.method.ConformanceMethodBinding;
 import ca.uhn.fhir.rest.server.provider.HashMapResourceProvider;
 import ca.uhn.fhir.rest.server.provider.ServerCapabilityStatementProvider;
 import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.hl7.fhir.instance.model.api.IBaseConformance;
 import org.hl7.fhir.r4.model.CapabilityStatement;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 public class CapabilityStatementCacheR4Test {
 
@@ -30,6 +47,15 @@ public class CapabilityStatementCacheR4Test {
 		.registerProvider(new HashMapResourceProvider<>(myFhirContext, Patient.class))
 		.withServer(t -> t.setServerConformanceProvider(new MyCapabilityStatementProvider(t)));
 
+	@RegisterExtension
+	protected final RestfulServerExtension myKeyedServerExtension = new RestfulServerExtension(myFhirContext)
+		.registerProvider(new HashMapResourceProvider<>(myFhirContext, Patient.class));
+
+	@RegisterExtension
+	protected final RestfulServerExtension myShortLivedKeyedServerExtension = new RestfulServerExtension(myFhirContext)
+		.registerProvider(new HashMapResourceProvider<>(myFhirContext, Patient.class))
+		.withServer(t -> t.setServerConformanceProvider(new MyShortLivedKeyedCapabilityStatementProvider(t)));
+
 	@Test
 	public void testCacheThreadShutsDownWhenServerShutsDown() throws Exception {
 		CapabilityStatement response = myServerExtension.getFhirClient().capabilities().ofType(CapabilityStatement.class).execute();
@@ -49,12 +75,103 @@ public class CapabilityStatementCacheR4Test {
 		await().until(() -> Thread.getAllStackTraces().keySet().stream().map(t -> t.getName()).filter(t -> t.startsWith(ConformanceMethodBinding.CACHE_THREAD_PREFIX)).sorted().collect(Collectors.toList()), empty());
 	}
 
+	@Test
+	public void testKeyedCacheReusedUntilProvidersChange() {
+		IGenericClient client = myKeyedServerExtension.getFhirClient();
+		CapabilityStatement response = client.capabilities().ofType(CapabilityStatement.class).execute();
+		CapabilityStatement response2 = client.capabilities().ofType(CapabilityStatement.class).execute();
+		assertEquals(response.getIdElement().getIdPart(), response2.getIdElement().getIdPart());
+		assertThat(getResourceTypes(response), not(hasItem("Observation")));
+
+		myKeyedServerExtension.getRestfulServer().registerProvider(new HashMapResourceProvider<>(myFhirContext, Observation.class));
+
+		CapabilityStatement response3 = client.capabilities().ofType(CapabilityStatement.class).execute();
+		assertNotEquals(response.getIdElement().getIdPart(), response3.getIdElement().getIdPart());
+		assertThat(getResourceTypes(response3), hasItem("Observation"));
+	}
+
+	@Test
+	public void testKeyedCacheExpiresAfterCachePeriod() {
+		IGenericClient client = myShortLivedKeyedServerExtension.getFhirClient();
+		CapabilityStatement response = client.capabilities().ofType(CapabilityStatement.class).execute();
+		assertNotEquals("Modified", response.getPublisher());
+
+		// The cache key doesn't change when interceptors are registered
+		myShortLivedKeyedServerExtension.getRestfulServer().getInterceptorService().registerInterceptor(new MyPublisherInterceptor());
+		sleepAtLeast(20);
+
+		CapabilityStatement response2 = client.capabilities().ofType(CapabilityStatement.class).execute();
+		assertEquals("Modified", response2.getPublisher());
+	}
+
+	@Test
+	public void testKeyedCacheReusesEncodedResponse() throws IOException {
+		String compactJson = fetchMetadata("_format=json&_pretty=false");
+		assertEquals(compactJson, fetchMetadata("_format=json&_pretty=false"));
+		assertThat(compactJson, not(containsString("\n")));
+
+		String prettyJson = fetchMetadata("_format=json&_pretty=true");
+		assertThat(prettyJson, containsString("\n"));
+		String xml = fetchMetadata("_format=xml");
+		assertThat(xml, startsWith("<CapabilityStatement"));
+
+		CapabilityStatement fromCompactJson = myFhirContext.newJsonParser().parseResource(CapabilityStatement.class, compactJson);
+		CapabilityStatement fromPrettyJson = myFhirContext.newJsonParser().parseResource(CapabilityStatement.class, prettyJson);
+		CapabilityStatement fromXml = myFhirContext.newXmlParser().parseResource(CapabilityStatement.class, xml);
+		assertEquals(fromCompactJson.getIdElement().getIdPart(), fromPrettyJson.getIdElement().getIdPart());
+		assertEquals(fromCompactJson.getIdElement().getIdPart(), fromXml.getIdElement().getIdPart());
+		assertEquals(getResourceTypes(fromCompactJson), getResourceTypes(fromXml));
+	}
+
+	private String fetchMetadata(String theParams) throws IOException {
+		HttpGet get = new HttpGet(myKeyedServerExtension.getBaseUrl() + "/metadata?" + theParams);
+		try (CloseableHttpResponse response = myKeyedServerExtension.getHttpClient().execute(get)) {
+			assertEquals(200, response.getStatusLine().getStatusCode());
+			assertThat(response.getFirstHeader(Constants.HEADER_CONTENT_LOCATION).getValue(), startsWith(myKeyedServerExtension.getBaseUrl() + "/CapabilityStatement/"));
+			return IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static List<String> getResourceTypes(CapabilityStatement theCapabilityStatement) {
+		return theCapabilityStatement.getRestFirstRep().getResource().stream().map(t -> t.getType()).collect(Collectors.toList());
+	}
+
 	private static class MyCapabilityStatementProvider extends ServerCapabilityStatementProvider {
 
 		public MyCapabilityStatementProvider(RestfulServer theServer) {
 			super(theServer);
 		}
 
+		/**
+		 * Use time based caching
+		 */
+		@Override
+		public Object getCapabilityStatementCacheKey(RequestDetails theRequestDetails) {
+			return null;
+		}
+
+		@Override
+		@Metadata(cacheMillis = 10)
+		public IBaseConformance getServerConformance(HttpServletRequest theRequest, RequestDetails theRequestDetails) {
+			return super.getServerConformance(theRequest, theRequestDetails);
+		}
+	}
+
+	@Interceptor
+	public static class MyPublisherInterceptor {
+
+		@Hook(Pointcut.SERVER_CAPABILITY_STATEMENT_GENERATED)
+		public void capabilityStatementGenerated(IBaseConformance theCapabilityStatement) {
+			((CapabilityStatement) theCapabilityStatement).setPublisher("Modified");
+		}
+	}
+
+	private static class MyShortLivedKeyedCapabilityStatementProvider extends ServerCapabilityStatementProvider {
+
+		public MyShortLivedKeyedCapabilityStatementProvider(RestfulServer theServer) {
+			super(theServer);
+		}
+
 		@Override
 		@Metadata(cacheMillis = 10)
 		public IBaseConformance getServerConformance(HttpServletRequest theRequest, RequestDetails theRequestDetails) {
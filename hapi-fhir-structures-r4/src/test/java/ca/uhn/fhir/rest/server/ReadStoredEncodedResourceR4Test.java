@@ -0,0 +1,160 @@
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.api.server.storage.StoredEncodedResource;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadStoredEncodedResourceR4Test {
+	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(ReadStoredEncodedResourceR4Test.class);
+	/**
+	 * The stored form deliberately differs from the resource object (the family name) so that the
+	 * tests can tell which one was used to build the response
+	 */
+	private static final String STORED_JSON = "{\"resourceType\":\"Patient\",\"active\":true,\"name\":[{\"family\":\"STORED\"}]}";
+	private final FhirContext myCtx = FhirContext.forR4Cached();
+	@RegisterExtension
+	public RestfulServerExtension myRestfulServerExtension = new RestfulServerExtension(myCtx)
+		.registerProvider(new PatientProvider());
+	private CloseableHttpClient myClient;
+
+	@BeforeEach
+	public void before() {
+		myClient = HttpClientBuilder.create().build();
+	}
+
+	@AfterEach
+	public void after() throws IOException {
+		myClient.close();
+	}
+
+	@Test
+	public void testAttach() {
+		Patient patient = new Patient();
+		assertTrue(StoredEncodedResource.attach(patient, "Patient", STORED_JSON));
+		assertNotNull(StoredEncodedResource.get(patient));
+
+		StoredEncodedResource.remove(patient);
+		assertNull(StoredEncodedResource.get(patient));
+
+		// Stored text containing an id or meta, or that isn't compact JSON, can't be used
+		assertFalse(StoredEncodedResource.attach(patient, "Patient", "{\"resourceType\":\"Patient\",\"id\":\"1\"}"));
+		assertFalse(StoredEncodedResource.attach(patient, "Patient", "{\"resourceType\":\"Patient\",\"meta\":{\"tag\":[{\"code\":\"A\"}]}}"));
+		assertFalse(StoredEncodedResource.attach(patient, "Patient", "{\n  \"resourceType\": \"Patient\"\n}"));
+		assertFalse(StoredEncodedResource.attach(patient, "Observation", STORED_JSON));
+		assertNull(StoredEncodedResource.get(patient));
+	}
+
+	@Test
+	public void testReadUsesStoredForm() throws Exception {
+		String response = executeGet("/Patient/123?_format=json&_pretty=false");
+		assertEquals("{\"resourceType\":\"Patient\",\"id\":\"123\",\"meta\":{\"versionId\":\"2\",\"lastUpdated\":\"2022-10-01T10:00:00.000-04:00\",\"tag\":[{\"code\":\"TAG\"}]},\"active\":true,\"name\":[{\"family\":\"STORED\"}]}", response);
+
+		// The stored form is valid JSON which parses back to the same content
+		Patient parsed = myCtx.newJsonParser().parseResource(Patient.class, response);
+		assertEquals("123", parsed.getIdElement().getIdPart());
+		assertEquals("TAG", parsed.getMeta().getTagFirstRep().getCode());
+		assertEquals("STORED", parsed.getNameFirstRep().getFamily());
+	}
+
+	@Test
+	public void testVreadUsesStoredForm() throws Exception {
+		String response = executeGet("/Patient/123/_history/2?_format=json&_pretty=false");
+		assertTrue(response.contains("\"family\":\"STORED\""), response);
+	}
+
+	@Test
+	public void testStoredFormNotUsedWhenResponseWouldDiffer() throws Exception {
+		assertFalse(executeGet("/Patient/123?_format=json&_pretty=true").contains("STORED"));
+		assertFalse(executeGet("/Patient/123?_format=json&_summary=true&_pretty=false").contains("STORED"));
+		assertFalse(executeGet("/Patient/123?_format=json&_elements=name&_pretty=false").contains("STORED"));
+		assertFalse(executeGet("/Patient/123?_format=xml&_pretty=false").contains("STORED"));
+		// Versioned and absolute references may be rewritten by the encoder
+		assertFalse(executeGet("/Patient/456?_format=json&_pretty=false").contains("STORED"));
+		assertFalse(executeGet("/Patient/789?_format=json&_pretty=false").contains("STORED"));
+	}
+
+	@Test
+	public void testStoredFormNotUsedWhenInterceptorRegistered() throws Exception {
+		Object interceptor = new OutgoingResponseInterceptor();
+		myRestfulServerExtension.getRestfulServer().registerInterceptor(interceptor);
+		try {
+			assertFalse(executeGet("/Patient/123?_format=json&_pretty=false").contains("STORED"));
+		} finally {
+			myRestfulServerExtension.getRestfulServer().unregisterInterceptor(interceptor);
+		}
+	}
+
+	private String executeGet(String thePath) throws IOException {
+		HttpGet httpGet = new HttpGet("http://localhost:" + myRestfulServerExtension.getPort() + thePath);
+		try (CloseableHttpResponse status = myClient.execute(httpGet)) {
+			String responseContent = IOUtils.toString(status.getEntity().getContent(), StandardCharsets.UTF_8);
+			ourLog.info("Response was:\n{}", responseContent);
+			assertEquals(200, status.getStatusLine().getStatusCode());
+			return responseContent;
+		}
+	}
+
+	@Interceptor
+	public static class OutgoingResponseInterceptor {
+
+		@Hook(Pointcut.SERVER_OUTGOING_RESPONSE)
+		public void outgoingResponse() {
+			// nothing
+		}
+
+	}
+
+	public static class PatientProvider implements IResourceProvider {
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read(version = true)
+		public Patient read(@IdParam IdType theId) {
+			Patient patient = new Patient();
+			patient.setId("Patient/123/_history/2");
+			patient.getMeta().setVersionId("2");
+			patient.getMeta().getLastUpdatedElement().setValueAsString("2022-10-01T10:00:00.000-04:00");
+			patient.getMeta().addTag().setCode("TAG");
+			patient.setActive(true);
+			patient.addName().setFamily("PARSED");
+			if (theId.getIdPart().equals("456")) {
+				patient.getManagingOrganization().setReference("Organization/1/_history/1");
+			} else if (theId.getIdPart().equals("789")) {
+				patient.getManagingOrganization().setReference("http://example.com/fhir/Organization/1");
+			}
+			StoredEncodedResource.attach(patient, "Patient", STORED_JSON);
+			return patient;
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.rest.annotation.IncludeParam;
+import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StreamingSearchBundleR4Test {
+	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(StreamingSearchBundleR4Test.class);
+	private final FhirContext myCtx = FhirContext.forR4Cached();
+	private final List<String> myLoadedRanges = new ArrayList<>();
+	@RegisterExtension
+	public RestfulServerExtension myServer = new RestfulServerExtension(myCtx)
+		.registerProvider(new PatientProvider())
+		.withPagingProvider(new FifoMemoryPagingProvider(10).setDefaultPageSize(20).setMaximumPageSize(50));
+
+	@BeforeEach
+	public void before() {
+		myLoadedRanges.clear();
+	}
+
+	@AfterEach
+	public void after() {
+		myServer.getRestfulServer().setStreamingBundleBatchSize(0);
+	}
+
+	@Test
+	public void testStreamedBundleMatchesBuiltBundle() throws IOException {
+		String built = executeSearch("/Patient?_count=25&_pretty=false");
+		assertThat(myLoadedRanges, contains("0-25"));
+
+		myLoadedRanges.clear();
+		myServer.getRestfulServer().setStreamingBundleBatchSize(10);
+		String streamed = executeSearch("/Patient?_count=25&_pretty=false");
+		assertThat(myLoadedRanges, contains("0-10", "10-20", "20-25"));
+
+		// The streamed form is the same compact JSON the parser would produce
+		Bundle streamedBundle = myCtx.newJsonParser().parseResource(Bundle.class, streamed);
+		assertEquals(myCtx.newJsonParser().encodeResourceToString(streamedBundle), streamed);
+
+		Bundle builtBundle = myCtx.newJsonParser().parseResource(Bundle.class, built);
+		assertEquals(Bundle.BundleType.SEARCHSET, streamedBundle.getType());
+		assertEquals(40, streamedBundle.getTotal());
+		assertEquals(toFullUrls(builtBundle), toFullUrls(streamedBundle));
+		assertEquals(25, streamedBundle.getEntry().size());
+		assertEquals("Patient/24", streamedBundle.getEntry().get(24).getResource().getIdElement().toUnqualifiedVersionless().getValue());
+		assertEquals(builtBundle.getLink("next").getUrl().replaceAll("_getpages=[^&]+", ""), streamedBundle.getLink("next").getUrl().replaceAll("_getpages=[^&]+", ""));
+	}
+
+	@Test
+	public void testIncludedResourcesAreNotDuplicatedAcrossBatches() throws IOException {
+		myServer.getRestfulServer().setStreamingBundleBatchSize(10);
+		String streamed = executeSearch("/Patient?_count=25&_include=Patient:organization&_pretty=false");
+		assertThat(myLoadedRanges, contains("0-10", "10-20", "20-25"));
+
+		Bundle streamedBundle = myCtx.newJsonParser().parseResource(Bundle.class, streamed);
+		assertEquals(26, streamedBundle.getEntry().size());
+		List<String> includes = streamedBundle.getEntry()
+			.stream()
+			.filter(t -> t.getSearch().getMode() == Bundle.SearchEntryMode.INCLUDE)
+			.map(Bundle.BundleEntryComponent::getFullUrl)
+			.collect(Collectors.toList());
+		assertThat(includes, contains("http://localhost:" + myServer.getPort() + "/Organization/ORG"));
+	}
+
+	@Test
+	public void testNotStreamedWhenResponseWouldDiffer() throws IOException {
+		myServer.getRestfulServer().setStreamingBundleBatchSize(10);
+
+		executeSearch("/Patient?_count=25&_pretty=true");
+		assertThat(myLoadedRanges, contains("0-25"));
+
+		myLoadedRanges.clear();
+		executeSearch("/Patient?_count=25&_format=xml");
+		assertThat(myLoadedRanges, contains("0-25"));
+
+		// A page no larger than the batch size is built normally
+		myLoadedRanges.clear();
+		executeSearch("/Patient?_count=10&_pretty=false");
+		assertThat(myLoadedRanges, contains("0-10"));
+
+		myLoadedRanges.clear();
+		Object interceptor = new OutgoingResponseInterceptor();
+		myServer.getRestfulServer().registerInterceptor(interceptor);
+		try {
+			executeSearch("/Patient?_count=25&_pretty=false");
+			assertThat(myLoadedRanges, contains("0-25"));
+		} finally {
+			myServer.getRestfulServer().unregisterInterceptor(interceptor);
+		}
+	}
+
+	private List<String> toFullUrls(Bundle theBundle) {
+		return theBundle.getEntry().stream().map(Bundle.BundleEntryComponent::getFullUrl).collect(Collectors.toList());
+	}
+
+	private String executeSearch(String thePath) throws IOException {
+		HttpGet get = new HttpGet("http://localhost:" + myServer.getPort() + thePath);
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			String body = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+			ourLog.debug("Response was:\n{}", body);
+			assertEquals(200, response.getStatusLine().getStatusCode());
+			return body;
+		}
+	}
+
+	@Interceptor
+	public static class OutgoingResponseInterceptor {
+
+		@Hook(Pointcut.SERVER_OUTGOING_RESPONSE)
+		public void outgoingResponse() {
+			// nothing
+		}
+
+	}
+
+	public class PatientProvider implements IResourceProvider {
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Search
+		public IBundleProvider search(@IncludeParam(allow = "Patient:organization") Set<Include> theIncludes) {
+			Organization org = new Organization();
+			org.setId("Organization/ORG");
+			org.setName("Org");
+
+			List<IBaseResource> patients = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				Patient patient = new Patient();
+				patient.setId("Patient/" + i);
+				patient.addName().setFamily("Family " + i);
+				patient.getManagingOrganization().setResource(org);
+				patients.add(patient);
+			}
+
+			return new SimpleBundleProvider(patients) {
+				@Override
+				public List<IBaseResource> getResources(int theFromIndex, int theToIndex) {
+					myLoadedRanges.add(theFromIndex + "-" + theToIndex);
+					return super.getResources(theFromIndex, theToIndex);
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,160 @@
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.model.api.ResourceMetadataKeyEnum;
+import ca.uhn.fhir.model.valueset.BundleEntrySearchModeEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class WeightedMemoryPagingProviderR4Test {
+
+	private static final FhirContext ourCtx = FhirContext.forR4Cached();
+
+	@TempDir
+	Path myTempDir;
+
+	@Test
+	public void testEvictedResultListIsDiscardedWithoutSpillDirectory() {
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+
+		String first = provider.storeResultList(null, newResultList(3));
+		SimpleBundleProvider secondList = newResultList(3);
+		String second = provider.storeResultList(null, secondList);
+
+		assertNull(provider.retrieveResultList(null, first));
+		assertSame(secondList, provider.retrieveResultList(null, second));
+		assertEquals(0, provider.getSpilledResultListCount());
+	}
+
+	@Test
+	public void testEvictedResultListIsSpilledAndReadBack() {
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+		provider.setSpillDirectory(myTempDir);
+
+		String first = provider.storeResultList(null, newResultList(3));
+		provider.storeResultList(null, newResultList(3));
+
+		assertEquals(1, provider.getResultListCount());
+		await().until(() -> provider.getSpilledResultListCount() == 1);
+
+		IBundleProvider spilled = provider.retrieveResultList(null, first);
+		assertNotNull(spilled);
+		assertEquals(3, spilled.size());
+
+		List<IBaseResource> page = spilled.getResources(1, 10);
+		assertEquals(2, page.size());
+		assertEquals("Organization/1", page.get(0).getIdElement().getValue());
+		assertEquals(BundleEntrySearchModeEnum.INCLUDE.getCode(), ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.get((Organization) page.get(0)));
+		assertEquals("Patient/2", page.get(1).getIdElement().getValue());
+		assertEquals("Patient", ((Patient) page.get(1)).getNameFirstRep().getFamily());
+		assertEquals(BundleEntrySearchModeEnum.MATCH.getCode(), ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.get((Patient) page.get(1)));
+	}
+
+	@Test
+	public void testEvictedResultListIsAvailableWhileSpilling() {
+		List<Runnable> spillTasks = new ArrayList<>();
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+		provider.setSpillDirectory(myTempDir);
+		provider.setSpillExecutor(spillTasks::add);
+
+		SimpleBundleProvider firstList = newResultList(3);
+		String first = provider.storeResultList(null, firstList);
+		provider.storeResultList(null, newResultList(3));
+
+		assertEquals(1, spillTasks.size());
+		assertSame(firstList, provider.retrieveResultList(null, first));
+
+		spillTasks.get(0).run();
+		assertEquals(1, provider.getSpilledResultListCount());
+		assertEquals(3, provider.retrieveResultList(null, first).size());
+	}
+
+	@Test
+	public void testShutdownDeletesSpilledFiles() throws IOException {
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+		provider.setSpillDirectory(myTempDir);
+		provider.setSpillExecutor(Runnable::run);
+
+		String first = provider.storeResultList(null, newResultList(3));
+		provider.storeResultList(null, newResultList(3));
+		assertEquals(1, provider.getSpilledResultListCount());
+		assertEquals(1, countFiles(myTempDir));
+
+		provider.shutdown();
+		assertEquals(0, provider.getSpilledResultListCount());
+		assertEquals(0, countFiles(myTempDir));
+		assertNull(provider.retrieveResultList(null, first));
+	}
+
+	@Test
+	public void testFailedSpillIsDiscarded() throws IOException {
+		Path notADirectory = Files.createFile(myTempDir.resolve("file"));
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+		provider.setSpillDirectory(notADirectory);
+		provider.setSpillExecutor(Runnable::run);
+
+		String first = provider.storeResultList(null, newResultList(3));
+		provider.storeResultList(null, newResultList(3));
+
+		assertNull(provider.retrieveResultList(null, first));
+		assertEquals(0, provider.getSpilledResultListCount());
+		assertEquals(1, countFiles(myTempDir));
+	}
+
+	@Test
+	public void testMaximumSpillBytes() {
+		WeightedMemoryPagingProvider provider = new WeightedMemoryPagingProvider(ourCtx, 20_000);
+		provider.setSpillDirectory(myTempDir);
+		provider.setMaximumSpillBytes(1);
+		provider.setSpillExecutor(Runnable::run);
+
+		String first = provider.storeResultList(null, newResultList(3));
+		provider.storeResultList(null, newResultList(3));
+
+		assertNull(provider.retrieveResultList(null, first));
+		assertEquals(0, provider.getSpilledResultListCount());
+	}
+
+	private static long countFiles(Path theDirectory) throws IOException {
+		try (Stream<Path> files = Files.list(theDirectory)) {
+			return files.count();
+		}
+	}
+
+	private static SimpleBundleProvider newResultList(int theCount) {
+		List<IBaseResource> resources = new ArrayList<>();
+		for (int i = 0; i < theCount; i++) {
+			if (i % 2 == 0) {
+				Patient patient = new Patient();
+				patient.setId("Patient/" + i);
+				patient.addName().setFamily("Patient");
+				ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.put(patient, BundleEntrySearchModeEnum.MATCH.getCode());
+				resources.add(patient);
+			} else {
+				Organization org = new Organization();
+				org.setId("Organization/" + i);
+				ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.put(org, BundleEntrySearchModeEnum.INCLUDE.getCode());
+				resources.add(org);
+			}
+		}
+		return new SimpleBundleProvider(resources);
+	}
+
+}
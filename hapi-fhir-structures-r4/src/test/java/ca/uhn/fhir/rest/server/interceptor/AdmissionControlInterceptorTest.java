@@ -0,0 +1,203 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.interceptor.AdmissionControlInterceptor.Limit;
+import ca.uhn.fhir.rest.server.interceptor.AdmissionControlInterceptor.LimiterStatistics;
+import ca.uhn.fhir.rest.server.interceptor.AdmissionControlInterceptor.OperationClassEnum;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlInterceptorTest {
+
+	private static final FhirContext ourCtx = FhirContext.forR4Cached();
+	private final AdmissionControlInterceptor myInterceptor = new AdmissionControlInterceptor()
+		.setRetryAfter(Duration.ofMillis(2500));
+	private final MyPatientProvider myPatientProvider = new MyPatientProvider();
+	@RegisterExtension
+	public RestfulServerExtension myServer = new RestfulServerExtension(ourCtx)
+		.registerProvider(myPatientProvider)
+		.registerInterceptor(myInterceptor);
+	private final ExecutorService myExecutor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	public void after() {
+		myPatientProvider.myBlockLatch.countDown();
+		myExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testRejectWhenQueueFull() throws Exception {
+		myInterceptor.setOperationClassLimit(OperationClassEnum.READ, new Limit(1, 0, Duration.ofSeconds(10)));
+
+		Future<Integer> blocked = myExecutor.submit(() -> executeGet("/Patient/1", null).myStatus);
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+
+		Response rejected = executeGet("/Patient/2", null);
+		assertEquals(Constants.STATUS_HTTP_429_TOO_MANY_REQUESTS, rejected.myStatus);
+		assertEquals("3", rejected.myRetryAfter);
+		assertThat(rejected.myBody, containsString("Too many concurrent requests for operation::READ"));
+
+		// Searches aren't limited by the read limit
+		assertEquals(200, executeGet("/Patient?_pretty=false", null).myStatus);
+
+		List<LimiterStatistics> statistics = myInterceptor.getLimiterStatistics();
+		assertEquals(1, statistics.size());
+		assertEquals("operation::READ", statistics.get(0).getName());
+		assertEquals(1, statistics.get(0).getActiveCount());
+		assertEquals(1, statistics.get(0).getRejectedCount());
+
+		myPatientProvider.myBlockLatch.countDown();
+		assertEquals(200, blocked.get(10, TimeUnit.SECONDS));
+		assertEquals(1, myInterceptor.getRejectedCount());
+
+		// Idle limiters are discarded once all requests complete
+		await().until(() -> myInterceptor.getLimiterStatistics().isEmpty());
+		assertEquals(200, executeGet("/Patient/3", null).myStatus);
+	}
+
+	@Test
+	public void testQueuedRequestIsAdmittedWhenPermitReleased() throws Exception {
+		myInterceptor.setTenantLimit(new Limit(1, 1, Duration.ofSeconds(10)));
+
+		Future<Integer> first = myExecutor.submit(() -> executeGet("/Patient/1", null).myStatus);
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+		Future<Integer> second = myExecutor.submit(() -> executeGet("/Patient/2", null).myStatus);
+
+		await().until(() -> myInterceptor
+			.getLimiterStatistics()
+			.stream()
+			.anyMatch(t -> t.getName().equals("tenant:") && t.getQueueDepth() == 1));
+
+		myPatientProvider.myBlockLatch.countDown();
+		assertEquals(200, first.get(10, TimeUnit.SECONDS));
+		assertEquals(200, second.get(10, TimeUnit.SECONDS));
+		assertEquals(2, myPatientProvider.myReadCount.get());
+		assertEquals(1, myInterceptor.getQueuedCount());
+		assertEquals(0, myInterceptor.getRejectedCount());
+	}
+
+	@Test
+	public void testRejectWhenWaitTimesOut() throws Exception {
+		myInterceptor.setTenantLimit(new Limit(1, 1, Duration.ofMillis(100)));
+
+		Future<Integer> blocked = myExecutor.submit(() -> executeGet("/Patient/1", null).myStatus);
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+
+		Response rejected = executeGet("/Patient/2", null);
+		assertEquals(Constants.STATUS_HTTP_429_TOO_MANY_REQUESTS, rejected.myStatus);
+		assertThat(rejected.myBody, containsString("Timed out waiting to process request for tenant:"));
+		assertEquals(1, myInterceptor.getQueuedCount());
+		assertTrue(myInterceptor.getTotalWaitMillis() >= 100);
+
+		myPatientProvider.myBlockLatch.countDown();
+		assertEquals(200, blocked.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testClientLimitAppliesPerClient() throws Exception {
+		myInterceptor.setClientIdentifierFunction(t -> t.getHeader("X-Client"));
+		myInterceptor.setClientLimit(new Limit(1, 0, Duration.ZERO));
+
+		Future<Integer> blocked = myExecutor.submit(() -> executeGet("/Patient/1", "A").myStatus);
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+
+		assertEquals(Constants.STATUS_HTTP_429_TOO_MANY_REQUESTS, executeGet("/Patient?_pretty=false", "A").myStatus);
+		assertEquals(200, executeGet("/Patient?_pretty=false", "B").myStatus);
+		// Requests with no client identifier aren't subject to the client limit
+		assertEquals(200, executeGet("/Patient?_pretty=false", null).myStatus);
+
+		myPatientProvider.myBlockLatch.countDown();
+		assertEquals(200, blocked.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testMetadataIsNeverLimited() throws IOException {
+		myInterceptor.setTenantLimit(new Limit(1, 0, Duration.ZERO));
+		myInterceptor.setOperationClassLimit(OperationClassEnum.OTHER, new Limit(1, 0, Duration.ZERO));
+
+		assertEquals(200, executeGet("/metadata", null).myStatus);
+		assertTrue(myInterceptor.getLimiterStatistics().isEmpty());
+	}
+
+	private Response executeGet(String theUrl, String theClientId) throws IOException {
+		HttpGet get = new HttpGet(myServer.getBaseUrl() + theUrl);
+		if (theClientId != null) {
+			get.addHeader("X-Client", theClientId);
+		}
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			Response retVal = new Response();
+			retVal.myStatus = response.getStatusLine().getStatusCode();
+			retVal.myBody = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+			if (response.getFirstHeader(Constants.HEADER_RETRY_AFTER) != null) {
+				retVal.myRetryAfter = response.getFirstHeader(Constants.HEADER_RETRY_AFTER).getValue();
+			}
+			return retVal;
+		}
+	}
+
+	private static class Response {
+		private int myStatus;
+		private String myBody;
+		private String myRetryAfter;
+	}
+
+	public static class MyPatientProvider implements IResourceProvider {
+
+		private final AtomicInteger myReadCount = new AtomicInteger();
+		private final CountDownLatch myEnteredLatch = new CountDownLatch(1);
+		private final CountDownLatch myBlockLatch = new CountDownLatch(1);
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read
+		public Patient read(@IdParam IdType theId) throws InterruptedException {
+			myReadCount.incrementAndGet();
+			myEnteredLatch.countDown();
+			myBlockLatch.await(10, TimeUnit.SECONDS);
+			Patient retVal = new Patient();
+			retVal.setId(theId.toUnqualifiedVersionless());
+			return retVal;
+		}
+
+		@Search
+		public List<Patient> search() {
+			return Collections.emptyList();
+		}
+
+	}
+
+}
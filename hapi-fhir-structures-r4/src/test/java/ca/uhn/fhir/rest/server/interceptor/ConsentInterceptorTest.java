@@ -8,9 +8,11 @@ import ca.uhn.fhir.rest.annotation.RequiredParam;
 import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.api.server.SimplePreResourceAccessDetails;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.server.FifoMemoryPagingProvider;
+import ca.uhn.fhir.rest.server.RestfulServer;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.interceptor.consent.ConsentInterceptor;
 import ca.uhn.fhir.rest.server.interceptor.consent.ConsentOperationStatusEnum;
@@ -28,6 +30,7 @@ import org.hl7.fhir.instance.model.api.IBaseParameters;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.Patient;
@@ -43,13 +46,21 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
@@ -299,6 +310,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, times(3)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, times(0)).completeOperationFailure(any(), any(), any());
@@ -331,6 +344,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, timeout(10000).times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, timeout(10000).times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, timeout(10000).times(3)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, timeout(10000).times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, timeout(10000).times(0)).completeOperationFailure(any(), any(), any());
@@ -360,6 +375,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, times(3)).willSeeResource(any(), any(), any()); // the two patients + the bundle
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, times(0)).completeOperationFailure(any(), any(), any());
@@ -400,6 +417,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, timeout(1000).times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, timeout(1000).times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, timeout(1000).times(3)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, timeout(1000).times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, times(0)).completeOperationFailure(any(), any(), any());
@@ -441,6 +460,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, times(4)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, times(0)).completeOperationFailure(any(), any(), any());
@@ -479,6 +500,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).startOperation(any(), any());
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, times(3)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
 		verify(myConsentSvc, times(0)).completeOperationFailure(any(), any(), any());
@@ -559,6 +582,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc2, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc2, times(0)).canSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc2, times(1)).willSeeResource(any(), any(), any()); // On bundle
@@ -608,6 +633,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc2, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(0)).canSeeResource(any(), any(), any());
 		verify(myConsentSvc2, times(2)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc2, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc2, times(1)).canSeeResources(any(), any(), any()); // One batch for the whole page
 		verify(myConsentSvc, times(3)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc2, times(2)).willSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
@@ -643,6 +670,8 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc2, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc2, times(0)).canSeeResource(any(), any(), any());
 		verify(myConsentSvc, times(1)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc2, times(1)).willSeeResource(any(), any(), any()); // On bundle
@@ -681,7 +710,11 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc2, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc2, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc2, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc2, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc, times(1)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc2, times(1)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
@@ -724,7 +757,11 @@ public class ConsentInterceptorTest {
 		verify(myConsentSvc, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc2, times(1)).shouldProcessCanSeeResource(any(), any());
 		verify(myConsentSvc, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc2, times(1)).canSeeResource(any(), any(), any());
+		verify(myConsentSvc2, times(1)).getCanSeeResourceCompartmentName(any());
+		verify(myConsentSvc2, times(1)).canSeeResources(any(), any(), any());
 		verify(myConsentSvc, times(2)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc2, times(2)).willSeeResource(any(), any(), any()); // On bundle
 		verify(myConsentSvc, times(1)).completeOperationSuccess(any(), any());
@@ -735,6 +772,116 @@ public class ConsentInterceptorTest {
 		verifyNoMoreInteractions(myConsentSvc2);
 	}
 
+	@Test
+	public void testSearch_CanSeeResourcesCalledOncePerPage() {
+		for (String id : new String[]{"A", "B", "C", "D", "E"}) {
+			ourPatientProvider.store((Patient) new Patient().setActive(true).setId("Patient/" + id));
+		}
+
+		when(myConsentSvc.startOperation(any(), any())).thenReturn(ConsentOutcome.PROCEED);
+		when(myConsentSvc.canSeeResource(any(), any(), any())).thenAnswer(t -> rejectPatientC(t.getArgument(1)));
+		when(myConsentSvc.willSeeResource(any(), any(), any())).thenReturn(ConsentOutcome.PROCEED);
+
+		Bundle response = myFhirClient
+			.search()
+			.forResource(Patient.class)
+			.returnBundle(Bundle.class)
+			.execute();
+
+		List<String> ids = response.getEntry().stream().map(t -> t.getResource().getIdElement().getIdPart()).collect(Collectors.toList());
+		assertEquals(Arrays.asList("A", "B", "D", "E"), ids);
+		verify(myConsentSvc, times(1)).canSeeResources(any(), any(), any());
+		verify(myConsentSvc, times(5)).canSeeResource(any(), any(), any());
+	}
+
+	@Test
+	public void testSearch_CanSeeResourcesWithExecutor() {
+		for (String id : new String[]{"A", "B", "C", "D", "E"}) {
+			ourPatientProvider.store((Patient) new Patient().setActive(true).setId("Patient/" + id));
+		}
+
+		AtomicReference<RequestDetails> requestDetails = new AtomicReference<>();
+		when(myConsentSvc.startOperation(any(), any())).thenReturn(ConsentOutcome.PROCEED);
+		when(myConsentSvc.canSeeResource(any(), any(), any())).thenAnswer(t -> {
+			// User data may be written from the executor threads
+			RequestDetails nextRequestDetails = t.getArgument(0);
+			IBaseResource nextResource = t.getArgument(1);
+			nextRequestDetails.getUserData().put(nextResource.getIdElement().getIdPart(), Thread.currentThread().getName());
+			requestDetails.set(nextRequestDetails);
+			return rejectPatientC(nextResource);
+		});
+		when(myConsentSvc.willSeeResource(any(), any(), any())).thenReturn(ConsentOutcome.PROCEED);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			myInterceptor.setCanSeeResourcesExecutor(executor, 2);
+
+			Bundle response = myFhirClient
+				.search()
+				.forResource(Patient.class)
+				.returnBundle(Bundle.class)
+				.execute();
+
+			List<String> ids = response.getEntry().stream().map(t -> t.getResource().getIdElement().getIdPart()).collect(Collectors.toList());
+			assertEquals(Arrays.asList("A", "B", "D", "E"), ids);
+			verify(myConsentSvc, times(3)).canSeeResources(any(), any(), any()); // Chunks of 2, 2 and 1
+			verify(myConsentSvc, times(5)).canSeeResource(any(), any(), any());
+			assertThat(requestDetails.get().getUserData().keySet(), hasItems("A", "B", "C", "D", "E"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCanSeeResource_MemoizedByCompartmentOwner() {
+		when(myConsentSvc.getCanSeeResourceCompartmentName(any())).thenReturn("Patient");
+		when(myConsentSvc.canSeeResource(any(), any(), any())).thenAnswer(t -> {
+			Observation obs = t.getArgument(1);
+			return "Patient/B".equals(obs.getSubject().getReference()) ? ConsentOutcome.REJECT : ConsentOutcome.PROCEED;
+		});
+
+		ServletRequestDetails requestDetails = new ServletRequestDetails();
+		requestDetails.setServer(new RestfulServer(ourCtx));
+
+		List<Observation> observations = Arrays.asList(
+			newObservation("Patient/A"),
+			newObservation("Patient/B"),
+			newObservation("Patient/A"),
+			newObservation(null),
+			newObservation("Patient/B"));
+		SimplePreResourceAccessDetails details = new SimplePreResourceAccessDetails(observations);
+		myInterceptor.interceptPreAccess(requestDetails, details);
+
+		assertFalse(details.isDontReturnResourceAtIndex(0));
+		assertTrue(details.isDontReturnResourceAtIndex(1));
+		assertFalse(details.isDontReturnResourceAtIndex(2));
+		assertFalse(details.isDontReturnResourceAtIndex(3));
+		assertTrue(details.isDontReturnResourceAtIndex(4));
+		// One call per distinct compartment owner, plus one for the resource with no owner
+		verify(myConsentSvc, times(3)).canSeeResource(any(), any(), any());
+
+		// A subsequent page in the same request reuses the earlier decisions
+		details = new SimplePreResourceAccessDetails(Arrays.asList(newObservation("Patient/B"), newObservation("Patient/A")));
+		myInterceptor.interceptPreAccess(requestDetails, details);
+
+		assertTrue(details.isDontReturnResourceAtIndex(0));
+		assertFalse(details.isDontReturnResourceAtIndex(1));
+		verify(myConsentSvc, times(3)).canSeeResource(any(), any(), any());
+	}
+
+	private static ConsentOutcome rejectPatientC(IBaseResource theResource) {
+		return "C".equals(theResource.getIdElement().getIdPart()) ? ConsentOutcome.REJECT : ConsentOutcome.PROCEED;
+	}
+
+	private static Observation newObservation(String theSubject) {
+		Observation retVal = new Observation();
+		retVal.setStatus(Observation.ObservationStatus.FINAL);
+		if (theSubject != null) {
+			retVal.getSubject().setReference(theSubject);
+		}
+		return retVal;
+	}
+
 	@Test
 	public void testOutcomeException() throws IOException {
 		when(myConsentSvc.startOperation(any(), any())).thenReturn(ConsentOutcome.PROCEED);
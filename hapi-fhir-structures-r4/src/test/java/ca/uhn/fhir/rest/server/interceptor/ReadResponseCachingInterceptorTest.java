@@ -0,0 +1,213 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ReadResponseCachingInterceptorTest {
+
+	private static final FhirContext ourCtx = FhirContext.forR4Cached();
+	private final ReadResponseCachingInterceptor myInterceptor = new ReadResponseCachingInterceptor(1024 * 1024)
+		.setInvalidationSettlePeriod(Duration.ZERO);
+	private final MyPatientProvider myPatientProvider = new MyPatientProvider();
+	@RegisterExtension
+	public RestfulServerExtension myServer = new RestfulServerExtension(ourCtx)
+		.registerProvider(myPatientProvider)
+		.registerInterceptor(myInterceptor);
+
+	@BeforeEach
+	public void before() {
+		myPatientProvider.myReadCount.set(0);
+		myPatientProvider.myVersion = "1";
+	}
+
+	@Test
+	public void testRepeatedReadIsServedFromCache() throws IOException {
+		String first = executeGet("/Patient/123?_pretty=false", null, 200);
+		String second = executeGet("/Patient/123?_pretty=false", null, 200);
+
+		assertEquals(first, second);
+		assertThat(second, containsString("\"family\":\"FAMILY-1\""));
+		assertEquals(1, myPatientProvider.myReadCount.get());
+		assertEquals(1, myInterceptor.getHitCount());
+		assertEquals(1, myInterceptor.getMissCount());
+
+		// Each format is cached separately
+		String xml = executeGet("/Patient/123?_format=xml", null, 200);
+		assertThat(xml, containsString("<family value=\"FAMILY-1\"/>"));
+		assertEquals(2, myPatientProvider.myReadCount.get());
+		assertEquals(xml, executeGet("/Patient/123?_format=xml", null, 200));
+		assertEquals(2, myPatientProvider.myReadCount.get());
+		assertEquals(1, myInterceptor.getCachedResourceCount());
+
+		// Other parameters aren't cached
+		executeGet("/Patient/123?_summary=true", null, 200);
+		executeGet("/Patient/123?_summary=true", null, 200);
+		assertEquals(4, myPatientProvider.myReadCount.get());
+	}
+
+	@Test
+	public void testIfNoneMatchIsAnsweredFromCache() throws IOException {
+		executeGet("/Patient/123", null, 200);
+		assertEquals(1, myPatientProvider.myReadCount.get());
+
+		assertNull(executeGet("/Patient/123", "W/\"1\"", 304));
+		assertEquals(1, myPatientProvider.myReadCount.get());
+		assertEquals(1, myInterceptor.getNotModifiedCount());
+
+		executeGet("/Patient/123", "W/\"0\"", 200);
+		assertEquals(1, myPatientProvider.myReadCount.get());
+	}
+
+	@Test
+	public void testWriteInvalidatesCache() throws IOException {
+		executeGet("/Patient/123?_pretty=false", null, 200);
+		executeGet("/Patient/123/_history/1?_pretty=false", null, 200);
+		assertEquals(2, myPatientProvider.myReadCount.get());
+
+		myPatientProvider.myVersion = "2";
+		Patient updated = new Patient();
+		updated.setId("Patient/123/_history/2");
+		myInterceptor.resourceUpdated(new Patient().setId("Patient/123/_history/1"), updated);
+		assertEquals(1, myInterceptor.getInvalidationCount());
+
+		assertThat(executeGet("/Patient/123?_pretty=false", null, 200), containsString("\"family\":\"FAMILY-2\""));
+		assertEquals(3, myPatientProvider.myReadCount.get());
+		assertThat(executeGet("/Patient/123?_pretty=false", null, 200), containsString("\"family\":\"FAMILY-2\""));
+		assertEquals(3, myPatientProvider.myReadCount.get());
+	}
+
+	@Test
+	public void testNotCachedWhileAuthorizingInterceptorRegistered() throws IOException {
+		Object interceptor = new PreHandledInterceptor();
+		myServer.getRestfulServer().registerInterceptor(interceptor);
+		try {
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			assertEquals(2, myPatientProvider.myReadCount.get());
+			assertEquals(0, myInterceptor.getHitCount());
+		} finally {
+			myServer.getRestfulServer().unregisterInterceptor(interceptor);
+		}
+	}
+
+	@Test
+	public void testCacheHitFiresCompletedNormally() throws IOException {
+		CompletedNormallyInterceptor interceptor = new CompletedNormallyInterceptor();
+		myServer.getRestfulServer().registerInterceptor(interceptor);
+		try {
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			assertNull(executeGet("/Patient/123?_pretty=false", "W/\"1\"", 304));
+			assertEquals(1, myPatientProvider.myReadCount.get());
+			assertEquals(3, interceptor.myCount.get());
+		} finally {
+			myServer.getRestfulServer().unregisterInterceptor(interceptor);
+		}
+	}
+
+	@Test
+	public void testTimeToLive() throws IOException {
+		ReadResponseCachingInterceptor interceptor = new ReadResponseCachingInterceptor(1024 * 1024, Duration.ofMillis(100))
+			.setInvalidationSettlePeriod(Duration.ZERO);
+		myServer.getRestfulServer().unregisterInterceptor(myInterceptor);
+		myServer.getRestfulServer().registerInterceptor(interceptor);
+		try {
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			assertEquals(1, myPatientProvider.myReadCount.get());
+
+			await().until(() -> interceptor.getCachedResourceCount() == 0);
+			executeGet("/Patient/123?_pretty=false", null, 200);
+			assertEquals(2, myPatientProvider.myReadCount.get());
+		} finally {
+			myServer.getRestfulServer().unregisterInterceptor(interceptor);
+			myServer.getRestfulServer().registerInterceptor(myInterceptor);
+		}
+	}
+
+	private String executeGet(String theUrl, String theIfNoneMatch, int theExpectedStatus) throws IOException {
+		HttpGet get = new HttpGet(myServer.getBaseUrl() + theUrl);
+		if (theIfNoneMatch != null) {
+			get.addHeader(Constants.HEADER_IF_NONE_MATCH, theIfNoneMatch);
+		}
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			assertEquals(theExpectedStatus, response.getStatusLine().getStatusCode());
+			if (response.getEntity() == null) {
+				return null;
+			}
+			return IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Interceptor
+	public static class PreHandledInterceptor {
+
+		@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLED)
+		public void incomingRequestPreHandled() {
+			// nothing
+		}
+
+	}
+
+	@Interceptor
+	public static class CompletedNormallyInterceptor {
+
+		private final AtomicInteger myCount = new AtomicInteger();
+
+		@Hook(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)
+		public void processingCompletedNormally() {
+			myCount.incrementAndGet();
+		}
+
+	}
+
+	public static class MyPatientProvider implements IResourceProvider {
+
+		private final AtomicInteger myReadCount = new AtomicInteger();
+		private volatile String myVersion;
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read(version = true)
+		public Patient read(@IdParam IdType theId) {
+			myReadCount.incrementAndGet();
+			String version = theId.hasVersionIdPart() ? theId.getVersionIdPart() : myVersion;
+			Patient patient = new Patient();
+			patient.setId(new IdType("Patient", theId.getIdPart(), version));
+			patient.addName().setFamily("FAMILY-" + version);
+			return patient;
+		}
+
+	}
+
+}
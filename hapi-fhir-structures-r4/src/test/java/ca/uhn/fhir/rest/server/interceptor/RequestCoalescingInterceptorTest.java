@@ -0,0 +1,218 @@
+package ca.uhn.fhir.rest.server.interceptor;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.test.utilities.server.RestfulServerExtension;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCoalescingInterceptorTest {
+
+	private static final FhirContext ourCtx = FhirContext.forR4Cached();
+	private final RequestCoalescingInterceptor myInterceptor = new RequestCoalescingInterceptor(t -> t.getHeader(Constants.HEADER_AUTHORIZATION));
+	private final MyPatientProvider myPatientProvider = new MyPatientProvider();
+	private final MyCompletedInterceptor myCompletedInterceptor = new MyCompletedInterceptor();
+	@RegisterExtension
+	public RestfulServerExtension myServer = new RestfulServerExtension(ourCtx)
+		.registerProvider(myPatientProvider)
+		.registerInterceptor(myInterceptor)
+		.registerInterceptor(myCompletedInterceptor);
+	private final ExecutorService myExecutor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	public void after() {
+		myPatientProvider.myBlockLatch.countDown();
+		myExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testIdenticalConcurrentReadsAreCoalesced() throws Exception {
+		Future<String> leader = myExecutor.submit(() -> executeGet("/Patient/1?_pretty=false", null, 200));
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+		Future<String> follower = myExecutor.submit(() -> executeGet("/Patient/1?_pretty=false", null, 200));
+		await().until(() -> myInterceptor.getWaitingCount() == 1);
+
+		myPatientProvider.myBlockLatch.countDown();
+		String leaderBody = leader.get(10, TimeUnit.SECONDS);
+		assertEquals(leaderBody, follower.get(10, TimeUnit.SECONDS));
+		assertThat(leaderBody, containsString("\"family\":\"FAMILY-1\""));
+		assertEquals(1, myPatientProvider.myInvocationCount.get());
+		assertEquals(1, myInterceptor.getLeaderCount());
+		assertEquals(1, myInterceptor.getCoalescedCount());
+		// The follower is reported as completed as well
+		await().until(() -> myCompletedInterceptor.myCompletedNormallyCount.get() == 2);
+
+		// Responses aren't shared with requests arriving after the leader completes
+		executeGet("/Patient/1?_pretty=false", null, 200);
+		assertEquals(2, myPatientProvider.myInvocationCount.get());
+	}
+
+	@Test
+	public void testIdenticalConcurrentSearchesAreCoalesced() throws Exception {
+		Future<String> leader = myExecutor.submit(() -> executeGet("/Patient?_pretty=false", null, 200));
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+		Future<String> follower = myExecutor.submit(() -> executeGet("/Patient?_pretty=false", null, 200));
+		await().until(() -> myInterceptor.getWaitingCount() == 1);
+
+		myPatientProvider.myBlockLatch.countDown();
+		assertEquals(leader.get(10, TimeUnit.SECONDS), follower.get(10, TimeUnit.SECONDS));
+		assertEquals(1, myPatientProvider.myInvocationCount.get());
+		assertEquals(1, myInterceptor.getCoalescedCount());
+	}
+
+	@Test
+	public void testDifferentIdentityIsNotCoalesced() throws Exception {
+		Future<String> leader = myExecutor.submit(() -> executeGet("/Patient/1", "Bearer A", 200));
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+
+		// Processed while the first request is still in progress
+		executeGet("/Patient/1", "Bearer B", 200);
+		assertEquals(2, myPatientProvider.myInvocationCount.get());
+		assertEquals(0, myInterceptor.getCoalescedCount());
+
+		myPatientProvider.myBlockLatch.countDown();
+		leader.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testNotCoalescedWhileAuthorizingInterceptorRegistered() throws Exception {
+		myServer.registerInterceptor(new MyPreHandledInterceptor());
+
+		Future<String> leader = myExecutor.submit(() -> executeGet("/Patient/1", null, 200));
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+
+		// Processed while the first request is still in progress
+		executeGet("/Patient/1", null, 200);
+		assertEquals(2, myPatientProvider.myInvocationCount.get());
+		assertEquals(0, myInterceptor.getLeaderCount());
+
+		myPatientProvider.myBlockLatch.countDown();
+		leader.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testFailedLeaderFallsBackToNormalProcessing() throws Exception {
+		myPatientProvider.myFailFirstInvocation = true;
+
+		Future<String> leader = myExecutor.submit(() -> executeGet("/Patient/1", null, 404));
+		assertTrue(myPatientProvider.myEnteredLatch.await(10, TimeUnit.SECONDS));
+		Future<String> follower = myExecutor.submit(() -> executeGet("/Patient/1", null, 200));
+		await().until(() -> myInterceptor.getWaitingCount() == 1);
+
+		myPatientProvider.myBlockLatch.countDown();
+		leader.get(10, TimeUnit.SECONDS);
+		assertThat(follower.get(10, TimeUnit.SECONDS), containsString("FAMILY-1"));
+		assertEquals(2, myPatientProvider.myInvocationCount.get());
+		assertEquals(1, myInterceptor.getFallbackCount());
+		assertEquals(0, myInterceptor.getCoalescedCount());
+	}
+
+	private String executeGet(String theUrl, String theAuthorization, int theExpectedStatus) throws IOException {
+		HttpGet get = new HttpGet(myServer.getBaseUrl() + theUrl);
+		if (theAuthorization != null) {
+			get.addHeader(Constants.HEADER_AUTHORIZATION, theAuthorization);
+		}
+		try (CloseableHttpResponse response = myServer.getHttpClient().execute(get)) {
+			assertEquals(theExpectedStatus, response.getStatusLine().getStatusCode());
+			return IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Interceptor
+	public static class MyCompletedInterceptor {
+
+		private final AtomicInteger myCompletedNormallyCount = new AtomicInteger();
+
+		@Hook(Pointcut.SERVER_PROCESSING_COMPLETED_NORMALLY)
+		public void processingCompletedNormally() {
+			myCompletedNormallyCount.incrementAndGet();
+		}
+	}
+
+	@Interceptor
+	public static class MyPreHandledInterceptor {
+
+		@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLED)
+		public void incomingRequestPreHandled() {
+			// nothing
+		}
+	}
+
+	public static class MyPatientProvider implements IResourceProvider {
+
+		private final AtomicInteger myInvocationCount = new AtomicInteger();
+		private final CountDownLatch myEnteredLatch = new CountDownLatch(1);
+		private final CountDownLatch myBlockLatch = new CountDownLatch(1);
+		private volatile boolean myFailFirstInvocation;
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read
+		public Patient read(@IdParam IdType theId) throws InterruptedException {
+			invoke();
+			Patient retVal = new Patient();
+			retVal.setId(theId.toUnqualifiedVersionless());
+			retVal.addName().setFamily("FAMILY-1");
+			return retVal;
+		}
+
+		@Search
+		public List<Patient> search() throws InterruptedException {
+			invoke();
+			Patient patient = new Patient();
+			patient.setId("Patient/1");
+			return Collections.singletonList(patient);
+		}
+
+		/**
+		 * Only the first invocation blocks, so that later requests which aren't coalesced
+		 * complete immediately
+		 */
+		private void invoke() throws InterruptedException {
+			if (myInvocationCount.incrementAndGet() == 1) {
+				myEnteredLatch.countDown();
+				myBlockLatch.await(10, TimeUnit.SECONDS);
+				if (myFailFirstInvocation) {
+					throw new ResourceNotFoundException("Patient/1");
+				}
+			}
+		}
+
+	}
+
+}
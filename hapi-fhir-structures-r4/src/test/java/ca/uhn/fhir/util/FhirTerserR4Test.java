@@ -15,10 +15,12 @@ import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IPrimitiveType;
 import org.hl7.fhir.r4.model.BooleanType;
 import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeType;
 import org.hl7.fhir.r4.model.DocumentReference;
 import org.hl7.fhir.r4.model.Enumeration;
 import org.hl7.fhir.r4.model.Enumerations;
 import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.HumanName;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.MarkdownType;
@@ -28,6 +30,7 @@ import org.hl7.fhir.r4.model.MedicationRequest;
 import org.hl7.fhir.r4.model.Money;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Patient.LinkType;
 import org.hl7.fhir.r4.model.Practitioner;
@@ -59,10 +62,12 @@ import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -75,6 +80,102 @@ public class FhirTerserR4Test {
 	private static final Logger ourLog = LoggerFactory.getLogger(FhirTerserR4Test.class);
 	private final FhirContext myCtx = FhirContext.forR4Cached();
 
+	@Test
+	public void testGetCompartmentOwnersForResource() {
+		FhirTerser terser = myCtx.newTerser();
+
+		Observation obs = new Observation();
+		obs.getSubject().setReference("Patient/A/_history/2");
+		obs.addPerformer().setReference("Patient/B");
+		obs.addPerformer().setReference("Practitioner/C");
+		assertThat(terser.getCompartmentOwnersForResource("Patient", obs), containsInAnyOrder("Patient/A", "Patient/B"));
+		assertThat(terser.getCompartmentOwnersForResource("Practitioner", obs), containsInAnyOrder("Practitioner/C"));
+
+		Patient patient = new Patient();
+		patient.setId("Patient/P");
+		patient.addLink().getOther().setReference("Patient/Q");
+		assertThat(terser.getCompartmentOwnersForResource("Patient", patient), containsInAnyOrder("Patient/P", "Patient/Q"));
+
+		assertTrue(terser.getCompartmentOwnersForResource("Patient", new Observation()).isEmpty());
+	}
+
+	@Test
+	public void testSharedTerser() {
+		assertSame(myCtx.getTerser(), myCtx.getTerser());
+		assertNotSame(myCtx.newTerser(), myCtx.newTerser());
+		assertNotSame(myCtx.getTerser(), myCtx.newTerser());
+	}
+
+	@Test
+	public void testCompiledPath() {
+		FhirTerser terser = myCtx.newTerser();
+
+		Patient patient = new Patient();
+		patient.addName().setFamily("Smith");
+		patient.addName().setFamily("Jones");
+		patient.addExtension("http://foo", new StringType("bar"));
+
+		FhirTerser.CompiledPath path = terser.compilePath("Patient", "Patient.name.family");
+		assertEquals("Patient.name.family", path.getPath());
+		assertEquals("Patient", path.getElementDefinition().getName());
+		List<StringType> values = terser.getValues(patient, path, StringType.class);
+		assertThat(values.stream().map(StringType::getValue).collect(Collectors.toList()), contains("Smith", "Jones"));
+		assertEquals(terser.getValues(patient, "Patient.name.family"), terser.getValues(patient, path));
+
+		path = terser.compilePath(Patient.class, "Patient.extension('http://foo').value[x]");
+		assertEquals("bar", ((StringType) terser.getSingleValueOrNull(patient, path, IBase.class)).getValue());
+
+		// Choice types
+		Observation obs = new Observation();
+		obs.setValue(new Quantity(123));
+		assertEquals("123", terser.getSingleValueOrNull(obs, terser.compilePath("Observation", "Observation.valueQuantity.value"), IPrimitiveType.class).getValueAsString());
+		assertNull(terser.getSingleValueOrNull(obs, terser.compilePath("Observation", "Observation.valueString"), IBase.class));
+		Parameters.ParametersParameterComponent param = new Parameters().addParameter().setValue(new CodeType("foo"));
+		assertEquals("foo", terser.getSingleValueOrNull(param, terser.compilePath(Parameters.ParametersParameterComponent.class, "value[x]"), IPrimitiveType.class).getValueAsString());
+
+		// Compiled paths can also be created for datatypes
+		path = terser.compilePath(Quantity.class, "value");
+		assertEquals("123", terser.getSingleValueOrNull(obs.getValueQuantity(), path, IPrimitiveType.class).getValueAsString());
+	}
+
+	@Test
+	public void testCompiledPath_Create() {
+		FhirTerser terser = myCtx.newTerser();
+		FhirTerser.CompiledPath path = terser.compilePath("Patient", "Patient.name.family");
+
+		Patient patient = new Patient();
+		terser.getValues(patient, path, StringType.class, true, false).get(0).setValue("Smith");
+		assertEquals("Smith", patient.getNameFirstRep().getFamily());
+	}
+
+	@Test
+	public void testCompiledPath_InvalidPath() {
+		FhirTerser terser = myCtx.newTerser();
+
+		// Invalid child names are only detected when the path is evaluated against an element
+		FhirTerser.CompiledPath path = terser.compilePath("Patient", "Patient.name.foo");
+		assertThat(terser.getValues(new Patient(), path), Matchers.empty());
+		try {
+			terser.getValues(new Patient().addName(new HumanName()), path);
+			fail();
+		} catch (DataFormatException e) {
+			assertThat(e.getMessage(), Matchers.startsWith(Msg.code(1700) + "Unknown child name 'foo' in element HumanName"));
+		}
+	}
+
+	@Test
+	public void testCompiledPath_WrongType() {
+		FhirTerser terser = myCtx.newTerser();
+		FhirTerser.CompiledPath path = terser.compilePath("Patient", "Patient.name.family");
+
+		try {
+			terser.getValues(new Observation(), path);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(Msg.code(2171) + "Path Patient.name.family was compiled for type Patient and can not be used with element of type org.hl7.fhir.r4.model.Observation", e.getMessage());
+		}
+	}
+
 	@Test
 	public void testAddElement() {
 		Patient patient = new Patient();
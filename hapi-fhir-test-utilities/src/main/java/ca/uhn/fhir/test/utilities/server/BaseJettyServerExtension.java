@@ -73,6 +73,7 @@ public abstract class BaseJettyServerExtension<T extends BaseJettyServerExtensio
 	private boolean myKeepAliveBetweenTests;
 	private String myContextPath = "";
 	private AtomicLong myConnectionsOpenedCounter;
+	private boolean myAsyncSupported;
 
 	@SuppressWarnings("unchecked")
 	public T withContextPath(String theContextPath) {
@@ -80,6 +81,15 @@ public abstract class BaseJettyServerExtension<T extends BaseJettyServerExtensio
 		return (T) this;
 	}
 
+	/**
+	 * Registers the servlet (and the request capturing filter) with async support enabled
+	 */
+	@SuppressWarnings("unchecked")
+	public T withAsyncSupported(boolean theAsyncSupported) {
+		myAsyncSupported = theAsyncSupported;
+		return (T) this;
+	}
+
 	/**
 	 * Returns the total number of connections that this server has received. This
 	 * is not the current number of open connections, it's the number of new
@@ -142,11 +152,14 @@ public abstract class BaseJettyServerExtension<T extends BaseJettyServerExtensio
 		});
 
 		ServletHolder servletHolder = new ServletHolder(provideServlet());
+		servletHolder.setAsyncSupported(myAsyncSupported);
 
 		ServletContextHandler contextHandler = new ServletContextHandler();
 		contextHandler.setContextPath(myContextPath);
 		contextHandler.addServlet(servletHolder, myServletPath);
-		contextHandler.addFilter(new FilterHolder(requestCapturingFilter()), "/*", EnumSet.allOf(DispatcherType.class));
+		FilterHolder filterHolder = new FilterHolder(requestCapturingFilter());
+		filterHolder.setAsyncSupported(myAsyncSupported);
+		contextHandler.addFilter(filterHolder, "/*", EnumSet.allOf(DispatcherType.class));
 
 //		myServer.setConnectors();
 
@@ -14,6 +14,9 @@ import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class FluentPathTest {
 
@@ -71,6 +74,53 @@ public class FluentPathTest {
 		}
 	}
 
+	@Test
+	public void testEvaluateParsedExpression() throws Exception {
+		Patient p = new Patient();
+		p.addName().setFamily("N1F1").addGiven("N1G1").addGiven("N1G2");
+		p.addName().setFamily("N2F1").addGiven("N2G1").addGiven("N2G2");
+
+		IFhirPath parser = ourCtx.newFhirPath();
+		IFhirPath.IParsedExpression parsed = parser.parseExpression("Patient.name.family");
+		assertSame(parsed, parser.parseExpression("Patient.name.family"));
+
+		// Parsed expressions can be evaluated by any instance
+		IFhirPath fp = ourCtx.newFhirPath();
+		List<StringType> families = fp.evaluate(p, parsed, StringType.class);
+		assertEquals(2, families.size());
+		assertEquals("N1F1", families.get(0).getValue());
+		assertEquals("N2F1", families.get(1).getValue());
+		assertEquals("N1F1", fp.evaluateFirst(p, parsed, StringType.class).orElseThrow().getValue());
+	}
+
+	@Test
+	public void testEvaluateParsedExpressionWrongType() throws Exception {
+		Patient p = new Patient();
+		p.addName().setFamily("N1F1");
+
+		IFhirPath fp = ourCtx.newFhirPath();
+		IFhirPath.IParsedExpression parsed = fp.parseExpression("Patient.name");
+		FhirPathExecutionException e = assertThrows(FhirPathExecutionException.class, () -> fp.evaluate(p, parsed, StringType.class));
+		assertEquals(Msg.code(608) + "FluentPath expression \"Patient.name\" returned unexpected type HumanName - Expected org.hl7.fhir.dstu3.model.StringType", e.getMessage());
+	}
+
+	@Test
+	public void testSharedFhirPathCachesParsedExpressions() throws Exception {
+		FhirContext ctx = FhirContext.forDstu3();
+		IFhirPath fp = ctx.getFhirPath();
+		assertSame(fp, ctx.getFhirPath());
+		assertSame(fp.parseExpression("Patient.name"), ctx.getFhirPath().parseExpression("Patient.name"));
+
+		ctx.setValidationSupport(ctx.getValidationSupport());
+		assertNotSame(fp, ctx.getFhirPath());
+	}
+
+	@Test
+	public void testEvaluateInvalidExpression() {
+		FhirPathExecutionException e = assertThrows(FhirPathExecutionException.class, () -> ourCtx.getFhirPath().evaluate(new Patient(), "Patient....nameFOO", StringType.class));
+		assertThat(e.getMessage(), containsString(Msg.code(2195)));
+	}
+
 	private static FhirContext ourCtx = FhirContext.forDstu3();
 
 	@AfterAll